@@ -0,0 +1,90 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import uk.gov.dwp.uc.pairtest.bulk.BulkOrderProcessor;
+import uk.gov.dwp.uc.pairtest.bulk.BulkResult;
+import uk.gov.dwp.uc.pairtest.bulk.OrderFileFormat;
+import uk.gov.dwp.uc.pairtest.calculation.CostCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.calculation.SeatCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.validation.TicketValidatorImpl;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time per order to process a file of a million mixed orders, about one in eight of them rejected,
+ * as the fork-join pool grows. Compare parallelism up to the machine's core count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BulkOrderBenchmark {
+
+    private static final int ORDERS = 1_000_000;
+
+    @Param({"CSV", "NDJSON"})
+    public OrderFileFormat format;
+
+    @Param({"1", "2", "4"})
+    public int parallelism;
+
+    private Path directory;
+    private Path orders;
+    private ForkJoinPool pool;
+    private BulkOrderProcessor processor;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("bulk-orders");
+        orders = directory.resolve(format == OrderFileFormat.CSV ? "orders.csv" : "orders.ndjson");
+        SplittableRandom random = new SplittableRandom(42);
+        try (BufferedWriter out = Files.newBufferedWriter(orders)) {
+            for (int i = 0; i < ORDERS; i++) {
+                long accountId = 1 + random.nextInt(1_000_000);
+                int adults = random.nextInt(8) == 0 ? 0 : 1 + random.nextInt(6);
+                int children = random.nextInt(4);
+                int infants = random.nextInt(Math.max(1, adults));
+                out.write(format == OrderFileFormat.CSV
+                    ? accountId + "," + adults + "," + children + "," + infants
+                    : "{\"accountId\": " + accountId + ", \"tickets\": {\"ADULT\": " + adults + ", \"CHILD\": " + children
+                        + ", \"INFANT\": " + infants + "}}");
+                out.newLine();
+            }
+        }
+        pool = new ForkJoinPool(parallelism);
+        processor = new BulkOrderProcessor(new TicketValidatorImpl(), new CostCalculatorImpl(), new SeatCalculatorImpl(),
+            pool, 1 << 20);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        pool.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public BulkResult process() throws IOException {
+        return processor.process(orders, format, directory.resolve("settlement.csv"), directory.resolve("rejections.csv"));
+    }
+}
@@ -0,0 +1,45 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import uk.gov.dwp.uc.pairtest.calculation.CostCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.calculation.SeatCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CalculatorBenchmark {
+
+    @Param
+    private OrderMix mix;
+
+    private CostCalculatorImpl costCalculator;
+    private SeatCalculatorImpl seatCalculator;
+    private TicketCounts counts;
+
+    @Setup
+    public void setUp() {
+        costCalculator = new CostCalculatorImpl();
+        seatCalculator = new SeatCalculatorImpl();
+        counts = TicketCounts.of(mix.requests());
+    }
+
+    @Benchmark
+    public int calculateCost() {
+        return costCalculator.calculate(counts);
+    }
+
+    @Benchmark
+    public int calculateSeats() {
+        return seatCalculator.calculate(counts);
+    }
+}
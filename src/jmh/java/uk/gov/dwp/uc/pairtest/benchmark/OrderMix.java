@@ -0,0 +1,45 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.ADULT;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.CHILD;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.INFANT;
+
+/**
+ * Valid orders of increasing size used as JMH @Param values.
+ */
+public enum OrderMix {
+    ONE_TICKET(
+        new TicketTypeRequest(ADULT, 1)),
+    THREE_TICKETS(
+        new TicketTypeRequest(ADULT, 1),
+        new TicketTypeRequest(CHILD, 1),
+        new TicketTypeRequest(INFANT, 1)),
+    TWENTY_FIVE_TICKETS(
+        new TicketTypeRequest(ADULT, 10),
+        new TicketTypeRequest(CHILD, 6),
+        new TicketTypeRequest(ADULT, 5),
+        new TicketTypeRequest(INFANT, 3),
+        new TicketTypeRequest(CHILD, 1));
+
+    private final TicketTypeRequest[] requests;
+
+    OrderMix(TicketTypeRequest... requests) {
+        this.requests = requests;
+    }
+
+    public TicketTypeRequest[] requests() {
+        return requests;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Valid {
+
+        @Param
+        public OrderMix mix;
+    }
+}
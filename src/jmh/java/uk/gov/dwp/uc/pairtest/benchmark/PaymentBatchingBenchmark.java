@@ -0,0 +1,58 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import uk.gov.dwp.uc.pairtest.payment.MicroBatchingPaymentService;
+import uk.gov.dwp.uc.pairtest.payment.SimulatedPaymentGateway;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Payments per second through a gateway charging 100µs per call over a single connection,
+ * one call per payment against micro-batches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(32)
+public class PaymentBatchingBenchmark {
+
+    @Param({"8", "32"})
+    public int maxBatchSize;
+
+    @Param({"50"})
+    public long maxWaitMicros;
+
+    private SimulatedPaymentGateway gateway;
+    private MicroBatchingPaymentService batching;
+
+    @Setup
+    public void setUp() {
+        gateway = new SimulatedPaymentGateway(Duration.ofNanos(100_000), 1);
+        batching = new MicroBatchingPaymentService(gateway, maxBatchSize, Duration.ofNanos(maxWaitMicros * 1_000));
+    }
+
+    @TearDown
+    public void tearDown() {
+        batching.close();
+    }
+
+    @Benchmark
+    public void unbatched() {
+        gateway.makePayment(1L, 25);
+    }
+
+    @Benchmark
+    public void batched() {
+        batching.makePayment(1L, 25);
+    }
+}
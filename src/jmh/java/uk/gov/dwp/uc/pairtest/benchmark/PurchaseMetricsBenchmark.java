@@ -0,0 +1,43 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.metrics.LockFreePurchaseMetrics;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseStage;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one recording call, single-threaded and with four threads contending on the same recorder.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PurchaseMetricsBenchmark {
+
+    private final LockFreePurchaseMetrics metrics = new LockFreePurchaseMetrics();
+    private long latency = 1;
+
+    @Benchmark
+    public void recordStage() {
+        latency = (latency * 31 + 7) & 0xFFFFF;
+        metrics.recordStage(PurchaseStage.RESERVE_SEAT, latency);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordStageContended() {
+        metrics.recordStage(PurchaseStage.RESERVE_SEAT, 1_234);
+    }
+
+    @Benchmark
+    public void recordRejection() {
+        metrics.recordRejection(RejectionReason.TOO_MANY_TICKETS);
+    }
+}
@@ -0,0 +1,52 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.gov.dwp.uc.pairtest.calculation.CostCalculator;
+import uk.gov.dwp.uc.pairtest.calculation.SeatCalculator;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
+import uk.gov.dwp.uc.pairtest.quote.QuoteEngine;
+import uk.gov.dwp.uc.pairtest.validation.TicketValidator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation + cost + seats for one order, answered from the precomputed quote table.
+ * Compare with TicketValidatorBenchmark and CalculatorBenchmark for the computed path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class QuoteEngineBenchmark {
+
+    @Param
+    private OrderMix mix;
+
+    private TicketValidator validator;
+    private CostCalculator costCalculator;
+    private SeatCalculator seatCalculator;
+    private TicketCounts counts;
+
+    @Setup
+    public void setUp() {
+        QuoteEngine quoteEngine = new QuoteEngine();
+        validator = quoteEngine.validator();
+        costCalculator = quoteEngine.costCalculator();
+        seatCalculator = quoteEngine.seatCalculator();
+        counts = TicketCounts.of(mix.requests());
+    }
+
+    @Benchmark
+    public void quote(Blackhole blackhole) {
+        blackhole.consume(validator.check(1L, counts));
+        blackhole.consume(costCalculator.calculate(counts));
+        blackhole.consume(seatCalculator.calculate(counts));
+    }
+}
@@ -0,0 +1,53 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.ADULT;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.CHILD;
+import static uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest.Type.INFANT;
+
+/**
+ * One order per validation rule, each failing exactly that rule.
+ */
+public enum RejectedOrder {
+    NULL_ACCOUNT(null,
+        new TicketTypeRequest(ADULT, 1)),
+    NON_POSITIVE_ACCOUNT(0L,
+        new TicketTypeRequest(ADULT, 1)),
+    NO_TICKETS(1L),
+    TOO_MANY_TICKETS(1L,
+        new TicketTypeRequest(ADULT, 20),
+        new TicketTypeRequest(CHILD, 6)),
+    UNACCOMPANIED_MINORS(1L,
+        new TicketTypeRequest(CHILD, 2),
+        new TicketTypeRequest(INFANT, 1)),
+    MORE_INFANTS_THAN_ADULTS(1L,
+        new TicketTypeRequest(ADULT, 1),
+        new TicketTypeRequest(INFANT, 2));
+
+    private final Long accountId;
+    private final TicketTypeRequest[] requests;
+
+    RejectedOrder(Long accountId, TicketTypeRequest... requests) {
+        this.accountId = accountId;
+        this.requests = requests;
+    }
+
+    public Long accountId() {
+        return accountId;
+    }
+
+    public TicketTypeRequest[] requests() {
+        return requests;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Rejected {
+
+        @Param
+        public RejectedOrder rejection;
+    }
+}
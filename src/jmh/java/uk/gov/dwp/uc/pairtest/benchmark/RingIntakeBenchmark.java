@@ -0,0 +1,70 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import thirdparty.paymentgateway.TicketPaymentServiceImpl;
+import thirdparty.seatbooking.SeatReservationServiceImpl;
+import uk.gov.dwp.uc.pairtest.PurchaseListener;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.calculation.CostCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.calculation.SeatCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.domain.PackedOrder;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.intake.IntakeOptions;
+import uk.gov.dwp.uc.pairtest.intake.RingBufferTicketService;
+import uk.gov.dwp.uc.pairtest.intake.WaitStrategy;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseMetrics;
+import uk.gov.dwp.uc.pairtest.validation.TicketValidatorImpl;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Purchases per second from concurrent callers through the ring, per wait strategy, against the same
+ * purchases run directly on the callers' threads by TicketServiceImpl. Busy-spinning only makes sense
+ * with a core each for the two stages on top of the callers'.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+public class RingIntakeBenchmark {
+
+    private static final long ORDER = PackedOrder.counts(2, 1, 0);
+
+    @Param({"BLOCKING", "SLEEPING", "YIELDING", "BUSY_SPIN"})
+    public WaitStrategy waitStrategy;
+
+    private RingBufferTicketService ring;
+    private TicketServiceImpl direct;
+
+    @Setup
+    public void setUp() {
+        ring = new RingBufferTicketService(new TicketPaymentServiceImpl(), new SeatReservationServiceImpl(),
+            new TicketValidatorImpl(), new CostCalculatorImpl(), new SeatCalculatorImpl(), PurchaseMetrics.NOOP,
+            PurchaseListener.NONE, IntakeOptions.DEFAULTS.withWaitStrategy(waitStrategy));
+        direct = new TicketServiceImpl(new TicketPaymentServiceImpl(), new SeatReservationServiceImpl());
+    }
+
+    @TearDown
+    public void tearDown() {
+        ring.close();
+    }
+
+    @Benchmark
+    public PurchaseResult ring() {
+        return ring.tryPurchase(1L, ORDER);
+    }
+
+    @Benchmark
+    public PurchaseResult direct() {
+        return direct.tryPurchase(1L, ORDER);
+    }
+}
@@ -0,0 +1,75 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import thirdparty.paymentgateway.TicketPaymentServiceImpl;
+import thirdparty.seatbooking.SeatReservationServiceImpl;
+import uk.gov.dwp.uc.pairtest.calculation.CostCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.calculation.SeatCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseMetrics;
+import uk.gov.dwp.uc.pairtest.show.PublicationPolicy;
+import uk.gov.dwp.uc.pairtest.show.ShardedShowTicketService;
+import uk.gov.dwp.uc.pairtest.validation.TicketValidatorImpl;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Availability reads running alongside purchases of the same shows, at the read-heavy ratio we see in
+ * production. Reads should cost the same whatever the staleness bound; a bound of 0 publishes after
+ * every pass of a shard's loop, so it shows the cost of publication on the purchase side.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ShowAvailabilityBenchmark {
+
+    private static final int SHOWS = 1024;
+    private static final TicketTypeRequest[] ORDER = OrderMix.THREE_TICKETS.requests();
+
+    @Param({"0", "5"})
+    public int stalenessMillis;
+
+    private ShardedShowTicketService service;
+
+    @Setup
+    public void setUp() {
+        service = new ShardedShowTicketService(new TicketPaymentServiceImpl(), new SeatReservationServiceImpl(),
+            new TicketValidatorImpl(), new CostCalculatorImpl(), new SeatCalculatorImpl(), 4, 4096, PurchaseMetrics.NOOP,
+            new PublicationPolicy(Duration.ofMillis(stalenessMillis), 1024));
+        for (long show = 0; show < SHOWS; show++) {
+            service.addShow(show, Integer.MAX_VALUE).join();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.close();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(7)
+    public int read() {
+        return service.availableSeats(ThreadLocalRandom.current().nextInt(SHOWS));
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public PurchaseResult purchase() {
+        return service.purchaseTickets(ThreadLocalRandom.current().nextInt(SHOWS), 1L, ORDER).join();
+    }
+}
@@ -0,0 +1,74 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import thirdparty.paymentgateway.TicketPaymentServiceImpl;
+import thirdparty.seatbooking.SeatReservationServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseMetrics;
+import uk.gov.dwp.uc.pairtest.show.ShardedShowTicketService;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Purchases per second spread over many shows as the shard count grows. Each invocation keeps a
+ * window of purchases in flight so the shards, not the callers, are the bottleneck. Compare shard
+ * counts up to the machine's core count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class ShowShardingBenchmark {
+
+    private static final int SHOWS = 1024;
+    private static final int WINDOW = 64;
+    private static final TicketTypeRequest[] ORDER = OrderMix.THREE_TICKETS.requests();
+
+    @Param({"1", "2", "4", "8"})
+    public int shards;
+
+    private ShardedShowTicketService service;
+
+    @Setup
+    public void setUp() {
+        service = new ShardedShowTicketService(new TicketPaymentServiceImpl(), new SeatReservationServiceImpl(),
+            shards, 4096, PurchaseMetrics.NOOP);
+        for (long show = 0; show < SHOWS; show++) {
+            service.addShow(show, Integer.MAX_VALUE).join();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WINDOW)
+    public PurchaseResult purchase() {
+        @SuppressWarnings("unchecked")
+        CompletableFuture<PurchaseResult>[] window = new CompletableFuture[WINDOW];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < WINDOW; i++) {
+            window[i] = service.purchaseTickets(random.nextInt(SHOWS), 1L, ORDER);
+        }
+        PurchaseResult last = null;
+        for (CompletableFuture<PurchaseResult> result : window) {
+            last = result.join();
+        }
+        return last;
+    }
+}
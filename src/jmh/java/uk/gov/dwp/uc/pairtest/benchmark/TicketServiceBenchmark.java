@@ -0,0 +1,58 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import thirdparty.paymentgateway.TicketPaymentServiceImpl;
+import thirdparty.seatbooking.SeatReservationServiceImpl;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end purchaseTickets against the no-op third-party services, plus the aggregation step on its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TicketServiceBenchmark {
+
+    private TicketServiceImpl ticketService;
+
+    @Setup
+    public void setUp() {
+        ticketService = new TicketServiceImpl(new TicketPaymentServiceImpl(), new SeatReservationServiceImpl());
+    }
+
+    @Benchmark
+    public TicketCounts aggregate(OrderMix.Valid order) {
+        return TicketCounts.of(order.mix.requests());
+    }
+
+    @Benchmark
+    public void purchaseValidOrder(OrderMix.Valid order) {
+        ticketService.purchaseTickets(1L, order.mix.requests());
+    }
+
+    @Benchmark
+    public InvalidPurchaseException purchaseRejectedOrder(RejectedOrder.Rejected order) {
+        try {
+            ticketService.purchaseTickets(order.rejection.accountId(), order.rejection.requests());
+            throw new IllegalStateException("Expected " + order.rejection + " to be rejected");
+        } catch (InvalidPurchaseException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public PurchaseResult tryPurchaseRejectedOrder(RejectedOrder.Rejected order) {
+        return ticketService.tryPurchase(order.rejection.accountId(), order.rejection.requests());
+    }
+}
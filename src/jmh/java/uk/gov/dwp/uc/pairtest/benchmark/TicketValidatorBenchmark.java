@@ -0,0 +1,76 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.validation.TicketValidatorImpl;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TicketValidatorBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ValidCounts {
+
+        @Param
+        public OrderMix mix;
+
+        TicketValidatorImpl validator;
+        TicketCounts counts;
+
+        @Setup
+        public void setUp() {
+            validator = new TicketValidatorImpl();
+            counts = TicketCounts.of(mix.requests());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class RejectedCounts {
+
+        @Param
+        public RejectedOrder rejection;
+
+        TicketValidatorImpl validator;
+        Long accountId;
+        TicketCounts counts;
+
+        @Setup
+        public void setUp() {
+            validator = new TicketValidatorImpl();
+            accountId = rejection.accountId();
+            counts = TicketCounts.of(rejection.requests());
+        }
+    }
+
+    @Benchmark
+    public TicketCounts validateValidOrder(ValidCounts state) {
+        state.validator.validate(1L, state.counts);
+        return state.counts;
+    }
+
+    @Benchmark
+    public InvalidPurchaseException validateRejectedOrder(RejectedCounts state) {
+        try {
+            state.validator.validate(state.accountId, state.counts);
+            throw new IllegalStateException("Expected " + state.rejection + " to be rejected");
+        } catch (InvalidPurchaseException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public RejectionReason checkRejectedOrder(RejectedCounts state) {
+        return state.validator.check(state.accountId, state.counts);
+    }
+}
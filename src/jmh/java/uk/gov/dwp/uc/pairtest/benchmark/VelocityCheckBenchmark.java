@@ -0,0 +1,41 @@
+package uk.gov.dwp.uc.pairtest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import uk.gov.dwp.uc.pairtest.velocity.VelocityChecker;
+import uk.gov.dwp.uc.pairtest.velocity.VelocityLimits;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a velocity check on the purchase path: spread over half a million accounts, more than the
+ * table holds, so some checks evict; and hammering one throttled account, which is rejected without a write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class VelocityCheckBenchmark {
+
+    private VelocityChecker checker;
+
+    @Setup
+    public void setUp() {
+        checker = new VelocityChecker(new VelocityLimits(5, 50, 20, 200), 1 << 18, System::nanoTime);
+    }
+
+    @Benchmark
+    public boolean manyAccounts() {
+        return checker.tryAcquire(1 + ThreadLocalRandom.current().nextInt(500_000), 3);
+    }
+
+    @Benchmark
+    public boolean throttledAccount() {
+        return checker.tryAcquire(42L, 3);
+    }
+}
@@ -0,0 +1,25 @@
+package uk.gov.dwp.uc.pairtest;
+
+import java.time.Duration;
+
+/**
+ * Per-call timeouts for the third-party services, and whether reservation and payment may run concurrently.
+ * Overlapping saves one round-trip but means a failure on either side has to be compensated on the other.
+ */
+public record AsyncPurchaseOptions(Duration reservationTimeout, Duration paymentTimeout, boolean overlapReservationAndPayment) {
+
+    public static final AsyncPurchaseOptions DEFAULTS = new AsyncPurchaseOptions(Duration.ofSeconds(5), Duration.ofSeconds(5), false);
+
+    public AsyncPurchaseOptions {
+        if (reservationTimeout == null || reservationTimeout.isNegative() || reservationTimeout.isZero()) {
+            throw new IllegalArgumentException("Reservation timeout must be positive");
+        }
+        if (paymentTimeout == null || paymentTimeout.isNegative() || paymentTimeout.isZero()) {
+            throw new IllegalArgumentException("Payment timeout must be positive");
+        }
+    }
+
+    public AsyncPurchaseOptions withOverlap(boolean overlap) {
+        return new AsyncPurchaseOptions(reservationTimeout, paymentTimeout, overlap);
+    }
+}
@@ -0,0 +1,15 @@
+package uk.gov.dwp.uc.pairtest;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncTicketService {
+
+    /**
+     * Validates on the calling thread, then runs the third-party calls without blocking it.
+     * The future fails with InvalidPurchaseException for rejected orders; cancelling it interrupts in-flight calls.
+     */
+    CompletableFuture<Void> purchaseTicketsAsync(Long accountId, TicketTypeRequest... ticketTypeRequests);
+
+}
@@ -0,0 +1,197 @@
+package uk.gov.dwp.uc.pairtest;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.calculation.CostCalculator;
+import uk.gov.dwp.uc.pairtest.calculation.CostCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.calculation.SeatCalculator;
+import uk.gov.dwp.uc.pairtest.calculation.SeatCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.compensation.LoggingPurchaseCompensator;
+import uk.gov.dwp.uc.pairtest.compensation.PurchaseCompensator;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.validation.TicketValidator;
+import uk.gov.dwp.uc.pairtest.validation.TicketValidatorImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs each third-party call on its own virtual thread, so thousands of purchases can be in flight
+ * without a matching number of platform threads.
+ */
+public class AsyncTicketServiceImpl implements AsyncTicketService, AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AsyncTicketServiceImpl.class);
+    
+    private final TicketPaymentService paymentService;
+    private final SeatReservationService seatService;
+    private final AsyncPurchaseOptions options;
+    private final PurchaseCompensator compensator;
+    private final TicketValidator validator;
+    private final CostCalculator costCalculator;
+    private final SeatCalculator seatCalculator;
+    private final ExecutorService executor;
+    
+    public AsyncTicketServiceImpl(TicketPaymentService paymentService, SeatReservationService seatService) {
+        this(paymentService, seatService, AsyncPurchaseOptions.DEFAULTS, new LoggingPurchaseCompensator());
+    }
+    
+    public AsyncTicketServiceImpl(TicketPaymentService paymentService, SeatReservationService seatService,
+                                  AsyncPurchaseOptions options, PurchaseCompensator compensator) {
+        this.paymentService = paymentService;
+        this.seatService = seatService;
+        this.options = options;
+        this.compensator = compensator;
+        this.validator = new TicketValidatorImpl();
+        this.costCalculator = new CostCalculatorImpl();
+        this.seatCalculator = new SeatCalculatorImpl();
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @Override
+    public CompletableFuture<Void> purchaseTicketsAsync(Long accountId, TicketTypeRequest... ticketTypeRequests) {
+        logger.info("Processing async ticket purchase for account: {}", accountId);
+        
+        TicketCounts ticketCounts = TicketCounts.of(ticketTypeRequests);
+        try {
+            validator.validate(accountId, ticketCounts);
+        } catch (InvalidPurchaseException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        
+        int totalCost = costCalculator.calculate(ticketCounts);
+        int totalSeats = seatCalculator.calculate(ticketCounts);
+        
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        if (options.overlapReservationAndPayment()) {
+            purchaseOverlapped(accountId, totalCost, totalSeats, result);
+        } else {
+            purchaseSequentially(accountId, totalCost, totalSeats, result);
+        }
+        return result;
+    }
+    
+    private void purchaseSequentially(long accountId, int totalCost, int totalSeats, CompletableFuture<Void> result) {
+        CompletableFuture<Void> reservation = reserveSeats(accountId, totalSeats);
+        cancelWith(result, reservation);
+        
+        reservation.whenComplete((ignored, reservationFailure) -> {
+            if (reservationFailure != null) {
+                if (PurchaseCompensator.isOutcomeUnknown(reservationFailure)) {
+                    compensator.releaseSeats(accountId, totalSeats);
+                }
+                fail(result, accountId, reservationFailure);
+                return;
+            }
+            CompletableFuture<Void> payment = makePayment(accountId, totalCost);
+            cancelWith(result, payment);
+            payment.whenComplete((alsoIgnored, paymentFailure) -> {
+                if (paymentFailure != null) {
+                    compensator.releaseSeats(accountId, totalSeats);
+                    if (PurchaseCompensator.isOutcomeUnknown(paymentFailure)) {
+                        compensator.refundPayment(accountId, totalCost);
+                    }
+                    fail(result, accountId, paymentFailure);
+                } else {
+                    succeed(result, accountId);
+                }
+            });
+        });
+    }
+    
+    private void purchaseOverlapped(long accountId, int totalCost, int totalSeats, CompletableFuture<Void> result) {
+        CompletableFuture<Void> reservation = reserveSeats(accountId, totalSeats);
+        CompletableFuture<Void> payment = makePayment(accountId, totalCost);
+        cancelWith(result, reservation);
+        cancelWith(result, payment);
+        
+        // Wait for both sides so we know exactly which one needs compensating
+        CompletableFuture.allOf(reservation, payment).whenComplete((ignored, failure) -> {
+            if (failure == null) {
+                succeed(result, accountId);
+                return;
+            }
+            Throwable reservationFailure = failureOf(reservation);
+            Throwable paymentFailure = failureOf(payment);
+            if (reservationFailure == null || PurchaseCompensator.isOutcomeUnknown(reservationFailure)) {
+                compensator.releaseSeats(accountId, totalSeats);
+            }
+            if (paymentFailure == null || PurchaseCompensator.isOutcomeUnknown(paymentFailure)) {
+                compensator.refundPayment(accountId, totalCost);
+            }
+            fail(result, accountId, reservationFailure != null ? reservationFailure : paymentFailure);
+        });
+    }
+    
+    private CompletableFuture<Void> reserveSeats(long accountId, int totalSeats) {
+        return callThirdParty(() -> seatService.reserveSeat(accountId, totalSeats), options.reservationTimeout());
+    }
+    
+    private CompletableFuture<Void> makePayment(long accountId, int totalCost) {
+        return callThirdParty(() -> paymentService.makePayment(accountId, totalCost), options.paymentTimeout());
+    }
+    
+    private CompletableFuture<Void> callThirdParty(Runnable call, Duration timeout) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> {
+            try {
+                call.run();
+                future.complete(null);
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        future.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        // Timed out or cancelled: interrupt the virtual thread still blocked in the third-party call
+        future.whenComplete((ignored, failure) -> {
+            if (failure != null) {
+                task.cancel(true);
+            }
+        });
+        return future;
+    }
+    
+    private static void cancelWith(CompletableFuture<Void> result, CompletableFuture<Void> call) {
+        result.whenComplete((ignored, failure) -> {
+            if (result.isCancelled()) {
+                call.cancel(true);
+            }
+        });
+    }
+    
+    private static Throwable failureOf(CompletableFuture<Void> future) {
+        try {
+            future.join();
+            return null;
+        } catch (CompletionException e) {
+            return e.getCause();
+        } catch (CancellationException e) {
+            return e;
+        }
+    }
+    
+    private static void succeed(CompletableFuture<Void> result, long accountId) {
+        logger.info("Successfully processed async ticket purchase for account: {}", accountId);
+        result.complete(null);
+    }
+    
+    private static void fail(CompletableFuture<Void> result, long accountId, Throwable failure) {
+        Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+        logger.warn("Async ticket purchase failed for account: {}", accountId, cause);
+        result.completeExceptionally(cause);
+    }
+    
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
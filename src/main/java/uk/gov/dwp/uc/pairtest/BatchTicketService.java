@@ -0,0 +1,16 @@
+package uk.gov.dwp.uc.pairtest;
+
+import uk.gov.dwp.uc.pairtest.domain.PurchaseOrder;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+
+import java.util.List;
+
+public interface BatchTicketService extends NonThrowingTicketService {
+
+    /**
+     * Validates every order, then makes at most one seat reservation and one payment per account
+     * for the orders that passed. Never throws for an individual order; results are in input order.
+     */
+    List<PurchaseResult> purchaseTicketsBatch(List<PurchaseOrder> orders);
+
+}
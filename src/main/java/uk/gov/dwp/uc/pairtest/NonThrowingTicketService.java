@@ -0,0 +1,14 @@
+package uk.gov.dwp.uc.pairtest;
+
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+public interface NonThrowingTicketService extends TicketService {
+
+    /**
+     * Same purchase as purchaseTickets, but rejections and third-party failures come back as a result
+     * instead of an exception, so invalid or retried orders don't pay for a stack trace.
+     */
+    PurchaseResult tryPurchase(Long accountId, TicketTypeRequest... ticketTypeRequests);
+
+}
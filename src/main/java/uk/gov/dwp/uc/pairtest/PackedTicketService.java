@@ -0,0 +1,20 @@
+package uk.gov.dwp.uc.pairtest;
+
+import uk.gov.dwp.uc.pairtest.domain.PackedOrder;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+
+/**
+ * Purchases taking the PackedOrder form straight off a queue or wire, without rebuilding
+ * TicketTypeRequests. A null account id is carried by PackedOrder.withoutAccount.
+ */
+public interface PackedTicketService extends NonThrowingTicketService {
+
+    void purchaseTickets(long accountId, long packedCounts) throws InvalidPurchaseException;
+
+    PurchaseResult tryPurchase(long accountId, long packedCounts);
+
+    static Long accountId(long accountId, long packedCounts) {
+        return PackedOrder.hasAccount(packedCounts) ? accountId : null;
+    }
+}
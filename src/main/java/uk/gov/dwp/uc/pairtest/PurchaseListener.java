@@ -0,0 +1,28 @@
+package uk.gov.dwp.uc.pairtest;
+
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
+
+@FunctionalInterface
+public interface PurchaseListener {
+
+    // showId of purchases made without a show, e.g. through TicketService
+    long NO_SHOW = 0;
+
+    PurchaseListener NONE = (accountId, ticketCounts, totalCost) -> { };
+
+    /**
+     * Called on the purchasing thread once an order's seats are reserved and paid for, once per order
+     * even when a batch settled several together. Must not throw: the purchase has already happened.
+     */
+    void purchased(long accountId, TicketCounts ticketCounts, int totalCost);
+
+    default void purchased(long showId, long accountId, TicketCounts ticketCounts, int totalCost) {
+        purchased(accountId, ticketCounts, totalCost);
+    }
+
+    // Turned down by validation or by a third party; accountId is null when the order had none
+    default void rejected(long showId, Long accountId, TicketCounts ticketCounts, RejectionReason reason) {
+    }
+
+}
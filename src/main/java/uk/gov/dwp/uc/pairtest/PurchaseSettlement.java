@@ -0,0 +1,111 @@
+package uk.gov.dwp.uc.pairtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.compensation.PurchaseCompensator;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.exception.TicketPurchaseException;
+import uk.gov.dwp.uc.pairtest.journal.PurchaseJournal;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseMetrics;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseStage;
+import uk.gov.dwp.uc.pairtest.metrics.ThirdPartyService;
+
+/**
+ * The third-party half of a purchase, shared by every ticket service once an order is validated and
+ * priced: reserve then pay, journaled so a crash in between can be compensated on restart.
+ *
+ * A third party that turns the purchase down or fails is compensated at once, so the purchase leaves
+ * the journal's open set: seats are released if they were or may have been reserved, and a payment is
+ * refunded only if its outcome is unknown; one refused or failed outright took nothing. If the journal
+ * (or a compensation) fails, the purchase fails and stays open for recovery to compensate.
+ * Thread-safe if the services, journal and compensator are.
+ */
+public final class PurchaseSettlement {
+
+    private static final Logger logger = LoggerFactory.getLogger(PurchaseSettlement.class);
+
+    private final TicketPaymentService paymentService;
+    private final SeatReservationService seatService;
+    private final PurchaseMetrics metrics;
+    private final PurchaseJournal journal;
+    private final PurchaseCompensator compensator;
+
+    public PurchaseSettlement(TicketPaymentService paymentService, SeatReservationService seatService,
+                              PurchaseMetrics metrics, PurchaseJournal journal, PurchaseCompensator compensator) {
+        this.paymentService = paymentService;
+        this.seatService = seatService;
+        this.metrics = metrics;
+        this.journal = journal;
+        this.compensator = compensator;
+    }
+
+    // Null once the seats are reserved and paid for, otherwise the result to report; never throws
+    public PurchaseResult settle(long accountId, int totalCost, int totalSeats) {
+        try {
+            long purchaseId = journal.begin(accountId, totalCost, totalSeats);
+            PurchaseResult failure = reserveSeats(accountId, totalSeats);
+            if (failure != null) {
+                if (isOutcomeUnknown(failure)) {
+                    compensator.releaseSeats(accountId, totalSeats);
+                }
+                journal.compensated(purchaseId);
+                return failure;
+            }
+            journal.reserved(purchaseId);
+            failure = makePayment(accountId, totalCost);
+            if (failure == null) {
+                journal.paid(purchaseId);
+                return null;
+            }
+            if (isOutcomeUnknown(failure)) {
+                compensator.refundPayment(accountId, totalCost);
+            }
+            compensator.releaseSeats(accountId, totalSeats);
+            journal.compensated(purchaseId);
+            return failure;
+        } catch (RuntimeException e) {
+            logger.error("Purchase journal failed for account: {}", accountId, e);
+            return new PurchaseResult.Failed(e);
+        }
+    }
+
+    private static boolean isOutcomeUnknown(PurchaseResult failure) {
+        return failure instanceof PurchaseResult.Failed failed && PurchaseCompensator.isOutcomeUnknown(failed.cause());
+    }
+
+    // Each returns null on success, or the result to report when the third party turned the purchase down or failed
+    private PurchaseResult reserveSeats(long accountId, int totalSeats) {
+        long start = System.nanoTime();
+        try {
+            seatService.reserveSeat(accountId, totalSeats);
+            return null;
+        } catch (TicketPurchaseException e) {
+            // Rejected downstream of validation, e.g. the show sold out
+            metrics.recordRejection(e.getReason());
+            return PurchaseResult.Rejected.of(e);
+        } catch (RuntimeException e) {
+            metrics.recordThirdPartyFailure(ThirdPartyService.SEAT_RESERVATION);
+            return new PurchaseResult.Failed(e);
+        } finally {
+            metrics.recordStage(PurchaseStage.RESERVE_SEAT, System.nanoTime() - start);
+        }
+    }
+
+    private PurchaseResult makePayment(long accountId, int totalCost) {
+        long start = System.nanoTime();
+        try {
+            paymentService.makePayment(accountId, totalCost);
+            return null;
+        } catch (TicketPurchaseException e) {
+            metrics.recordRejection(e.getReason());
+            return PurchaseResult.Rejected.of(e);
+        } catch (RuntimeException e) {
+            metrics.recordThirdPartyFailure(ThirdPartyService.PAYMENT);
+            return new PurchaseResult.Failed(e);
+        } finally {
+            metrics.recordStage(PurchaseStage.MAKE_PAYMENT, System.nanoTime() - start);
+        }
+    }
+}
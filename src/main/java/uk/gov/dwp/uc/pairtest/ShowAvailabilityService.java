@@ -0,0 +1,13 @@
+package uk.gov.dwp.uc.pairtest;
+
+public interface ShowAvailabilityService {
+
+    int NOT_ON_SALE = -1;
+
+    /**
+     * Seats left for one screening as of the last published snapshot, or NOT_ON_SALE. Never blocks or
+     * waits for purchases, so the answer can lag them by up to the publication staleness bound.
+     */
+    int availableSeats(long showId);
+
+}
@@ -0,0 +1,17 @@
+package uk.gov.dwp.uc.pairtest;
+
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface ShowTicketService {
+
+    /**
+     * Purchases tickets for one screening. Never completes exceptionally: rejections and third-party
+     * failures come back as the PurchaseResult. The future may be completed on the thread that owns the
+     * show, so chain anything slow with the *Async variants.
+     */
+    CompletableFuture<PurchaseResult> purchaseTickets(long showId, Long accountId, TicketTypeRequest... ticketTypeRequests);
+
+}
@@ -2,8 +2,18 @@ package uk.gov.dwp.uc.pairtest;
 
 import thirdparty.paymentgateway.TicketPaymentService;
 import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.compensation.LoggingPurchaseCompensator;
+import uk.gov.dwp.uc.pairtest.compensation.PurchaseCompensator;
+import uk.gov.dwp.uc.pairtest.domain.PackedOrder;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseOrder;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
 import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
 import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.journal.PurchaseJournal;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseMetrics;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseStage;
 import uk.gov.dwp.uc.pairtest.validation.TicketValidator;
 import uk.gov.dwp.uc.pairtest.validation.TicketValidatorImpl;
 import uk.gov.dwp.uc.pairtest.calculation.CostCalculator;
@@ -12,51 +22,213 @@ import uk.gov.dwp.uc.pairtest.calculation.SeatCalculator;
 import uk.gov.dwp.uc.pairtest.calculation.SeatCalculatorImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
-public class TicketServiceImpl implements TicketService {
+public class TicketServiceImpl implements BatchTicketService, PackedTicketService {
     
     private static final Logger logger = LoggerFactory.getLogger(TicketServiceImpl.class);
     
-    private final TicketPaymentService paymentService;
-    private final SeatReservationService seatService;
     private final TicketValidator validator;
     private final CostCalculator costCalculator;
     private final SeatCalculator seatCalculator;
+    private final PurchaseMetrics metrics;
+    private final PurchaseListener listener;
+    private final PurchaseSettlement settlement;
     
     public TicketServiceImpl(TicketPaymentService paymentService, SeatReservationService seatService) {
-        this.paymentService = paymentService;
-        this.seatService = seatService;
-        this.validator = new TicketValidatorImpl();
-        this.costCalculator = new CostCalculatorImpl();
-        this.seatCalculator = new SeatCalculatorImpl();
+        this(paymentService, seatService, PurchaseMetrics.NOOP);
+    }
+    
+    public TicketServiceImpl(TicketPaymentService paymentService, SeatReservationService seatService, PurchaseMetrics metrics) {
+        this(paymentService, seatService, new TicketValidatorImpl(), new CostCalculatorImpl(), new SeatCalculatorImpl(), metrics);
+    }
+    
+    public TicketServiceImpl(TicketPaymentService paymentService, SeatReservationService seatService,
+                             TicketValidator validator, CostCalculator costCalculator, SeatCalculator seatCalculator) {
+        this(paymentService, seatService, validator, costCalculator, seatCalculator, PurchaseMetrics.NOOP);
+    }
+    
+    public TicketServiceImpl(TicketPaymentService paymentService, SeatReservationService seatService,
+                             TicketValidator validator, CostCalculator costCalculator, SeatCalculator seatCalculator,
+                             PurchaseMetrics metrics) {
+        this(paymentService, seatService, validator, costCalculator, seatCalculator, metrics, PurchaseJournal.DISABLED);
+    }
+    
+    public TicketServiceImpl(TicketPaymentService paymentService, SeatReservationService seatService,
+                             TicketValidator validator, CostCalculator costCalculator, SeatCalculator seatCalculator,
+                             PurchaseMetrics metrics, PurchaseJournal journal) {
+        this(paymentService, seatService, validator, costCalculator, seatCalculator, metrics, journal, PurchaseListener.NONE);
+    }
+    
+    public TicketServiceImpl(TicketPaymentService paymentService, SeatReservationService seatService,
+                             TicketValidator validator, CostCalculator costCalculator, SeatCalculator seatCalculator,
+                             PurchaseMetrics metrics, PurchaseJournal journal, PurchaseListener listener) {
+        this(paymentService, seatService, validator, costCalculator, seatCalculator, metrics, journal, listener,
+            new LoggingPurchaseCompensator());
+    }
+    
+    public TicketServiceImpl(TicketPaymentService paymentService, SeatReservationService seatService,
+                             TicketValidator validator, CostCalculator costCalculator, SeatCalculator seatCalculator,
+                             PurchaseMetrics metrics, PurchaseJournal journal, PurchaseListener listener,
+                             PurchaseCompensator compensator) {
+        this.validator = validator;
+        this.costCalculator = costCalculator;
+        this.seatCalculator = seatCalculator;
+        this.metrics = metrics;
+        this.listener = listener;
+        this.settlement = new PurchaseSettlement(paymentService, seatService, metrics, journal, compensator);
     }
 
     @Override
     public void purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests) throws InvalidPurchaseException {
+        long start = System.nanoTime();
+        TicketCounts ticketCounts = TicketCounts.of(ticketTypeRequests);
+        throwIfUnsuccessful(purchase(accountId, ticketCounts, start), ticketCounts);
+    }
+
+    @Override
+    public void purchaseTickets(long accountId, long packedCounts) throws InvalidPurchaseException {
+        long start = System.nanoTime();
+        TicketCounts ticketCounts = PackedOrder.unpack(packedCounts);
+        throwIfUnsuccessful(purchase(PackedTicketService.accountId(accountId, packedCounts), ticketCounts, start), ticketCounts);
+    }
+
+    @Override
+    public PurchaseResult tryPurchase(Long accountId, TicketTypeRequest... ticketTypeRequests) {
+        long start = System.nanoTime();
+        return purchase(accountId, TicketCounts.of(ticketTypeRequests), start);
+    }
+
+    @Override
+    public PurchaseResult tryPurchase(long accountId, long packedCounts) {
+        long start = System.nanoTime();
+        return purchase(PackedTicketService.accountId(accountId, packedCounts), PackedOrder.unpack(packedCounts), start);
+    }
+
+    private void throwIfUnsuccessful(PurchaseResult result, TicketCounts ticketCounts) {
+        switch (result) {
+            case PurchaseResult.Success success -> { }
+            case PurchaseResult.Rejected rejected -> throw rejected.cause() != null ? rejected.cause()
+                : validator.rejection(rejected.reason(), ticketCounts);
+            case PurchaseResult.Failed failed -> throw failed.cause();
+        }
+    }
+
+    // start is when aggregation into ticketCounts began
+    private PurchaseResult purchase(Long accountId, TicketCounts ticketCounts, long start) {
+        long aggregated = System.nanoTime();
+        metrics.recordStage(PurchaseStage.AGGREGATION, aggregated - start);
         logger.info("Processing ticket purchase for account: {}", accountId);
         
-        // Traverse ticket requests once and store counts in map to avoid multiple iterations
-        Map<TicketTypeRequest.Type, Integer> ticketCounts = Arrays.stream(ticketTypeRequests)
-            .filter(request -> request != null && request.getNoOfTickets() > 0)
-            .collect(Collectors.groupingBy(
-                TicketTypeRequest::getTicketType,
-                Collectors.summingInt(TicketTypeRequest::getNoOfTickets)
-            ));
-        
-        validator.validate(accountId, ticketCounts);
+        RejectionReason reason = validator.check(accountId, ticketCounts);
+        long validated = System.nanoTime();
+        metrics.recordStage(PurchaseStage.VALIDATION, validated - aggregated);
+        if (reason != null) {
+            metrics.recordRejection(reason);
+            listener.rejected(PurchaseListener.NO_SHOW, accountId, ticketCounts, reason);
+            return PurchaseResult.Rejected.of(reason);
+        }
         
         int totalCost = costCalculator.calculate(ticketCounts);
+        long costed = System.nanoTime();
+        metrics.recordStage(PurchaseStage.COST, costed - validated);
+        
         int totalSeats = seatCalculator.calculate(ticketCounts);
+        metrics.recordStage(PurchaseStage.SEATS, System.nanoTime() - costed);
         
-        logger.debug("Calculated cost: £{}, seats: {}", totalCost, totalSeats);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Calculated cost: £{}, seats: {}", totalCost, totalSeats);
+        }
         
-        seatService.reserveSeat(accountId, totalSeats);
-        paymentService.makePayment(accountId, totalCost);
+        PurchaseResult failure = settlement.settle(accountId, totalCost, totalSeats);
+        if (failure != null) {
+            if (failure instanceof PurchaseResult.Rejected rejected) {
+                listener.rejected(PurchaseListener.NO_SHOW, accountId, ticketCounts, rejected.reason());
+            }
+            return failure;
+        }
         
+        metrics.recordPurchase();
+        listener.purchased(accountId, ticketCounts, totalCost);
         logger.info("Successfully processed ticket purchase for account: {}", accountId);
+        return new PurchaseResult.Success(accountId, totalCost, totalSeats);
+    }
+
+    @Override
+    public List<PurchaseResult> purchaseTicketsBatch(List<PurchaseOrder> orders) {
+        logger.info("Processing batch of {} ticket purchases", orders.size());
+        
+        PurchaseResult[] results = new PurchaseResult[orders.size()];
+        int[] orderCosts = new int[orders.size()];
+        int[] orderSeats = new int[orders.size()];
+        TicketCounts[] orderCounts = new TicketCounts[orders.size()];
+        
+        // Validate and price every order first, grouping the accepted ones by account
+        Map<Long, AccountBatch> accountBatches = new LinkedHashMap<>();
+        for (int i = 0; i < orders.size(); i++) {
+            PurchaseOrder order = orders.get(i);
+            if (order == null) {
+                metrics.recordRejection(RejectionReason.MISSING_ORDER);
+                listener.rejected(PurchaseListener.NO_SHOW, null, null, RejectionReason.MISSING_ORDER);
+                results[i] = PurchaseResult.Rejected.of(RejectionReason.MISSING_ORDER);
+                continue;
+            }
+            TicketCounts ticketCounts = TicketCounts.of(order.ticketTypeRequests());
+            RejectionReason reason = validator.check(order.accountId(), ticketCounts);
+            if (reason != null) {
+                metrics.recordRejection(reason);
+                listener.rejected(PurchaseListener.NO_SHOW, order.accountId(), ticketCounts, reason);
+                results[i] = PurchaseResult.Rejected.of(reason);
+                continue;
+            }
+            orderCounts[i] = ticketCounts;
+            orderCosts[i] = costCalculator.calculate(ticketCounts);
+            orderSeats[i] = seatCalculator.calculate(ticketCounts);
+            accountBatches.computeIfAbsent(order.accountId(), AccountBatch::new)
+                .add(i, orderCosts[i], orderSeats[i]);
+        }
+        
+        // One reservation and one payment per account; a third-party failure only fails that account's orders
+        for (AccountBatch batch : accountBatches.values()) {
+            PurchaseResult failure = settlement.settle(batch.accountId, batch.totalCost, batch.totalSeats);
+            if (failure instanceof PurchaseResult.Failed failed) {
+                logger.warn("Batch purchase failed for account: {}", batch.accountId, failed.cause());
+            }
+            for (int index : batch.orderIndexes) {
+                if (failure == null) {
+                    metrics.recordPurchase();
+                    listener.purchased(batch.accountId, orderCounts[index], orderCosts[index]);
+                } else if (failure instanceof PurchaseResult.Rejected rejected) {
+                    listener.rejected(PurchaseListener.NO_SHOW, batch.accountId, orderCounts[index], rejected.reason());
+                }
+                results[index] = failure != null
+                    ? failure
+                    : new PurchaseResult.Success(batch.accountId, orderCosts[index], orderSeats[index]);
+            }
+        }
+        
+        logger.info("Processed batch of {} ticket purchases across {} accounts", orders.size(), accountBatches.size());
+        return List.of(results);
+    }
+
+    private static final class AccountBatch {
+        private final long accountId;
+        private final List<Integer> orderIndexes = new ArrayList<>();
+        private int totalCost;
+        private int totalSeats;
+        
+        private AccountBatch(long accountId) {
+            this.accountId = accountId;
+        }
+        
+        private void add(int orderIndex, int cost, int seats) {
+            orderIndexes.add(orderIndex);
+            totalCost += cost;
+            totalSeats += seats;
+        }
     }
 
 }
@@ -0,0 +1,314 @@
+package uk.gov.dwp.uc.pairtest.bulk;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.dwp.uc.pairtest.calculation.CostCalculator;
+import uk.gov.dwp.uc.pairtest.calculation.CostCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.calculation.SeatCalculator;
+import uk.gov.dwp.uc.pairtest.calculation.SeatCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
+import uk.gov.dwp.uc.pairtest.validation.TicketValidator;
+import uk.gov.dwp.uc.pairtest.validation.TicketValidatorImpl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Validates and prices a partner's order file in bulk, with the same rules and prices as a purchase
+ * through TicketServiceImpl, and writes two CSV reports:
+ * <pre>
+ * settlement  line,accountId,adults,children,infants,totalCost,totalSeats   one per accepted order
+ * rejections  line,accountId,reason                                       reason is a RejectionReason or MALFORMED_RECORD
+ * </pre>
+ * Both are in file order and identify orders by their line number in the file. No third party is
+ * called; the settlement file is what gets reserved and paid for afterwards.
+ *
+ * The file is split at line breaks into chunks of about chunkBytes, each memory-mapped and parsed in
+ * place, so no line becomes a String. Chunks are handled a wave at a time on a fork-join pool: the
+ * wave's lines are counted in parallel to number them, then validated and priced in parallel, each
+ * chunk into its own output buffers, which are written out in order before the next wave. Only the
+ * writing is sequential, and memory stays at a wave's worth of output whatever the file size.
+ */
+public class BulkOrderProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkOrderProcessor.class);
+
+    private static final int DEFAULT_CHUNK_BYTES = 1 << 23;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final byte[] SETTLEMENT_HEADER = ByteSink.ascii("line,accountId,adults,children,infants,totalCost,totalSeats\n");
+    private static final byte[] REJECTION_HEADER = ByteSink.ascii("line,accountId,reason\n");
+    private static final byte[] MALFORMED_RECORD = ByteSink.ascii("MALFORMED_RECORD");
+    private static final byte[][] REASONS = Arrays.stream(RejectionReason.values())
+        .map(reason -> ByteSink.ascii(reason.name()))
+        .toArray(byte[][]::new);
+
+    private final TicketValidator validator;
+    private final CostCalculator costCalculator;
+    private final SeatCalculator seatCalculator;
+    private final ForkJoinPool pool;
+    private final int chunkBytes;
+
+    public BulkOrderProcessor() {
+        this(new TicketValidatorImpl(), new CostCalculatorImpl(), new SeatCalculatorImpl(), ForkJoinPool.commonPool(),
+            DEFAULT_CHUNK_BYTES);
+    }
+
+    // The validator and calculators are shared by every worker of the pool, so must be thread-safe
+    public BulkOrderProcessor(TicketValidator validator, CostCalculator costCalculator, SeatCalculator seatCalculator,
+                              ForkJoinPool pool, int chunkBytes) {
+        if (chunkBytes <= 0) {
+            throw new IllegalArgumentException("Chunk size must be greater than 0");
+        }
+        this.validator = validator;
+        this.costCalculator = costCalculator;
+        this.seatCalculator = seatCalculator;
+        this.pool = pool;
+        this.chunkBytes = chunkBytes;
+    }
+
+    public BulkResult process(Path orders, Path settlement, Path rejections) throws IOException {
+        return process(orders, OrderFileFormat.of(orders), settlement, rejections);
+    }
+
+    // Replaces the report files if they exist
+    public BulkResult process(Path orders, OrderFileFormat format, Path settlement, Path rejections) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel in = FileChannel.open(orders, StandardOpenOption.READ);
+             FileChannel settled = create(settlement);
+             FileChannel rejected = create(rejections)) {
+            settled.write(ByteBuffer.wrap(SETTLEMENT_HEADER));
+            rejected.write(ByteBuffer.wrap(REJECTION_HEADER));
+            long[] bounds = chunkBounds(in);
+            int chunkCount = bounds.length - 1;
+            Chunk[] wave = new Chunk[Math.min(chunkCount, pool.getParallelism() * CHUNKS_PER_THREAD)];
+            for (int i = 0; i < wave.length; i++) {
+                wave[i] = new Chunk(format);
+            }
+            Totals totals = new Totals();
+            long nextLine = 1;
+            for (int first = 0; first < chunkCount; first += wave.length) {
+                int count = Math.min(wave.length, chunkCount - first);
+                for (int i = 0; i < count; i++) {
+                    wave[i].map(in, bounds[first + i], bounds[first + i + 1]);
+                }
+                pool.invoke(new ChunkTask(0, count, i -> wave[i].countLines()));
+                for (int i = 0; i < count; i++) {
+                    wave[i].firstLine = nextLine;
+                    nextLine += wave[i].lines;
+                }
+                pool.invoke(new ChunkTask(0, count, i -> wave[i].process()));
+                for (int i = 0; i < count; i++) {
+                    wave[i].settlement.writeTo(settled);
+                    wave[i].rejections.writeTo(rejected);
+                    totals.add(wave[i]);
+                }
+            }
+            BulkResult result = totals.result();
+            logger.info("Processed {} orders from {} in {}ms: {} accepted, {} rejected, {} malformed", result.orders(),
+                orders.getFileName(), (System.nanoTime() - start) / 1_000_000, result.accepted(), result.rejected(),
+                result.malformed());
+            return result;
+        }
+    }
+
+    private static FileChannel create(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+
+    // Chunk start offsets and the file size; every chunk but the last ends just after a line break
+    private long[] chunkBounds(FileChannel in) throws IOException {
+        long size = in.size();
+        long[] bounds = new long[(int) Math.min(Integer.MAX_VALUE - 1, size / chunkBytes + 2)];
+        int count = 1;
+        ByteBuffer scan = ByteBuffer.allocate(8192);
+        for (long start = 0; start < size; ) {
+            long end = start + chunkBytes >= size ? size : lineStartAfter(in, start + chunkBytes - 1, size, scan);
+            if (end - start > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Order file has a line longer than " + Integer.MAX_VALUE + " bytes");
+            }
+            if (count == bounds.length) {
+                bounds = Arrays.copyOf(bounds, bounds.length * 2);
+            }
+            bounds[count++] = end;
+            start = end;
+        }
+        return Arrays.copyOf(bounds, count);
+    }
+
+    // Offset just past the first line break at or after from, or size if there is none
+    private static long lineStartAfter(FileChannel in, long from, long size, ByteBuffer scan) throws IOException {
+        for (long position = from; position < size; ) {
+            scan.clear();
+            int read = in.read(scan, position);
+            for (int i = 0; i < read; i++) {
+                if (scan.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    // Splits a range of the wave's chunks in halves until each task has one
+    private static final class ChunkTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final IntConsumer action;
+
+        private ChunkTask(int from, int to, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                action.accept(from);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ChunkTask(from, middle, action), new ChunkTask(middle, to, action));
+        }
+    }
+
+    // One mapped range of the file and its share of the output; reused for the next wave
+    private final class Chunk {
+        private final OrderParser parser;
+        private final boolean csv;
+        private final ByteSink settlement = new ByteSink();
+        private final ByteSink rejections = new ByteSink();
+        private MappedByteBuffer buffer;
+        private long firstLine;
+        private long lines;
+        private long orders;
+        private long accepted;
+        private long rejected;
+        private long malformed;
+        private long totalCost;
+        private long totalSeats;
+
+        private Chunk(OrderFileFormat format) {
+            this.parser = new OrderParser(format);
+            this.csv = format == OrderFileFormat.CSV;
+        }
+
+        private void map(FileChannel in, long start, long end) throws IOException {
+            buffer = in.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            settlement.clear();
+            rejections.clear();
+            lines = 0;
+            orders = 0;
+            accepted = 0;
+            rejected = 0;
+            malformed = 0;
+            totalCost = 0;
+            totalSeats = 0;
+        }
+
+        // A final line without a line break still counts
+        private void countLines() {
+            int limit = buffer.limit();
+            long count = 0;
+            for (int i = 0; i < limit; i++) {
+                if (buffer.get(i) == '\n') {
+                    count++;
+                }
+            }
+            lines = limit > 0 && buffer.get(limit - 1) != '\n' ? count + 1 : count;
+        }
+
+        private void process() {
+            int limit = buffer.limit();
+            long line = firstLine;
+            for (int start = 0; start < limit; line++) {
+                int end = start;
+                while (end < limit && buffer.get(end) != '\n') {
+                    end++;
+                }
+                int contentEnd = end > start && buffer.get(end - 1) == '\r' ? end - 1 : end;
+                order(line, start, contentEnd);
+                start = end + 1;
+            }
+        }
+
+        private void order(long line, int start, int end) {
+            if (isBlank(start, end) || (line == 1 && csv && isLetter(buffer.get(start)))) {
+                return;
+            }
+            orders++;
+            if (!parser.parse(buffer, start, end)) {
+                malformed++;
+                rejections.append(line).append((byte) ',').append((byte) ',').append(MALFORMED_RECORD).append((byte) '\n');
+                return;
+            }
+            Long accountId = parser.hasAccount ? parser.accountId : null;
+            TicketCounts ticketCounts = new TicketCounts(parser.adults, parser.children, parser.infants);
+            RejectionReason reason = validator.check(accountId, ticketCounts);
+            if (reason != null) {
+                rejected++;
+                rejections.append(line).append((byte) ',');
+                if (accountId != null) {
+                    rejections.append(accountId);
+                }
+                rejections.append((byte) ',').append(REASONS[reason.ordinal()]).append((byte) '\n');
+                return;
+            }
+            int cost = costCalculator.calculate(ticketCounts);
+            int seats = seatCalculator.calculate(ticketCounts);
+            accepted++;
+            totalCost += cost;
+            totalSeats += seats;
+            settlement.append(line).append((byte) ',').append(parser.accountId).append((byte) ',')
+                .append(ticketCounts.adults()).append((byte) ',').append(ticketCounts.children()).append((byte) ',')
+                .append(ticketCounts.infants()).append((byte) ',').append(cost).append((byte) ',').append(seats)
+                .append((byte) '\n');
+        }
+
+        private boolean isBlank(int start, int end) {
+            for (int i = start; i < end; i++) {
+                byte c = buffer.get(i);
+                if (c != ' ' && c != '\t') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isLetter(byte c) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+        }
+    }
+
+    private static final class Totals {
+        private long orders;
+        private long accepted;
+        private long rejected;
+        private long malformed;
+        private long totalCost;
+        private long totalSeats;
+
+        private void add(Chunk chunk) {
+            orders += chunk.orders;
+            accepted += chunk.accepted;
+            rejected += chunk.rejected;
+            malformed += chunk.malformed;
+            totalCost += chunk.totalCost;
+            totalSeats += chunk.totalSeats;
+        }
+
+        private BulkResult result() {
+            return new BulkResult(orders, accepted, rejected, malformed, totalCost, totalSeats);
+        }
+    }
+}
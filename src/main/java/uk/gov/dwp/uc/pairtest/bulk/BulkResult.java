@@ -0,0 +1,8 @@
+package uk.gov.dwp.uc.pairtest.bulk;
+
+/**
+ * Totals of one order file. Every order is accepted, rejected by validation or malformed; totalCost
+ * and totalSeats cover the accepted ones, as written to the settlement file.
+ */
+public record BulkResult(long orders, long accepted, long rejected, long malformed, long totalCost, long totalSeats) {
+}
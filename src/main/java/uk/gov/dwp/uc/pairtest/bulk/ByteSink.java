@@ -0,0 +1,73 @@
+package uk.gov.dwp.uc.pairtest.bulk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Growable ASCII output buffer for one chunk's report lines; numbers are formatted straight into it
+final class ByteSink {
+
+    private byte[] bytes = new byte[1 << 16];
+    private int size;
+
+    static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    ByteSink append(byte value) {
+        ensure(1);
+        bytes[size++] = value;
+        return this;
+    }
+
+    ByteSink append(byte[] text) {
+        ensure(text.length);
+        System.arraycopy(text, 0, bytes, size, text.length);
+        size += text.length;
+        return this;
+    }
+
+    // Worked in negatives so Long.MIN_VALUE needs no special case
+    ByteSink append(long value) {
+        ensure(20);
+        if (value < 0) {
+            bytes[size++] = '-';
+        } else {
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+        int end = size + digits;
+        for (int position = end - 1; position >= size; position--) {
+            bytes[position] = (byte) ('0' - value % 10);
+            value /= 10;
+        }
+        size = end;
+        return this;
+    }
+
+    void writeTo(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, size);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+        }
+    }
+}
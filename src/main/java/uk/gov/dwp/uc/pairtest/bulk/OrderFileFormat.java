@@ -0,0 +1,29 @@
+package uk.gov.dwp.uc.pairtest.bulk;
+
+import java.nio.file.Path;
+
+/**
+ * Layouts of a partner order file, one order per line:
+ * <pre>
+ * CSV     accountId,adults,children,infants      e.g. 17,2,1,0
+ * NDJSON  the purchase request JSON of the HTTP API, e.g. {"accountId": 17, "tickets": {"ADULT": 2, "CHILD": 1}}
+ * </pre>
+ * An empty CSV account id or count means no account id or none of that type, and a first CSV line
+ * starting with a letter is a header. Blank lines are skipped in both.
+ */
+public enum OrderFileFormat {
+    CSV,
+    NDJSON;
+
+    // By extension: .csv, or .ndjson / .jsonl
+    public static OrderFileFormat of(Path file) {
+        String name = file.getFileName().toString().toLowerCase();
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Unknown order file type: " + file.getFileName());
+    }
+}
@@ -0,0 +1,306 @@
+package uk.gov.dwp.uc.pairtest.bulk;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Parses one order line in place in a mapped buffer into the fields below, which are overwritten by
+ * the next line, so parsing allocates nothing. NDJSON follows JsonPurchaseReader: a missing or null
+ * accountId means none, unknown fields are skipped, and non-positive ticket counts are ignored as
+ * TicketCounts.of ignores them. Not thread-safe; each chunk has its own.
+ */
+final class OrderParser {
+
+    private static final byte[] ACCOUNT_ID = ByteSink.ascii("accountId");
+    private static final byte[] TICKETS = ByteSink.ascii("tickets");
+    private static final byte[] ADULT = ByteSink.ascii("ADULT");
+    private static final byte[] CHILD = ByteSink.ascii("CHILD");
+    private static final byte[] INFANT = ByteSink.ascii("INFANT");
+    private static final byte[] NULL = ByteSink.ascii("null");
+    private static final byte[] TRUE = ByteSink.ascii("true");
+    private static final byte[] FALSE = ByteSink.ascii("false");
+    private static final int MAX_DEPTH = 32;
+
+    private final OrderFileFormat format;
+    private ByteBuffer buffer;
+    private int position;
+    private int end;
+    private boolean malformed;
+    // Start and end of the last string read, quotes excluded
+    private int textStart;
+    private int textEnd;
+
+    // The last order parsed
+    long accountId;
+    boolean hasAccount;
+    int adults;
+    int children;
+    int infants;
+
+    OrderParser(OrderFileFormat format) {
+        this.format = format;
+    }
+
+    // The line in [start, end) of buffer, without its line break; false if it is malformed
+    boolean parse(ByteBuffer buffer, int start, int end) {
+        this.buffer = buffer;
+        this.position = start;
+        this.end = end;
+        this.malformed = false;
+        accountId = 0;
+        hasAccount = false;
+        adults = 0;
+        children = 0;
+        infants = 0;
+        if (format == OrderFileFormat.CSV) {
+            csv();
+        } else {
+            json();
+        }
+        skipWhitespace();
+        return !malformed && position == end;
+    }
+
+    private void csv() {
+        skipWhitespace();
+        if (peek() != ',') {
+            hasAccount = true;
+            accountId = number();
+            skipWhitespace();
+        }
+        expect(',');
+        adults = csvCount();
+        expect(',');
+        children = csvCount();
+        expect(',');
+        infants = csvCount();
+    }
+
+    // Empty means none; otherwise a whole number of 0 or more
+    private int csvCount() {
+        skipWhitespace();
+        int c = peek();
+        if (c == ',' || c == -1) {
+            return 0;
+        }
+        long count = number();
+        skipWhitespace();
+        return count < 0 || count > Integer.MAX_VALUE ? fail() : (int) count;
+    }
+
+    private void json() {
+        expect('{');
+        if (peek() == '}') {
+            position++;
+            return;
+        }
+        do {
+            string();
+            expect(':');
+            if (textIs(ACCOUNT_ID)) {
+                if (peek() == 'n') {
+                    literal(NULL);
+                    hasAccount = false;
+                } else {
+                    hasAccount = true;
+                    accountId = number();
+                }
+            } else if (textIs(TICKETS)) {
+                tickets();
+            } else {
+                skipValue(0);
+            }
+        } while (!malformed && separator('}'));
+    }
+
+    private void tickets() {
+        long adultTotal = 0;
+        long childTotal = 0;
+        long infantTotal = 0;
+        expect('{');
+        if (peek() == '}') {
+            position++;
+            return;
+        }
+        do {
+            string();
+            int type = textIs(ADULT) ? 0 : textIs(CHILD) ? 1 : textIs(INFANT) ? 2 : fail();
+            expect(':');
+            long count = Math.max(0, number());
+            switch (type) {
+                case 0 -> adultTotal += count;
+                case 1 -> childTotal += count;
+                default -> infantTotal += count;
+            }
+        } while (!malformed && separator('}'));
+        if (adultTotal > Integer.MAX_VALUE || childTotal > Integer.MAX_VALUE || infantTotal > Integer.MAX_VALUE) {
+            fail();
+            return;
+        }
+        adults = (int) adultTotal;
+        children = (int) childTotal;
+        infants = (int) infantTotal;
+    }
+
+    private void skipValue(int depth) {
+        if (depth > MAX_DEPTH) {
+            fail();
+            return;
+        }
+        switch (peek()) {
+            case '{' -> {
+                position++;
+                if (peek() == '}') {
+                    position++;
+                    return;
+                }
+                do {
+                    string();
+                    expect(':');
+                    skipValue(depth + 1);
+                } while (!malformed && separator('}'));
+            }
+            case '[' -> {
+                position++;
+                if (peek() == ']') {
+                    position++;
+                    return;
+                }
+                do {
+                    skipValue(depth + 1);
+                } while (!malformed && separator(']'));
+            }
+            case '"' -> string();
+            case 't' -> literal(TRUE);
+            case 'f' -> literal(FALSE);
+            case 'n' -> literal(NULL);
+            default -> skipNumber();
+        }
+    }
+
+    // Escapes are stepped over, not decoded: the keys and ticket types that matter have none
+    private void string() {
+        expect('"');
+        textStart = position;
+        while (position < end) {
+            byte c = buffer.get(position);
+            if (c == '"') {
+                textEnd = position++;
+                return;
+            }
+            position += c == '\\' ? 2 : 1;
+        }
+        fail();
+    }
+
+    private boolean textIs(byte[] expected) {
+        if (textEnd - textStart != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (buffer.get(textStart + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void literal(byte[] expected) {
+        skipWhitespace();
+        if (end - position < expected.length) {
+            fail();
+            return;
+        }
+        for (byte b : expected) {
+            if (buffer.get(position++) != b) {
+                fail();
+                return;
+            }
+        }
+    }
+
+    private void skipNumber() {
+        skipWhitespace();
+        int start = position;
+        while (position < end) {
+            byte c = buffer.get(position);
+            if ((c < '0' || c > '9') && c != '-' && c != '+' && c != '.' && c != 'e' && c != 'E') {
+                break;
+            }
+            position++;
+        }
+        if (position == start) {
+            fail();
+        }
+    }
+
+    // A whole number, optionally negative, that fits in a long
+    private long number() {
+        skipWhitespace();
+        boolean negative = peek() == '-';
+        if (negative) {
+            position++;
+        }
+        int start = position;
+        long value = 0;
+        while (position < end) {
+            int digit = buffer.get(position) - '0';
+            if (digit < 0 || digit > 9) {
+                break;
+            }
+            if (value > (Long.MAX_VALUE - digit) / 10) {
+                return fail();
+            }
+            value = value * 10 + digit;
+            position++;
+        }
+        int following = peek();
+        if (position == start || following == '.' || following == 'e' || following == 'E') {
+            return fail();
+        }
+        return negative ? -value : value;
+    }
+
+    private boolean separator(char close) {
+        int c = peek();
+        position++;
+        if (c == ',') {
+            return true;
+        }
+        if (c != close) {
+            fail();
+        }
+        return false;
+    }
+
+    private void expect(char expected) {
+        skipWhitespace();
+        if (peek() != expected) {
+            fail();
+            return;
+        }
+        position++;
+    }
+
+    private void skipWhitespace() {
+        while (position < end) {
+            byte c = buffer.get(position);
+            if (c != ' ' && c != '\t') {
+                return;
+            }
+            position++;
+        }
+    }
+
+    // Next byte after whitespace, not consumed; -1 at the end of the line
+    private int peek() {
+        skipWhitespace();
+        return position < end ? buffer.get(position) : -1;
+    }
+
+    // Marks the line malformed and stops at its end, so every later read sees nothing
+    private int fail() {
+        malformed = true;
+        position = end;
+        return 0;
+    }
+}
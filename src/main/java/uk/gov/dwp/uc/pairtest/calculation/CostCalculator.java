@@ -1,9 +1,14 @@
 package uk.gov.dwp.uc.pairtest.calculation;
 
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
 import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
 import java.util.Map;
 
 @FunctionalInterface
 public interface CostCalculator {
     int calculate(Map<TicketTypeRequest.Type, Integer> ticketCounts);
-}
\ No newline at end of file
+
+    default int calculate(TicketCounts ticketCounts) {
+        return calculate(ticketCounts.toMap());
+    }
+}
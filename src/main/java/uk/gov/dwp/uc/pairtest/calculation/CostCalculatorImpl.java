@@ -1,20 +1,29 @@
 package uk.gov.dwp.uc.pairtest.calculation;
 
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
 import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.pricing.PriceRules;
+
 import java.util.Map;
 
 public class CostCalculatorImpl implements CostCalculator {
     
-    private static final Map<TicketTypeRequest.Type, Integer> PRICES = Map.of(
-        TicketTypeRequest.Type.ADULT, 25,
-        TicketTypeRequest.Type.CHILD, 15,
-        TicketTypeRequest.Type.INFANT, 0
-    );
+    // Flat base prices; PricingEngine applies the show type, time of day and group rules on top
+    private static final int ADULT_PRICE = PriceRules.DEFAULTS.price(TicketTypeRequest.Type.ADULT);
+    private static final int CHILD_PRICE = PriceRules.DEFAULTS.price(TicketTypeRequest.Type.CHILD);
+    private static final int INFANT_PRICE = PriceRules.DEFAULTS.price(TicketTypeRequest.Type.INFANT);
     
     @Override
     public int calculate(Map<TicketTypeRequest.Type, Integer> ticketCounts) {
         return ticketCounts.entrySet().stream()
-            .mapToInt(entry -> entry.getValue() * PRICES.get(entry.getKey()))
+            .mapToInt(entry -> entry.getValue() * PriceRules.DEFAULTS.price(entry.getKey()))
             .sum();
     }
-}
\ No newline at end of file
+    
+    @Override
+    public int calculate(TicketCounts ticketCounts) {
+        return ticketCounts.adults() * ADULT_PRICE
+            + ticketCounts.children() * CHILD_PRICE
+            + ticketCounts.infants() * INFANT_PRICE;
+    }
+}
@@ -1,5 +1,6 @@
 package uk.gov.dwp.uc.pairtest.calculation;
 
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
 import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
 import java.util.Map;
 import java.util.Set;
@@ -18,4 +19,10 @@ public class SeatCalculatorImpl implements SeatCalculator {
             .mapToInt(Map.Entry::getValue)
             .sum();
     }
-}
\ No newline at end of file
+    
+    // Infants sit on laps, so only adults and children (SEAT_REQUIRED_TYPES) take a seat
+    @Override
+    public int calculate(TicketCounts ticketCounts) {
+        return ticketCounts.adults() + ticketCounts.children();
+    }
+}
@@ -0,0 +1,23 @@
+package uk.gov.dwp.uc.pairtest.compensation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Default compensator: the third-party services have no release/refund operation,
+ * so record what needs reversing for manual follow-up.
+ */
+public class LoggingPurchaseCompensator implements PurchaseCompensator {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoggingPurchaseCompensator.class);
+
+    @Override
+    public void releaseSeats(long accountId, int totalSeatsToRelease) {
+        logger.warn("Seats to release for account: {}, seats: {}", accountId, totalSeatsToRelease);
+    }
+
+    @Override
+    public void refundPayment(long accountId, int totalAmountToRefund) {
+        logger.warn("Payment to refund for account: {}, amount: £{}", accountId, totalAmountToRefund);
+    }
+}
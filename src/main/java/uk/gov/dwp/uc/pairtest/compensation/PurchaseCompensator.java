@@ -0,0 +1,29 @@
+package uk.gov.dwp.uc.pairtest.compensation;
+
+import uk.gov.dwp.uc.pairtest.payment.PaymentOutcomeUnknownException;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Reverses a third-party step of a purchase that could not be completed.
+ * Called when the outcome of a step is unknown (timed out or cancelled) as well as when it succeeded,
+ * so implementations must tolerate releasing or refunding something that never happened.
+ */
+public interface PurchaseCompensator {
+
+    void releaseSeats(long accountId, int totalSeatsToRelease);
+
+    void refundPayment(long accountId, int totalAmountToRefund);
+
+    // Whether a failed third-party call may still have acted and so needs compensating: one we stopped
+    // waiting for, or one reporting it doesn't know. Any other failure, such as a call refused before it
+    // was made or an error from the third party, means the step didn't happen.
+    static boolean isOutcomeUnknown(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+        return cause instanceof TimeoutException || cause instanceof CancellationException
+            || cause instanceof PaymentOutcomeUnknownException;
+    }
+
+}
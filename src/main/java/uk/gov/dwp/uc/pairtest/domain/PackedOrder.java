@@ -0,0 +1,106 @@
+package uk.gov.dwp.uc.pairtest.domain;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-size binary form of an order: two longs, 16 bytes on the wire, no objects.
+ * <pre>
+ * word 0  account id
+ * word 1  bits 0-15 adults, 16-31 children, 32-47 infants, bit 63 set when the account id is null
+ * </pre>
+ * Counts are the aggregated per-type totals, as in TicketCounts, and must fit in 16 bits.
+ * Everything here is static and works on primitives, so packing and the ByteBuffer codecs never allocate.
+ */
+public final class PackedOrder {
+
+    public static final int BYTES = 2 * Long.BYTES;
+
+    private static final int COUNT_BITS = 16;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long NO_ACCOUNT = 1L << 63;
+
+    private PackedOrder() {
+    }
+
+    public static long counts(int adults, int children, int infants) {
+        return checked(adults) | checked(children) << COUNT_BITS | checked(infants) << 2 * COUNT_BITS;
+    }
+
+    public static long counts(TicketCounts ticketCounts) {
+        return counts(ticketCounts.adults(), ticketCounts.children(), ticketCounts.infants());
+    }
+
+    // Same filtering as TicketCounts.of, without the intermediate record
+    public static long counts(TicketTypeRequest... ticketTypeRequests) {
+        if (ticketTypeRequests == null) {
+            return 0;
+        }
+        int adults = 0;
+        int children = 0;
+        int infants = 0;
+        for (TicketTypeRequest request : ticketTypeRequests) {
+            if (request == null || request.getNoOfTickets() <= 0) {
+                continue;
+            }
+            switch (request.getTicketType()) {
+                case ADULT -> adults += request.getNoOfTickets();
+                case CHILD -> children += request.getNoOfTickets();
+                case INFANT -> infants += request.getNoOfTickets();
+            }
+        }
+        return counts(adults, children, infants);
+    }
+
+    // Marks the order as having no account id; word 0 is then ignored
+    public static long withoutAccount(long counts) {
+        return counts | NO_ACCOUNT;
+    }
+
+    public static boolean hasAccount(long counts) {
+        return (counts & NO_ACCOUNT) == 0;
+    }
+
+    public static int adults(long counts) {
+        return (int) (counts & COUNT_MASK);
+    }
+
+    public static int children(long counts) {
+        return (int) (counts >>> COUNT_BITS & COUNT_MASK);
+    }
+
+    public static int infants(long counts) {
+        return (int) (counts >>> 2 * COUNT_BITS & COUNT_MASK);
+    }
+
+    public static TicketCounts unpack(long counts) {
+        return new TicketCounts(adults(counts), children(counts), infants(counts));
+    }
+
+    // Relative write of one 16-byte record
+    public static void write(ByteBuffer buffer, Long accountId, TicketCounts ticketCounts) {
+        long counts = counts(ticketCounts);
+        buffer.putLong(accountId == null ? 0 : accountId);
+        buffer.putLong(accountId == null ? withoutAccount(counts) : counts);
+    }
+
+    // Absolute write, leaving the buffer's position alone
+    public static void write(ByteBuffer buffer, int offset, long accountId, long counts) {
+        buffer.putLong(offset, accountId);
+        buffer.putLong(offset + Long.BYTES, counts);
+    }
+
+    public static long accountId(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset);
+    }
+
+    public static long counts(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + Long.BYTES);
+    }
+
+    private static long checked(int count) {
+        if (count < 0 || count > COUNT_MASK) {
+            throw new IllegalArgumentException("Ticket count " + count + " cannot be packed");
+        }
+        return count;
+    }
+}
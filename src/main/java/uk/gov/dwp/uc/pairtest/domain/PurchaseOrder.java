@@ -0,0 +1,7 @@
+package uk.gov.dwp.uc.pairtest.domain;
+
+/**
+ * One customer order: the arguments of a single purchaseTickets call, used by the batch API.
+ */
+public record PurchaseOrder(Long accountId, TicketTypeRequest... ticketTypeRequests) {
+}
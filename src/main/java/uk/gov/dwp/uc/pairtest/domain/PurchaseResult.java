@@ -0,0 +1,57 @@
+package uk.gov.dwp.uc.pairtest.domain;
+
+import uk.gov.dwp.uc.pairtest.exception.TicketPurchaseException;
+
+/**
+ * Outcome of a purchase that doesn't use exceptions for control flow.
+ * Rejected instances are shared per reason, so failing validation allocates nothing; only a third party
+ * turning the order down, which is rare, allocates one to keep its exception.
+ */
+public sealed interface PurchaseResult permits PurchaseResult.Success, PurchaseResult.Rejected, PurchaseResult.Failed {
+
+    record Success(long accountId, int totalCost, int totalSeats) implements PurchaseResult {
+    }
+
+    // cause is the exception a third party turned the order down with, rethrown as is by the throwing API;
+    // null when the order failed validation. Equal by reason alone, as the detail doesn't change the outcome.
+    record Rejected(RejectionReason reason, TicketPurchaseException cause) implements PurchaseResult {
+
+        private static final Rejected[] BY_REASON = new Rejected[RejectionReason.values().length];
+
+        static {
+            for (RejectionReason reason : RejectionReason.values()) {
+                BY_REASON[reason.ordinal()] = new Rejected(reason);
+            }
+        }
+
+        public Rejected(RejectionReason reason) {
+            this(reason, null);
+        }
+
+        public static Rejected of(RejectionReason reason) {
+            return BY_REASON[reason.ordinal()];
+        }
+
+        public static Rejected of(TicketPurchaseException cause) {
+            return new Rejected(cause.getReason(), cause);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Rejected rejected && reason == rejected.reason;
+        }
+
+        @Override
+        public int hashCode() {
+            return reason.hashCode();
+        }
+    }
+
+    // A third-party call failed after the order was accepted
+    record Failed(RuntimeException cause) implements PurchaseResult {
+    }
+
+    default boolean isSuccess() {
+        return this instanceof Success;
+    }
+}
@@ -0,0 +1,34 @@
+package uk.gov.dwp.uc.pairtest.domain;
+
+/**
+ * Why a purchase was turned down. Fixed messages so a rejection never has to format a String.
+ * The purchase event log stores reasons by ordinal, so new reasons go at the end.
+ */
+public enum RejectionReason {
+    NULL_ACCOUNT_ID("Account ID cannot be null"),
+    INVALID_ACCOUNT_ID("Account ID must be greater than 0"),
+    MISSING_ORDER("Purchase order cannot be null"),
+    NO_TICKETS("At least one ticket request is required"),
+    INVALID_TICKET_QUANTITY("All ticket requests are invalid or have zero quantity"),
+    TOO_MANY_TICKETS("Too many tickets requested in one purchase"),
+    UNACCOMPANIED_MINOR("Children and infants must be accompanied by at least one adult"),
+    TOO_MANY_INFANTS("Cannot have more infants than adults - infants sit on adult laps"),
+    AGE_RESTRICTED("Film is age restricted - only adult tickets can be sold"),
+    SOLD_OUT("Show is sold out"),
+    NOT_ENOUGH_SEATS("Not enough seats remaining"),
+    UNKNOWN_SHOW("Show is not on sale"),
+    HOLD_EXPIRED("Seat hold has expired or was released"),
+    INVALID_PURCHASE("Purchase is invalid"),
+    ACCOUNT_LIMIT_REACHED("Account has reached its ticket or spend limit for now"),
+    TOO_MANY_PURCHASES("Too many purchases from this account - try again shortly");
+
+    private final String message;
+
+    RejectionReason(String message) {
+        this.message = message;
+    }
+
+    public String message() {
+        return message;
+    }
+}
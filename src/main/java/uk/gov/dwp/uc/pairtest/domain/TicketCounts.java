@@ -0,0 +1,74 @@
+package uk.gov.dwp.uc.pairtest.domain;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Primitive per-type ticket totals for a single order.
+ * Used on the purchase hot path instead of a boxed Map so aggregation, validation and
+ * calculation don't allocate; small enough for the JIT to scalar-replace.
+ */
+public record TicketCounts(int adults, int children, int infants) {
+
+    public static final TicketCounts EMPTY = new TicketCounts(0, 0, 0);
+
+    // Single traversal, same filtering as the original Map aggregation (null and non-positive requests ignored)
+    public static TicketCounts of(TicketTypeRequest... ticketTypeRequests) {
+        if (ticketTypeRequests == null) {
+            return EMPTY;
+        }
+        int adults = 0;
+        int children = 0;
+        int infants = 0;
+        for (TicketTypeRequest request : ticketTypeRequests) {
+            if (request == null || request.getNoOfTickets() <= 0) {
+                continue;
+            }
+            switch (request.getTicketType()) {
+                case ADULT -> adults += request.getNoOfTickets();
+                case CHILD -> children += request.getNoOfTickets();
+                case INFANT -> infants += request.getNoOfTickets();
+            }
+        }
+        return new TicketCounts(adults, children, infants);
+    }
+
+    public static TicketCounts from(Map<TicketTypeRequest.Type, Integer> ticketCounts) {
+        if (ticketCounts == null || ticketCounts.isEmpty()) {
+            return EMPTY;
+        }
+        return new TicketCounts(
+            ticketCounts.getOrDefault(TicketTypeRequest.Type.ADULT, 0),
+            ticketCounts.getOrDefault(TicketTypeRequest.Type.CHILD, 0),
+            ticketCounts.getOrDefault(TicketTypeRequest.Type.INFANT, 0)
+        );
+    }
+
+    public int get(TicketTypeRequest.Type type) {
+        return switch (type) {
+            case ADULT -> adults;
+            case CHILD -> children;
+            case INFANT -> infants;
+        };
+    }
+
+    public int total() {
+        return adults + children + infants;
+    }
+
+    public boolean isEmpty() {
+        return adults == 0 && children == 0 && infants == 0;
+    }
+
+    // Bridges to the Map based API; zero counts are left out to match the original aggregation
+    public Map<TicketTypeRequest.Type, Integer> toMap() {
+        Map<TicketTypeRequest.Type, Integer> map = new EnumMap<>(TicketTypeRequest.Type.class);
+        for (TicketTypeRequest.Type type : TicketTypeRequest.Type.values()) {
+            int count = get(type);
+            if (count != 0) {
+                map.put(type, count);
+            }
+        }
+        return map;
+    }
+}
@@ -0,0 +1,4 @@
+package uk.gov.dwp.uc.pairtest.events;
+
+public record AccountSummary(long accountId, long purchases, long rejections, long tickets, long spend) {
+}
@@ -0,0 +1,626 @@
+package uk.gov.dwp.uc.pairtest.events;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.dwp.uc.pairtest.PurchaseListener;
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Event-sourced log of every purchase outcome. PurchaseCompleted and PurchaseRejected events are
+ * appended as fixed 48-byte records to memory-mapped segment files, and two projections are updated as
+ * each event is appended: a summary per account and totals per show. Each event carries the sequence of
+ * the account's previous event, so the account projection only keeps the latest one and an account's
+ * history is read by walking that chain back through the log.
+ *
+ * Every snapshotInterval events the projections are written to a snapshot file by a background thread,
+ * so appends only pause while the projections are copied, not while they are written. Opening the store
+ * bulk-loads the newest snapshot through memory mappings and replays only the events appended after
+ * it, so startup time depends on the number of accounts and one interval of events, not on the length
+ * of the log.
+ *
+ * An append is in the page cache when it returns, so it survives the process dying; force() or close()
+ * makes it survive the machine dying too. Snapshots are only written over events already forced.
+ *
+ * As a PurchaseListener the store never throws: a failure to record an outcome is logged, because the
+ * purchase has already happened. Rejected orders can be far larger than any accepted one, so their
+ * ticket counts are recorded capped at 65535 each.
+ */
+public class EventSourcedPurchaseStore implements PurchaseListener, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventSourcedPurchaseStore.class);
+
+    // accountId, showId, previous event of the account + 1, timestamp, totalCost, adults, children, infants,
+    // reason ordinal + 1, type (0 = never written), checksum
+    static final int RECORD_SIZE = 48;
+    private static final int MAX_COUNT = 0xFFFF;
+    private static final int SHOW = 8;
+    private static final int PREVIOUS = 16;
+    private static final int TIMESTAMP = 24;
+    private static final int COST = 32;
+    private static final int ADULTS = 36;
+    private static final int CHILDREN = 38;
+    private static final int INFANTS = 40;
+    private static final int REASON = 42;
+    private static final int TYPE = 43;
+    private static final int CHECKSUM = 44;
+    private static final byte COMPLETED = 1;
+    private static final byte REJECTED = 2;
+    private static final RejectionReason[] REASONS = RejectionReason.values();
+
+    private static final int LAST_EVENT = 0;
+    private static final int PURCHASES = 1;
+    private static final int REJECTIONS = 2;
+    private static final int TICKETS = 3;
+    private static final int SPEND = 4;
+    private static final int ACCOUNT_COLUMNS = 5;
+
+    private static final int SHOW_PURCHASES = 0;
+    private static final int SHOW_REJECTIONS = 1;
+    private static final int ADULTS_SOLD = 2;
+    private static final int CHILDREN_SOLD = 3;
+    private static final int INFANTS_SOLD = 4;
+    private static final int REVENUE = 5;
+    private static final int SHOW_COLUMNS = 6;
+
+    private static final long SNAPSHOT_MAGIC = 0x5041_5353_4E41_5031L;
+    private static final String SEGMENT_PREFIX = "events-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "projections-";
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+    private final Path directory;
+    private final int eventsPerSegment;
+    private final long snapshotInterval;
+    private final Clock clock;
+    private final long replayedOnOpen;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private final ExecutorService snapshotter = Executors.newSingleThreadExecutor(
+        Thread.ofPlatform().daemon().name("purchase-event-snapshots").factory());
+    private final AtomicBoolean snapshotScheduled = new AtomicBoolean();
+    // Guarded by lock
+    private final List<Segment> segments;
+    private ProjectionTable accounts;
+    private ProjectionTable shows;
+    private long nextSequence;
+    private long snapshotSequence;
+    private boolean closed;
+
+    private EventSourcedPurchaseStore(Path directory, int eventsPerSegment, long snapshotInterval, Clock clock,
+                                      List<Segment> segments, Projections projections, long nextSequence) {
+        this.directory = directory;
+        this.eventsPerSegment = eventsPerSegment;
+        this.snapshotInterval = snapshotInterval;
+        this.clock = clock;
+        this.segments = segments;
+        this.accounts = projections.accounts;
+        this.shows = projections.shows;
+        this.snapshotSequence = projections.sequence;
+        this.nextSequence = nextSequence;
+        this.replayedOnOpen = nextSequence - projections.sequence;
+    }
+
+    public static EventSourcedPurchaseStore open(Path directory) throws IOException {
+        return open(directory, 1 << 20, 1 << 22, Clock.systemUTC());
+    }
+
+    public static EventSourcedPurchaseStore open(Path directory, int eventsPerSegment, long snapshotInterval, Clock clock)
+            throws IOException {
+        if (eventsPerSegment <= 0 || eventsPerSegment > Integer.MAX_VALUE / RECORD_SIZE) {
+            throw new IllegalArgumentException("Events per segment must be between 1 and " + Integer.MAX_VALUE / RECORD_SIZE);
+        }
+        if (snapshotInterval <= 0) {
+            throw new IllegalArgumentException("Snapshot interval must be greater than 0");
+        }
+        Files.createDirectories(directory);
+        Projections projections = loadSnapshot(directory);
+        List<Segment> segments = new ArrayList<>();
+        for (Path file : files(directory, SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            segments.add(Segment.map(file, numberOf(file, SEGMENT_PREFIX, SEGMENT_SUFFIX)));
+        }
+        long logged = segments.isEmpty() ? 0 : segments.getLast().start + segments.getLast().capacity;
+        if (logged < projections.sequence) {
+            throw new IllegalStateException("Snapshot covers " + projections.sequence + " events but the log in "
+                + directory + " only has room for " + logged);
+        }
+        long end = replay(segments, projections);
+        logger.info("Opened purchase event store in {}: {} events, {} replayed after the snapshot",
+            directory, end, end - projections.sequence);
+        return new EventSourcedPurchaseStore(directory, eventsPerSegment, snapshotInterval, clock, segments, projections, end);
+    }
+
+    // Events replayed from the log when the store was opened, i.e. those the snapshot didn't cover
+    public long replayedOnOpen() {
+        return replayedOnOpen;
+    }
+
+    public long completed(long showId, long accountId, TicketCounts ticketCounts, int totalCost) {
+        return append(COMPLETED, showId, accountId, ticketCounts, totalCost, null);
+    }
+
+    // Ticket counts above 65535 are recorded as 65535
+    public long rejected(long showId, long accountId, TicketCounts ticketCounts, RejectionReason reason) {
+        if (reason == null) {
+            throw new IllegalArgumentException("Rejected purchases must have a reason");
+        }
+        TicketCounts recorded = (ticketCounts.adults() | ticketCounts.children() | ticketCounts.infants()) >>> 16 == 0
+            ? ticketCounts
+            : new TicketCounts(saturate(ticketCounts.adults()), saturate(ticketCounts.children()), saturate(ticketCounts.infants()));
+        return append(REJECTED, showId, accountId, recorded, 0, reason);
+    }
+
+    private static int saturate(int count) {
+        return Math.min(Math.max(count, 0), MAX_COUNT);
+    }
+
+    @Override
+    public void purchased(long accountId, TicketCounts ticketCounts, int totalCost) {
+        purchased(NO_SHOW, accountId, ticketCounts, totalCost);
+    }
+
+    @Override
+    public void purchased(long showId, long accountId, TicketCounts ticketCounts, int totalCost) {
+        try {
+            completed(showId, accountId, ticketCounts, totalCost);
+        } catch (RuntimeException e) {
+            logger.error("Failed to record purchase by account {} for show {}", accountId, showId, e);
+        }
+    }
+
+    @Override
+    public void rejected(long showId, Long accountId, TicketCounts ticketCounts, RejectionReason reason) {
+        try {
+            rejected(showId, accountId == null ? 0 : accountId, ticketCounts == null ? TicketCounts.EMPTY : ticketCounts, reason);
+        } catch (RuntimeException e) {
+            logger.error("Failed to record rejection of account {} for show {}", accountId, showId, e);
+        }
+    }
+
+    public long eventCount() {
+        lock.lock();
+        try {
+            return nextSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public PurchaseEvent event(long sequence) {
+        lock.lock();
+        try {
+            if (sequence < 0 || sequence >= nextSequence) {
+                throw new IllegalArgumentException("No event " + sequence + " in a log of " + nextSequence);
+            }
+            return read(sequence);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The account's latest events, newest first
+    public List<PurchaseEvent> history(long accountId, int limit) {
+        List<PurchaseEvent> history = new ArrayList<>();
+        lock.lock();
+        try {
+            int slot = accountId > 0 ? accounts.find(accountId) : -1;
+            long sequence = slot < 0 ? -1 : accounts.get(slot, LAST_EVENT) - 1;
+            while (sequence >= 0 && history.size() < limit) {
+                history.add(read(sequence));
+                Segment segment = segmentOf(sequence);
+                sequence = segment.buffer.getLong(segment.offsetOf(sequence) + PREVIOUS) - 1;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return history;
+    }
+
+    public AccountSummary account(long accountId) {
+        lock.lock();
+        try {
+            int slot = accountId > 0 ? accounts.find(accountId) : -1;
+            if (slot < 0) {
+                return new AccountSummary(accountId, 0, 0, 0, 0);
+            }
+            return new AccountSummary(accountId, accounts.get(slot, PURCHASES), accounts.get(slot, REJECTIONS),
+                accounts.get(slot, TICKETS), accounts.get(slot, SPEND));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public ShowTotals show(long showId) {
+        lock.lock();
+        try {
+            int slot = showId > 0 ? shows.find(showId) : -1;
+            if (slot < 0) {
+                return new ShowTotals(showId, 0, 0, TicketCounts.EMPTY, 0);
+            }
+            TicketCounts sold = new TicketCounts((int) shows.get(slot, ADULTS_SOLD), (int) shows.get(slot, CHILDREN_SOLD),
+                (int) shows.get(slot, INFANTS_SOLD));
+            return new ShowTotals(showId, shows.get(slot, SHOW_PURCHASES), shows.get(slot, SHOW_REJECTIONS), sold,
+                shows.get(slot, REVENUE));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long append(byte type, long showId, long accountId, TicketCounts ticketCounts, int totalCost, RejectionReason reason) {
+        long sequence;
+        boolean snapshotDue;
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Purchase event store is closed");
+            }
+            sequence = nextSequence;
+            Segment segment = writableSegment(sequence);
+            int slot = accountId > 0 ? accounts.find(accountId) : -1;
+            long previous = slot < 0 ? 0 : accounts.get(slot, LAST_EVENT);
+            write(segment.buffer, segment.offsetOf(sequence), type, showId, accountId, previous, clock.millis(),
+                ticketCounts, totalCost, reason == null ? 0 : reason.ordinal() + 1);
+            apply(accounts, shows, sequence, type, showId, accountId, ticketCounts.adults(), ticketCounts.children(),
+                ticketCounts.infants(), totalCost);
+            nextSequence = sequence + 1;
+            snapshotDue = nextSequence - snapshotSequence >= snapshotInterval;
+        } finally {
+            lock.unlock();
+        }
+        if (snapshotDue) {
+            scheduleSnapshot();
+        }
+        return sequence;
+    }
+
+    // At most one snapshot is queued; appends that fall due while it runs are covered by the check after it
+    private void scheduleSnapshot() {
+        if (!snapshotScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            snapshotter.execute(this::snapshotInBackground);
+        } catch (RejectedExecutionException e) {
+            // Closing, which snapshots everything anyway
+            snapshotScheduled.set(false);
+        }
+    }
+
+    private void snapshotInBackground() {
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            // The next append that finds a snapshot due tries again
+            logger.error("Failed to snapshot purchase projections in {}", directory, e);
+            return;
+        } finally {
+            snapshotScheduled.set(false);
+        }
+        boolean snapshotDue;
+        lock.lock();
+        try {
+            snapshotDue = !closed && nextSequence - snapshotSequence >= snapshotInterval;
+        } finally {
+            lock.unlock();
+        }
+        if (snapshotDue) {
+            scheduleSnapshot();
+        }
+    }
+
+    private Segment writableSegment(long sequence) {
+        Segment last = segments.isEmpty() ? null : segments.getLast();
+        if (last != null && sequence < last.start + last.capacity) {
+            return last;
+        }
+        try {
+            Path file = directory.resolve(SEGMENT_PREFIX + String.format("%016d", sequence) + SEGMENT_SUFFIX);
+            Segment segment;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                segment = new Segment(sequence, eventsPerSegment, map(channel, FileChannel.MapMode.READ_WRITE,
+                    (long) eventsPerSegment * RECORD_SIZE));
+            }
+            segments.add(segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to add a purchase event segment in " + directory, e);
+        }
+    }
+
+    // Forces the events the snapshot covers before it is published, so it is never ahead of the log
+    public void snapshot() {
+        snapshotLock.lock();
+        try {
+            writeSnapshot();
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    // Requires snapshotLock
+    private void writeSnapshot() {
+        Projections projections;
+        List<Segment> unforced;
+        lock.lock();
+        try {
+            if (nextSequence == snapshotSequence) {
+                return;
+            }
+            projections = new Projections(accounts.copy(), shows.copy(), nextSequence);
+            unforced = segments.stream().filter(segment -> segment.start + segment.capacity > snapshotSequence).toList();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            for (Segment segment : unforced) {
+                segment.buffer.force();
+            }
+            Path file = directory.resolve(SNAPSHOT_PREFIX + String.format("%016d", projections.sequence) + SNAPSHOT_SUFFIX);
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(2 * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                header.putLong(SNAPSHOT_MAGIC).putLong(projections.sequence).flip();
+                channel.write(header, 0);
+                long position = projections.accounts.writeTo(channel, header.capacity());
+                position = projections.shows.writeTo(channel, position);
+                header.flip();
+                channel.write(header, position);
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+            for (Path old : files(directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+                if (!old.equals(file)) {
+                    Files.deleteIfExists(old);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to snapshot purchase projections in " + directory, e);
+        }
+        lock.lock();
+        try {
+            snapshotSequence = projections.sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void force() {
+        List<Segment> mapped;
+        lock.lock();
+        try {
+            mapped = List.copyOf(segments);
+        } finally {
+            lock.unlock();
+        }
+        for (Segment segment : mapped) {
+            segment.buffer.force();
+        }
+    }
+
+    // Snapshots everything appended, so the next open replays nothing
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            lock.unlock();
+        }
+        snapshotter.close();
+        snapshotLock.lock();
+        try {
+            writeSnapshot();
+            force();
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    private PurchaseEvent read(long sequence) {
+        Segment segment = segmentOf(sequence);
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = segment.offsetOf(sequence);
+        TicketCounts ticketCounts = new TicketCounts(buffer.getShort(offset + ADULTS) & 0xFFFF,
+            buffer.getShort(offset + CHILDREN) & 0xFFFF, buffer.getShort(offset + INFANTS) & 0xFFFF);
+        long timestamp = buffer.getLong(offset + TIMESTAMP);
+        long showId = buffer.getLong(offset + SHOW);
+        long accountId = buffer.getLong(offset);
+        if (buffer.get(offset + TYPE) == COMPLETED) {
+            return new PurchaseEvent.PurchaseCompleted(sequence, timestamp, showId, accountId, ticketCounts,
+                buffer.getInt(offset + COST));
+        }
+        return new PurchaseEvent.PurchaseRejected(sequence, timestamp, showId, accountId, ticketCounts,
+            REASONS[buffer.get(offset + REASON) - 1]);
+    }
+
+    private Segment segmentOf(long sequence) {
+        int low = 0;
+        int high = segments.size() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (segments.get(middle).start <= sequence) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return segments.get(low);
+    }
+
+    private static void write(MappedByteBuffer buffer, int offset, byte type, long showId, long accountId, long previous,
+                              long timestamp, TicketCounts ticketCounts, int totalCost, int reason) {
+        if ((ticketCounts.adults() | ticketCounts.children() | ticketCounts.infants()) >>> 16 != 0) {
+            throw new IllegalArgumentException("Ticket counts must be between 0 and 65535");
+        }
+        buffer.putLong(offset, accountId);
+        buffer.putLong(offset + SHOW, showId);
+        buffer.putLong(offset + PREVIOUS, previous);
+        buffer.putLong(offset + TIMESTAMP, timestamp);
+        buffer.putInt(offset + COST, totalCost);
+        buffer.putShort(offset + ADULTS, (short) ticketCounts.adults());
+        buffer.putShort(offset + CHILDREN, (short) ticketCounts.children());
+        buffer.putShort(offset + INFANTS, (short) ticketCounts.infants());
+        buffer.put(offset + REASON, (byte) reason);
+        buffer.putInt(offset + CHECKSUM, checksum(buffer, offset, type));
+        // The type goes last: a record with a zero type was never completely written
+        buffer.put(offset + TYPE, type);
+    }
+
+    // Applies every complete event after the projections' sequence; returns the sequence after the last one
+    private static long replay(List<Segment> segments, Projections projections) {
+        long sequence = projections.sequence;
+        for (Segment segment : segments) {
+            if (segment.start + segment.capacity <= sequence) {
+                continue;
+            }
+            if (segment.start > sequence) {
+                break;
+            }
+            MappedByteBuffer buffer = segment.buffer;
+            for (; sequence < segment.start + segment.capacity; sequence++) {
+                int offset = segment.offsetOf(sequence);
+                byte type = buffer.get(offset + TYPE);
+                int reason = buffer.get(offset + REASON);
+                if ((type != COMPLETED && type != REJECTED) || reason < 0 || reason > REASONS.length
+                        || buffer.getInt(offset + CHECKSUM) != checksum(buffer, offset, type)) {
+                    return sequence;
+                }
+                apply(projections.accounts, projections.shows, sequence, type, buffer.getLong(offset + SHOW),
+                    buffer.getLong(offset), buffer.getShort(offset + ADULTS) & 0xFFFF, buffer.getShort(offset + CHILDREN) & 0xFFFF,
+                    buffer.getShort(offset + INFANTS) & 0xFFFF, buffer.getInt(offset + COST));
+            }
+        }
+        return sequence;
+    }
+
+    private static void apply(ProjectionTable accounts, ProjectionTable shows, long sequence, byte type, long showId,
+                              long accountId, int adults, int children, int infants, int totalCost) {
+        boolean completed = type == COMPLETED;
+        if (accountId > 0) {
+            int slot = accounts.slotOf(accountId);
+            accounts.set(slot, LAST_EVENT, sequence + 1);
+            if (completed) {
+                accounts.add(slot, PURCHASES, 1);
+                accounts.add(slot, TICKETS, adults + children + infants);
+                accounts.add(slot, SPEND, totalCost);
+            } else {
+                accounts.add(slot, REJECTIONS, 1);
+            }
+        }
+        if (showId > 0) {
+            int slot = shows.slotOf(showId);
+            if (completed) {
+                shows.add(slot, SHOW_PURCHASES, 1);
+                shows.add(slot, ADULTS_SOLD, adults);
+                shows.add(slot, CHILDREN_SOLD, children);
+                shows.add(slot, INFANTS_SOLD, infants);
+                shows.add(slot, REVENUE, totalCost);
+            } else {
+                shows.add(slot, SHOW_REJECTIONS, 1);
+            }
+        }
+    }
+
+    // Over the first 44 bytes of the record with the type in place of the unwritten type byte
+    private static int checksum(MappedByteBuffer buffer, int offset, byte type) {
+        long hash = type;
+        for (int field = 0; field < CHECKSUM - 4; field += Long.BYTES) {
+            hash = (hash ^ buffer.getLong(offset + field)) * 0x9E3779B97F4A7C15L;
+        }
+        long tail = buffer.getInt(offset + COST) & 0xFFFFFFFFL
+            | (long) (buffer.getShort(offset + INFANTS) & 0xFFFF) << 32
+            | (long) (buffer.get(offset + REASON) & 0xFF) << 48;
+        hash = (hash ^ tail) * 0xC2B2AE3D27D4EB4FL;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    // Newest readable snapshot, or empty projections if there is none
+    private static Projections loadSnapshot(Path directory) throws IOException {
+        List<Path> snapshots = files(directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        for (Path file : snapshots.reversed()) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(2 * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                if (channel.read(header, 0) != header.capacity() || header.getLong(0) != SNAPSHOT_MAGIC) {
+                    throw new IllegalStateException("Not a projection snapshot");
+                }
+                long sequence = header.getLong(Long.BYTES);
+                ProjectionTable accounts = ProjectionTable.readFrom(channel, header.capacity(), ACCOUNT_COLUMNS);
+                long position = header.capacity() + accounts.serializedSize();
+                ProjectionTable shows = ProjectionTable.readFrom(channel, position, SHOW_COLUMNS);
+                ByteBuffer trailer = ByteBuffer.allocate(2 * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                if (channel.read(trailer, position + shows.serializedSize()) != trailer.capacity()
+                        || trailer.getLong(0) != SNAPSHOT_MAGIC || trailer.getLong(Long.BYTES) != sequence) {
+                    throw new IllegalStateException("Truncated projection snapshot");
+                }
+                return new Projections(accounts, shows, sequence);
+            } catch (IllegalStateException e) {
+                logger.warn("Ignoring unreadable projection snapshot {}: {}", file, e.getMessage());
+            }
+        }
+        return new Projections(new ProjectionTable(ACCOUNT_COLUMNS), new ProjectionTable(SHOW_COLUMNS), 0);
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long size) throws IOException {
+        MappedByteBuffer buffer = channel.map(mode, 0, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    private static List<Path> files(Path directory, String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(file -> file.getFileName().toString().startsWith(prefix) && file.getFileName().toString().endsWith(suffix))
+                .sorted(Comparator.comparing(file -> file.getFileName().toString()))
+                .toList();
+        }
+    }
+
+    private static long numberOf(Path file, String prefix, String suffix) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+
+    private record Projections(ProjectionTable accounts, ProjectionTable shows, long sequence) {
+    }
+
+    // A segment file named after the sequence of its first event
+    private record Segment(long start, int capacity, MappedByteBuffer buffer) {
+
+        static Segment map(Path file, long start) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return new Segment(start, (int) (channel.size() / RECORD_SIZE),
+                    EventSourcedPurchaseStore.map(channel, FileChannel.MapMode.READ_WRITE, channel.size()));
+            }
+        }
+
+        int offsetOf(long sequence) {
+            return (int) (sequence - start) * RECORD_SIZE;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package uk.gov.dwp.uc.pairtest.events;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Open-addressing table from a positive long key to a fixed number of long columns, kept as parallel
+ * arrays so a projection of millions of keys is a handful of objects and snapshots are bulk copies.
+ * Not thread-safe.
+ */
+final class ProjectionTable {
+
+    private static final int MIN_CAPACITY = 1024;
+    private static final int CHUNK_LONGS = 1 << 24;
+
+    private final int columnCount;
+    private long[] keys;
+    private long[][] columns;
+    private int size;
+
+    ProjectionTable(int columnCount) {
+        this(columnCount, MIN_CAPACITY);
+    }
+
+    private ProjectionTable(int columnCount, int capacity) {
+        this.columnCount = columnCount;
+        this.keys = new long[capacity];
+        this.columns = new long[columnCount][capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    // The key's slot, or -1 if it has none
+    int find(long key) {
+        int slot = probe(keys, key);
+        return keys[slot] == key ? slot : -1;
+    }
+
+    // The key's slot, claiming one if it has none
+    int slotOf(long key) {
+        int slot = probe(keys, key);
+        if (keys[slot] == key) {
+            return slot;
+        }
+        if (size + 1 > keys.length / 4 * 3) {
+            grow();
+            slot = probe(keys, key);
+        }
+        keys[slot] = key;
+        size++;
+        return slot;
+    }
+
+    long get(int slot, int column) {
+        return columns[column][slot];
+    }
+
+    ProjectionTable copy() {
+        ProjectionTable copy = new ProjectionTable(columnCount, keys.length);
+        System.arraycopy(keys, 0, copy.keys, 0, keys.length);
+        for (int column = 0; column < columnCount; column++) {
+            System.arraycopy(columns[column], 0, copy.columns[column], 0, keys.length);
+        }
+        copy.size = size;
+        return copy;
+    }
+
+    void set(int slot, int column, long value) {
+        columns[column][slot] = value;
+    }
+
+    void add(int slot, int column, long delta) {
+        columns[column][slot] += delta;
+    }
+
+    // Key count and capacity, then the keys and each column as raw little-endian longs; returns the end position
+    long writeTo(FileChannel channel, long position) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(2 * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putLong(size).putLong(keys.length).flip();
+        channel.write(header, position);
+        position = writeLongs(channel, position + header.capacity(), keys);
+        for (long[] column : columns) {
+            position = writeLongs(channel, position, column);
+        }
+        return position;
+    }
+
+    // Reads a table written at position; the caller carries on from position + serializedSize()
+    static ProjectionTable readFrom(FileChannel channel, long position, int columnCount) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(2 * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        if (channel.read(header, position) != header.capacity()) {
+            throw new IllegalStateException("Truncated projection table");
+        }
+        long size = header.getLong(0);
+        long capacity = header.getLong(Long.BYTES);
+        if (capacity < MIN_CAPACITY || capacity > 1 << 30 || Long.bitCount(capacity) != 1 || size < 0 || size > capacity) {
+            throw new IllegalStateException("Corrupt projection table of " + size + " keys in " + capacity + " slots");
+        }
+        ProjectionTable table = new ProjectionTable(columnCount, (int) capacity);
+        position = readLongs(channel, position + header.capacity(), table.keys);
+        for (long[] column : table.columns) {
+            position = readLongs(channel, position, column);
+        }
+        table.size = (int) size;
+        return table;
+    }
+
+    long serializedSize() {
+        return 2L * Long.BYTES + (long) keys.length * (1 + columnCount) * Long.BYTES;
+    }
+
+    // Through mappings of at most CHUNK_LONGS, so a table can be bigger than one buffer can address
+    private static long writeLongs(FileChannel channel, long position, long[] values) throws IOException {
+        for (int done = 0; done < values.length; done += CHUNK_LONGS) {
+            int count = Math.min(CHUNK_LONGS, values.length - done);
+            MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_WRITE, position, (long) count * Long.BYTES);
+            chunk.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().put(values, done, count);
+            position += (long) count * Long.BYTES;
+        }
+        return position;
+    }
+
+    private static long readLongs(FileChannel channel, long position, long[] values) throws IOException {
+        if (position + (long) values.length * Long.BYTES > channel.size()) {
+            throw new IllegalStateException("Truncated projection table");
+        }
+        for (int done = 0; done < values.length; done += CHUNK_LONGS) {
+            int count = Math.min(CHUNK_LONGS, values.length - done);
+            MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, position, (long) count * Long.BYTES);
+            chunk.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(values, done, count);
+            position += (long) count * Long.BYTES;
+        }
+        return position;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[][] oldColumns = columns;
+        keys = new long[oldKeys.length * 2];
+        columns = new long[columnCount][keys.length];
+        for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+            if (oldKeys[oldSlot] != 0) {
+                int slot = probe(keys, oldKeys[oldSlot]);
+                keys[slot] = oldKeys[oldSlot];
+                for (int column = 0; column < columnCount; column++) {
+                    columns[column][slot] = oldColumns[column][oldSlot];
+                }
+            }
+        }
+    }
+
+    // The key's slot or the empty slot where it would go
+    private static int probe(long[] keys, long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        int mask = keys.length - 1;
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (keys[slot] != key && keys[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
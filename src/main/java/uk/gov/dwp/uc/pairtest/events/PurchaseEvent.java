@@ -0,0 +1,34 @@
+package uk.gov.dwp.uc.pairtest.events;
+
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
+
+/**
+ * One entry of the purchase event log. sequence is the event's position in the log, and showId is
+ * PurchaseListener.NO_SHOW for purchases not made against a particular show.
+ */
+public sealed interface PurchaseEvent permits PurchaseEvent.PurchaseCompleted, PurchaseEvent.PurchaseRejected {
+
+    long sequence();
+
+    long timestampMillis();
+
+    long showId();
+
+    // 0 for orders rejected without an account id
+    long accountId();
+
+    TicketCounts ticketCounts();
+
+    record PurchaseCompleted(long sequence, long timestampMillis, long showId, long accountId, TicketCounts ticketCounts,
+                             int totalCost) implements PurchaseEvent {
+
+        public int totalSeats() {
+            return ticketCounts.adults() + ticketCounts.children();
+        }
+    }
+
+    record PurchaseRejected(long sequence, long timestampMillis, long showId, long accountId, TicketCounts ticketCounts,
+                            RejectionReason reason) implements PurchaseEvent {
+    }
+}
@@ -0,0 +1,10 @@
+package uk.gov.dwp.uc.pairtest.events;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
+
+public record ShowTotals(long showId, long purchases, long rejections, TicketCounts ticketsSold, long revenue) {
+
+    public long seatsSold() {
+        return (long) ticketsSold.adults() + ticketsSold.children();
+    }
+}
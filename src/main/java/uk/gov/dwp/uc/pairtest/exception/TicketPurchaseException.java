@@ -1,16 +1,32 @@
 package uk.gov.dwp.uc.pairtest.exception;
 
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+
 public class TicketPurchaseException extends InvalidPurchaseException {
     
     private final String detailMessage;
+    private final RejectionReason reason;
     
     public TicketPurchaseException(String message) {
+        this(RejectionReason.INVALID_PURCHASE, message);
+    }
+    
+    public TicketPurchaseException(RejectionReason reason) {
+        this(reason, reason.message());
+    }
+    
+    public TicketPurchaseException(RejectionReason reason, String message) {
         super();
         this.detailMessage = message;
+        this.reason = reason;
     }
     
     @Override
     public String getMessage() {
         return detailMessage;
     }
-}
\ No newline at end of file
+    
+    public RejectionReason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,20 @@
+package uk.gov.dwp.uc.pairtest.hold;
+
+import java.time.Duration;
+
+/**
+ * Seats held for a customer while they pay, then confirmed into a reservation or given back.
+ * A hold nobody confirms or releases expires after its TTL and its seats go back on sale.
+ */
+public interface SeatHoldService {
+
+    // Throws TicketPurchaseException (SOLD_OUT or NOT_ENOUGH_SEATS) when the seats aren't available
+    long hold(long accountId, int seats, Duration ttl);
+
+    // Reserves the held seats for good; throws TicketPurchaseException (HOLD_EXPIRED) if the hold is gone
+    void confirm(long holdId);
+
+    // Returns false if the hold had already expired, been released or been confirmed
+    boolean release(long holdId);
+
+}
@@ -0,0 +1,237 @@
+package uk.gov.dwp.uc.pairtest.hold;
+
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.exception.TicketPurchaseException;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * SeatHoldService over a fixed number of seats, with holds expired by a TimingWheel.
+ *
+ * A hold is a slot in a set of primitive arrays (account, seat count, generation) plus its wheel
+ * entry, about 40 bytes in all and no objects, so millions can be outstanding. Hold ids carry the
+ * slot's generation, so an id from a hold that has since ended can't touch the slot's next hold.
+ *
+ * There is no timer thread: every operation first advances the wheel to the current time, so an
+ * expired hold's seats are back on sale before anyone can ask for them. Call expireDue() from a
+ * scheduler if expiry must also happen while the service is idle.
+ * Only confirmation calls the delegate, outside the lock; if it fails the seats go back on sale.
+ */
+public class TimedSeatHolds implements SeatHoldService {
+    
+    private final SeatReservationService delegate;
+    private final long tickNanos;
+    private final LongSupplier nanoClock;
+    private final long origin;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final IntConsumer expireHold = this::expireHold;
+    // Guarded by lock; hold state is indexed by slot
+    private final TimingWheel wheel;
+    private long[] accountIds;
+    private int[] seats;
+    private int[] generations;
+    private int[] freeSlots;
+    private int freeCount;
+    private int slotsUsed;
+    private int remainingSeats;
+    private long expired;
+    
+    public TimedSeatHolds(int capacity, SeatReservationService delegate, Duration tick) {
+        this(capacity, delegate, tick, System::nanoTime);
+    }
+    
+    public TimedSeatHolds(int capacity, SeatReservationService delegate, Duration tick, LongSupplier nanoClock) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than 0");
+        }
+        if (tick == null || tick.isNegative() || tick.isZero()) {
+            throw new IllegalArgumentException("Tick must be positive");
+        }
+        this.delegate = delegate;
+        this.tickNanos = tick.toNanos();
+        this.nanoClock = nanoClock;
+        this.origin = nanoClock.getAsLong();
+        this.remainingSeats = capacity;
+        int initialHolds = Math.min(capacity, 1024);
+        this.wheel = new TimingWheel(initialHolds);
+        this.accountIds = new long[initialHolds];
+        this.seats = new int[initialHolds];
+        this.generations = new int[initialHolds];
+        this.freeSlots = new int[initialHolds];
+    }
+    
+    @Override
+    public long hold(long accountId, int seatCount, Duration ttl) {
+        if (seatCount <= 0) {
+            throw new IllegalArgumentException("Seats to hold must be greater than 0");
+        }
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Hold TTL must be positive");
+        }
+        // Rounded up so a hold never expires early
+        long ttlTicks = Math.ceilDiv(ttl.toNanos(), tickNanos);
+        if (ttlTicks >= TimingWheel.MAX_TICKS_AHEAD) {
+            throw new IllegalArgumentException("Hold TTL " + ttl + " is too long for the timing wheel");
+        }
+        lock.lock();
+        try {
+            long now = advance();
+            if (seatCount > remainingSeats) {
+                throw new TicketPurchaseException(remainingSeats == 0 ? RejectionReason.SOLD_OUT : RejectionReason.NOT_ENOUGH_SEATS);
+            }
+            // Checked before taking a slot, which a failed schedule would otherwise leave allocated for good;
+            // counting from the next tick boundary can put the deadline one tick further than ttlTicks
+            long deadline = Math.ceilDiv(now - origin, tickNanos) + ttlTicks;
+            if (deadline - wheel.currentTick() >= TimingWheel.MAX_TICKS_AHEAD) {
+                throw new IllegalArgumentException("Hold TTL " + ttl + " is too long for the timing wheel");
+            }
+            int slot = allocateSlot();
+            accountIds[slot] = accountId;
+            seats[slot] = seatCount;
+            wheel.schedule(slot, deadline);
+            remainingSeats -= seatCount;
+            return (long) generations[slot] << 32 | slot;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public void confirm(long holdId) {
+        long accountId;
+        int heldSeats;
+        lock.lock();
+        try {
+            advance();
+            int slot = liveSlot(holdId);
+            if (slot < 0) {
+                throw new TicketPurchaseException(RejectionReason.HOLD_EXPIRED);
+            }
+            wheel.cancel(slot);
+            accountId = accountIds[slot];
+            heldSeats = seats[slot];
+            freeSlot(slot);
+        } finally {
+            lock.unlock();
+        }
+        try {
+            delegate.reserveSeat(accountId, heldSeats);
+        } catch (RuntimeException e) {
+            returnSeats(heldSeats);
+            throw e;
+        }
+    }
+    
+    @Override
+    public boolean release(long holdId) {
+        lock.lock();
+        try {
+            advance();
+            int slot = liveSlot(holdId);
+            if (slot < 0) {
+                return false;
+            }
+            wheel.cancel(slot);
+            remainingSeats += seats[slot];
+            freeSlot(slot);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // Expires every hold past its TTL; returns how many
+    public int expireDue() {
+        lock.lock();
+        try {
+            long before = expired;
+            advance();
+            return (int) (expired - before);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int remainingSeats() {
+        lock.lock();
+        try {
+            advance();
+            return remainingSeats;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int outstandingHolds() {
+        lock.lock();
+        try {
+            return wheel.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public long expiredHolds() {
+        lock.lock();
+        try {
+            return expired;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // Requires lock; returns the time it advanced to
+    private long advance() {
+        long now = nanoClock.getAsLong();
+        wheel.advanceTo((now - origin) / tickNanos, expireHold);
+        return now;
+    }
+    
+    private void expireHold(int slot) {
+        remainingSeats += seats[slot];
+        freeSlot(slot);
+        expired++;
+    }
+    
+    private void returnSeats(int count) {
+        lock.lock();
+        try {
+            remainingSeats += count;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private int liveSlot(long holdId) {
+        int slot = (int) holdId;
+        if (slot < 0 || slot >= slotsUsed || generations[slot] != (int) (holdId >>> 32) || !wheel.isScheduled(slot)) {
+            return -1;
+        }
+        return slot;
+    }
+    
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (slotsUsed == accountIds.length) {
+            int capacity = accountIds.length * 2;
+            accountIds = Arrays.copyOf(accountIds, capacity);
+            seats = Arrays.copyOf(seats, capacity);
+            generations = Arrays.copyOf(generations, capacity);
+            freeSlots = Arrays.copyOf(freeSlots, capacity);
+        }
+        return slotsUsed++;
+    }
+    
+    // Bumping the generation retires every id handed out for the slot so far
+    private void freeSlot(int slot) {
+        generations[slot]++;
+        freeSlots[freeCount++] = slot;
+    }
+}
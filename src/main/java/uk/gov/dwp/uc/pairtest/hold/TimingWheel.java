@@ -0,0 +1,191 @@
+package uk.gov.dwp.uc.pairtest.hold;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Hierarchical timing wheel over int handles: four levels of 64 buckets, each level's bucket
+ * spanning a full turn of the level below, so 2^24 ticks ahead can be scheduled.
+ *
+ * Buckets are intrusive doubly linked lists kept in primitive arrays indexed by handle, so a
+ * scheduled handle costs 18 bytes and no objects. Scheduling and cancelling are O(1). Advancing
+ * expires a level-0 bucket per tick and, once per turn, cascades one higher-level bucket down a
+ * level; an occupancy bitmap lets it jump straight over empty buckets.
+ *
+ * Not thread-safe; the owner serialises access.
+ */
+public class TimingWheel {
+    
+    static final int LEVELS = 4;
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    public static final long MAX_TICKS_AHEAD = 1L << (BITS * LEVELS);
+    private static final int NONE = -1;
+    
+    private final int[] heads = new int[LEVELS * SLOTS];
+    private final long[] occupied = new long[LEVELS];
+    private int[] next;
+    private int[] previous;
+    private long[] deadlines;
+    private short[] buckets;
+    private long currentTick;
+    private int size;
+    
+    public TimingWheel(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 16);
+        Arrays.fill(heads, NONE);
+        next = new int[capacity];
+        previous = new int[capacity];
+        deadlines = new long[capacity];
+        buckets = new short[capacity];
+        Arrays.fill(buckets, (short) NONE);
+    }
+    
+    public long currentTick() {
+        return currentTick;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isScheduled(int handle) {
+        return handle < buckets.length && buckets[handle] != NONE;
+    }
+    
+    // A deadline already reached fires on the next tick
+    public void schedule(int handle, long deadlineTick) {
+        if (deadlineTick - currentTick >= MAX_TICKS_AHEAD) {
+            throw new IllegalArgumentException("Deadline is more than " + MAX_TICKS_AHEAD + " ticks ahead");
+        }
+        if (handle >= buckets.length) {
+            grow(handle);
+        }
+        if (buckets[handle] != NONE) {
+            throw new IllegalStateException("Handle " + handle + " is already scheduled");
+        }
+        long deadline = Math.max(deadlineTick, currentTick + 1);
+        deadlines[handle] = deadline;
+        place(handle, deadline, currentTick);
+        size++;
+    }
+    
+    public boolean cancel(int handle) {
+        if (!isScheduled(handle)) {
+            return false;
+        }
+        unlink(handle);
+        size--;
+        return true;
+    }
+    
+    // Fires every handle due up to and including tick, tick by tick; returns how many fired
+    public int advanceTo(long tick, IntConsumer onExpiry) {
+        int fired = 0;
+        while (currentTick < tick) {
+            if (size == 0) {
+                currentTick = tick;
+                break;
+            }
+            // Next tick with work: an occupied level-0 bucket later in this turn, else the turn's end
+            int position = (int) (currentTick & MASK);
+            long pending = position == MASK ? 0 : occupied[0] & (-1L << (position + 1));
+            long turnStart = currentTick & ~MASK;
+            long due = pending == 0 ? turnStart + SLOTS : turnStart + Long.numberOfTrailingZeros(pending);
+            if (due > tick) {
+                currentTick = tick;
+                break;
+            }
+            if ((due & MASK) == 0) {
+                cascade(due);
+            }
+            fired += expire((int) (due & MASK), onExpiry);
+            currentTick = due;
+        }
+        return fired;
+    }
+    
+    // Highest level first, so handles cascaded down several levels land before their own level is emptied
+    private void cascade(long tick) {
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((tick & ((1L << (BITS * level)) - 1)) != 0) {
+                continue;
+            }
+            int bucket = level * SLOTS + (int) ((tick >>> (BITS * level)) & MASK);
+            int handle = detach(bucket, level);
+            while (handle != NONE) {
+                int following = next[handle];
+                buckets[handle] = (short) NONE;
+                place(handle, deadlines[handle], tick);
+                handle = following;
+            }
+        }
+    }
+    
+    private int expire(int slot, IntConsumer onExpiry) {
+        int handle = detach(slot, 0);
+        int fired = 0;
+        while (handle != NONE) {
+            int following = next[handle];
+            buckets[handle] = (short) NONE;
+            size--;
+            fired++;
+            onExpiry.accept(handle);
+            handle = following;
+        }
+        return fired;
+    }
+    
+    private void place(int handle, long deadline, long from) {
+        long delta = deadline - from;
+        int level = delta <= 0 ? 0 : (Long.SIZE - 1 - Long.numberOfLeadingZeros(delta)) / BITS;
+        int slot = (int) ((deadline >>> (BITS * level)) & MASK);
+        int bucket = level * SLOTS + slot;
+        int head = heads[bucket];
+        next[handle] = head;
+        previous[handle] = NONE;
+        if (head != NONE) {
+            previous[head] = handle;
+        }
+        heads[bucket] = handle;
+        buckets[handle] = (short) bucket;
+        occupied[level] |= 1L << slot;
+    }
+    
+    private void unlink(int handle) {
+        int bucket = buckets[handle];
+        int before = previous[handle];
+        int after = next[handle];
+        if (before == NONE) {
+            heads[bucket] = after;
+            if (after == NONE) {
+                occupied[bucket / SLOTS] &= ~(1L << (bucket & MASK));
+            }
+        } else {
+            next[before] = after;
+        }
+        if (after != NONE) {
+            previous[after] = before;
+        }
+        buckets[handle] = (short) NONE;
+    }
+    
+    // Empties a bucket and returns its first handle; the rest follow through next[]
+    private int detach(int bucket, int level) {
+        int head = heads[bucket];
+        heads[bucket] = NONE;
+        occupied[level] &= ~(1L << (bucket & MASK));
+        return head;
+    }
+    
+    private void grow(int handle) {
+        int capacity = Math.max(buckets.length * 2, handle + 1);
+        int oldCapacity = buckets.length;
+        next = Arrays.copyOf(next, capacity);
+        previous = Arrays.copyOf(previous, capacity);
+        deadlines = Arrays.copyOf(deadlines, capacity);
+        buckets = Arrays.copyOf(buckets, capacity);
+        Arrays.fill(buckets, oldCapacity, capacity, (short) NONE);
+    }
+}
@@ -0,0 +1,335 @@
+package uk.gov.dwp.uc.pairtest.http;
+
+import uk.gov.dwp.uc.pairtest.domain.PurchaseOrder;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming reader for purchase request bodies. Decodes straight into PurchaseOrders as it reads,
+ * with no intermediate tree and no String per key:
+ * <pre>
+ * {"accountId": 1, "tickets": {"ADULT": 2, "CHILD": 1}}
+ * [{"accountId": 1, "tickets": {"ADULT": 2}}, {"accountId": 2, "tickets": {"ADULT": 1}}]
+ * </pre>
+ * A missing or null accountId is passed through for validation to reject; unknown fields are skipped.
+ * Ticket counts are passed through unchecked as well, so business rules stay in the validator.
+ */
+public final class JsonPurchaseReader {
+    
+    private static final TicketTypeRequest.Type[] TYPES = TicketTypeRequest.Type.values();
+    private static final TicketTypeRequest[] NO_REQUESTS = new TicketTypeRequest[0];
+    // Skipped values nest no deeper than this, so a body of brackets cannot exhaust the stack
+    private static final int MAX_DEPTH = 32;
+    
+    private final InputStream in;
+    private final long maxBytes;
+    private final byte[] buffer = new byte[8192];
+    private final StringBuilder text = new StringBuilder(32);
+    private int position;
+    private int limit;
+    private long consumed;
+    
+    public JsonPurchaseReader(InputStream in, long maxBytes) {
+        this.in = in;
+        this.maxBytes = maxBytes;
+    }
+    
+    public PurchaseOrder readOrder() {
+        PurchaseOrder order = order();
+        expectEnd();
+        return order;
+    }
+    
+    public List<PurchaseOrder> readOrders() {
+        List<PurchaseOrder> orders = new ArrayList<>();
+        expect('[');
+        if (peek() == ']') {
+            next();
+        } else {
+            do {
+                orders.add(order());
+            } while (separator(']'));
+        }
+        expectEnd();
+        return orders;
+    }
+    
+    private PurchaseOrder order() {
+        Long accountId = null;
+        TicketTypeRequest[] requests = NO_REQUESTS;
+        expect('{');
+        if (peek() == '}') {
+            next();
+            return new PurchaseOrder(null, requests);
+        }
+        do {
+            readString();
+            expect(':');
+            if ("accountId".contentEquals(text)) {
+                accountId = readNullableLong();
+            } else if ("tickets".contentEquals(text)) {
+                requests = tickets();
+            } else {
+                skipValue(0);
+            }
+        } while (separator('}'));
+        return new PurchaseOrder(accountId, requests);
+    }
+    
+    private TicketTypeRequest[] tickets() {
+        List<TicketTypeRequest> requests = new ArrayList<>(TYPES.length);
+        expect('{');
+        if (peek() == '}') {
+            next();
+            return NO_REQUESTS;
+        }
+        do {
+            readString();
+            TicketTypeRequest.Type type = ticketType();
+            expect(':');
+            long count = readLong();
+            if (count < Integer.MIN_VALUE || count > Integer.MAX_VALUE) {
+                throw new MalformedRequestException("Ticket count out of range: " + count);
+            }
+            requests.add(new TicketTypeRequest(type, (int) count));
+        } while (separator('}'));
+        return requests.toArray(NO_REQUESTS);
+    }
+    
+    private TicketTypeRequest.Type ticketType() {
+        for (TicketTypeRequest.Type type : TYPES) {
+            if (type.name().contentEquals(text)) {
+                return type;
+            }
+        }
+        throw new MalformedRequestException("Unknown ticket type: " + text);
+    }
+    
+    // After a member or element: true if another follows, false at the closing bracket
+    private boolean separator(char close) {
+        int c = next();
+        if (c == ',') {
+            return true;
+        }
+        if (c == close) {
+            return false;
+        }
+        throw unexpected(c);
+    }
+    
+    private Long readNullableLong() {
+        if (peek() == 'n') {
+            literal("null");
+            return null;
+        }
+        return readLong();
+    }
+    
+    private long readLong() {
+        int c = next();
+        boolean negative = c == '-';
+        if (negative) {
+            c = next();
+        }
+        if (c < '0' || c > '9') {
+            throw unexpected(c);
+        }
+        long value = 0;
+        while (true) {
+            if (value > (Long.MAX_VALUE - (c - '0')) / 10) {
+                throw new MalformedRequestException("Number out of range");
+            }
+            value = value * 10 + (c - '0');
+            int following = peekRaw();
+            if (following < '0' || following > '9') {
+                break;
+            }
+            c = nextRaw();
+        }
+        int following = peekRaw();
+        if (following == '.' || following == 'e' || following == 'E') {
+            throw new MalformedRequestException("Expected a whole number");
+        }
+        return negative ? -value : value;
+    }
+    
+    private void readString() {
+        expect('"');
+        text.setLength(0);
+        while (true) {
+            int c = nextRaw();
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                c = nextRaw();
+                switch (c) {
+                    case '"', '\\', '/' -> text.append((char) c);
+                    case 'b' -> text.append('\b');
+                    case 'f' -> text.append('\f');
+                    case 'n' -> text.append('\n');
+                    case 'r' -> text.append('\r');
+                    case 't' -> text.append('\t');
+                    case 'u' -> text.append((char) hex4());
+                    default -> throw unexpected(c);
+                }
+            } else if (c < 0x20) {
+                throw unexpected(c);
+            } else {
+                // Keys and ticket types are ASCII; other bytes only need to round-trip for skipping
+                text.append((char) c);
+            }
+        }
+    }
+    
+    private int hex4() {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(nextRaw(), 16);
+            if (digit < 0) {
+                throw new MalformedRequestException("Invalid unicode escape");
+            }
+            value = value << 4 | digit;
+        }
+        return value;
+    }
+    
+    private void skipValue(int depth) {
+        if (depth > MAX_DEPTH) {
+            throw new MalformedRequestException("Nested deeper than " + MAX_DEPTH + " levels");
+        }
+        int c = peek();
+        switch (c) {
+            case '{' -> {
+                next();
+                if (peek() == '}') {
+                    next();
+                    return;
+                }
+                do {
+                    readString();
+                    expect(':');
+                    skipValue(depth + 1);
+                } while (separator('}'));
+            }
+            case '[' -> {
+                next();
+                if (peek() == ']') {
+                    next();
+                    return;
+                }
+                do {
+                    skipValue(depth + 1);
+                } while (separator(']'));
+            }
+            case '"' -> readString();
+            case 't' -> literal("true");
+            case 'f' -> literal("false");
+            case 'n' -> literal("null");
+            default -> skipNumber();
+        }
+    }
+    
+    private void skipNumber() {
+        int c = next();
+        if (c != '-' && (c < '0' || c > '9')) {
+            throw unexpected(c);
+        }
+        while (true) {
+            int following = peekRaw();
+            if ((following >= '0' && following <= '9') || following == '.' || following == 'e' || following == 'E'
+                    || following == '+' || following == '-') {
+                nextRaw();
+            } else {
+                return;
+            }
+        }
+    }
+    
+    private void literal(String expected) {
+        skipWhitespace();
+        for (int i = 0; i < expected.length(); i++) {
+            int c = nextRaw();
+            if (c != expected.charAt(i)) {
+                throw unexpected(c);
+            }
+        }
+    }
+    
+    private void expect(char expected) {
+        int c = next();
+        if (c != expected) {
+            throw unexpected(c);
+        }
+    }
+    
+    private void expectEnd() {
+        int c = peek();
+        if (c != -1) {
+            throw unexpected(c);
+        }
+    }
+    
+    private MalformedRequestException unexpected(int c) {
+        return new MalformedRequestException(c == -1
+            ? "Unexpected end of request body"
+            : "Unexpected character '" + (char) c + "' at byte " + (consumed - limit + position));
+    }
+    
+    // Next significant character, consumed
+    private int next() {
+        skipWhitespace();
+        return nextRaw();
+    }
+    
+    private int peek() {
+        skipWhitespace();
+        return peekRaw();
+    }
+    
+    private void skipWhitespace() {
+        int c;
+        while ((c = peekRaw()) == ' ' || c == '\n' || c == '\r' || c == '\t') {
+            position++;
+        }
+    }
+    
+    private int nextRaw() {
+        int c = peekRaw();
+        if (c == -1) {
+            throw unexpected(c);
+        }
+        position++;
+        return c;
+    }
+    
+    private int peekRaw() {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position] & 0xFF;
+    }
+    
+    private boolean fill() {
+        try {
+            int read = in.read(buffer);
+            if (read <= 0) {
+                return false;
+            }
+            consumed += read;
+            if (consumed > maxBytes) {
+                throw new MalformedRequestException("Request body larger than " + maxBytes + " bytes");
+            }
+            position = 0;
+            limit = read;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package uk.gov.dwp.uc.pairtest.http;
+
+/**
+ * A request body that isn't a well-formed purchase, reported as 400 rather than as a rejected purchase.
+ */
+public class MalformedRequestException extends RuntimeException {
+    
+    public MalformedRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,202 @@
+package uk.gov.dwp.uc.pairtest.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.dwp.uc.pairtest.BatchTicketService;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseOrder;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseMetrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * JSON over HTTP front end on the JDK HttpServer, one virtual thread per request.
+ * <pre>
+ * POST /purchases        {"accountId": 1, "tickets": {"ADULT": 2}}
+ * POST /purchases/batch  [{"accountId": 1, "tickets": {"ADULT": 2}}, ...]
+ * GET  /metrics          Prometheus text
+ * </pre>
+ * A purchase answers 200 when it succeeded, 422 when it was rejected and 502 when a third party failed.
+ * A batch always answers 200 with one result per order, in order.
+ */
+public class TicketHttpServer implements AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TicketHttpServer.class);
+    private static final String FAILED_MESSAGE = "The purchase could not be completed, please try again later";
+    
+    private static final long MAX_BODY_BYTES = 1 << 20;
+    private static final String JSON = "application/json";
+    
+    private final BatchTicketService ticketService;
+    private final PurchaseMetrics metrics;
+    private final List<Consumer<Appendable>> metricsExporters = new CopyOnWriteArrayList<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpServer server;
+    
+    public TicketHttpServer(BatchTicketService ticketService, PurchaseMetrics metrics, InetSocketAddress address)
+            throws IOException {
+        this.ticketService = ticketService;
+        this.metrics = metrics;
+        this.server = HttpServer.create(address, 0);
+        server.setExecutor(executor);
+        server.createContext("/purchases", exchange -> handle(exchange, "POST", this::purchase));
+        server.createContext("/purchases/batch", exchange -> handle(exchange, "POST", this::purchaseBatch));
+        server.createContext("/metrics", exchange -> handle(exchange, "GET", this::metrics));
+    }
+    
+    // Extra Prometheus text for /metrics, e.g. out -> payments.snapshot().export(out)
+    public void addMetricsExporter(Consumer<Appendable> exporter) {
+        metricsExporters.add(exporter);
+    }
+    
+    public void start() {
+        server.start();
+        logger.info("Ticket HTTP server listening on port {}", port());
+    }
+    
+    public int port() {
+        return server.getAddress().getPort();
+    }
+    
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+    
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+    
+    private void handle(HttpExchange exchange, String method, Handler handler) {
+        try {
+            if (!exchange.getRequestURI().getPath().equals(exchange.getHttpContext().getPath())) {
+                respond(exchange, 404, JSON, error("Not found"));
+            } else if (!method.equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", method);
+                respond(exchange, 405, JSON, error("Method not allowed"));
+            } else {
+                handler.handle(exchange);
+            }
+        } catch (MalformedRequestException e) {
+            respondQuietly(exchange, 400, error(e.getMessage()));
+        } catch (RuntimeException | IOException e) {
+            logger.error("Failed to handle {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+            respondQuietly(exchange, 500, error("Internal server error"));
+        } finally {
+            exchange.close();
+        }
+    }
+    
+    private void purchase(HttpExchange exchange) throws IOException {
+        PurchaseOrder order = new JsonPurchaseReader(exchange.getRequestBody(), MAX_BODY_BYTES).readOrder();
+        PurchaseResult result = ticketService.tryPurchase(order.accountId(), order.ticketTypeRequests());
+        StringBuilder body = new StringBuilder(128);
+        appendResult(body, result);
+        int status = switch (result) {
+            case PurchaseResult.Success success -> 200;
+            case PurchaseResult.Rejected rejected -> 422;
+            case PurchaseResult.Failed failed -> 502;
+        };
+        respond(exchange, status, JSON, body);
+    }
+    
+    private void purchaseBatch(HttpExchange exchange) throws IOException {
+        List<PurchaseOrder> orders = new JsonPurchaseReader(exchange.getRequestBody(), MAX_BODY_BYTES).readOrders();
+        List<PurchaseResult> results = ticketService.purchaseTicketsBatch(orders);
+        StringBuilder body = new StringBuilder(64 + results.size() * 96);
+        body.append('[');
+        for (int i = 0; i < results.size(); i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            appendResult(body, results.get(i));
+        }
+        body.append(']');
+        respond(exchange, 200, JSON, body);
+    }
+    
+    private void metrics(HttpExchange exchange) throws IOException {
+        StringBuilder body = new StringBuilder(8192);
+        metrics.snapshot().export(body);
+        metricsExporters.forEach(exporter -> exporter.accept(body));
+        respond(exchange, 200, "text/plain; version=0.0.4", body);
+    }
+    
+    static void appendResult(StringBuilder body, PurchaseResult result) {
+        switch (result) {
+            case PurchaseResult.Success success -> body.append("{\"status\":\"SUCCESS\",\"accountId\":").append(success.accountId())
+                .append(",\"totalCost\":").append(success.totalCost())
+                .append(",\"totalSeats\":").append(success.totalSeats()).append('}');
+            case PurchaseResult.Rejected rejected -> {
+                body.append("{\"status\":\"REJECTED\",\"reason\":\"").append(rejected.reason().name()).append("\",\"message\":");
+                appendString(body, rejected.reason().message());
+                body.append('}');
+            }
+            // The cause can name internal hosts or state, so it is logged rather than sent
+            case PurchaseResult.Failed failed -> {
+                logger.warn("Reporting failed purchase to client", failed.cause());
+                body.append("{\"status\":\"FAILED\",\"message\":\"").append(FAILED_MESSAGE).append("\"}");
+            }
+        }
+    }
+    
+    private static CharSequence error(String message) {
+        StringBuilder body = new StringBuilder(64).append("{\"error\":");
+        appendString(body, message);
+        return body.append('}');
+    }
+    
+    private static void appendString(StringBuilder body, String value) {
+        body.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> body.append("\\\"");
+                case '\\' -> body.append("\\\\");
+                case '\n' -> body.append("\\n");
+                case '\r' -> body.append("\\r");
+                case '\t' -> body.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        body.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        body.append(c);
+                    }
+                }
+            }
+        }
+        body.append('"');
+    }
+    
+    private static void respond(HttpExchange exchange, int status, String contentType, CharSequence body) throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+    
+    // The response may already have been started; nothing more can be sent then
+    private static void respondQuietly(HttpExchange exchange, int status, CharSequence body) {
+        try {
+            if (exchange.getResponseCode() == -1) {
+                respond(exchange, status, JSON, body);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            logger.debug("Could not send error response", e);
+        }
+    }
+}
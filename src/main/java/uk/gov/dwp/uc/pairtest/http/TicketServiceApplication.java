@@ -0,0 +1,50 @@
+package uk.gov.dwp.uc.pairtest.http;
+
+import thirdparty.paymentgateway.TicketPaymentServiceImpl;
+import thirdparty.seatbooking.SeatReservationServiceImpl;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.calculation.CostCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.calculation.SeatCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.metrics.LockFreePurchaseMetrics;
+import uk.gov.dwp.uc.pairtest.resilience.ResilientSeatReservationService;
+import uk.gov.dwp.uc.pairtest.resilience.ResilientTicketPaymentService;
+import uk.gov.dwp.uc.pairtest.validation.TicketValidatorImpl;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Standalone service: the ticket service behind the resilience decorators, served over HTTP.
+ * Listens on the port given as the first argument, else $PORT, else 8080.
+ */
+public final class TicketServiceApplication {
+    
+    private static final int DEFAULT_PORT = 8080;
+    
+    private TicketServiceApplication() {
+    }
+    
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0])
+            : System.getenv("PORT") != null ? Integer.parseInt(System.getenv("PORT")) : DEFAULT_PORT;
+        
+        LockFreePurchaseMetrics metrics = new LockFreePurchaseMetrics();
+        ResilientTicketPaymentService payments = new ResilientTicketPaymentService(new TicketPaymentServiceImpl());
+        ResilientSeatReservationService seats = new ResilientSeatReservationService(new SeatReservationServiceImpl());
+        TicketServiceImpl ticketService = new TicketServiceImpl(payments, seats,
+            new TicketValidatorImpl(), new CostCalculatorImpl(), new SeatCalculatorImpl(), metrics);
+        
+        TicketHttpServer server = new TicketHttpServer(ticketService, metrics, new InetSocketAddress(port));
+        server.addMetricsExporter(out -> payments.snapshot().export(out));
+        server.addMetricsExporter(out -> seats.snapshot().export(out));
+        
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            stopped.countDown();
+        }));
+        server.start();
+        stopped.await();
+    }
+}
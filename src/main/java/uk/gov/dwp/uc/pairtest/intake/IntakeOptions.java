@@ -0,0 +1,23 @@
+package uk.gov.dwp.uc.pairtest.intake;
+
+/**
+ * Ring size and how each side waits. stageWait applies to the business-logic and I/O stage threads,
+ * callerWait to purchasing threads waiting for their result or for a free slot in a full ring.
+ */
+public record IntakeOptions(int ringSize, WaitStrategy stageWait, WaitStrategy callerWait) {
+
+    public static final IntakeOptions DEFAULTS = new IntakeOptions(1024, WaitStrategy.BLOCKING, WaitStrategy.BLOCKING);
+
+    public IntakeOptions {
+        if (ringSize <= 0 || Integer.bitCount(ringSize) != 1) {
+            throw new IllegalArgumentException("Ring size must be a power of two");
+        }
+        if (stageWait == null || callerWait == null) {
+            throw new IllegalArgumentException("Wait strategies are required");
+        }
+    }
+
+    public IntakeOptions withWaitStrategy(WaitStrategy waitStrategy) {
+        return new IntakeOptions(ringSize, waitStrategy, waitStrategy);
+    }
+}
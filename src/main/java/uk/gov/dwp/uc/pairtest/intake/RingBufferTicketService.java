@@ -0,0 +1,395 @@
+package uk.gov.dwp.uc.pairtest.intake;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.PackedTicketService;
+import uk.gov.dwp.uc.pairtest.PurchaseListener;
+import uk.gov.dwp.uc.pairtest.PurchaseSettlement;
+import uk.gov.dwp.uc.pairtest.calculation.CostCalculator;
+import uk.gov.dwp.uc.pairtest.calculation.CostCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.calculation.SeatCalculator;
+import uk.gov.dwp.uc.pairtest.calculation.SeatCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.compensation.LoggingPurchaseCompensator;
+import uk.gov.dwp.uc.pairtest.compensation.PurchaseCompensator;
+import uk.gov.dwp.uc.pairtest.domain.PackedOrder;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.journal.PurchaseJournal;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseMetrics;
+import uk.gov.dwp.uc.pairtest.validation.TicketValidator;
+import uk.gov.dwp.uc.pairtest.validation.TicketValidatorImpl;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ticket service with a single business-logic thread behind a preallocated multi-producer ring, in
+ * the style of the LMAX disruptor. Callers claim a sequence, write their order into its slot and
+ * publish it. One thread validates and prices every published order, a batch at a time, so the
+ * validator and calculators never run concurrently and stay hot in one core's cache. A second stage
+ * hands accepted orders' third-party calls to virtual threads, and every result is written back to
+ * the order's slot, where its caller is waiting. The third-party calls are settled through the same
+ * journaled, compensating PurchaseSettlement as TicketServiceImpl.
+ *
+ * Slots are parallel primitive arrays: an order is its account id and PackedOrder counts, and the
+ * business thread adds its cost and seats alongside. Nothing on the path through the ring allocates
+ * beyond what the validator, calculators and third-party calls do themselves. A full ring makes
+ * callers wait for a slot rather than failing them.
+ *
+ * Every claimed order is completed whatever goes wrong on the way: an exception from the validator,
+ * calculators or a third party fails it, a throwing listener is logged, and an Error fails the order
+ * without stopping the stage thread, so no caller is left waiting and no slot is lost.
+ */
+public class RingBufferTicketService implements PackedTicketService, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RingBufferTicketService.class);
+
+    // Slot states, in the low bits below the sequence the state belongs to
+    private static final int FREE = 0;
+    private static final int PUBLISHED = 1;
+    private static final int COMPLETED = 2;
+    private static final int STATE_BITS = 2;
+    // Marks an order the business thread turned down, so the I/O stage skips it
+    private static final int REJECTED = -1;
+
+    // Cursors sit 128 bytes apart so the threads moving them don't share a cache line
+    private static final int PADDING = 16;
+    private static final int CLAIMED = PADDING;
+    private static final int PROCESSED = 2 * PADDING;
+    private static final int DISPATCHED = 3 * PADDING;
+
+    private final TicketValidator validator;
+    private final CostCalculator costCalculator;
+    private final SeatCalculator seatCalculator;
+    private final PurchaseMetrics metrics;
+    private final PurchaseListener listener;
+    private final PurchaseSettlement settlement;
+    private final WaitStrategy stageWait;
+    private final WaitStrategy callerWait;
+    private final int mask;
+    private final AtomicLongArray cursors = new AtomicLongArray(4 * PADDING);
+    private final AtomicLongArray states;
+    private final long[] accountIds;
+    private final long[] counts;
+    private final int[] costs;
+    private final int[] seats;
+    private final PurchaseResult[] results;
+    private final Thread[] waiters;
+    private final ExecutorService thirdPartyExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final PurchaseResult.Failed closedResult = new PurchaseResult.Failed(new IllegalStateException("Ticket service is closed"));
+    private final PurchaseResult.Failed unprocessed = new PurchaseResult.Failed(new IllegalStateException("Order was not processed"));
+    private final PurchaseResult.Failed unsettled = new PurchaseResult.Failed(new IllegalStateException("Purchase did not finish settling"));
+    private final AtomicBoolean closed = new AtomicBoolean();
+    // The sequence close() claimed; both stages stop there
+    private volatile long closedAt = Long.MAX_VALUE;
+    private volatile boolean businessParked;
+    private volatile boolean ioParked;
+    private final Thread businessThread;
+    private final Thread ioThread;
+
+    public RingBufferTicketService(TicketPaymentService paymentService, SeatReservationService seatService) {
+        this(paymentService, seatService, new TicketValidatorImpl(), new CostCalculatorImpl(), new SeatCalculatorImpl(),
+            PurchaseMetrics.NOOP, PurchaseListener.NONE, IntakeOptions.DEFAULTS);
+    }
+
+    public RingBufferTicketService(TicketPaymentService paymentService, SeatReservationService seatService,
+                                   TicketValidator validator, CostCalculator costCalculator, SeatCalculator seatCalculator,
+                                   PurchaseMetrics metrics, PurchaseListener listener, IntakeOptions options) {
+        this(paymentService, seatService, validator, costCalculator, seatCalculator, metrics, listener, options,
+            PurchaseJournal.DISABLED, new LoggingPurchaseCompensator());
+    }
+
+    public RingBufferTicketService(TicketPaymentService paymentService, SeatReservationService seatService,
+                                   TicketValidator validator, CostCalculator costCalculator, SeatCalculator seatCalculator,
+                                   PurchaseMetrics metrics, PurchaseListener listener, IntakeOptions options,
+                                   PurchaseJournal journal, PurchaseCompensator compensator) {
+        this.validator = validator;
+        this.costCalculator = costCalculator;
+        this.seatCalculator = seatCalculator;
+        this.metrics = metrics;
+        this.listener = listener;
+        this.settlement = new PurchaseSettlement(paymentService, seatService, metrics, journal, compensator);
+        this.stageWait = options.stageWait();
+        this.callerWait = options.callerWait();
+        int size = options.ringSize();
+        this.mask = size - 1;
+        this.states = new AtomicLongArray(size);
+        for (int slot = 0; slot < size; slot++) {
+            states.set(slot, state(slot, FREE));
+        }
+        this.accountIds = new long[size];
+        this.counts = new long[size];
+        this.costs = new int[size];
+        this.seats = new int[size];
+        this.results = new PurchaseResult[size];
+        this.waiters = new Thread[size];
+        this.businessThread = Thread.ofPlatform().daemon().name("ring-business-logic").start(this::runBusinessLogic);
+        this.ioThread = Thread.ofPlatform().daemon().name("ring-io").start(this::runIo);
+    }
+
+    @Override
+    public void purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests) throws InvalidPurchaseException {
+        TicketCounts ticketCounts = TicketCounts.of(ticketTypeRequests);
+        throwIfUnsuccessful(purchase(accountId, ticketCounts), ticketCounts);
+    }
+
+    @Override
+    public void purchaseTickets(long accountId, long packedCounts) throws InvalidPurchaseException {
+        throwIfUnsuccessful(tryPurchase(accountId, packedCounts), PackedOrder.unpack(packedCounts));
+    }
+
+    @Override
+    public PurchaseResult tryPurchase(Long accountId, TicketTypeRequest... ticketTypeRequests) {
+        return purchase(accountId, TicketCounts.of(ticketTypeRequests));
+    }
+
+    // Blocks the calling thread, as callerWait says, until the order has been through both stages
+    @Override
+    public PurchaseResult tryPurchase(long accountId, long packedCounts) {
+        if (closed.get()) {
+            return closedResult;
+        }
+        long sequence = cursors.getAndIncrement(CLAIMED);
+        // Claimed after close(): past closedAt, where the stages stop, so it must not be published
+        if (closed.get() && sequence > awaitClosedAt()) {
+            return closedResult;
+        }
+        int slot = (int) sequence & mask;
+        // The slot's last order must be collected by its caller and passed by the I/O stage
+        int attempt = 0;
+        while (states.get(slot) != state(sequence, FREE) || cursors.get(DISPATCHED) <= sequence - results.length) {
+            callerWait.idle(attempt++);
+        }
+        accountIds[slot] = accountId;
+        counts[slot] = packedCounts;
+        waiters[slot] = Thread.currentThread();
+        states.set(slot, state(sequence, PUBLISHED));
+        if (businessParked) {
+            LockSupport.unpark(businessThread);
+        }
+        attempt = 0;
+        while (states.get(slot) != state(sequence, COMPLETED)) {
+            callerWait.idle(attempt++);
+        }
+        PurchaseResult result = results[slot];
+        results[slot] = null;
+        waiters[slot] = null;
+        states.set(slot, state(sequence + results.length, FREE));
+        return result;
+    }
+
+    // Counts too big to pack are turned down here, as no validator would accept that many tickets
+    private PurchaseResult purchase(Long accountId, TicketCounts ticketCounts) {
+        long packedCounts;
+        try {
+            packedCounts = PackedOrder.counts(ticketCounts);
+        } catch (IllegalArgumentException e) {
+            metrics.recordRejection(RejectionReason.TOO_MANY_TICKETS);
+            notifyRejected(accountId, ticketCounts, RejectionReason.TOO_MANY_TICKETS);
+            return PurchaseResult.Rejected.of(RejectionReason.TOO_MANY_TICKETS);
+        }
+        return accountId == null
+            ? tryPurchase(0, PackedOrder.withoutAccount(packedCounts))
+            : tryPurchase(accountId, packedCounts);
+    }
+
+    private void throwIfUnsuccessful(PurchaseResult result, TicketCounts ticketCounts) {
+        switch (result) {
+            case PurchaseResult.Success success -> { }
+            case PurchaseResult.Rejected rejected -> throw rejected.cause() != null ? rejected.cause()
+                : validator.rejection(rejected.reason(), ticketCounts);
+            case PurchaseResult.Failed failed -> throw failed.cause();
+        }
+    }
+
+    // Takes every order published in sequence since the last pass, then moves PROCESSED once for the batch
+    private void runBusinessLogic() {
+        long next = 0;
+        int attempt = 0;
+        while (next != closedAt) {
+            long end = next;
+            long limit = Math.min(next + results.length, closedAt);
+            while (end < limit && states.get((int) end & mask) == state(end, PUBLISHED)) {
+                end++;
+            }
+            if (end == next) {
+                // Publish parked before the final check, so a caller either sees it or we see its order
+                businessParked = true;
+                if (states.get((int) next & mask) != state(next, PUBLISHED) && next != closedAt) {
+                    stageWait.idle(attempt++);
+                }
+                businessParked = false;
+                continue;
+            }
+            attempt = 0;
+            for (long sequence = next; sequence < end; sequence++) {
+                try {
+                    process(sequence);
+                } catch (Error e) {
+                    // The order was failed on the way out; the ones behind it still need this thread
+                    logger.error("Business logic failed on order {}", sequence, e);
+                }
+            }
+            cursors.set(PROCESSED, end);
+            if (ioParked) {
+                LockSupport.unpark(ioThread);
+            }
+            next = end;
+        }
+    }
+
+    // Accepted orders are left for the I/O stage to complete; every other outcome is completed here
+    private void process(long sequence) {
+        int slot = (int) sequence & mask;
+        costs[slot] = REJECTED;
+        PurchaseResult outcome = unprocessed;
+        try {
+            long packedCounts = counts[slot];
+            Long accountId = PackedTicketService.accountId(accountIds[slot], packedCounts);
+            TicketCounts ticketCounts = PackedOrder.unpack(packedCounts);
+            RejectionReason reason = validator.check(accountId, ticketCounts);
+            if (reason != null) {
+                metrics.recordRejection(reason);
+                outcome = PurchaseResult.Rejected.of(reason);
+                notifyRejected(accountId, ticketCounts, reason);
+                return;
+            }
+            int totalCost = costCalculator.calculate(ticketCounts);
+            seats[slot] = seatCalculator.calculate(ticketCounts);
+            costs[slot] = totalCost;
+            outcome = null;
+        } catch (RuntimeException e) {
+            outcome = new PurchaseResult.Failed(e);
+        } finally {
+            if (outcome != null) {
+                complete(sequence, outcome);
+            }
+        }
+    }
+
+    // Reads slots the business thread has finished with; accepted orders go to virtual threads
+    private void runIo() {
+        long next = 0;
+        int attempt = 0;
+        while (next != closedAt) {
+            long end = cursors.get(PROCESSED);
+            if (end == next) {
+                ioParked = true;
+                if (cursors.get(PROCESSED) == next && next != closedAt) {
+                    stageWait.idle(attempt++);
+                }
+                ioParked = false;
+                continue;
+            }
+            attempt = 0;
+            for (long sequence = next; sequence < end; sequence++) {
+                int slot = (int) sequence & mask;
+                if (costs[slot] != REJECTED) {
+                    try {
+                        dispatch(sequence, accountIds[slot], counts[slot], costs[slot], seats[slot]);
+                    } catch (Error e) {
+                        logger.error("Failed to hand order {} to a virtual thread", sequence, e);
+                        complete(sequence, unsettled);
+                    }
+                }
+            }
+            cursors.set(DISPATCHED, end);
+            next = end;
+        }
+    }
+
+    private void dispatch(long sequence, long accountId, long packedCounts, int totalCost, int totalSeats) {
+        try {
+            thirdPartyExecutor.execute(() -> {
+                PurchaseResult result = unsettled;
+                try {
+                    result = settle(accountId, totalCost, totalSeats);
+                    if (result.isSuccess()) {
+                        notifyPurchased(accountId, PackedOrder.unpack(packedCounts), totalCost);
+                    } else if (result instanceof PurchaseResult.Rejected rejected) {
+                        notifyRejected(accountId, PackedOrder.unpack(packedCounts), rejected.reason());
+                    }
+                } finally {
+                    complete(sequence, result);
+                }
+            });
+        } catch (RuntimeException e) {
+            complete(sequence, new PurchaseResult.Failed(e));
+        }
+    }
+
+    // The listener must not throw, but if it does the outcome stands
+    private void notifyPurchased(long accountId, TicketCounts ticketCounts, int totalCost) {
+        try {
+            listener.purchased(accountId, ticketCounts, totalCost);
+        } catch (RuntimeException e) {
+            logger.error("Purchase listener failed for account: {}", accountId, e);
+        }
+    }
+
+    private void notifyRejected(Long accountId, TicketCounts ticketCounts, RejectionReason reason) {
+        try {
+            listener.rejected(PurchaseListener.NO_SHOW, accountId, ticketCounts, reason);
+        } catch (RuntimeException e) {
+            logger.error("Purchase listener failed for account: {}", accountId, e);
+        }
+    }
+
+    private PurchaseResult settle(long accountId, int totalCost, int totalSeats) {
+        PurchaseResult failure = settlement.settle(accountId, totalCost, totalSeats);
+        if (failure != null) {
+            return failure;
+        }
+        metrics.recordPurchase();
+        return new PurchaseResult.Success(accountId, totalCost, totalSeats);
+    }
+
+    private void complete(long sequence, PurchaseResult result) {
+        int slot = (int) sequence & mask;
+        // Read before the state changes hands, after which the caller may reuse the slot
+        Thread waiter = waiters[slot];
+        results[slot] = result;
+        states.set(slot, state(sequence, COMPLETED));
+        if (callerWait.signalled()) {
+            LockSupport.unpark(waiter);
+        }
+    }
+
+    private long awaitClosedAt() {
+        long at;
+        while ((at = closedAt) == Long.MAX_VALUE) {
+            Thread.onSpinWait();
+        }
+        return at;
+    }
+
+    private static long state(long sequence, int state) {
+        return sequence << STATE_BITS | state;
+    }
+
+    // Purchases already claimed still complete; new ones fail with closedResult
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        closedAt = cursors.getAndIncrement(CLAIMED);
+        LockSupport.unpark(businessThread);
+        LockSupport.unpark(ioThread);
+        try {
+            businessThread.join();
+            ioThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thirdPartyExecutor.close();
+    }
+}
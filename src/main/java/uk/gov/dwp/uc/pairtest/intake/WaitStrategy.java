@@ -0,0 +1,48 @@
+package uk.gov.dwp.uc.pairtest.intake;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How a thread waits for the ring: a stage for orders to process, or a caller for its result or a
+ * free slot. Each backs off further the longer the wait, trading hand-off latency for CPU.
+ */
+public enum WaitStrategy {
+    // Lowest latency, but every waiting thread keeps a core busy; only for stages pinned to spare cores
+    BUSY_SPIN,
+    // Spins briefly, then yields the core to any other runnable thread
+    YIELDING,
+    // Spins, yields, then naps for 100µs at a time: little CPU when idle, up to a nap of added latency
+    SLEEPING,
+    // Spins briefly, then parks until signalled: least CPU, but each hand-off may pay for a wake-up
+    BLOCKING;
+
+    private static final int SPINS = 100;
+    private static final int YIELDS = 100;
+    private static final long NAP_NANOS = 100_000;
+    // Backstop for waits with no one to signal them, such as a caller waiting for a free slot
+    private static final long PARK_NANOS = 1_000_000;
+
+    // attempt counts the consecutive checks that found nothing to do
+    void idle(int attempt) {
+        if (this == BUSY_SPIN || attempt < SPINS) {
+            Thread.onSpinWait();
+            return;
+        }
+        switch (this) {
+            case YIELDING -> Thread.yield();
+            case SLEEPING -> {
+                if (attempt < SPINS + YIELDS) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(this, NAP_NANOS);
+                }
+            }
+            default -> LockSupport.parkNanos(this, PARK_NANOS);
+        }
+    }
+
+    // Whether whoever ends the wait has to unpark the waiter
+    boolean signalled() {
+        return this == BLOCKING;
+    }
+}
@@ -0,0 +1,89 @@
+package uk.gov.dwp.uc.pairtest.inventory;
+
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.compensation.PurchaseCompensator;
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.exception.TicketPurchaseException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Allocates real seats from the show's inventory before asking the third-party service to reserve them.
+ * Not enough seats left is rejected locally, so a sold-out show never costs a third-party call.
+ *
+ * Each reserved allocation is kept against its account until released, so a purchase whose payment
+ * fails can give its seats back to the show: wrap the purchase's compensator with compensator(), and
+ * releasing seats frees them here before the third party is asked to. Allocations live as long as the
+ * seats they hold, so there are never more than the show has seats.
+ */
+public class InventorySeatReservationService implements SeatReservationService {
+    
+    private final ShowInventory inventory;
+    private final SeatReservationService delegate;
+    private final Map<Long, List<SeatAllocation>> allocations = new ConcurrentHashMap<>();
+    
+    public InventorySeatReservationService(ShowInventory inventory, SeatReservationService delegate) {
+        this.inventory = inventory;
+        this.delegate = delegate;
+    }
+    
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        SeatAllocation allocation = inventory.tryAllocate(totalSeatsToAllocate);
+        if (allocation == null) {
+            throw new TicketPurchaseException(inventory.isSoldOut() ? RejectionReason.SOLD_OUT : RejectionReason.NOT_ENOUGH_SEATS);
+        }
+        try {
+            delegate.reserveSeat(accountId, totalSeatsToAllocate);
+        } catch (RuntimeException e) {
+            inventory.release(allocation);
+            throw e;
+        }
+        allocations.compute(accountId, (id, held) -> {
+            List<SeatAllocation> kept = held == null ? new ArrayList<>(1) : held;
+            kept.add(allocation);
+            return kept;
+        });
+    }
+    
+    /**
+     * Frees the account's latest allocation of that many seats back to the show. Returns false when there
+     * is none, e.g. the reservation failed and was never kept, so a release can safely be repeated.
+     */
+    public boolean releaseSeats(long accountId, int totalSeatsToRelease) {
+        SeatAllocation[] released = new SeatAllocation[1];
+        allocations.computeIfPresent(accountId, (id, held) -> {
+            for (int i = held.size() - 1; i >= 0; i--) {
+                if (held.get(i).seatCount() == totalSeatsToRelease) {
+                    released[0] = held.remove(i);
+                    break;
+                }
+            }
+            return held.isEmpty() ? null : held;
+        });
+        if (released[0] == null) {
+            return false;
+        }
+        inventory.release(released[0]);
+        return true;
+    }
+    
+    // Releases seats from this show's inventory as well as through the third party's compensator
+    public PurchaseCompensator compensator(PurchaseCompensator thirdParty) {
+        return new PurchaseCompensator() {
+            @Override
+            public void releaseSeats(long accountId, int totalSeatsToRelease) {
+                InventorySeatReservationService.this.releaseSeats(accountId, totalSeatsToRelease);
+                thirdParty.releaseSeats(accountId, totalSeatsToRelease);
+            }
+            
+            @Override
+            public void refundPayment(long accountId, int totalAmountToRefund) {
+                thirdParty.refundPayment(accountId, totalAmountToRefund);
+            }
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package uk.gov.dwp.uc.pairtest.inventory;
+
+/**
+ * Seating layout of a screen. Each row is held in a single 64-bit word, which covers any real cinema row.
+ */
+public record Screen(String name, int rows, int seatsPerRow) {
+
+    public static final int MAX_SEATS_PER_ROW = Long.SIZE;
+
+    public Screen {
+        if (rows <= 0) {
+            throw new IllegalArgumentException("Screen must have at least one row");
+        }
+        if (seatsPerRow <= 0 || seatsPerRow > MAX_SEATS_PER_ROW) {
+            throw new IllegalArgumentException("Seats per row must be between 1 and " + MAX_SEATS_PER_ROW);
+        }
+    }
+
+    public int capacity() {
+        return rows * seatsPerRow;
+    }
+}
@@ -0,0 +1,25 @@
+package uk.gov.dwp.uc.pairtest.inventory;
+
+/**
+ * Seats taken by one allocation, as a bitmask per row (bit n = seat n of that row).
+ * A contiguous allocation is a single row with a single run of bits.
+ */
+public record SeatAllocation(int[] rows, long[] seatMasks) {
+
+    public int seatCount() {
+        int count = 0;
+        for (long mask : seatMasks) {
+            count += Long.bitCount(mask);
+        }
+        return count;
+    }
+
+    public boolean isContiguous() {
+        return rows.length == 1 && isSingleRun(seatMasks[0]);
+    }
+
+    private static boolean isSingleRun(long mask) {
+        long shifted = mask >>> Long.numberOfTrailingZeros(mask);
+        return (shifted & (shifted + 1)) == 0;
+    }
+}
@@ -0,0 +1,32 @@
+package uk.gov.dwp.uc.pairtest.inventory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the shows on sale and their seat maps.
+ */
+public class SeatInventory {
+    
+    private final Map<Long, ShowInventory> shows = new ConcurrentHashMap<>();
+    
+    public ShowInventory addShow(long showId, Screen screen) {
+        ShowInventory inventory = new ShowInventory(screen);
+        if (shows.putIfAbsent(showId, inventory) != null) {
+            throw new IllegalArgumentException("Show " + showId + " is already on sale");
+        }
+        return inventory;
+    }
+    
+    public ShowInventory show(long showId) {
+        ShowInventory inventory = shows.get(showId);
+        if (inventory == null) {
+            throw new IllegalArgumentException("Unknown show " + showId);
+        }
+        return inventory;
+    }
+    
+    public boolean isSoldOut(long showId) {
+        return show(showId).isSoldOut();
+    }
+}
@@ -0,0 +1,155 @@
+package uk.gov.dwp.uc.pairtest.inventory;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Seat map of one show: one word per row with a set bit per taken seat, updated with CAS only.
+ * Capacity is claimed from a counter first, so a sold-out show is rejected without touching the seat map.
+ */
+public class ShowInventory {
+    
+    private final Screen screen;
+    private final long rowMask;
+    private final AtomicLongArray takenSeats;
+    private final AtomicInteger remainingSeats;
+    
+    public ShowInventory(Screen screen) {
+        this.screen = screen;
+        this.rowMask = screen.seatsPerRow() == Long.SIZE ? -1L : (1L << screen.seatsPerRow()) - 1;
+        this.takenSeats = new AtomicLongArray(screen.rows());
+        this.remainingSeats = new AtomicInteger(screen.capacity());
+    }
+    
+    public Screen screen() {
+        return screen;
+    }
+    
+    public int remainingSeats() {
+        return remainingSeats.get();
+    }
+    
+    public boolean isSoldOut() {
+        return remainingSeats.get() == 0;
+    }
+    
+    /**
+     * Allocates adjacent seats in one row when such a gap exists, otherwise splits the group across rows.
+     * Returns null when fewer seats remain than requested.
+     */
+    public SeatAllocation tryAllocate(int seats) {
+        if (seats <= 0) {
+            throw new IllegalArgumentException("Seats to allocate must be greater than 0");
+        }
+        if (!claimCapacity(seats)) {
+            return null;
+        }
+        if (seats <= screen.seatsPerRow()) {
+            SeatAllocation contiguous = allocateContiguous(seats);
+            if (contiguous != null) {
+                return contiguous;
+            }
+        }
+        return allocateScattered(seats);
+    }
+    
+    public void release(SeatAllocation allocation) {
+        for (int i = 0; i < allocation.rows().length; i++) {
+            int row = allocation.rows()[i];
+            long mask = allocation.seatMasks()[i];
+            long current;
+            do {
+                current = takenSeats.get(row);
+                if ((current & mask) != mask) {
+                    throw new IllegalStateException("Seats being released are not allocated in row " + row);
+                }
+            } while (!takenSeats.compareAndSet(row, current, current & ~mask));
+        }
+        remainingSeats.addAndGet(allocation.seatCount());
+    }
+    
+    private boolean claimCapacity(int seats) {
+        int remaining;
+        do {
+            remaining = remainingSeats.get();
+            if (remaining < seats) {
+                return false;
+            }
+        } while (!remainingSeats.compareAndSet(remaining, remaining - seats));
+        return true;
+    }
+    
+    private SeatAllocation allocateContiguous(int seats) {
+        long runMask = seats == Long.SIZE ? -1L : (1L << seats) - 1;
+        for (int row = 0; row < screen.rows(); row++) {
+            long current = takenSeats.get(row);
+            long runStarts = runStarts(~current & rowMask, seats);
+            while (runStarts != 0) {
+                long mask = runMask << Long.numberOfTrailingZeros(runStarts);
+                if (takenSeats.compareAndSet(row, current, current | mask)) {
+                    return new SeatAllocation(new int[] {row}, new long[] {mask});
+                }
+                // Lost a race on this row: re-read it and look again
+                current = takenSeats.get(row);
+                runStarts = runStarts(~current & rowMask, seats);
+            }
+        }
+        return null;
+    }
+    
+    // Bit i of the result is set when seats i .. i+length-1 are all free; log2(length) shift-and steps per row
+    static long runStarts(long freeSeats, int length) {
+        long starts = freeSeats;
+        int covered = 1;
+        while (covered < length && starts != 0) {
+            int shift = Math.min(covered, length - covered);
+            starts &= starts >>> shift;
+            covered += shift;
+        }
+        return starts;
+    }
+    
+    // Capacity is already claimed, so enough free bits are guaranteed to appear across the rows
+    private SeatAllocation allocateScattered(int seats) {
+        int[] rows = new int[screen.rows()];
+        long[] masks = new long[screen.rows()];
+        int used = 0;
+        int needed = seats;
+        int row = 0;
+        while (needed > 0) {
+            long current = takenSeats.get(row);
+            long free = ~current & rowMask;
+            long mask = 0;
+            int taken = 0;
+            while (free != 0 && taken < needed) {
+                long lowest = free & -free;
+                mask |= lowest;
+                free ^= lowest;
+                taken++;
+            }
+            if (mask != 0 && takenSeats.compareAndSet(row, current, current | mask)) {
+                int index = indexOf(rows, used, row);
+                if (index < 0) {
+                    rows[used] = row;
+                    masks[used++] = mask;
+                } else {
+                    masks[index] |= mask;
+                }
+                needed -= taken;
+            } else if (mask == 0) {
+                row = (row + 1) % screen.rows();
+            }
+        }
+        return new SeatAllocation(Arrays.copyOf(rows, used), Arrays.copyOf(masks, used));
+    }
+    
+    private static int indexOf(int[] rows, int used, int row) {
+        for (int i = 0; i < used; i++) {
+            if (rows[i] == row) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
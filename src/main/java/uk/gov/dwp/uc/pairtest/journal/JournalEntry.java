@@ -0,0 +1,8 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+public record JournalEntry(long purchaseId, long accountId, int totalCost, int totalSeats, PurchaseState state) {
+
+    public JournalEntry withState(PurchaseState newState) {
+        return new JournalEntry(purchaseId, accountId, totalCost, totalSeats, newState);
+    }
+}
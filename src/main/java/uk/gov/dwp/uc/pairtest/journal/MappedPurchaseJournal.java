@@ -0,0 +1,341 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.dwp.uc.pairtest.compensation.PurchaseCompensator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * PurchaseJournal on memory-mapped segment files of fixed-size records.
+ *
+ * Appends are a few plain writes into the mapping under a short lock. Durability is group committed:
+ * the first caller to need a flush forces everything written so far, and every caller whose record
+ * was covered returns without forcing again, so one fsync serves all concurrent purchases.
+ *
+ * Every checkpointInterval records the journal checkpoints: the still-open purchases are copied into
+ * a new segment, which is forced and renamed into place before older segments are deleted. Recovery
+ * only ever reads the newest segment, so it replays at most the open purchases plus one interval.
+ * Each checkpoint starts with a finished record carrying the highest purchase id issued so far, so ids
+ * keep increasing across restarts even when no purchase is left open.
+ */
+public class MappedPurchaseJournal implements PurchaseJournal, AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MappedPurchaseJournal.class);
+    
+    // purchaseId, accountId, totalCost, totalSeats, state ordinal + 1 (0 = never written), checksum
+    static final int RECORD_SIZE = 32;
+    private static final String SEGMENT_PREFIX = "purchases-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final PurchaseState[] STATES = PurchaseState.values();
+    
+    private final Path directory;
+    private final int checkpointInterval;
+    private final AtomicLong nextPurchaseId;
+    private final Map<Long, JournalEntry> open = new ConcurrentHashMap<>();
+    private final List<JournalEntry> recovered;
+    
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock forceLock = new ReentrantLock();
+    // Guarded by appendLock
+    private MappedByteBuffer segment;
+    private long segmentSequence;
+    private int position;
+    private long written;
+    // Guarded by forceLock
+    private int forcedPosition;
+    private volatile long durable;
+    private volatile boolean closed;
+    
+    private MappedPurchaseJournal(Path directory, int checkpointInterval, long nextPurchaseId, long segmentSequence,
+                                  List<JournalEntry> recovered) {
+        this.directory = directory;
+        this.checkpointInterval = checkpointInterval;
+        this.nextPurchaseId = new AtomicLong(nextPurchaseId);
+        this.segmentSequence = segmentSequence;
+        this.recovered = List.copyOf(recovered);
+    }
+    
+    /**
+     * Opens the journal in directory, compensating every purchase the newest segment shows as unfinished:
+     * INTENT may have reserved seats, so they are released; RESERVED may also have been charged, so it is
+     * refunded as well. The compensator must tolerate undoing a step that never happened.
+     */
+    public static MappedPurchaseJournal open(Path directory, int checkpointInterval, PurchaseCompensator compensator)
+            throws IOException {
+        if (checkpointInterval <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be greater than 0");
+        }
+        Files.createDirectories(directory);
+        List<Path> segments = segments(directory);
+        Map<Long, JournalEntry> latest = segments.isEmpty() ? Map.of() : replay(segments.getLast());
+        long sequence = segments.isEmpty() ? 0 : sequenceOf(segments.getLast());
+        long maxPurchaseId = latest.keySet().stream().mapToLong(Long::longValue).max().orElse(0);
+        
+        List<JournalEntry> compensated = new ArrayList<>();
+        for (JournalEntry entry : latest.values()) {
+            if (entry.state().isTerminal()) {
+                continue;
+            }
+            logger.warn("Compensating unfinished purchase {} for account {} left in state {}",
+                entry.purchaseId(), entry.accountId(), entry.state());
+            if (entry.state() == PurchaseState.RESERVED) {
+                compensator.refundPayment(entry.accountId(), entry.totalCost());
+            }
+            compensator.releaseSeats(entry.accountId(), entry.totalSeats());
+            compensated.add(entry.withState(PurchaseState.COMPENSATED));
+        }
+        
+        MappedPurchaseJournal journal = new MappedPurchaseJournal(directory, checkpointInterval, maxPurchaseId + 1,
+            sequence, compensated);
+        // Starting from a fresh checkpoint with nothing open records the compensations durably
+        journal.forceLock.lock();
+        journal.appendLock.lock();
+        try {
+            journal.checkpoint();
+        } finally {
+            journal.appendLock.unlock();
+            journal.forceLock.unlock();
+        }
+        return journal;
+    }
+    
+    // Purchases compensated while opening the journal
+    public List<JournalEntry> recovered() {
+        return recovered;
+    }
+    
+    public Collection<JournalEntry> openPurchases() {
+        return List.copyOf(open.values());
+    }
+    
+    @Override
+    public long begin(long accountId, int totalCost, int totalSeats) {
+        long purchaseId = nextPurchaseId.getAndIncrement();
+        JournalEntry entry = new JournalEntry(purchaseId, accountId, totalCost, totalSeats, PurchaseState.INTENT);
+        open.put(purchaseId, entry);
+        commit(append(entry));
+        return purchaseId;
+    }
+    
+    @Override
+    public void reserved(long purchaseId) {
+        commit(transition(purchaseId, PurchaseState.RESERVED));
+    }
+    
+    @Override
+    public void paid(long purchaseId) {
+        commit(transition(purchaseId, PurchaseState.PAID));
+    }
+    
+    @Override
+    public void compensated(long purchaseId) {
+        transition(purchaseId, PurchaseState.COMPENSATED);
+    }
+    
+    private long transition(long purchaseId, PurchaseState state) {
+        JournalEntry entry = state.isTerminal() ? open.remove(purchaseId) : open.computeIfPresent(purchaseId,
+            (id, current) -> current.withState(state));
+        if (entry == null) {
+            throw new IllegalArgumentException("Unknown or finished purchase " + purchaseId);
+        }
+        return append(entry.withState(state));
+    }
+    
+    // Returns the record's sequence number, to wait on with commit
+    private long append(JournalEntry entry) {
+        while (true) {
+            appendLock.lock();
+            try {
+                if (closed) {
+                    throw new IllegalStateException("Journal is closed");
+                }
+                if (position + RECORD_SIZE <= segment.capacity()) {
+                    write(segment, position, entry);
+                    position += RECORD_SIZE;
+                    return ++written;
+                }
+            } finally {
+                appendLock.unlock();
+            }
+            rollOver();
+        }
+    }
+    
+    private void commit(long sequence) {
+        if (durable >= sequence) {
+            return;
+        }
+        forceLock.lock();
+        try {
+            if (durable >= sequence) {
+                return;
+            }
+            MappedByteBuffer target;
+            int end;
+            long covered;
+            appendLock.lock();
+            try {
+                target = segment;
+                end = position;
+                covered = written;
+            } finally {
+                appendLock.unlock();
+            }
+            // Appends carry on while this forces; they join the next group
+            target.force(forcedPosition, end - forcedPosition);
+            forcedPosition = end;
+            durable = covered;
+        } finally {
+            forceLock.unlock();
+        }
+    }
+    
+    private void rollOver() {
+        forceLock.lock();
+        appendLock.lock();
+        try {
+            if (position + RECORD_SIZE > segment.capacity()) {
+                checkpoint();
+            }
+        } finally {
+            appendLock.unlock();
+            forceLock.unlock();
+        }
+    }
+    
+    // Requires both locks. The current segment is forced first so nothing written to it is lost.
+    private void checkpoint() {
+        try {
+            if (segment != null) {
+                segment.force(forcedPosition, position - forcedPosition);
+            }
+            Collection<JournalEntry> snapshot = List.copyOf(open.values());
+            // Ids issued after this read are appended to the new segment, so it still sees them
+            JournalEntry highWaterMark = new JournalEntry(nextPurchaseId.get() - 1, 0, 0, 0, PurchaseState.COMPENSATED);
+            long sequence = segmentSequence + 1;
+            Path path = segmentPath(sequence);
+            Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+            int capacity = (1 + snapshot.size() + checkpointInterval) * RECORD_SIZE;
+            MappedByteBuffer next;
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                next = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            }
+            write(next, 0, highWaterMark);
+            int nextPosition = RECORD_SIZE;
+            for (JournalEntry entry : snapshot) {
+                write(next, nextPosition, entry);
+                nextPosition += RECORD_SIZE;
+            }
+            next.force();
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+            for (Path old : segments(directory)) {
+                if (!old.equals(path)) {
+                    Files.deleteIfExists(old);
+                }
+            }
+            segment = next;
+            segmentSequence = sequence;
+            position = nextPosition;
+            forcedPosition = nextPosition;
+            durable = written;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to checkpoint purchase journal in " + directory, e);
+        }
+    }
+    
+    private static void write(MappedByteBuffer buffer, int offset, JournalEntry entry) {
+        int state = entry.state().ordinal() + 1;
+        buffer.putLong(offset, entry.purchaseId());
+        buffer.putLong(offset + 8, entry.accountId());
+        buffer.putInt(offset + 16, entry.totalCost());
+        buffer.putInt(offset + 20, entry.totalSeats());
+        buffer.putInt(offset + 28, checksum(entry.purchaseId(), entry.accountId(), entry.totalCost(), entry.totalSeats(), state));
+        // The state goes last: a record with a zero state was never completely written
+        buffer.putInt(offset + 24, state);
+    }
+    
+    // Latest state per purchase, in first-seen order; stops at the first unwritten or torn record
+    static Map<Long, JournalEntry> replay(Path segmentFile) throws IOException {
+        Map<Long, JournalEntry> latest = new LinkedHashMap<>();
+        try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            for (int offset = 0; offset + RECORD_SIZE <= buffer.capacity(); offset += RECORD_SIZE) {
+                long purchaseId = buffer.getLong(offset);
+                long accountId = buffer.getLong(offset + 8);
+                int totalCost = buffer.getInt(offset + 16);
+                int totalSeats = buffer.getInt(offset + 20);
+                int state = buffer.getInt(offset + 24);
+                if (state <= 0 || state > STATES.length
+                        || buffer.getInt(offset + 28) != checksum(purchaseId, accountId, totalCost, totalSeats, state)) {
+                    break;
+                }
+                latest.put(purchaseId, new JournalEntry(purchaseId, accountId, totalCost, totalSeats, STATES[state - 1]));
+            }
+        }
+        return latest;
+    }
+    
+    static int checksum(long purchaseId, long accountId, int totalCost, int totalSeats, int state) {
+        long hash = purchaseId * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ accountId) * 0xC2B2AE3D27D4EB4FL;
+        hash = (hash ^ ((long) totalCost << 32 | (totalSeats & 0xFFFFFFFFL))) * 0x165667B19E3779F9L;
+        hash = (hash ^ state) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+    
+    private Path segmentPath(long sequence) {
+        return directory.resolve(SEGMENT_PREFIX + String.format("%016d", sequence) + SEGMENT_SUFFIX);
+    }
+    
+    private static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                    && file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                .sorted(Comparator.comparing(file -> file.getFileName().toString()))
+                .toList();
+        }
+    }
+    
+    private static long sequenceOf(Path segmentFile) {
+        String name = segmentFile.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+    
+    // Flushes everything written; the segment stays on disk for the next open to recover from
+    @Override
+    public void close() {
+        forceLock.lock();
+        appendLock.lock();
+        try {
+            if (!closed) {
+                closed = true;
+                segment.force(forcedPosition, position - forcedPosition);
+                forcedPosition = position;
+                durable = written;
+            }
+        } finally {
+            appendLock.unlock();
+            forceLock.unlock();
+        }
+    }
+}
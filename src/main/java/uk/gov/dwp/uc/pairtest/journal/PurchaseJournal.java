@@ -0,0 +1,37 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+/**
+ * Write-ahead record of each purchase's progress through the third-party calls, so a restart can find
+ * and compensate purchases that were cut off half way. begin, reserved and paid return once the record
+ * is durable; compensated does not wait.
+ */
+public interface PurchaseJournal {
+
+    PurchaseJournal DISABLED = new PurchaseJournal() {
+        @Override
+        public long begin(long accountId, int totalCost, int totalSeats) {
+            return 0;
+        }
+
+        @Override
+        public void reserved(long purchaseId) {
+        }
+
+        @Override
+        public void paid(long purchaseId) {
+        }
+
+        @Override
+        public void compensated(long purchaseId) {
+        }
+    };
+
+    // Returns the id to pass to the later calls for this purchase
+    long begin(long accountId, int totalCost, int totalSeats);
+
+    void reserved(long purchaseId);
+
+    void paid(long purchaseId);
+
+    void compensated(long purchaseId);
+}
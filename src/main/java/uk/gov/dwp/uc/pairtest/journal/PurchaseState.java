@@ -0,0 +1,10 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+public enum PurchaseState {
+    INTENT, RESERVED, PAID, COMPENSATED;
+
+    // PAID and COMPENSATED purchases need nothing more from recovery
+    public boolean isTerminal() {
+        return this == PAID || this == COMPENSATED;
+    }
+}
@@ -0,0 +1,256 @@
+package uk.gov.dwp.uc.pairtest.ledger;
+
+import uk.gov.dwp.uc.pairtest.PurchaseListener;
+import uk.gov.dwp.uc.pairtest.calculation.CostCalculator;
+import uk.gov.dwp.uc.pairtest.calculation.CostCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
+
+import java.time.Clock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Ticket and spend totals per account within the current window, for limits that span orders. Accounts
+ * live in 64 striped open-addressing tables of parallel primitive arrays keyed by the raw account id,
+ * about 24 bytes a slot and no objects, so tens of millions of accounts fit comfortably. Reads take an
+ * optimistic stamp and only lock if a writer got in the way; writers lock one stripe.
+ *
+ * Totals belong to the window they were recorded in. An entry from an earlier window reads as zero and
+ * is overwritten by the account's next purchase, so a new window never has to visit every account, and
+ * a stripe that grows drops accounts idle since an earlier window instead of copying them.
+ *
+ * Limits are checked when an order is validated and totals recorded once it has been paid for, so
+ * concurrent orders from one account can together overshoot a limit by what they had in flight.
+ */
+public class AccountLedger implements PurchaseListener {
+
+    private static final int STRIPE_BITS = 6;
+    private static final int MIN_CAPACITY = 16;
+
+    private final AccountLimits limits;
+    private final CostCalculator costCalculator;
+    private final Clock clock;
+    private final long windowMillis;
+    private final Stripe[] stripes = new Stripe[1 << STRIPE_BITS];
+
+    public AccountLedger(AccountLimits limits) {
+        this(limits, new CostCalculatorImpl(), 1 << 16, Clock.systemUTC());
+    }
+
+    // costCalculator prices an order for the spend check, so it should match the one the purchase uses
+    public AccountLedger(AccountLimits limits, CostCalculator costCalculator, int expectedAccounts, Clock clock) {
+        if (expectedAccounts < 0) {
+            throw new IllegalArgumentException("Expected accounts cannot be negative");
+        }
+        this.limits = limits;
+        this.costCalculator = costCalculator;
+        this.clock = clock;
+        this.windowMillis = limits.window().toMillis();
+        int capacity = MIN_CAPACITY;
+        while (capacity < (long) expectedAccounts * 2 / stripes.length) {
+            capacity <<= 1;
+        }
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe(capacity);
+        }
+    }
+
+    public AccountLimits limits() {
+        return limits;
+    }
+
+    // Whether the order keeps the account within its limits for the current window
+    public boolean allows(long accountId, TicketCounts ticketCounts) {
+        long tickets = limits.maxTickets() - ticketCounts.total();
+        long spend = limits.maxSpend() - costCalculator.calculate(ticketCounts);
+        if (tickets < 0 || spend < 0) {
+            return false;
+        }
+        long hash = hash(accountId);
+        Stripe stripe = stripeFor(hash);
+        int window = currentWindow();
+        long stamp = stripe.lock.tryOptimisticRead();
+        boolean allowed = stripe.tickets(accountId, hash, window) <= tickets && stripe.spend(accountId, hash, window) <= spend;
+        if (!stripe.lock.validate(stamp)) {
+            stamp = stripe.lock.readLock();
+            try {
+                allowed = stripe.tickets(accountId, hash, window) <= tickets && stripe.spend(accountId, hash, window) <= spend;
+            } finally {
+                stripe.lock.unlockRead(stamp);
+            }
+        }
+        return allowed;
+    }
+
+    public long tickets(long accountId) {
+        return read(accountId, false);
+    }
+
+    public long spend(long accountId) {
+        return read(accountId, true);
+    }
+
+    public void record(long accountId, int tickets, long spend) {
+        if (accountId <= 0) {
+            throw new IllegalArgumentException("Account ID must be greater than 0");
+        }
+        long hash = hash(accountId);
+        Stripe stripe = stripeFor(hash);
+        int window = currentWindow();
+        long stamp = stripe.lock.writeLock();
+        try {
+            stripe.add(accountId, hash, window, tickets, spend);
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void purchased(long accountId, TicketCounts ticketCounts, int totalCost) {
+        record(accountId, ticketCounts.total(), totalCost);
+    }
+
+    // Accounts with an entry, including ones idle since an earlier window that haven't been dropped yet
+    public int accounts() {
+        int accounts = 0;
+        for (Stripe stripe : stripes) {
+            long stamp = stripe.lock.readLock();
+            try {
+                accounts += stripe.size;
+            } finally {
+                stripe.lock.unlockRead(stamp);
+            }
+        }
+        return accounts;
+    }
+
+    private long read(long accountId, boolean spend) {
+        long hash = hash(accountId);
+        Stripe stripe = stripeFor(hash);
+        int window = currentWindow();
+        long stamp = stripe.lock.tryOptimisticRead();
+        long total = spend ? stripe.spend(accountId, hash, window) : stripe.tickets(accountId, hash, window);
+        if (!stripe.lock.validate(stamp)) {
+            stamp = stripe.lock.readLock();
+            try {
+                total = spend ? stripe.spend(accountId, hash, window) : stripe.tickets(accountId, hash, window);
+            } finally {
+                stripe.lock.unlockRead(stamp);
+            }
+        }
+        return total;
+    }
+
+    private int currentWindow() {
+        return (int) (clock.millis() / windowMillis);
+    }
+
+    private Stripe stripeFor(long hash) {
+        return stripes[(int) (hash >>> (Long.SIZE - STRIPE_BITS))];
+    }
+
+    private static long hash(long accountId) {
+        return accountId * 0x9E3779B97F4A7C15L;
+    }
+
+    private static final class Stripe {
+        private final StampedLock lock = new StampedLock();
+        private Table table;
+        private int size;
+
+        private Stripe(int capacity) {
+            this.table = new Table(capacity);
+        }
+
+        // Optimistic readers may see a torn table, so these only read and always terminate
+        private long tickets(long accountId, long hash, int window) {
+            Table current = table;
+            int slot = current.find(accountId, hash);
+            return slot < 0 || current.windows[slot] != window ? 0 : current.tickets[slot];
+        }
+
+        private long spend(long accountId, long hash, int window) {
+            Table current = table;
+            int slot = current.find(accountId, hash);
+            return slot < 0 || current.windows[slot] != window ? 0 : current.spend[slot];
+        }
+
+        private void add(long accountId, long hash, int window, int tickets, long spend) {
+            int slot = table.find(accountId, hash);
+            if (slot < 0) {
+                if (size + 1 > table.accountIds.length / 4 * 3) {
+                    rebuild(window);
+                }
+                slot = ~table.find(accountId, hash);
+                table.accountIds[slot] = accountId;
+                size++;
+            }
+            if (table.windows[slot] != window) {
+                table.windows[slot] = window;
+                table.tickets[slot] = 0;
+                table.spend[slot] = 0;
+            }
+            table.tickets[slot] += tickets;
+            table.spend[slot] += spend;
+        }
+
+        // Copies only accounts active in this window, into a table at most half full
+        private void rebuild(int window) {
+            Table old = table;
+            int live = 0;
+            for (int slot = 0; slot < old.accountIds.length; slot++) {
+                if (old.accountIds[slot] != 0 && old.windows[slot] == window) {
+                    live++;
+                }
+            }
+            int capacity = old.accountIds.length;
+            while (live + 1 > capacity / 2) {
+                capacity <<= 1;
+            }
+            Table rebuilt = new Table(capacity);
+            for (int slot = 0; slot < old.accountIds.length; slot++) {
+                long accountId = old.accountIds[slot];
+                if (accountId != 0 && old.windows[slot] == window) {
+                    int target = ~rebuilt.find(accountId, hash(accountId));
+                    rebuilt.accountIds[target] = accountId;
+                    rebuilt.windows[target] = window;
+                    rebuilt.tickets[target] = old.tickets[slot];
+                    rebuilt.spend[target] = old.spend[slot];
+                }
+            }
+            table = rebuilt;
+            size = live;
+        }
+    }
+
+    // Slots are never emptied in place, so a probe always ends at the key or at an empty slot
+    private static final class Table {
+        private final long[] accountIds;
+        private final int[] windows;
+        private final int[] tickets;
+        private final long[] spend;
+        private final int mask;
+
+        private Table(int capacity) {
+            this.accountIds = new long[capacity];
+            this.windows = new int[capacity];
+            this.tickets = new int[capacity];
+            this.spend = new long[capacity];
+            this.mask = capacity - 1;
+        }
+
+        // The account's slot, or the complement of the empty slot where it would go
+        private int find(long accountId, long hash) {
+            int slot = (int) (hash ^ (hash >>> 32)) & mask;
+            while (true) {
+                long candidate = accountIds[slot];
+                if (candidate == accountId) {
+                    return slot;
+                }
+                if (candidate == 0) {
+                    return ~slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+    }
+}
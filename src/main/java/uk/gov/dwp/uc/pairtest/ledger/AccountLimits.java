@@ -0,0 +1,24 @@
+package uk.gov.dwp.uc.pairtest.ledger;
+
+import java.time.Duration;
+
+// Caps on what one account can buy across all its orders within each window
+public record AccountLimits(int maxTickets, long maxSpend, Duration window) {
+
+    public AccountLimits {
+        if (maxTickets <= 0) {
+            throw new IllegalArgumentException("Maximum tickets must be greater than 0");
+        }
+        if (maxSpend < 0) {
+            throw new IllegalArgumentException("Maximum spend cannot be negative");
+        }
+        if (window == null || window.toMillis() <= 0) {
+            throw new IllegalArgumentException("Window must be at least a millisecond");
+        }
+    }
+
+    // Windows start at midnight UTC
+    public static AccountLimits daily(int maxTickets, long maxSpend) {
+        return new AccountLimits(maxTickets, maxSpend, Duration.ofDays(1));
+    }
+}
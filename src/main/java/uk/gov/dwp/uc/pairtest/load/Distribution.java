@@ -0,0 +1,87 @@
+package uk.gov.dwp.uc.pairtest.load;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Weighted distribution of ticket counts: weights[n] is the relative weight of a count of n.
+ * Sampling is a search over the cumulative weights, so it neither allocates nor locks.
+ */
+public final class Distribution {
+    
+    private final long[] cumulative;
+    
+    private Distribution(int[] weights) {
+        if (weights.length == 0) {
+            throw new IllegalArgumentException("Distribution needs at least one weight");
+        }
+        cumulative = new long[weights.length];
+        long total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] < 0) {
+                throw new IllegalArgumentException("Weights cannot be negative");
+            }
+            total += weights[i];
+            cumulative[i] = total;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("Distribution needs a positive weight");
+        }
+    }
+    
+    public static Distribution of(int... weights) {
+        return new Distribution(weights.clone());
+    }
+    
+    public static Distribution fixed(int count) {
+        return uniform(count, count);
+    }
+    
+    public static Distribution uniform(int min, int max) {
+        if (min < 0 || max < min) {
+            throw new IllegalArgumentException("Invalid range " + min + "-" + max);
+        }
+        int[] weights = new int[max + 1];
+        Arrays.fill(weights, min, max + 1, 1);
+        return new Distribution(weights);
+    }
+    
+    /**
+     * Parses "min-max" as a uniform range, a single number as a fixed count, or comma-separated weights.
+     */
+    public static Distribution parse(String spec) {
+        try {
+            if (spec.contains(",")) {
+                return of(Arrays.stream(spec.split(",")).mapToInt(weight -> Integer.parseInt(weight.trim())).toArray());
+            }
+            int dash = spec.indexOf('-');
+            if (dash > 0) {
+                return uniform(Integer.parseInt(spec.substring(0, dash).trim()), Integer.parseInt(spec.substring(dash + 1).trim()));
+            }
+            return fixed(Integer.parseInt(spec.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid distribution '" + spec + "'", e);
+        }
+    }
+    
+    public int sample(SplittableRandom random) {
+        long target = random.nextLong(cumulative[cumulative.length - 1]);
+        int index = Arrays.binarySearch(cumulative, target + 1);
+        if (index < 0) {
+            return -index - 1;
+        }
+        // Zero-weight counts share their predecessor's cumulative value; take the first of them
+        while (index > 0 && cumulative[index - 1] == cumulative[index]) {
+            index--;
+        }
+        return index;
+    }
+    
+    public int max() {
+        int max = cumulative.length - 1;
+        while (max > 0 && cumulative[max] == cumulative[max - 1]) {
+            max--;
+        }
+        return max;
+    }
+}
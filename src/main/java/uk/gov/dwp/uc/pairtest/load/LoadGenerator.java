@@ -0,0 +1,145 @@
+package uk.gov.dwp.uc.pairtest.load;
+
+import uk.gov.dwp.uc.pairtest.PackedTicketService;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.metrics.LatencyHistogram;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a PackedTicketService with generated orders on virtual threads and reports what it saw.
+ *
+ * Every order has an intended start time: its arrival slot in an open run, or the worker's next
+ * paced slot in a closed run with an expected interval. Response time is measured from that slot
+ * rather than from when the call went out, so a stalled target shows up as latency instead of
+ * silently lowering the send rate.
+ */
+public class LoadGenerator {
+    
+    private final PackedTicketService target;
+    private final OrderProfile profile;
+    
+    public LoadGenerator(PackedTicketService target, OrderProfile profile) {
+        if (target == null || profile == null) {
+            throw new IllegalArgumentException("Target and order profile are required");
+        }
+        this.target = target;
+        this.profile = profile;
+    }
+    
+    // Blocks for the run's duration plus however long the orders still in flight take
+    public LoadReport run(LoadOptions options) {
+        Recorder recorder = new Recorder();
+        long start = System.nanoTime();
+        long deadline = start + options.duration().toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            switch (options.model()) {
+                case OPEN -> runOpen(options, start, deadline, executor, recorder);
+                case CLOSED -> runClosed(options, start, deadline, executor, recorder);
+            }
+        }
+        return recorder.report(options.model(), Duration.ofNanos(System.nanoTime() - start));
+    }
+    
+    // The calling thread schedules; when it falls behind it sends the overdue orders straight away
+    private void runOpen(LoadOptions options, long start, long deadline, ExecutorService executor, Recorder recorder) {
+        OrderGenerator orders = new OrderGenerator(profile, options.seed());
+        double intervalNanos = 1e9 / options.ratePerSecond();
+        for (long sent = 0; ; sent++) {
+            long intendedStart = start + (long) (sent * intervalNanos);
+            if (intendedStart - deadline >= 0) {
+                return;
+            }
+            waitUntil(intendedStart);
+            long counts = orders.next();
+            long accountId = orders.accountId();
+            executor.execute(() -> purchase(accountId, counts, intendedStart, recorder));
+        }
+    }
+    
+    private void runClosed(LoadOptions options, long start, long deadline, ExecutorService executor, Recorder recorder) {
+        SplittableRandom seeds = new SplittableRandom(options.seed());
+        long intervalNanos = options.expectedInterval().toNanos();
+        for (int worker = 0; worker < options.concurrency(); worker++) {
+            OrderGenerator orders = new OrderGenerator(profile, seeds.nextLong());
+            executor.execute(() -> {
+                long intendedStart = start;
+                while (true) {
+                    if (intervalNanos == 0) {
+                        intendedStart = System.nanoTime();
+                    } else {
+                        waitUntil(intendedStart);
+                    }
+                    if (intendedStart - deadline >= 0) {
+                        return;
+                    }
+                    long counts = orders.next();
+                    purchase(orders.accountId(), counts, intendedStart, recorder);
+                    intendedStart += intervalNanos;
+                }
+            });
+        }
+    }
+    
+    private void purchase(long accountId, long counts, long intendedStart, Recorder recorder) {
+        long start = System.nanoTime();
+        PurchaseResult result;
+        try {
+            result = target.tryPurchase(accountId, counts);
+        } catch (RuntimeException e) {
+            result = new PurchaseResult.Failed(e);
+        }
+        long end = System.nanoTime();
+        recorder.record(result, end - start, end - intendedStart);
+    }
+    
+    private static void waitUntil(long time) {
+        for (long remaining = time - System.nanoTime(); remaining > 0; remaining = time - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+    
+    private static final class Recorder {
+        private final LongAdder succeeded = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder[] rejections = new LongAdder[RejectionReason.values().length];
+        private final LatencyHistogram serviceTime = new LatencyHistogram();
+        private final LatencyHistogram responseTime = new LatencyHistogram();
+        
+        private Recorder() {
+            for (int i = 0; i < rejections.length; i++) {
+                rejections[i] = new LongAdder();
+            }
+        }
+        
+        private void record(PurchaseResult result, long serviceNanos, long responseNanos) {
+            switch (result) {
+                case PurchaseResult.Success success -> succeeded.increment();
+                case PurchaseResult.Rejected rejected -> rejections[rejected.reason().ordinal()].increment();
+                case PurchaseResult.Failed failure -> failed.increment();
+            }
+            serviceTime.record(serviceNanos);
+            responseTime.record(responseNanos);
+        }
+        
+        private LoadReport report(LoadModel model, Duration elapsed) {
+            Map<RejectionReason, Long> byReason = new EnumMap<>(RejectionReason.class);
+            for (RejectionReason reason : RejectionReason.values()) {
+                long count = rejections[reason.ordinal()].sum();
+                if (count > 0) {
+                    byReason.put(reason, count);
+                }
+            }
+            return new LoadReport(model, elapsed, succeeded.sum(), failed.sum(), byReason,
+                serviceTime.snapshot(), responseTime.snapshot());
+        }
+    }
+}
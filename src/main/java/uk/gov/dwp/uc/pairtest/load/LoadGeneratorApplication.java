@@ -0,0 +1,73 @@
+package uk.gov.dwp.uc.pairtest.load;
+
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.simulation.LatencyModel;
+import uk.gov.dwp.uc.pairtest.simulation.SimulatedSeatReservationService;
+import uk.gov.dwp.uc.pairtest.simulation.SimulatedTicketPaymentService;
+import uk.gov.dwp.uc.pairtest.simulation.SimulationOptions;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runs the load generator against an in-process TicketServiceImpl over simulated third-party services
+ * and prints the report.
+ * Arguments are --name=value pairs, all optional:
+ * <pre>
+ * --model=open|closed   --rate=orders/s (open)   --concurrency=workers (closed)
+ * --interval=ms between a closed worker's orders   --duration=s   --seed=n
+ * --adults=, --children=, --infants= as Distribution.parse specs   --invalid=ratio   --accounts=n
+ * --latency= as a LatencyModel.parse spec   --errors=ratio   --timeout=ms   applied to both third parties
+ * </pre>
+ */
+public final class LoadGeneratorApplication {
+    
+    private LoadGeneratorApplication() {
+    }
+    
+    public static void main(String[] args) {
+        Map<String, String> arguments = parse(args);
+        OrderProfile defaults = OrderProfile.DEFAULTS;
+        OrderProfile profile = new OrderProfile(
+            distribution(arguments, "adults", defaults.adults()),
+            distribution(arguments, "children", defaults.children()),
+            distribution(arguments, "infants", defaults.infants()),
+            Double.parseDouble(arguments.getOrDefault("invalid", Double.toString(defaults.invalidRatio()))),
+            Long.parseLong(arguments.getOrDefault("accounts", Long.toString(defaults.accounts()))),
+            defaults.maxTickets()
+        );
+        Duration duration = Duration.ofSeconds(Long.parseLong(arguments.getOrDefault("duration", "10")));
+        LoadOptions options = "closed".equalsIgnoreCase(arguments.getOrDefault("model", "open"))
+            ? LoadOptions.closed(Integer.parseInt(arguments.getOrDefault("concurrency", "64")), duration)
+                .withExpectedInterval(Duration.ofMillis(Long.parseLong(arguments.getOrDefault("interval", "0"))))
+            : LoadOptions.open(Double.parseDouble(arguments.getOrDefault("rate", "10000")), duration);
+        options = options.withSeed(Long.parseLong(arguments.getOrDefault("seed", Long.toString(options.seed()))));
+        
+        SimulationOptions simulation = SimulationOptions.DEFAULTS
+            .withLatency(arguments.containsKey("latency") ? LatencyModel.parse(arguments.get("latency")) : LatencyModel.NONE)
+            .withErrorRate(Double.parseDouble(arguments.getOrDefault("errors", "0")))
+            .withTimeout(Duration.ofMillis(Long.parseLong(arguments.getOrDefault("timeout", "0"))))
+            .withSeed(options.seed());
+        TicketServiceImpl target = new TicketServiceImpl(new SimulatedTicketPaymentService(simulation),
+            new SimulatedSeatReservationService(simulation.withSeed(options.seed() + 1)));
+        new LoadGenerator(target, profile).run(options).print(System.out);
+    }
+    
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> arguments = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got '" + arg + "'");
+            }
+            arguments.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        return arguments;
+    }
+    
+    private static Distribution distribution(Map<String, String> arguments, String name, Distribution defaultValue) {
+        String spec = arguments.get(name);
+        return spec == null ? defaultValue : Distribution.parse(spec);
+    }
+}
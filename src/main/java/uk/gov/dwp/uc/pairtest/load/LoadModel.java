@@ -0,0 +1,8 @@
+package uk.gov.dwp.uc.pairtest.load;
+
+public enum LoadModel {
+    // Orders arrive at a fixed rate whether or not earlier ones have finished
+    OPEN,
+    // A fixed number of workers, each sending its next order when the last one finishes
+    CLOSED
+}
@@ -0,0 +1,49 @@
+package uk.gov.dwp.uc.pairtest.load;
+
+import java.time.Duration;
+
+/**
+ * How to drive the target. An open run sends ratePerSecond orders; a closed run keeps concurrency
+ * workers busy, each paced to one order per expectedInterval when that is set.
+ */
+public record LoadOptions(LoadModel model,
+                          double ratePerSecond,
+                          int concurrency,
+                          Duration expectedInterval,
+                          Duration duration,
+                          long seed) {
+
+    public LoadOptions {
+        if (model == null) {
+            throw new IllegalArgumentException("Load model is required");
+        }
+        if (model == LoadModel.OPEN && !(ratePerSecond > 0)) {
+            throw new IllegalArgumentException("Rate must be greater than 0");
+        }
+        if (model == LoadModel.CLOSED && concurrency <= 0) {
+            throw new IllegalArgumentException("Concurrency must be greater than 0");
+        }
+        if (expectedInterval == null || expectedInterval.isNegative()) {
+            throw new IllegalArgumentException("Expected interval cannot be negative");
+        }
+        if (duration == null || duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Duration must be positive");
+        }
+    }
+
+    public static LoadOptions open(double ratePerSecond, Duration duration) {
+        return new LoadOptions(LoadModel.OPEN, ratePerSecond, 0, Duration.ZERO, duration, 42);
+    }
+
+    public static LoadOptions closed(int concurrency, Duration duration) {
+        return new LoadOptions(LoadModel.CLOSED, 0, concurrency, Duration.ZERO, duration, 42);
+    }
+
+    public LoadOptions withExpectedInterval(Duration expectedInterval) {
+        return new LoadOptions(model, ratePerSecond, concurrency, expectedInterval, duration, seed);
+    }
+
+    public LoadOptions withSeed(long seed) {
+        return new LoadOptions(model, ratePerSecond, concurrency, expectedInterval, duration, seed);
+    }
+}
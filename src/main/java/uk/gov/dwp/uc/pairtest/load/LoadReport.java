@@ -0,0 +1,64 @@
+package uk.gov.dwp.uc.pairtest.load;
+
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.metrics.HistogramSnapshot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Outcome of a load run. Latencies are in nanoseconds. serviceTime is measured from when each call
+ * actually started; responseTime from when it was meant to start, so it includes the time spent
+ * queued behind a slow target and is free of coordinated omission.
+ */
+public record LoadReport(LoadModel model,
+                         Duration elapsed,
+                         long succeeded,
+                         long failed,
+                         Map<RejectionReason, Long> rejections,
+                         HistogramSnapshot serviceTime,
+                         HistogramSnapshot responseTime) {
+
+    public LoadReport {
+        rejections = Map.copyOf(rejections);
+    }
+
+    public long rejected() {
+        return rejections.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public long completed() {
+        return succeeded + failed + rejected();
+    }
+
+    public double throughput() {
+        return elapsed.isZero() ? 0 : completed() * 1e9 / elapsed.toNanos();
+    }
+
+    public void print(Appendable out) {
+        try {
+            out.append(String.format("%s model: %,d orders in %.1fs = %,.0f orders/s%n",
+                model, completed(), elapsed.toNanos() / 1e9, throughput()));
+            out.append(String.format("  succeeded %,d, rejected %,d, failed %,d%n", succeeded, rejected(), failed));
+            for (RejectionReason reason : RejectionReason.values()) {
+                Long count = rejections.get(reason);
+                if (count != null && count > 0) {
+                    out.append(String.format("    %-24s %,d%n", reason, count));
+                }
+            }
+            out.append(String.format("  %-14s %10s %10s %10s %10s %10s %10s%n", "latency (us)", "mean", "p50", "p90", "p99", "p99.9", "max"));
+            appendLatencies(out, "service time", serviceTime);
+            appendLatencies(out, "response time", responseTime);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void appendLatencies(Appendable out, String label, HistogramSnapshot histogram) throws IOException {
+        out.append(String.format("  %-14s %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n", label,
+            histogram.mean() / 1e3, histogram.p50() / 1e3, histogram.p90() / 1e3,
+            histogram.p99() / 1e3, histogram.p999() / 1e3, histogram.max() / 1e3));
+    }
+}
@@ -0,0 +1,59 @@
+package uk.gov.dwp.uc.pairtest.load;
+
+import uk.gov.dwp.uc.pairtest.domain.PackedOrder;
+
+import java.util.SplittableRandom;
+
+/**
+ * Generates orders for an OrderProfile in the PackedOrder form, so producing one is a few random
+ * draws and no allocation. Not thread-safe: give each load thread its own, seeded differently.
+ *
+ * Invalid orders rotate at random between a non-positive account id, children without an adult,
+ * more infants than adults and one ticket over the limit.
+ */
+public class OrderGenerator {
+    
+    private final OrderProfile profile;
+    private final SplittableRandom random;
+    private long accountId;
+    
+    public OrderGenerator(OrderProfile profile, long seed) {
+        this.profile = profile;
+        this.random = new SplittableRandom(seed);
+    }
+    
+    // Packed counts of the next order; its account id is then available from accountId()
+    public long next() {
+        accountId = 1 + random.nextLong(profile.accounts());
+        if (profile.invalidRatio() > 0 && random.nextDouble() < profile.invalidRatio()) {
+            return nextInvalid();
+        }
+        int adults = Math.max(1, Math.min(profile.adults().sample(random), profile.maxTickets()));
+        int infants = Math.min(profile.infants().sample(random), adults);
+        int children = profile.children().sample(random);
+        // Trim to the limit, children first so the infant rule still holds
+        int excess = adults + children + infants - profile.maxTickets();
+        if (excess > 0) {
+            int fromChildren = Math.min(excess, children);
+            children -= fromChildren;
+            infants -= excess - fromChildren;
+        }
+        return PackedOrder.counts(adults, children, infants);
+    }
+    
+    public long accountId() {
+        return accountId;
+    }
+    
+    private long nextInvalid() {
+        return switch (random.nextInt(4)) {
+            case 0 -> {
+                accountId = -random.nextLong(profile.accounts());
+                yield PackedOrder.counts(1, 0, 0);
+            }
+            case 1 -> PackedOrder.counts(0, 1 + random.nextInt(2), random.nextInt(2));
+            case 2 -> PackedOrder.counts(1, 0, 2);
+            default -> PackedOrder.counts(profile.maxTickets() + 1, 0, 0);
+        };
+    }
+}
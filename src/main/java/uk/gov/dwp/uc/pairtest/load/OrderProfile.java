@@ -0,0 +1,47 @@
+package uk.gov.dwp.uc.pairtest.load;
+
+/**
+ * Shape of generated traffic. Valid orders draw each ticket type from its distribution and are then
+ * adjusted to pass validation; invalidRatio of orders instead break one rule on purpose.
+ * Account ids are drawn uniformly from 1 to accounts.
+ */
+public record OrderProfile(Distribution adults,
+                           Distribution children,
+                           Distribution infants,
+                           double invalidRatio,
+                           long accounts,
+                           int maxTickets) {
+
+    // Mostly small family orders: one or two adults, a child or two, the odd infant
+    public static final OrderProfile DEFAULTS = new OrderProfile(
+        Distribution.of(0, 6, 3, 1),
+        Distribution.of(5, 3, 2),
+        Distribution.of(8, 2),
+        0.1,
+        100_000,
+        25
+    );
+
+    public OrderProfile {
+        if (adults == null || children == null || infants == null) {
+            throw new IllegalArgumentException("Distributions are required");
+        }
+        if (invalidRatio < 0 || invalidRatio > 1) {
+            throw new IllegalArgumentException("Invalid order ratio must be between 0 and 1");
+        }
+        if (accounts <= 0) {
+            throw new IllegalArgumentException("Accounts must be greater than 0");
+        }
+        if (maxTickets <= 0) {
+            throw new IllegalArgumentException("Maximum tickets must be greater than 0");
+        }
+    }
+
+    public OrderProfile withInvalidRatio(double invalidRatio) {
+        return new OrderProfile(adults, children, infants, invalidRatio, accounts, maxTickets);
+    }
+
+    public OrderProfile withAccounts(long accounts) {
+        return new OrderProfile(adults, children, infants, invalidRatio, accounts, maxTickets);
+    }
+}
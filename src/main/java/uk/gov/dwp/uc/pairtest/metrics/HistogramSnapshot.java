@@ -0,0 +1,9 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+/**
+ * Point-in-time view of a LatencyHistogram. Percentiles are bucket upper bounds, so they never under-report.
+ */
+public record HistogramSnapshot(long count, double mean, long p50, long p90, long p99, long p999, long max) {
+
+    public static final HistogramSnapshot EMPTY = new HistogramSnapshot(0, 0, 0, 0, 0, 0, 0);
+}
@@ -0,0 +1,117 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HdrHistogram-style log-linear histogram of non-negative longs with ~3% value precision.
+ * Values below 64 get a bucket each; above that every power of two is split into 32 linear sub-buckets.
+ * Recording is one bucket increment plus a LongAdder add; nothing is locked or allocated.
+ * Buckets are striped by thread so concurrent recorders of similar latencies don't share a cache line.
+ */
+public class LatencyHistogram {
+    
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKET_COUNT << 1;
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS - 1) * SUB_BUCKET_COUNT + LINEAR_LIMIT;
+    
+    private static final int STRIPES = Math.min(16, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+    
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT * STRIPES);
+    private final LongAdder totalValue = new LongAdder();
+    private final AtomicLong maxValue = new AtomicLong();
+    
+    public void record(long value) {
+        long clamped = Math.max(value, 0);
+        int stripe = (int) Thread.currentThread().threadId() & (STRIPES - 1);
+        counts.getAndIncrement(stripe * BUCKET_COUNT + bucketIndex(clamped));
+        totalValue.add(clamped);
+        if (clamped > maxValue.get()) {
+            updateMax(clamped);
+        }
+    }
+    
+    // Also records the samples a stalled recorder would have missed (coordinated omission correction)
+    public void recordWithExpectedInterval(long value, long expectedIntervalBetweenSamples) {
+        record(value);
+        if (expectedIntervalBetweenSamples <= 0) {
+            return;
+        }
+        for (long missing = value - expectedIntervalBetweenSamples; missing >= expectedIntervalBetweenSamples;
+             missing -= expectedIntervalBetweenSamples) {
+            record(missing);
+        }
+    }
+    
+    public HistogramSnapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            int offset = stripe * BUCKET_COUNT;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                copy[i] += counts.get(offset + i);
+            }
+        }
+        for (long bucketCount : copy) {
+            count += bucketCount;
+        }
+        if (count == 0) {
+            return HistogramSnapshot.EMPTY;
+        }
+        long max = maxValue.get();
+        return new HistogramSnapshot(
+            count,
+            totalValue.sum() / (double) count,
+            Math.min(percentile(copy, count, 50.0), max),
+            Math.min(percentile(copy, count, 90.0), max),
+            Math.min(percentile(copy, count, 99.0), max),
+            Math.min(percentile(copy, count, 99.9), max),
+            max
+        );
+    }
+    
+    private void updateMax(long value) {
+        long current;
+        do {
+            current = maxValue.get();
+            if (value <= current) {
+                return;
+            }
+        } while (!maxValue.compareAndSet(current, value));
+    }
+    
+    private static long percentile(long[] buckets, long count, double percentile) {
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return highestValueInBucket(i);
+            }
+        }
+        return highestValueInBucket(buckets.length - 1);
+    }
+    
+    static int bucketIndex(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+    
+    static long lowestValueInBucket(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long subBucket = (index & (SUB_BUCKET_COUNT - 1)) + SUB_BUCKET_COUNT;
+        return subBucket << shift;
+    }
+    
+    static long highestValueInBucket(int index) {
+        return index + 1 < BUCKET_COUNT ? lowestValueInBucket(index + 1) - 1 : Long.MAX_VALUE;
+    }
+}
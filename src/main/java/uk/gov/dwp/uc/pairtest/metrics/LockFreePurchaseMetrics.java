@@ -0,0 +1,70 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Default recorder: arrays indexed by enum ordinal, LongAdder counters and lock-free histograms,
+ * cheap enough to leave on in production.
+ */
+public class LockFreePurchaseMetrics implements PurchaseMetrics {
+    
+    private final LatencyHistogram[] stageLatencies = new LatencyHistogram[PurchaseStage.values().length];
+    private final LongAdder[] rejections = newCounters(RejectionReason.values().length);
+    private final LongAdder[] thirdPartyFailures = newCounters(ThirdPartyService.values().length);
+    private final LongAdder purchases = new LongAdder();
+    
+    public LockFreePurchaseMetrics() {
+        for (int i = 0; i < stageLatencies.length; i++) {
+            stageLatencies[i] = new LatencyHistogram();
+        }
+    }
+    
+    @Override
+    public void recordStage(PurchaseStage stage, long durationNanos) {
+        stageLatencies[stage.ordinal()].record(durationNanos);
+    }
+    
+    @Override
+    public void recordPurchase() {
+        purchases.increment();
+    }
+    
+    @Override
+    public void recordRejection(RejectionReason reason) {
+        rejections[reason.ordinal()].increment();
+    }
+    
+    @Override
+    public void recordThirdPartyFailure(ThirdPartyService service) {
+        thirdPartyFailures[service.ordinal()].increment();
+    }
+    
+    @Override
+    public MetricsSnapshot snapshot() {
+        Map<PurchaseStage, HistogramSnapshot> latencies = new EnumMap<>(PurchaseStage.class);
+        for (PurchaseStage stage : PurchaseStage.values()) {
+            latencies.put(stage, stageLatencies[stage.ordinal()].snapshot());
+        }
+        Map<RejectionReason, Long> rejectionCounts = new EnumMap<>(RejectionReason.class);
+        for (RejectionReason reason : RejectionReason.values()) {
+            rejectionCounts.put(reason, rejections[reason.ordinal()].sum());
+        }
+        Map<ThirdPartyService, Long> failureCounts = new EnumMap<>(ThirdPartyService.class);
+        for (ThirdPartyService service : ThirdPartyService.values()) {
+            failureCounts.put(service, thirdPartyFailures[service.ordinal()].sum());
+        }
+        return new MetricsSnapshot(purchases.sum(), latencies, rejectionCounts, failureCounts);
+    }
+    
+    private static LongAdder[] newCounters(int size) {
+        LongAdder[] counters = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+}
@@ -0,0 +1,82 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * Immutable copy of everything a PurchaseMetrics recorder has seen, with a Prometheus text export.
+ */
+public record MetricsSnapshot(long purchases,
+                              Map<PurchaseStage, HistogramSnapshot> stageLatencies,
+                              Map<RejectionReason, Long> rejections,
+                              Map<ThirdPartyService, Long> thirdPartyFailures) {
+
+    public static final MetricsSnapshot EMPTY = new MetricsSnapshot(0, Map.of(), Map.of(), Map.of());
+
+    public MetricsSnapshot {
+        stageLatencies = Map.copyOf(stageLatencies);
+        rejections = Map.copyOf(rejections);
+        thirdPartyFailures = Map.copyOf(thirdPartyFailures);
+    }
+
+    public long rejections(RejectionReason reason) {
+        return rejections.getOrDefault(reason, 0L);
+    }
+
+    public long thirdPartyFailures(ThirdPartyService service) {
+        return thirdPartyFailures.getOrDefault(service, 0L);
+    }
+
+    public HistogramSnapshot stageLatency(PurchaseStage stage) {
+        return stageLatencies.getOrDefault(stage, HistogramSnapshot.EMPTY);
+    }
+
+    public void export(Appendable out) {
+        try {
+            out.append("# TYPE ticket_purchases_total counter\n");
+            out.append("ticket_purchases_total ").append(Long.toString(purchases)).append('\n');
+
+            out.append("# TYPE ticket_purchase_stage_nanos summary\n");
+            for (PurchaseStage stage : PurchaseStage.values()) {
+                HistogramSnapshot latency = stageLatency(stage);
+                String label = "stage=\"" + stage.name().toLowerCase() + "\"";
+                appendQuantile(out, label, "0.5", latency.p50());
+                appendQuantile(out, label, "0.9", latency.p90());
+                appendQuantile(out, label, "0.99", latency.p99());
+                appendQuantile(out, label, "0.999", latency.p999());
+                out.append("ticket_purchase_stage_nanos_count{").append(label).append("} ")
+                    .append(Long.toString(latency.count())).append('\n');
+                out.append("ticket_purchase_stage_nanos_max{").append(label).append("} ")
+                    .append(Long.toString(latency.max())).append('\n');
+            }
+
+            out.append("# TYPE ticket_purchase_rejections_total counter\n");
+            for (RejectionReason reason : RejectionReason.values()) {
+                out.append("ticket_purchase_rejections_total{reason=\"").append(reason.name().toLowerCase()).append("\"} ")
+                    .append(Long.toString(rejections(reason))).append('\n');
+            }
+
+            out.append("# TYPE ticket_third_party_failures_total counter\n");
+            for (ThirdPartyService service : ThirdPartyService.values()) {
+                out.append("ticket_third_party_failures_total{service=\"").append(service.name().toLowerCase()).append("\"} ")
+                    .append(Long.toString(thirdPartyFailures(service))).append('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public String toPrometheusText() {
+        StringBuilder out = new StringBuilder(4096);
+        export(out);
+        return out.toString();
+    }
+
+    private static void appendQuantile(Appendable out, String label, String quantile, long value) throws IOException {
+        out.append("ticket_purchase_stage_nanos{").append(label).append(",quantile=\"").append(quantile).append("\"} ")
+            .append(Long.toString(value)).append('\n');
+    }
+}
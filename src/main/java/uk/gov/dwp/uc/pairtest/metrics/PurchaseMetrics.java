@@ -0,0 +1,43 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+
+/**
+ * Recording hooks called from the purchase path, so implementations must be cheap and thread-safe.
+ */
+public interface PurchaseMetrics {
+
+    PurchaseMetrics NOOP = new PurchaseMetrics() {
+        @Override
+        public void recordStage(PurchaseStage stage, long durationNanos) {
+        }
+
+        @Override
+        public void recordPurchase() {
+        }
+
+        @Override
+        public void recordRejection(RejectionReason reason) {
+        }
+
+        @Override
+        public void recordThirdPartyFailure(ThirdPartyService service) {
+        }
+
+        @Override
+        public MetricsSnapshot snapshot() {
+            return MetricsSnapshot.EMPTY;
+        }
+    };
+
+    void recordStage(PurchaseStage stage, long durationNanos);
+
+    void recordPurchase();
+
+    void recordRejection(RejectionReason reason);
+
+    void recordThirdPartyFailure(ThirdPartyService service);
+
+    MetricsSnapshot snapshot();
+
+}
@@ -0,0 +1,5 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+public enum PurchaseStage {
+    AGGREGATION, VALIDATION, COST, SEATS, RESERVE_SEAT, MAKE_PAYMENT
+}
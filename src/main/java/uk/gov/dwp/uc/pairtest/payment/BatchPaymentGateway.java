@@ -0,0 +1,12 @@
+package uk.gov.dwp.uc.pairtest.payment;
+
+import java.util.List;
+
+/**
+ * A payment gateway that takes several payments in one call.
+ * Throwing leaves every payment in the batch with an unknown outcome, as some may have been taken.
+ */
+@FunctionalInterface
+public interface BatchPaymentGateway {
+    void makePayments(List<Payment> payments);
+}
@@ -0,0 +1,197 @@
+package uk.gov.dwp.uc.pairtest.payment;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import thirdparty.paymentgateway.TicketPaymentService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Collects concurrent makePayment calls into batches for a BatchPaymentGateway. A batch is sent once it
+ * reaches maxBatchSize or maxWait after its first payment arrived, whichever comes first. Each caller
+ * blocks until its own batch completes, for at most timeout. A batch that fails, or no outcome within
+ * timeout, gives each of its callers a PaymentOutcomeUnknownException, since the gateway may have taken
+ * some of the payments before failing and a late batch may still be sent; the caller refunds its own.
+ */
+public class MicroBatchingPaymentService implements TicketPaymentService, AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MicroBatchingPaymentService.class);
+    
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+    
+    private final BatchPaymentGateway gateway;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final long timeoutNanos;
+    private final BlockingQueue<PendingPayment> queue;
+    private final Thread flusher;
+    private volatile boolean closed;
+    
+    public MicroBatchingPaymentService(BatchPaymentGateway gateway, int maxBatchSize, Duration maxWait) {
+        this(gateway, maxBatchSize, maxWait, DEFAULT_TIMEOUT);
+    }
+    
+    public MicroBatchingPaymentService(BatchPaymentGateway gateway, int maxBatchSize, Duration maxWait, Duration timeout) {
+        if (gateway == null) {
+            throw new IllegalArgumentException("Gateway is required");
+        }
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be greater than 0");
+        }
+        if (maxWait == null || maxWait.isNegative()) {
+            throw new IllegalArgumentException("Maximum wait cannot be negative");
+        }
+        if (timeout == null || timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("Timeout must be greater than 0");
+        }
+        this.gateway = gateway;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.timeoutNanos = timeout.toNanos();
+        this.queue = new ArrayBlockingQueue<>(maxBatchSize * 16);
+        this.flusher = Thread.ofPlatform().daemon().name("payment-batcher").start(this::run);
+    }
+    
+    @Override
+    public void makePayment(long accountId, int totalAmountToPay) {
+        if (closed) {
+            throw new IllegalStateException("Payment service is closed");
+        }
+        PendingPayment pending = new PendingPayment(new Payment(accountId, totalAmountToPay), Thread.currentThread());
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(pending);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        // Closed while queueing: either the flusher took it and will complete it, or it never will
+        if (closed && queue.remove(pending)) {
+            throw new IllegalStateException("Payment service is closed");
+        }
+        // The payment may already be on its way, so wait for the outcome even if interrupted
+        long deadline = System.nanoTime() + timeoutNanos;
+        for (long remaining = timeoutNanos; !pending.done && remaining > 0; remaining = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(this, remaining);
+            interrupted |= Thread.interrupted();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (!pending.done) {
+            throw new PaymentOutcomeUnknownException(pending.payment,
+                new TimeoutException("No outcome after " + Duration.ofNanos(timeoutNanos)));
+        }
+        if (pending.failure != null) {
+            throw pending.failure;
+        }
+    }
+    
+    // If the flusher dies, whatever is still queued is refused rather than left waiting
+    private void run() {
+        try {
+            batch();
+        } finally {
+            closed = true;
+            List<PendingPayment> unsent = new ArrayList<>();
+            queue.drainTo(unsent);
+            for (PendingPayment pending : unsent) {
+                pending.complete(new IllegalStateException("Payment service is closed"));
+            }
+        }
+    }
+    
+    private void batch() {
+        List<PendingPayment> batch = new ArrayList<>(maxBatchSize);
+        List<Payment> payments = new ArrayList<>(maxBatchSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                PendingPayment first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    PendingPayment next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // close() interrupts a waiting flusher; anything already taken is still sent below
+            }
+            flush(batch, payments);
+        }
+    }
+    
+    private void flush(List<PendingPayment> batch, List<Payment> payments) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (PendingPayment pending : batch) {
+            payments.add(pending.payment);
+        }
+        Throwable failure = null;
+        try {
+            gateway.makePayments(payments);
+        } catch (RuntimeException e) {
+            logger.error("Payment batch of {} failed, outcome of each payment unknown", batch.size(), e);
+            failure = e;
+        } catch (Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            for (PendingPayment pending : batch) {
+                pending.complete(failure == null ? null : new PaymentOutcomeUnknownException(pending.payment, failure));
+            }
+            batch.clear();
+            payments.clear();
+        }
+    }
+    
+    // Payments already queued are still sent; new calls are refused
+    @Override
+    public void close() {
+        closed = true;
+        flusher.interrupt();
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static final class PendingPayment {
+        private final Payment payment;
+        private final Thread caller;
+        private RuntimeException failure;
+        private volatile boolean done;
+        
+        private PendingPayment(Payment payment, Thread caller) {
+            this.payment = payment;
+            this.caller = caller;
+        }
+        
+        // failure is published by the volatile write to done
+        private void complete(RuntimeException failure) {
+            this.failure = failure;
+            this.done = true;
+            LockSupport.unpark(caller);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package uk.gov.dwp.uc.pairtest.payment;
+
+public record Payment(long accountId, int amount) {
+}
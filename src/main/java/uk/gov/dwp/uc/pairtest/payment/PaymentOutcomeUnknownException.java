@@ -0,0 +1,19 @@
+package uk.gov.dwp.uc.pairtest.payment;
+
+/**
+ * A payment that may or may not have been taken: its batch failed part way through, or no outcome came
+ * back in time. Callers must treat it as possibly taken and refund it if the purchase does not go ahead.
+ */
+public class PaymentOutcomeUnknownException extends RuntimeException {
+    
+    private final Payment payment;
+    
+    public PaymentOutcomeUnknownException(Payment payment, Throwable cause) {
+        super("Outcome unknown for payment of " + payment.amount() + " by account " + payment.accountId(), cause);
+        this.payment = payment;
+    }
+    
+    public Payment getPayment() {
+        return payment;
+    }
+}
@@ -0,0 +1,64 @@
+package uk.gov.dwp.uc.pairtest.payment;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Local stand-in for the payment gateway: every call, single or batched, costs a fixed round-trip
+ * and at most {@code connections} calls are in flight at once. Used to measure what batching saves.
+ */
+public class SimulatedPaymentGateway implements TicketPaymentService, BatchPaymentGateway {
+    
+    private final long callCostNanos;
+    private final Semaphore connections;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder payments = new LongAdder();
+    
+    public SimulatedPaymentGateway(Duration callCost, int connections) {
+        if (callCost == null || callCost.isNegative()) {
+            throw new IllegalArgumentException("Call cost cannot be negative");
+        }
+        if (connections <= 0) {
+            throw new IllegalArgumentException("Connections must be greater than 0");
+        }
+        this.callCostNanos = callCost.toNanos();
+        this.connections = new Semaphore(connections, true);
+    }
+    
+    @Override
+    public void makePayment(long accountId, int totalAmountToPay) {
+        call(1);
+    }
+    
+    @Override
+    public void makePayments(List<Payment> batch) {
+        call(batch.size());
+    }
+    
+    private void call(int paymentCount) {
+        connections.acquireUninterruptibly();
+        try {
+            long deadline = System.nanoTime() + callCostNanos;
+            for (long remaining = callCostNanos; remaining > 0; remaining = deadline - System.nanoTime()) {
+                LockSupport.parkNanos(remaining);
+            }
+            calls.increment();
+            payments.add(paymentCount);
+        } finally {
+            connections.release();
+        }
+    }
+    
+    public long calls() {
+        return calls.sum();
+    }
+    
+    public long payments() {
+        return payments.sum();
+    }
+}
@@ -0,0 +1,215 @@
+package uk.gov.dwp.uc.pairtest.pricing;
+
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Compiled, immutable price rules. However many rules the file has, they are folded at load time into
+ * three arrays, so pricing an order is always three multiplications and two lookups.
+ *
+ * Rule file format (java.util.Properties, percentages are whole numbers); every price.* key is required:
+ * <pre>
+ * price.ADULT=25
+ * price.CHILD=15
+ * price.INFANT=0
+ * showType.IMAX=30          # +30% for IMAX screenings
+ * timeOfDay.10-13=-20       # -20% for shows starting 10:00-12:59; overlapping ranges add up
+ * groupDiscount.10=10       # 10% off orders of 10+ tickets; the highest threshold reached applies
+ * </pre>
+ */
+public final class PriceRules {
+    
+    private static final int HOURS = 24;
+    private static final long BASIS_POINTS = 10_000;
+    private static final int TICKET_TYPES = TicketTypeRequest.Type.values().length;
+    // Group discount thresholds above this are rejected; orders larger than it price as if at it
+    private static final int MAX_GROUP_SIZE = 100;
+    
+    public static final PriceRules DEFAULTS = builder()
+        .price(TicketTypeRequest.Type.ADULT, 25)
+        .price(TicketTypeRequest.Type.CHILD, 15)
+        .price(TicketTypeRequest.Type.INFANT, 0)
+        .build();
+    
+    private final int[] prices;
+    // Combined show type and hour modifier, in basis points of the base price
+    private final long[] showHourFactors;
+    // Show type modifier alone, for shows priced without a start time
+    private final long[] showTypeFactors;
+    // Group discount factor by total tickets in the order; orders beyond the last entry use the last entry
+    private final long[] groupFactors;
+    
+    private PriceRules(int[] prices, long[] showHourFactors, long[] showTypeFactors, long[] groupFactors) {
+        this.prices = prices;
+        this.showHourFactors = showHourFactors;
+        this.showTypeFactors = showTypeFactors;
+        this.groupFactors = groupFactors;
+    }
+    
+    public int price(TicketTypeRequest.Type type) {
+        return prices[type.ordinal()];
+    }
+    
+    public int calculate(TicketCounts ticketCounts, ShowType showType, int hourOfDay) {
+        if (hourOfDay < 0 || hourOfDay >= HOURS) {
+            throw new IllegalArgumentException("Hour of day must be between 0 and 23");
+        }
+        return calculate(ticketCounts, showHourFactors[showType.ordinal() * HOURS + hourOfDay]);
+    }
+    
+    // No time-of-day modifier applies, so the price is the same whenever it is asked for
+    public int calculate(TicketCounts ticketCounts, ShowType showType) {
+        return calculate(ticketCounts, showTypeFactors[showType.ordinal()]);
+    }
+    
+    private int calculate(TicketCounts ticketCounts, long showFactor) {
+        long base = (long) ticketCounts.adults() * prices[0]
+            + (long) ticketCounts.children() * prices[1]
+            + (long) ticketCounts.infants() * prices[2];
+        int total = Math.max(0, ticketCounts.total());
+        long factor = showFactor * groupFactors[Math.min(total, groupFactors.length - 1)];
+        // Round half up to whole pounds
+        long scale = BASIS_POINTS * BASIS_POINTS;
+        return Math.toIntExact((base * factor + scale / 2) / scale);
+    }
+    
+    public static PriceRules load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+        // An empty file is almost always one caught mid-rewrite; loading it would make every ticket free
+        if (properties.isEmpty()) {
+            throw new IllegalArgumentException("Price rule file " + file + " is empty");
+        }
+        return parse(properties);
+    }
+    
+    // A file missing a price, e.g. one read half-written, would otherwise make that ticket type free
+    public static PriceRules parse(Properties properties) {
+        Builder builder = builder();
+        for (String key : properties.stringPropertyNames()) {
+            String value = properties.getProperty(key).trim();
+            try {
+                int dot = key.indexOf('.');
+                String kind = dot < 0 ? key : key.substring(0, dot);
+                String target = dot < 0 ? "" : key.substring(dot + 1);
+                switch (kind) {
+                    case "price" -> builder.price(TicketTypeRequest.Type.valueOf(target), Integer.parseInt(value));
+                    case "showType" -> builder.showTypeModifier(ShowType.valueOf(target), parsePercent(value));
+                    case "timeOfDay" -> {
+                        int dash = target.indexOf('-');
+                        builder.timeOfDayModifier(Integer.parseInt(target.substring(0, dash)),
+                            Integer.parseInt(target.substring(dash + 1)), parsePercent(value));
+                    }
+                    case "groupDiscount" -> builder.groupDiscount(Integer.parseInt(target), parsePercent(value));
+                    default -> throw new IllegalArgumentException("unknown rule type");
+                }
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid price rule '" + key + "=" + value + "': " + e.getMessage(), e);
+            }
+        }
+        for (TicketTypeRequest.Type type : TicketTypeRequest.Type.values()) {
+            if (properties.getProperty("price." + type) == null) {
+                throw new IllegalArgumentException("Price rules have no price." + type);
+            }
+        }
+        return builder.build();
+    }
+    
+    private static int parsePercent(String value) {
+        return Integer.parseInt(value.startsWith("+") ? value.substring(1) : value);
+    }
+    
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    public static final class Builder {
+        private final int[] prices = new int[TICKET_TYPES];
+        private final int[] showTypePercents = new int[ShowType.values().length];
+        private final int[] hourPercents = new int[HOURS];
+        private final int[] groupDiscountPercents = new int[MAX_GROUP_SIZE + 1];
+        private final boolean[] groupThresholds = new boolean[MAX_GROUP_SIZE + 1];
+        
+        private Builder() {
+        }
+        
+        public Builder price(TicketTypeRequest.Type type, int price) {
+            if (price < 0) {
+                throw new IllegalArgumentException("Price cannot be negative");
+            }
+            prices[type.ordinal()] = price;
+            return this;
+        }
+        
+        public Builder showTypeModifier(ShowType showType, int percent) {
+            showTypePercents[showType.ordinal()] = requireModifier(percent);
+            return this;
+        }
+        
+        // Applies to hours fromHour (inclusive) to toHour (exclusive)
+        public Builder timeOfDayModifier(int fromHour, int toHour, int percent) {
+            if (fromHour < 0 || toHour > HOURS || fromHour >= toHour) {
+                throw new IllegalArgumentException("Hour range must be within 0-24 and not empty");
+            }
+            requireModifier(percent);
+            for (int hour = fromHour; hour < toHour; hour++) {
+                hourPercents[hour] += percent;
+            }
+            return this;
+        }
+        
+        public Builder groupDiscount(int minimumTickets, int percent) {
+            if (minimumTickets <= 0 || minimumTickets > MAX_GROUP_SIZE) {
+                throw new IllegalArgumentException("Group size must be between 1 and " + MAX_GROUP_SIZE);
+            }
+            if (percent < 0 || percent > 100) {
+                throw new IllegalArgumentException("Group discount must be between 0 and 100 percent");
+            }
+            groupDiscountPercents[minimumTickets] = percent;
+            groupThresholds[minimumTickets] = true;
+            return this;
+        }
+        
+        public PriceRules build() {
+            long[] showHourFactors = new long[ShowType.values().length * HOURS];
+            long[] showTypeFactors = new long[ShowType.values().length];
+            for (ShowType showType : ShowType.values()) {
+                showTypeFactors[showType.ordinal()] = Math.max(0, 100 + showTypePercents[showType.ordinal()]) * (BASIS_POINTS / 100);
+                for (int hour = 0; hour < HOURS; hour++) {
+                    int percent = showTypePercents[showType.ordinal()] + hourPercents[hour];
+                    showHourFactors[showType.ordinal() * HOURS + hour] = Math.max(0, 100 + percent) * (BASIS_POINTS / 100);
+                }
+            }
+            long[] groupFactors = new long[groupDiscountPercents.length];
+            int discount = 0;
+            for (int tickets = 0; tickets < groupFactors.length; tickets++) {
+                if (groupThresholds[tickets]) {
+                    discount = groupDiscountPercents[tickets];
+                }
+                groupFactors[tickets] = (100 - discount) * (BASIS_POINTS / 100);
+            }
+            return new PriceRules(prices.clone(), showHourFactors, showTypeFactors, groupFactors);
+        }
+        
+        private static int requireModifier(int percent) {
+            if (percent < -100 || percent > 1_000) {
+                throw new IllegalArgumentException("Modifier must be between -100 and 1000 percent");
+            }
+            return percent;
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return "PriceRules" + Arrays.toString(prices);
+    }
+}
@@ -0,0 +1,75 @@
+package uk.gov.dwp.uc.pairtest.pricing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/**
+ * Loads a price rule file into a PricingEngine and reloads it whenever the file changes.
+ * A file that fails to parse is logged and ignored, leaving the last good rules in place.
+ */
+public class PriceRulesWatcher implements AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PriceRulesWatcher.class);
+    
+    private final Path file;
+    private final PricingEngine engine;
+    private final WatchService watchService;
+    private final Thread thread;
+    
+    public PriceRulesWatcher(Path file, PricingEngine engine) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.engine = engine;
+        engine.update(PriceRules.load(this.file));
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.file.getParent().register(watchService,
+            StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = Thread.ofPlatform().daemon().name("price-rules-watcher").start(this::watch);
+    }
+    
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    changed |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                        || file.getFileName().equals(event.context());
+                }
+                key.reset();
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            logger.debug("Stopped watching {}", file);
+        }
+    }
+    
+    // Returns false and keeps the current rules if the file can't be read or parsed
+    public boolean reload() {
+        try {
+            engine.update(PriceRules.load(file));
+            logger.info("Reloaded price rules from {}", file);
+            return true;
+        } catch (IOException | UncheckedIOException | IllegalArgumentException e) {
+            logger.error("Keeping current price rules, failed to load {}: {}", file, e.getMessage());
+            return false;
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        thread.interrupt();
+    }
+}
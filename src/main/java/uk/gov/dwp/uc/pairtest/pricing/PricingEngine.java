@@ -0,0 +1,78 @@
+package uk.gov.dwp.uc.pairtest.pricing;
+
+import uk.gov.dwp.uc.pairtest.calculation.CostCalculator;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Cost calculator backed by swappable PriceRules. Each calculation reads the rules once through a volatile
+ * field, so a swap never blocks or half-applies to an in-flight purchase.
+ *
+ * Time-of-day modifiers are keyed on when the show starts, which only the caller knows, so they apply
+ * only through calculate(ticketCounts, showType, startsAt). As a CostCalculator the engine prices the
+ * default show type with no time-of-day modifier: the answer never depends on the clock, so it can be
+ * precomputed by QuoteEngine.
+ */
+public class PricingEngine implements CostCalculator {
+    
+    private final ShowType defaultShowType;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private volatile PriceRules rules;
+    
+    public PricingEngine() {
+        this(PriceRules.DEFAULTS);
+    }
+    
+    public PricingEngine(PriceRules rules) {
+        this(rules, ShowType.STANDARD);
+    }
+    
+    public PricingEngine(PriceRules rules, ShowType defaultShowType) {
+        if (rules == null || defaultShowType == null) {
+            throw new IllegalArgumentException("Rules and show type are required");
+        }
+        this.rules = rules;
+        this.defaultShowType = defaultShowType;
+    }
+    
+    public PriceRules rules() {
+        return rules;
+    }
+    
+    // Listeners run on the swapping thread, e.g. the rebuild of a QuoteEngine over this engine, so its quotes follow the new prices
+    public void update(PriceRules newRules) {
+        if (newRules == null) {
+            throw new IllegalArgumentException("Rules are required");
+        }
+        rules = newRules;
+        listeners.forEach(Runnable::run);
+    }
+    
+    public void onUpdate(Runnable listener) {
+        listeners.add(listener);
+    }
+    
+    // Priced for the hour the show starts, in the venue's local time, not the hour of the purchase
+    public int calculate(TicketCounts ticketCounts, ShowType showType, LocalTime startsAt) {
+        return calculate(ticketCounts, showType, startsAt.getHour());
+    }
+    
+    public int calculate(TicketCounts ticketCounts, ShowType showType, int hourOfDay) {
+        return rules.calculate(ticketCounts, showType, hourOfDay);
+    }
+    
+    @Override
+    public int calculate(TicketCounts ticketCounts) {
+        return rules.calculate(ticketCounts, defaultShowType);
+    }
+    
+    @Override
+    public int calculate(Map<TicketTypeRequest.Type, Integer> ticketCounts) {
+        return calculate(TicketCounts.from(ticketCounts));
+    }
+}
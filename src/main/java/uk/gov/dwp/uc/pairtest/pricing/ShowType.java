@@ -0,0 +1,5 @@
+package uk.gov.dwp.uc.pairtest.pricing;
+
+public enum ShowType {
+    STANDARD, THREE_D, IMAX, PREMIUM
+}
@@ -0,0 +1,156 @@
+package uk.gov.dwp.uc.pairtest.quote;
+
+import uk.gov.dwp.uc.pairtest.calculation.CostCalculator;
+import uk.gov.dwp.uc.pairtest.calculation.CostCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.calculation.SeatCalculator;
+import uk.gov.dwp.uc.pairtest.calculation.SeatCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.TicketPurchaseException;
+import uk.gov.dwp.uc.pairtest.validation.TicketValidator;
+import uk.gov.dwp.uc.pairtest.validation.TicketValidatorImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.Map;
+
+/**
+ * Answers validation, cost and seats for a ticket mix with a single array lookup.
+ * The table is precomputed from real validator and calculators, and must be rebuilt (or reconfigured)
+ * whenever their prices or limits change; lookups keep using the old table until the new one is published.
+ * Mixes outside the table fall through to the source implementations.
+ * Only stateless validators can be tabulated: one whose answer depends on the account's earlier orders,
+ * such as one with ValidationRule.AccountLimits, is refused.
+ */
+public class QuoteEngine {
+    
+    private static final Logger logger = LoggerFactory.getLogger(QuoteEngine.class);
+    
+    private volatile QuoteTable table;
+    
+    private final TicketValidator validatorView = new QuoteValidator();
+    private final CostCalculator costCalculatorView = new QuoteCostCalculator();
+    private final SeatCalculator seatCalculatorView = new QuoteSeatCalculator();
+    
+    public QuoteEngine() {
+        this(new TicketValidatorImpl(), new CostCalculatorImpl(), new SeatCalculatorImpl());
+    }
+    
+    public QuoteEngine(TicketValidatorImpl validator, CostCalculator costCalculator, SeatCalculator seatCalculator) {
+        this(validator, costCalculator, seatCalculator, validator.getMaxTickets());
+    }
+    
+    public QuoteEngine(TicketValidator validator, CostCalculator costCalculator, SeatCalculator seatCalculator,
+                       int maxTicketsPerType) {
+        reconfigure(validator, costCalculator, seatCalculator, maxTicketsPerType);
+    }
+    
+    // Prices or rules of the current sources changed in place
+    public synchronized void rebuild() {
+        QuoteTable current = table;
+        reconfigure(current.validator, current.costCalculator, current.seatCalculator, current.maxTicketsPerType());
+    }
+    
+    public synchronized void reconfigure(TicketValidator validator, CostCalculator costCalculator,
+                                         SeatCalculator seatCalculator, int maxTicketsPerType) {
+        if (maxTicketsPerType <= 0) {
+            throw new IllegalArgumentException("Maximum tickets per type must be greater than 0");
+        }
+        if (!validator.isStateless()) {
+            throw new IllegalArgumentException("Validator depends on account history, so its answers cannot be precomputed");
+        }
+        long start = System.nanoTime();
+        QuoteTable rebuilt = new QuoteTable(validator, costCalculator, seatCalculator, maxTicketsPerType);
+        this.table = rebuilt;
+        logger.info("Built quote table for up to {} tickets per type in {} µs", maxTicketsPerType, (System.nanoTime() - start) / 1_000);
+    }
+    
+    public TicketValidator validator() {
+        return validatorView;
+    }
+    
+    public CostCalculator costCalculator() {
+        return costCalculatorView;
+    }
+    
+    public SeatCalculator seatCalculator() {
+        return seatCalculatorView;
+    }
+    
+    private final class QuoteValidator implements TicketValidator {
+        
+        @Override
+        public void validate(Long accountId, Map<TicketTypeRequest.Type, Integer> ticketCounts) {
+            table.validator.validate(accountId, ticketCounts);
+        }
+        
+        @Override
+        public void validate(Long accountId, TicketCounts ticketCounts) {
+            RejectionReason reason = check(accountId, ticketCounts);
+            if (reason != null) {
+                throw rejection(reason, ticketCounts);
+            }
+        }
+        
+        @Override
+        public RejectionReason check(Long accountId, TicketCounts ticketCounts) {
+            if (accountId == null) {
+                return RejectionReason.NULL_ACCOUNT_ID;
+            }
+            if (accountId <= 0) {
+                return RejectionReason.INVALID_ACCOUNT_ID;
+            }
+            if (ticketCounts == null) {
+                return RejectionReason.NO_TICKETS;
+            }
+            QuoteTable quotes = table;
+            int index = quotes.indexOf(ticketCounts);
+            return index < 0 ? quotes.validator.check(accountId, ticketCounts) : quotes.reason(index);
+        }
+        
+        @Override
+        public RejectionReason probe(Long accountId, TicketCounts ticketCounts) {
+            if (accountId == null || accountId <= 0 || ticketCounts == null) {
+                return check(accountId, ticketCounts);
+            }
+            QuoteTable quotes = table;
+            int index = quotes.indexOf(ticketCounts);
+            return index < 0 ? quotes.validator.probe(accountId, ticketCounts) : quotes.reason(index);
+        }
+        
+        @Override
+        public TicketPurchaseException rejection(RejectionReason reason, TicketCounts ticketCounts) {
+            return table.validator.rejection(reason, ticketCounts);
+        }
+    }
+    
+    private final class QuoteCostCalculator implements CostCalculator {
+        
+        @Override
+        public int calculate(Map<TicketTypeRequest.Type, Integer> ticketCounts) {
+            return table.costCalculator.calculate(ticketCounts);
+        }
+        
+        @Override
+        public int calculate(TicketCounts ticketCounts) {
+            QuoteTable quotes = table;
+            int index = quotes.indexOf(ticketCounts);
+            return index < 0 ? quotes.costCalculator.calculate(ticketCounts) : quotes.cost(index);
+        }
+    }
+    
+    private final class QuoteSeatCalculator implements SeatCalculator {
+        
+        @Override
+        public int calculate(Map<TicketTypeRequest.Type, Integer> ticketCounts) {
+            return table.seatCalculator.calculate(ticketCounts);
+        }
+        
+        @Override
+        public int calculate(TicketCounts ticketCounts) {
+            QuoteTable quotes = table;
+            int index = quotes.indexOf(ticketCounts);
+            return index < 0 ? quotes.seatCalculator.calculate(ticketCounts) : quotes.seats(index);
+        }
+    }
+}
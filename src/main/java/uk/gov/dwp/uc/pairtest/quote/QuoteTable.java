@@ -0,0 +1,85 @@
+package uk.gov.dwp.uc.pairtest.quote;
+
+import uk.gov.dwp.uc.pairtest.calculation.CostCalculator;
+import uk.gov.dwp.uc.pairtest.calculation.SeatCalculator;
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
+import uk.gov.dwp.uc.pairtest.validation.TicketValidator;
+
+/**
+ * Immutable answers for every (adults, children, infants) combination up to maxTicketsPerType each.
+ * One long per combination: cost in the low 32 bits, seats in the next 16, rejection reason ordinal + 1 in the top 16.
+ */
+final class QuoteTable {
+    
+    // Any valid account; account id checks don't depend on the ticket mix so they are not tabulated, and
+    // QuoteEngine only accepts stateless validators, whose answers are the same for every valid account
+    private static final Long PROBE_ACCOUNT_ID = 1L;
+    private static final RejectionReason[] REASONS = RejectionReason.values();
+    
+    final TicketValidator validator;
+    final CostCalculator costCalculator;
+    final SeatCalculator seatCalculator;
+    private final int dimension;
+    private final long[] quotes;
+    
+    QuoteTable(TicketValidator validator, CostCalculator costCalculator, SeatCalculator seatCalculator, int maxTicketsPerType) {
+        this.validator = validator;
+        this.costCalculator = costCalculator;
+        this.seatCalculator = seatCalculator;
+        this.dimension = maxTicketsPerType + 1;
+        this.quotes = new long[dimension * dimension * dimension];
+        
+        for (int adults = 0; adults < dimension; adults++) {
+            for (int children = 0; children < dimension; children++) {
+                for (int infants = 0; infants < dimension; infants++) {
+                    TicketCounts counts = new TicketCounts(adults, children, infants);
+                    RejectionReason reason = validator.probe(PROBE_ACCOUNT_ID, counts);
+                    int cost = costCalculator.calculate(counts);
+                    int seats = seatCalculator.calculate(counts);
+                    quotes[index(adults, children, infants)] = pack(reason, cost, seats);
+                }
+            }
+        }
+    }
+    
+    int maxTicketsPerType() {
+        return dimension - 1;
+    }
+    
+    // Negative when the counts fall outside the table and the sources have to be asked directly
+    int indexOf(TicketCounts counts) {
+        int adults = counts.adults();
+        int children = counts.children();
+        int infants = counts.infants();
+        if ((adults | children | infants) < 0 || adults >= dimension || children >= dimension || infants >= dimension) {
+            return -1;
+        }
+        return index(adults, children, infants);
+    }
+    
+    RejectionReason reason(int index) {
+        int ordinal = (int) (quotes[index] >>> 48);
+        return ordinal == 0 ? null : REASONS[ordinal - 1];
+    }
+    
+    int cost(int index) {
+        return (int) quotes[index];
+    }
+    
+    int seats(int index) {
+        return (int) ((quotes[index] >>> 32) & 0xFFFF);
+    }
+    
+    private int index(int adults, int children, int infants) {
+        return (adults * dimension + children) * dimension + infants;
+    }
+    
+    private static long pack(RejectionReason reason, int cost, int seats) {
+        if (seats < 0 || seats > 0xFFFF) {
+            throw new IllegalStateException("Seat count " + seats + " does not fit in the quote table");
+        }
+        long ordinal = reason == null ? 0 : reason.ordinal() + 1;
+        return (ordinal << 48) | ((long) seats << 32) | (cost & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,120 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Concurrency limit that follows the service's latency, AIMD with a Vegas-style congestion signal.
+ * A call slower than latencyTolerance times the fastest call seen, or a failed call, cuts the limit by
+ * BACKOFF (at most once per round-trip); a fast call while the limit is being used grows it by 1/limit,
+ * roughly one extra slot per round-trip. Everything is CAS on atomics.
+ * The fastest call is only remembered for minRttWindow: the first success after that starts a new
+ * window from its own round-trip, so a service that got slower for good stops looking congested.
+ */
+public class AdaptiveConcurrencyLimiter {
+    
+    private static final double BACKOFF = 0.9;
+    private static final Duration DEFAULT_MIN_RTT_WINDOW = Duration.ofSeconds(30);
+    
+    private final int minLimit;
+    private final int maxLimit;
+    private final double latencyTolerance;
+    private final long minRttWindowNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+    private final AtomicLong minRttNanos = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong minRttWindowStart = new AtomicLong(Long.MIN_VALUE / 2);
+    private final AtomicLong lastDecreaseNanos = new AtomicLong(Long.MIN_VALUE / 2);
+    
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double latencyTolerance) {
+        this(initialLimit, minLimit, maxLimit, latencyTolerance, DEFAULT_MIN_RTT_WINDOW);
+    }
+    
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double latencyTolerance,
+                                      Duration minRttWindow) {
+        if (minLimit <= 0 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 0 < min <= initial <= max");
+        }
+        if (latencyTolerance < 1.0) {
+            throw new IllegalArgumentException("Latency tolerance must be at least 1.0");
+        }
+        if (minRttWindow == null || minRttWindow.isNegative() || minRttWindow.isZero()) {
+            throw new IllegalArgumentException("Minimum RTT window must be positive");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTolerance = latencyTolerance;
+        this.minRttWindowNanos = minRttWindow.toNanos();
+        this.limitBits = new AtomicLong(Double.doubleToRawLongBits(initialLimit));
+    }
+    
+    public boolean tryAcquire() {
+        int limit = limit();
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+    
+    // rttNanos is how long the call took, nowNanos when it finished
+    public void release(long rttNanos, boolean success, long nowNanos) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        long minRtt = success ? updateMinRtt(rttNanos, nowNanos) : minRttNanos.get();
+        if (!success || rttNanos > minRtt * latencyTolerance) {
+            decrease(rttNanos, nowNanos);
+        } else if (inFlightAtCompletion * 2 >= limit()) {
+            update(limit -> Math.min(maxLimit, limit + 1.0 / limit));
+        }
+    }
+    
+    private long updateMinRtt(long rttNanos, long nowNanos) {
+        long windowStart = minRttWindowStart.get();
+        if (nowNanos - windowStart >= minRttWindowNanos && minRttWindowStart.compareAndSet(windowStart, nowNanos)) {
+            minRttNanos.set(rttNanos);
+            return rttNanos;
+        }
+        long current;
+        do {
+            current = minRttNanos.get();
+            if (rttNanos >= current) {
+                return current;
+            }
+        } while (!minRttNanos.compareAndSet(current, rttNanos));
+        return rttNanos;
+    }
+    
+    private void decrease(long rttNanos, long nowNanos) {
+        long last = lastDecreaseNanos.get();
+        if (nowNanos - last >= rttNanos && lastDecreaseNanos.compareAndSet(last, nowNanos)) {
+            update(limit -> Math.max(minLimit, limit * BACKOFF));
+        }
+    }
+    
+    private void update(DoubleUnaryOperator change) {
+        long current;
+        long next;
+        do {
+            current = limitBits.get();
+            next = Double.doubleToRawLongBits(change.applyAsDouble(Double.longBitsToDouble(current)));
+        } while (current != next && !limitBits.compareAndSet(current, next));
+    }
+    
+    public int limit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+    
+    public int inFlight() {
+        return inFlight.get();
+    }
+    
+    // Long.MAX_VALUE until the first successful call; the fastest in the current window after that
+    public long minRttNanos() {
+        return minRttNanos.get();
+    }
+}
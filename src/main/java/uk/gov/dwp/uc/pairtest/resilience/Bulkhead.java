@@ -0,0 +1,39 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed number of concurrent calls for one service. Never blocks: a full bulkhead refuses the call,
+ * so a stalled service can only tie up its own share of callers.
+ */
+public class Bulkhead {
+    
+    private final int maxConcurrentCalls;
+    private final AtomicInteger inUse = new AtomicInteger();
+    
+    public Bulkhead(int maxConcurrentCalls) {
+        if (maxConcurrentCalls <= 0) {
+            throw new IllegalArgumentException("Bulkhead size must be greater than 0");
+        }
+        this.maxConcurrentCalls = maxConcurrentCalls;
+    }
+    
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inUse.get();
+            if (current >= maxConcurrentCalls) {
+                return false;
+            }
+        } while (!inUse.compareAndSet(current, current + 1));
+        return true;
+    }
+    
+    public void release() {
+        inUse.decrementAndGet();
+    }
+    
+    public int available() {
+        return maxConcurrentCalls - inUse.get();
+    }
+}
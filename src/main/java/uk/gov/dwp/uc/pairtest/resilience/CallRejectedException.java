@@ -0,0 +1,30 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import uk.gov.dwp.uc.pairtest.metrics.ThirdPartyService;
+
+/**
+ * A third-party call refused before it was made, so nothing needs compensating for it.
+ */
+public class CallRejectedException extends RuntimeException {
+    
+    public enum Reason {
+        CIRCUIT_OPEN, BULKHEAD_FULL, CONCURRENCY_LIMIT
+    }
+    
+    private final ThirdPartyService service;
+    private final Reason reason;
+    
+    public CallRejectedException(ThirdPartyService service, Reason reason) {
+        super(service + " call rejected: " + reason, null, false, false);
+        this.service = service;
+        this.reason = reason;
+    }
+    
+    public ThirdPartyService getService() {
+        return service;
+    }
+    
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,89 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Opens after a run of consecutive failures and refuses calls until openDuration has passed, then lets
+ * a single trial call through: success closes it again, failure re-opens it.
+ * Outcomes are reported with the permit the call was given, so only the trial decides a half-open
+ * breaker; a call let through before it opened can't close it by finishing late.
+ * A success while closed only reads shared state unless there were failures to clear.
+ */
+public class CircuitBreaker {
+    
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+    
+    public enum Permit {
+        REFUSED, CALL, TRIAL
+    }
+    
+    private static final State[] STATES = State.values();
+    
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicInteger state = new AtomicInteger(State.CLOSED.ordinal());
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long openedAt;
+    
+    public CircuitBreaker(int failureThreshold, long openDurationNanos, LongSupplier nanoClock) {
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException("Failure threshold must be greater than 0");
+        }
+        if (openDurationNanos <= 0) {
+            throw new IllegalArgumentException("Open duration must be positive");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDurationNanos;
+        this.nanoClock = nanoClock;
+    }
+    
+    public Permit tryAcquire() {
+        int current = state.get();
+        if (current == State.CLOSED.ordinal()) {
+            return Permit.CALL;
+        }
+        return current == State.OPEN.ordinal()
+            && nanoClock.getAsLong() - openedAt >= openDurationNanos
+            && state.compareAndSet(current, State.HALF_OPEN.ordinal()) ? Permit.TRIAL : Permit.REFUSED;
+    }
+    
+    // The call allowed by tryAcquire was never made; a pending trial goes back to waiting for the next caller
+    public void release(Permit permit) {
+        if (permit == Permit.TRIAL) {
+            state.compareAndSet(State.HALF_OPEN.ordinal(), State.OPEN.ordinal());
+        }
+    }
+    
+    public void onSuccess(Permit permit) {
+        if (consecutiveFailures.get() != 0) {
+            consecutiveFailures.set(0);
+        }
+        if (permit == Permit.TRIAL) {
+            state.compareAndSet(State.HALF_OPEN.ordinal(), State.CLOSED.ordinal());
+        }
+    }
+    
+    public void onFailure(Permit permit) {
+        if (permit == Permit.TRIAL) {
+            open(State.HALF_OPEN.ordinal());
+        } else if (consecutiveFailures.incrementAndGet() >= failureThreshold && state.get() == State.CLOSED.ordinal()) {
+            open(State.CLOSED.ordinal());
+        }
+    }
+    
+    private void open(int from) {
+        // openedAt is written before the state it belongs to is published
+        openedAt = nanoClock.getAsLong();
+        if (state.compareAndSet(from, State.OPEN.ordinal())) {
+            consecutiveFailures.set(0);
+        }
+    }
+    
+    public State state() {
+        return STATES[state.get()];
+    }
+}
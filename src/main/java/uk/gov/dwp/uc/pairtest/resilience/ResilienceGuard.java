@@ -0,0 +1,91 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import uk.gov.dwp.uc.pairtest.exception.TicketPurchaseException;
+import uk.gov.dwp.uc.pairtest.metrics.ThirdPartyService;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker, bulkhead and adaptive concurrency limit around calls to one third-party service,
+ * checked in that order so an open circuit costs a single read. A TicketPurchaseException is the
+ * service turning an order down, not failing, so it counts as a healthy call.
+ */
+public class ResilienceGuard {
+    
+    private final ThirdPartyService service;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final LongSupplier nanoClock;
+    private final LongAdder[] rejectedCalls = new LongAdder[CallRejectedException.Reason.values().length];
+    private final CallRejectedException[] rejections = new CallRejectedException[CallRejectedException.Reason.values().length];
+    
+    public ResilienceGuard(ThirdPartyService service, ResilienceOptions options) {
+        this(service, options, System::nanoTime);
+    }
+    
+    public ResilienceGuard(ThirdPartyService service, ResilienceOptions options, LongSupplier nanoClock) {
+        this.service = service;
+        this.nanoClock = nanoClock;
+        this.circuitBreaker = new CircuitBreaker(options.failureThreshold(), options.openDuration().toNanos(), nanoClock);
+        this.bulkhead = new Bulkhead(options.bulkheadSize());
+        this.limiter = new AdaptiveConcurrencyLimiter(options.initialLimit(), options.minLimit(), options.maxLimit(),
+            options.latencyTolerance());
+        for (CallRejectedException.Reason reason : CallRejectedException.Reason.values()) {
+            rejectedCalls[reason.ordinal()] = new LongAdder();
+            // Stackless and shared, so refusing a call allocates nothing
+            rejections[reason.ordinal()] = new CallRejectedException(service, reason);
+        }
+    }
+    
+    public void run(Runnable call) {
+        CircuitBreaker.Permit permit = circuitBreaker.tryAcquire();
+        if (permit == CircuitBreaker.Permit.REFUSED) {
+            throw reject(CallRejectedException.Reason.CIRCUIT_OPEN);
+        }
+        if (!bulkhead.tryAcquire()) {
+            circuitBreaker.release(permit);
+            throw reject(CallRejectedException.Reason.BULKHEAD_FULL);
+        }
+        if (!limiter.tryAcquire()) {
+            bulkhead.release();
+            circuitBreaker.release(permit);
+            throw reject(CallRejectedException.Reason.CONCURRENCY_LIMIT);
+        }
+        long start = nanoClock.getAsLong();
+        boolean healthy = false;
+        try {
+            call.run();
+            healthy = true;
+        } catch (TicketPurchaseException e) {
+            healthy = true;
+            throw e;
+        } finally {
+            long end = nanoClock.getAsLong();
+            limiter.release(end - start, healthy, end);
+            bulkhead.release();
+            if (healthy) {
+                circuitBreaker.onSuccess(permit);
+            } else {
+                circuitBreaker.onFailure(permit);
+            }
+        }
+    }
+    
+    private CallRejectedException reject(CallRejectedException.Reason reason) {
+        rejectedCalls[reason.ordinal()].increment();
+        return rejections[reason.ordinal()];
+    }
+    
+    public ResilienceSnapshot snapshot() {
+        Map<CallRejectedException.Reason, Long> rejected = new EnumMap<>(CallRejectedException.Reason.class);
+        for (CallRejectedException.Reason reason : CallRejectedException.Reason.values()) {
+            rejected.put(reason, rejectedCalls[reason.ordinal()].sum());
+        }
+        return new ResilienceSnapshot(service, circuitBreaker.state(), limiter.limit(), limiter.inFlight(),
+            bulkhead.available(), rejected);
+    }
+}
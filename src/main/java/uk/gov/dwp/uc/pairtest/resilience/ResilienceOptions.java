@@ -0,0 +1,28 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import java.time.Duration;
+
+/**
+ * Settings for one ResilienceGuard. Each third-party service gets its own guard, so the bulkhead
+ * size is that service's share of concurrent callers.
+ */
+public record ResilienceOptions(int bulkheadSize,
+                                int failureThreshold,
+                                Duration openDuration,
+                                int initialLimit,
+                                int minLimit,
+                                int maxLimit,
+                                double latencyTolerance) {
+
+    public static final ResilienceOptions DEFAULTS = new ResilienceOptions(200, 5, Duration.ofSeconds(10), 20, 2, 200, 2.0);
+
+    public ResilienceOptions {
+        if (openDuration == null || openDuration.isNegative() || openDuration.isZero()) {
+            throw new IllegalArgumentException("Open duration must be positive");
+        }
+    }
+
+    public ResilienceOptions withBulkheadSize(int size) {
+        return new ResilienceOptions(size, failureThreshold, openDuration, initialLimit, minLimit, maxLimit, latencyTolerance);
+    }
+}
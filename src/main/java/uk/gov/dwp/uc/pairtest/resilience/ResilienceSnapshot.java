@@ -0,0 +1,50 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import uk.gov.dwp.uc.pairtest.metrics.ThirdPartyService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * Point-in-time state of one ResilienceGuard, with a Prometheus text export alongside MetricsSnapshot's.
+ */
+public record ResilienceSnapshot(ThirdPartyService service,
+                                 CircuitBreaker.State circuitState,
+                                 int concurrencyLimit,
+                                 int inFlight,
+                                 int bulkheadAvailable,
+                                 Map<CallRejectedException.Reason, Long> rejectedCalls) {
+
+    public ResilienceSnapshot {
+        rejectedCalls = Map.copyOf(rejectedCalls);
+    }
+
+    public long rejectedCalls(CallRejectedException.Reason reason) {
+        return rejectedCalls.getOrDefault(reason, 0L);
+    }
+
+    public void export(Appendable out) {
+        String label = "service=\"" + service.name().toLowerCase() + "\"";
+        try {
+            for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+                out.append("ticket_third_party_circuit_state{").append(label)
+                    .append(",state=\"").append(state.name().toLowerCase()).append("\"} ")
+                    .append(state == circuitState ? "1" : "0").append('\n');
+            }
+            out.append("ticket_third_party_concurrency_limit{").append(label).append("} ")
+                .append(Integer.toString(concurrencyLimit)).append('\n');
+            out.append("ticket_third_party_in_flight{").append(label).append("} ")
+                .append(Integer.toString(inFlight)).append('\n');
+            out.append("ticket_third_party_bulkhead_available{").append(label).append("} ")
+                .append(Integer.toString(bulkheadAvailable)).append('\n');
+            for (CallRejectedException.Reason reason : CallRejectedException.Reason.values()) {
+                out.append("ticket_third_party_rejected_calls_total{").append(label)
+                    .append(",reason=\"").append(reason.name().toLowerCase()).append("\"} ")
+                    .append(Long.toString(rejectedCalls(reason))).append('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
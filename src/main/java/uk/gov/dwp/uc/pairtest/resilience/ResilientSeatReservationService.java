@@ -0,0 +1,28 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.metrics.ThirdPartyService;
+
+public class ResilientSeatReservationService implements SeatReservationService {
+    
+    private final SeatReservationService delegate;
+    private final ResilienceGuard guard;
+    
+    public ResilientSeatReservationService(SeatReservationService delegate) {
+        this(delegate, new ResilienceGuard(ThirdPartyService.SEAT_RESERVATION, ResilienceOptions.DEFAULTS));
+    }
+    
+    public ResilientSeatReservationService(SeatReservationService delegate, ResilienceGuard guard) {
+        this.delegate = delegate;
+        this.guard = guard;
+    }
+    
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        guard.run(() -> delegate.reserveSeat(accountId, totalSeatsToAllocate));
+    }
+    
+    public ResilienceSnapshot snapshot() {
+        return guard.snapshot();
+    }
+}
@@ -0,0 +1,28 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+import uk.gov.dwp.uc.pairtest.metrics.ThirdPartyService;
+
+public class ResilientTicketPaymentService implements TicketPaymentService {
+    
+    private final TicketPaymentService delegate;
+    private final ResilienceGuard guard;
+    
+    public ResilientTicketPaymentService(TicketPaymentService delegate) {
+        this(delegate, new ResilienceGuard(ThirdPartyService.PAYMENT, ResilienceOptions.DEFAULTS));
+    }
+    
+    public ResilientTicketPaymentService(TicketPaymentService delegate, ResilienceGuard guard) {
+        this.delegate = delegate;
+        this.guard = guard;
+    }
+    
+    @Override
+    public void makePayment(long accountId, int totalAmountToPay) {
+        guard.run(() -> delegate.makePayment(accountId, totalAmountToPay));
+    }
+    
+    public ResilienceSnapshot snapshot() {
+        return guard.snapshot();
+    }
+}
@@ -0,0 +1,46 @@
+package uk.gov.dwp.uc.pairtest.show;
+
+import uk.gov.dwp.uc.pairtest.ShowAvailabilityService;
+
+import java.util.Arrays;
+
+/**
+ * Immutable seat counts of every show on one shard at a point in time. The show ids are shared
+ * between snapshots until a show is added; the counts are copied on every publication.
+ */
+public final class AvailabilitySnapshot {
+
+    static final AvailabilitySnapshot EMPTY = new AvailabilitySnapshot(new long[0], new int[0], 0, 0);
+
+    private final long[] showIds;
+    private final int[] remainingSeats;
+    private final long version;
+    private final long publishedNanos;
+
+    // showIds is sorted, and remainingSeats is aligned with it
+    AvailabilitySnapshot(long[] showIds, int[] remainingSeats, long version, long publishedNanos) {
+        this.showIds = showIds;
+        this.remainingSeats = remainingSeats;
+        this.version = version;
+        this.publishedNanos = publishedNanos;
+    }
+
+    public int remainingSeats(long showId) {
+        int slot = Arrays.binarySearch(showIds, showId);
+        return slot >= 0 ? remainingSeats[slot] : ShowAvailabilityService.NOT_ON_SALE;
+    }
+
+    public int showCount() {
+        return showIds.length;
+    }
+
+    // Increases with every snapshot the shard publishes
+    public long version() {
+        return version;
+    }
+
+    // System.nanoTime() when published
+    public long publishedNanos() {
+        return publishedNanos;
+    }
+}
@@ -0,0 +1,24 @@
+package uk.gov.dwp.uc.pairtest.show;
+
+import java.time.Duration;
+
+/**
+ * When a shard publishes a fresh availability snapshot: once maxPendingChanges seat changes are
+ * unpublished, or once the oldest of them is maxStaleness old, whichever comes first.
+ */
+public record PublicationPolicy(Duration maxStaleness, int maxPendingChanges) {
+
+    public static final PublicationPolicy DEFAULTS = new PublicationPolicy(Duration.ofMillis(5), 1024);
+
+    // A snapshot after every pass of the shard's loop, which still batches whatever that pass handled
+    public static final PublicationPolicy IMMEDIATE = new PublicationPolicy(Duration.ZERO, 1);
+
+    public PublicationPolicy {
+        if (maxStaleness == null || maxStaleness.isNegative()) {
+            throw new IllegalArgumentException("Maximum staleness cannot be negative");
+        }
+        if (maxPendingChanges <= 0) {
+            throw new IllegalArgumentException("Maximum pending changes must be greater than 0");
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package uk.gov.dwp.uc.pairtest.show;
+
+/**
+ * A show's shard had no room in its queue, so the purchase was never attempted. Safe to retry.
+ */
+public class ShardOverloadedException extends RuntimeException {
+    
+    public ShardOverloadedException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,450 @@
+package uk.gov.dwp.uc.pairtest.show;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.PurchaseListener;
+import uk.gov.dwp.uc.pairtest.PurchaseSettlement;
+import uk.gov.dwp.uc.pairtest.ShowAvailabilityService;
+import uk.gov.dwp.uc.pairtest.ShowTicketService;
+import uk.gov.dwp.uc.pairtest.calculation.CostCalculator;
+import uk.gov.dwp.uc.pairtest.calculation.CostCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.calculation.SeatCalculator;
+import uk.gov.dwp.uc.pairtest.calculation.SeatCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.compensation.LoggingPurchaseCompensator;
+import uk.gov.dwp.uc.pairtest.compensation.PurchaseCompensator;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.journal.PurchaseJournal;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseMetrics;
+import uk.gov.dwp.uc.pairtest.validation.TicketValidator;
+import uk.gov.dwp.uc.pairtest.validation.TicketValidatorImpl;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ShowTicketService that shards shows across event-loop threads. Each show belongs to exactly one
+ * shard, whose thread is the only one ever to touch the show's seat count, so claiming seats is a
+ * plain field update with no locks or CAS.
+ *
+ * Orders are validated and priced on the calling thread, then routed by show id into the owning
+ * shard's bounded queue; a full queue fails the purchase rather than blocking the caller. The shard
+ * claims the seats and hands the third-party calls to a virtual thread, which reports back through
+ * the shard's mailbox so seats of a failed purchase are returned by the owning thread too. The
+ * third-party calls are settled exactly as TicketServiceImpl settles them, journaled and compensated,
+ * so a purchase that fails after reserving gives its seats back to the third party as well as the show.
+ * Shows on different shards never contend, so throughput grows with shards while there are enough
+ * busy shows to go round.
+ *
+ * Availability reads never reach the shard threads. Each shard publishes an immutable snapshot of its
+ * seat counts to a volatile field in batches, as its PublicationPolicy allows, and a read is a single
+ * volatile read of the owning shard's snapshot.
+ */
+public class ShardedShowTicketService implements ShowTicketService, ShowAvailabilityService, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedShowTicketService.class);
+
+    // Requests handled before the mailbox is checked again, so completions aren't starved
+    private static final int REQUEST_BATCH = 256;
+
+    private final TicketValidator validator;
+    private final CostCalculator costCalculator;
+    private final SeatCalculator seatCalculator;
+    private final PurchaseMetrics metrics;
+    private final PurchaseListener listener;
+    private final PurchaseSettlement settlement;
+    private final int maxPendingChanges;
+    private final long maxStalenessNanos;
+    private final Shard[] shards;
+    private final ExecutorService thirdPartyExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final PurchaseResult.Failed overloaded = new PurchaseResult.Failed(new ShardOverloadedException("Show shard queue is full"));
+    private final PurchaseResult.Failed closedResult = new PurchaseResult.Failed(new IllegalStateException("Show ticket service is closed"));
+    private final PurchaseResult.Failed unsettled = new PurchaseResult.Failed(new IllegalStateException("Purchase did not finish settling"));
+    private volatile boolean closed;
+
+    public ShardedShowTicketService(TicketPaymentService paymentService, SeatReservationService seatService) {
+        this(paymentService, seatService, Runtime.getRuntime().availableProcessors(), 1024, PurchaseMetrics.NOOP);
+    }
+
+    public ShardedShowTicketService(TicketPaymentService paymentService, SeatReservationService seatService,
+                                    int shardCount, int queueCapacity, PurchaseMetrics metrics) {
+        this(paymentService, seatService, new TicketValidatorImpl(), new CostCalculatorImpl(), new SeatCalculatorImpl(),
+            shardCount, queueCapacity, metrics);
+    }
+
+    public ShardedShowTicketService(TicketPaymentService paymentService, SeatReservationService seatService,
+                                    TicketValidator validator, CostCalculator costCalculator, SeatCalculator seatCalculator,
+                                    int shardCount, int queueCapacity, PurchaseMetrics metrics) {
+        this(paymentService, seatService, validator, costCalculator, seatCalculator, shardCount, queueCapacity, metrics,
+            PublicationPolicy.DEFAULTS);
+    }
+
+    public ShardedShowTicketService(TicketPaymentService paymentService, SeatReservationService seatService,
+                                    TicketValidator validator, CostCalculator costCalculator, SeatCalculator seatCalculator,
+                                    int shardCount, int queueCapacity, PurchaseMetrics metrics, PublicationPolicy publication) {
+        this(paymentService, seatService, validator, costCalculator, seatCalculator, shardCount, queueCapacity, metrics,
+            publication, PurchaseListener.NONE);
+    }
+
+    public ShardedShowTicketService(TicketPaymentService paymentService, SeatReservationService seatService,
+                                    TicketValidator validator, CostCalculator costCalculator, SeatCalculator seatCalculator,
+                                    int shardCount, int queueCapacity, PurchaseMetrics metrics, PublicationPolicy publication,
+                                    PurchaseListener listener) {
+        this(paymentService, seatService, validator, costCalculator, seatCalculator, shardCount, queueCapacity, metrics,
+            publication, listener, PurchaseJournal.DISABLED, new LoggingPurchaseCompensator());
+    }
+
+    public ShardedShowTicketService(TicketPaymentService paymentService, SeatReservationService seatService,
+                                    TicketValidator validator, CostCalculator costCalculator, SeatCalculator seatCalculator,
+                                    int shardCount, int queueCapacity, PurchaseMetrics metrics, PublicationPolicy publication,
+                                    PurchaseListener listener, PurchaseJournal journal, PurchaseCompensator compensator) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be greater than 0");
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be greater than 0");
+        }
+        this.validator = validator;
+        this.costCalculator = costCalculator;
+        this.seatCalculator = seatCalculator;
+        this.metrics = metrics;
+        this.listener = listener;
+        this.settlement = new PurchaseSettlement(paymentService, seatService, metrics, journal, compensator);
+        this.maxPendingChanges = publication.maxPendingChanges();
+        this.maxStalenessNanos = publication.maxStaleness().toNanos();
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, queueCapacity);
+        }
+    }
+
+    // Completes once the owning shard has the show; fails with IllegalArgumentException if it already exists
+    public CompletableFuture<Void> addShow(long showId, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Show capacity must be greater than 0");
+        }
+        Shard shard = shardFor(showId);
+        return shard.ask(() -> {
+            if (shard.shows.containsKey(showId)) {
+                throw new IllegalArgumentException("Show " + showId + " is already on sale");
+            }
+            shard.add(showId, new Show(capacity));
+            return null;
+        });
+    }
+
+    // Answered by the owning shard, so unlike availableSeats it reflects every purchase admitted so far
+    public CompletableFuture<Integer> remainingSeats(long showId) {
+        Shard shard = shardFor(showId);
+        return shard.ask(() -> shard.show(showId).remainingSeats);
+    }
+
+    public int shardOf(long showId) {
+        return shardFor(showId).index;
+    }
+
+    @Override
+    public int availableSeats(long showId) {
+        return shardFor(showId).published.remainingSeats(showId);
+    }
+
+    // The latest snapshot of the shard that owns the show
+    public AvailabilitySnapshot availability(long showId) {
+        return shardFor(showId).published;
+    }
+
+    @Override
+    public CompletableFuture<PurchaseResult> purchaseTickets(long showId, Long accountId, TicketTypeRequest... ticketTypeRequests) {
+        TicketCounts ticketCounts = TicketCounts.of(ticketTypeRequests);
+        RejectionReason reason = validator.check(accountId, ticketCounts);
+        if (reason != null) {
+            metrics.recordRejection(reason);
+            notifyRejected(showId, accountId, ticketCounts, reason);
+            return CompletableFuture.completedFuture(PurchaseResult.Rejected.of(reason));
+        }
+        if (closed) {
+            return CompletableFuture.completedFuture(closedResult);
+        }
+        Order order = new Order(showId, accountId, ticketCounts, costCalculator.calculate(ticketCounts),
+            seatCalculator.calculate(ticketCounts));
+        Shard shard = shardFor(showId);
+        if (!shard.requests.offer(order)) {
+            return CompletableFuture.completedFuture(overloaded);
+        }
+        // Closed while queueing: the shard may already have stopped, so take the order back if it's still there
+        if (closed && shard.requests.remove(order)) {
+            return CompletableFuture.completedFuture(closedResult);
+        }
+        shard.wake();
+        return order.result;
+    }
+
+    private Shard shardFor(long showId) {
+        long hash = showId * 0x9E3779B97F4A7C15L;
+        return shards[(int) Math.floorMod(hash ^ (hash >>> 32), (long) shards.length)];
+    }
+
+    // Runs on a virtual thread
+    private PurchaseResult settle(Order order) {
+        PurchaseResult failure = settlement.settle(order.accountId, order.totalCost, order.totalSeats);
+        if (failure != null) {
+            if (failure instanceof PurchaseResult.Rejected rejected) {
+                notifyRejected(order.showId, order.accountId, order.ticketCounts, rejected.reason());
+            }
+            return failure;
+        }
+        metrics.recordPurchase();
+        notifyPurchased(order);
+        return new PurchaseResult.Success(order.accountId, order.totalCost, order.totalSeats);
+    }
+
+    // A listener that throws anyway doesn't change the outcome, which has already happened, and must
+    // not take down the shard thread it may be called on
+    private void notifyPurchased(Order order) {
+        try {
+            listener.purchased(order.showId, order.accountId, order.ticketCounts, order.totalCost);
+        } catch (RuntimeException e) {
+            logger.error("Purchase listener failed for account: {}, show: {}", order.accountId, order.showId, e);
+        }
+    }
+
+    private void notifyRejected(long showId, Long accountId, TicketCounts ticketCounts, RejectionReason reason) {
+        try {
+            listener.rejected(showId, accountId, ticketCounts, reason);
+        } catch (RuntimeException e) {
+            logger.error("Purchase listener failed for account: {}, show: {}", accountId, showId, e);
+        }
+    }
+
+    // Purchases already queued or in flight still complete; new ones fail with closedResult
+    @Override
+    public void close() {
+        closed = true;
+        for (Shard shard : shards) {
+            shard.wake();
+        }
+        for (Shard shard : shards) {
+            try {
+                shard.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        thirdPartyExecutor.close();
+    }
+
+    private final class Shard {
+        private final int index;
+        private final BlockingQueue<Order> requests;
+        private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+        private final Thread thread;
+        private volatile boolean parked;
+        private volatile AvailabilitySnapshot published = AvailabilitySnapshot.EMPTY;
+        // Owned by the shard thread
+        private final Map<Long, Show> shows = new HashMap<>();
+        private long[] showIds = new long[0];
+        private Show[] showsBySlot = new Show[0];
+        private int inFlight;
+        private int pendingChanges;
+        private long oldestPendingNanos;
+
+        private Shard(int index, int queueCapacity) {
+            this.index = index;
+            this.requests = new ArrayBlockingQueue<>(queueCapacity);
+            this.thread = Thread.ofPlatform().daemon().name("show-shard-" + index).start(this::run);
+        }
+
+        private <T> CompletableFuture<T> ask(Callable<T> query) {
+            CompletableFuture<T> answer = new CompletableFuture<>();
+            post(() -> {
+                try {
+                    answer.complete(query.call());
+                } catch (Exception e) {
+                    answer.completeExceptionally(e);
+                }
+            });
+            return answer;
+        }
+
+        private Show show(long showId) {
+            Show show = shows.get(showId);
+            if (show == null) {
+                throw new IllegalArgumentException("Unknown show " + showId);
+            }
+            return show;
+        }
+
+        // The mailbox is unbounded: completions must never be refused or the seats they return are lost
+        private void post(Runnable message) {
+            mailbox.add(message);
+            wake();
+        }
+
+        private void wake() {
+            if (parked) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        private void run() {
+            while (true) {
+                boolean worked = drainMailbox();
+                Order order;
+                for (int i = 0; i < REQUEST_BATCH && (order = requests.poll()) != null; i++) {
+                    admit(order);
+                    worked = true;
+                }
+                if (pendingChanges > 0 && (pendingChanges >= maxPendingChanges || publicationDelay() <= 0)) {
+                    publish();
+                }
+                if (worked) {
+                    continue;
+                }
+                if (closed && inFlight == 0 && requests.isEmpty() && mailbox.isEmpty()) {
+                    if (pendingChanges > 0) {
+                        publish();
+                    }
+                    return;
+                }
+                // Publish parked before the final check, so a producer either sees it or we see its message
+                parked = true;
+                if (requests.isEmpty() && mailbox.isEmpty() && !(closed && inFlight == 0)) {
+                    if (pendingChanges == 0) {
+                        LockSupport.park(this);
+                    } else {
+                        LockSupport.parkNanos(this, publicationDelay());
+                    }
+                }
+                parked = false;
+            }
+        }
+
+        private long publicationDelay() {
+            return oldestPendingNanos + maxStalenessNanos - System.nanoTime();
+        }
+
+        private void seatsChanged() {
+            if (pendingChanges++ == 0) {
+                oldestPendingNanos = System.nanoTime();
+            }
+        }
+
+        // Copies the counts only; the sorted show ids are shared until the next show is added
+        private void publish() {
+            int[] remainingSeats = new int[showsBySlot.length];
+            for (int slot = 0; slot < remainingSeats.length; slot++) {
+                remainingSeats[slot] = showsBySlot[slot].remainingSeats;
+            }
+            published = new AvailabilitySnapshot(showIds, remainingSeats, published.version() + 1, System.nanoTime());
+            pendingChanges = 0;
+        }
+
+        // New shows are visible to availability reads by the time addShow completes
+        private void add(long showId, Show show) {
+            shows.put(showId, show);
+            int slot = -(Arrays.binarySearch(showIds, showId) + 1);
+            long[] ids = new long[showIds.length + 1];
+            Show[] bySlot = new Show[ids.length];
+            System.arraycopy(showIds, 0, ids, 0, slot);
+            System.arraycopy(showsBySlot, 0, bySlot, 0, slot);
+            ids[slot] = showId;
+            bySlot[slot] = show;
+            System.arraycopy(showIds, slot, ids, slot + 1, showIds.length - slot);
+            System.arraycopy(showsBySlot, slot, bySlot, slot + 1, showIds.length - slot);
+            showIds = ids;
+            showsBySlot = bySlot;
+            publish();
+        }
+
+        private boolean drainMailbox() {
+            boolean drained = false;
+            Runnable message;
+            while ((message = mailbox.poll()) != null) {
+                message.run();
+                drained = true;
+            }
+            return drained;
+        }
+
+        private void admit(Order order) {
+            Show show = shows.get(order.showId);
+            if (show == null) {
+                reject(order, RejectionReason.UNKNOWN_SHOW);
+                return;
+            }
+            // Seats of a purchase that just failed may be waiting in the mailbox
+            if (show.remainingSeats < order.totalSeats) {
+                drainMailbox();
+            }
+            if (show.remainingSeats < order.totalSeats) {
+                reject(order, show.remainingSeats == 0 ? RejectionReason.SOLD_OUT : RejectionReason.NOT_ENOUGH_SEATS);
+                return;
+            }
+            show.remainingSeats -= order.totalSeats;
+            seatsChanged();
+            inFlight++;
+            thirdPartyExecutor.execute(() -> {
+                PurchaseResult result = unsettled;
+                try {
+                    result = settle(order);
+                } finally {
+                    // Even if settling died, the shard must hear back or close() would wait for it forever
+                    boolean returnSeats = !result.isSuccess();
+                    post(() -> {
+                        inFlight--;
+                        if (returnSeats) {
+                            show.remainingSeats += order.totalSeats;
+                            seatsChanged();
+                        }
+                    });
+                    order.result.complete(result);
+                }
+            });
+        }
+
+        private void reject(Order order, RejectionReason reason) {
+            metrics.recordRejection(reason);
+            notifyRejected(order.showId, order.accountId, order.ticketCounts, reason);
+            order.result.complete(PurchaseResult.Rejected.of(reason));
+        }
+    }
+
+    private static final class Show {
+        private int remainingSeats;
+
+        private Show(int capacity) {
+            this.remainingSeats = capacity;
+        }
+    }
+
+    private static final class Order {
+        private final long showId;
+        private final long accountId;
+        private final TicketCounts ticketCounts;
+        private final int totalCost;
+        private final int totalSeats;
+        private final CompletableFuture<PurchaseResult> result = new CompletableFuture<>();
+
+        private Order(long showId, long accountId, TicketCounts ticketCounts, int totalCost, int totalSeats) {
+            this.showId = showId;
+            this.accountId = accountId;
+            this.ticketCounts = ticketCounts;
+            this.totalCost = totalCost;
+            this.totalSeats = totalSeats;
+        }
+    }
+}
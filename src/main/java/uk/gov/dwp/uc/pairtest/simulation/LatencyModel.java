@@ -0,0 +1,102 @@
+package uk.gov.dwp.uc.pairtest.simulation;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+
+/**
+ * How long a simulated call takes. Log-normal matches the shape of most real service latencies;
+ * Bimodal adds the occasional slow mode (GC pause, cache miss, retry) that produces a distinct tail.
+ */
+public sealed interface LatencyModel permits LatencyModel.Fixed, LatencyModel.LogNormal, LatencyModel.Bimodal {
+
+    LatencyModel NONE = new Fixed(Duration.ZERO);
+
+    long sampleNanos(SplittableRandom random);
+
+    record Fixed(Duration latency) implements LatencyModel {
+
+        public Fixed {
+            if (latency == null || latency.isNegative()) {
+                throw new IllegalArgumentException("Latency cannot be negative");
+            }
+        }
+
+        @Override
+        public long sampleNanos(SplittableRandom random) {
+            return latency.toNanos();
+        }
+    }
+
+    // Half of all calls are faster than median; sigma is the spread of the underlying normal
+    record LogNormal(Duration median, double sigma) implements LatencyModel {
+
+        public LogNormal {
+            if (median == null || median.isNegative() || median.isZero()) {
+                throw new IllegalArgumentException("Median latency must be positive");
+            }
+            if (sigma < 0) {
+                throw new IllegalArgumentException("Sigma cannot be negative");
+            }
+        }
+
+        @Override
+        public long sampleNanos(SplittableRandom random) {
+            return (long) (median.toNanos() * Math.exp(sigma * random.nextGaussian()));
+        }
+    }
+
+    record Bimodal(LatencyModel fast, LatencyModel slow, double slowProbability) implements LatencyModel {
+
+        public Bimodal {
+            if (fast == null || slow == null) {
+                throw new IllegalArgumentException("Both modes are required");
+            }
+            if (slowProbability < 0 || slowProbability > 1) {
+                throw new IllegalArgumentException("Slow probability must be between 0 and 1");
+            }
+        }
+
+        @Override
+        public long sampleNanos(SplittableRandom random) {
+            return random.nextDouble() < slowProbability ? slow.sampleNanos(random) : fast.sampleNanos(random);
+        }
+    }
+
+    /**
+     * Parses "fixed:MS", "lognormal:MEDIAN_MS:SIGMA" or "bimodal:FAST_MS:SLOW_MS:SLOW_PROBABILITY",
+     * where bimodal's modes are log-normal with sigma 0.25. Millisecond values may be fractional.
+     */
+    static LatencyModel parse(String spec) {
+        String[] parts = spec.split(":");
+        try {
+            return switch (parts[0]) {
+                case "fixed" -> {
+                    expectParts(spec, parts, 2);
+                    yield new Fixed(millis(parts[1]));
+                }
+                case "lognormal" -> {
+                    expectParts(spec, parts, 3);
+                    yield new LogNormal(millis(parts[1]), Double.parseDouble(parts[2]));
+                }
+                case "bimodal" -> {
+                    expectParts(spec, parts, 4);
+                    yield new Bimodal(new LogNormal(millis(parts[1]), 0.25), new LogNormal(millis(parts[2]), 0.25),
+                        Double.parseDouble(parts[3]));
+                }
+                default -> throw new IllegalArgumentException("Unknown latency model '" + spec + "'");
+            };
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid latency model '" + spec + "'", e);
+        }
+    }
+
+    private static void expectParts(String spec, String[] parts, int expected) {
+        if (parts.length != expected) {
+            throw new IllegalArgumentException("Invalid latency model '" + spec + "'");
+        }
+    }
+
+    private static Duration millis(String value) {
+        return Duration.ofNanos((long) (Double.parseDouble(value) * 1_000_000));
+    }
+}
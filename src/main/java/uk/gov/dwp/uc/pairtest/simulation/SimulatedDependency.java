@@ -0,0 +1,95 @@
+package uk.gov.dwp.uc.pairtest.simulation;
+
+import uk.gov.dwp.uc.pairtest.resilience.Bulkhead;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * One simulated remote call, shared by the simulated thirdparty services.
+ *
+ * The latency and error draw for the n-th call comes from a generator seeded with (seed, n), so a
+ * given seed always produces the same sequence of outcomes, whichever threads make the calls.
+ * Only the capacity limits depend on timing, and those can be made deterministic with a fake clock.
+ * A call whose latency exceeds the timeout takes exactly the timeout and then fails.
+ */
+public class SimulatedDependency {
+    
+    private static final long SEED_STRIDE = 0x9E3779B97F4A7C15L;
+    
+    private final String name;
+    private final SimulationOptions options;
+    private final long timeoutNanos;
+    private final Bulkhead concurrency;
+    private final TokenBucket rateLimit;
+    private final AtomicLong callIndex = new AtomicLong();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder[] failures = new LongAdder[SimulatedFailureException.Kind.values().length];
+    
+    public SimulatedDependency(String name, SimulationOptions options) {
+        this(name, options, System::nanoTime);
+    }
+    
+    public SimulatedDependency(String name, SimulationOptions options, LongSupplier nanoClock) {
+        this.name = name;
+        this.options = options;
+        this.timeoutNanos = options.timeout().toNanos();
+        this.concurrency = options.maxConcurrentCalls() > 0 ? new Bulkhead(options.maxConcurrentCalls()) : null;
+        this.rateLimit = options.ratePerSecond() > 0 ? new TokenBucket(options.ratePerSecond(), options.burst(), nanoClock) : null;
+        for (int i = 0; i < failures.length; i++) {
+            failures[i] = new LongAdder();
+        }
+    }
+    
+    public void call() {
+        SplittableRandom random = new SplittableRandom(options.seed() + callIndex.getAndIncrement() * SEED_STRIDE);
+        // Drawn before any capacity check so a refused call doesn't shift later calls' outcomes
+        long latencyNanos = options.latency().sampleNanos(random);
+        boolean error = random.nextDouble() < options.errorRate();
+        
+        if (rateLimit != null && !rateLimit.tryAcquire()) {
+            throw failure(SimulatedFailureException.Kind.RATE_LIMITED);
+        }
+        if (concurrency != null && !concurrency.tryAcquire()) {
+            throw failure(SimulatedFailureException.Kind.OVERLOADED);
+        }
+        try {
+            if (timeoutNanos > 0 && latencyNanos > timeoutNanos) {
+                pause(timeoutNanos);
+                throw failure(SimulatedFailureException.Kind.TIMEOUT);
+            }
+            pause(latencyNanos);
+            if (error) {
+                throw failure(SimulatedFailureException.Kind.ERROR);
+            }
+            succeeded.increment();
+        } finally {
+            if (concurrency != null) {
+                concurrency.release();
+            }
+        }
+    }
+    
+    public long succeeded() {
+        return succeeded.sum();
+    }
+    
+    public long failures(SimulatedFailureException.Kind kind) {
+        return failures[kind.ordinal()].sum();
+    }
+    
+    private SimulatedFailureException failure(SimulatedFailureException.Kind kind) {
+        failures[kind.ordinal()].increment();
+        return new SimulatedFailureException(name, kind);
+    }
+    
+    private static void pause(long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        for (long remaining = nanos; remaining > 0; remaining = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
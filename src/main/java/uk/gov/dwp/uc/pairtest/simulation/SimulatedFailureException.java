@@ -0,0 +1,22 @@
+package uk.gov.dwp.uc.pairtest.simulation;
+
+/**
+ * A failure injected by a simulated dependency. Stackless, since load runs may inject thousands a second.
+ */
+public class SimulatedFailureException extends RuntimeException {
+    
+    public enum Kind {
+        ERROR, TIMEOUT, OVERLOADED, RATE_LIMITED
+    }
+    
+    private final Kind kind;
+    
+    public SimulatedFailureException(String dependency, Kind kind) {
+        super(dependency + " simulated failure: " + kind, null, false, false);
+        this.kind = kind;
+    }
+    
+    public Kind getKind() {
+        return kind;
+    }
+}
@@ -0,0 +1,28 @@
+package uk.gov.dwp.uc.pairtest.simulation;
+
+import thirdparty.seatbooking.SeatReservationService;
+
+/**
+ * SeatReservationService with the latency, faults and capacity of SimulationOptions.
+ */
+public class SimulatedSeatReservationService implements SeatReservationService {
+    
+    private final SimulatedDependency dependency;
+    
+    public SimulatedSeatReservationService(SimulationOptions options) {
+        this(new SimulatedDependency("Seat reservation", options));
+    }
+    
+    public SimulatedSeatReservationService(SimulatedDependency dependency) {
+        this.dependency = dependency;
+    }
+    
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        dependency.call();
+    }
+    
+    public SimulatedDependency dependency() {
+        return dependency;
+    }
+}
@@ -0,0 +1,28 @@
+package uk.gov.dwp.uc.pairtest.simulation;
+
+import thirdparty.paymentgateway.TicketPaymentService;
+
+/**
+ * TicketPaymentService with the latency, faults and capacity of SimulationOptions.
+ */
+public class SimulatedTicketPaymentService implements TicketPaymentService {
+    
+    private final SimulatedDependency dependency;
+    
+    public SimulatedTicketPaymentService(SimulationOptions options) {
+        this(new SimulatedDependency("Payment", options));
+    }
+    
+    public SimulatedTicketPaymentService(SimulatedDependency dependency) {
+        this.dependency = dependency;
+    }
+    
+    @Override
+    public void makePayment(long accountId, int totalAmountToPay) {
+        dependency.call();
+    }
+    
+    public SimulatedDependency dependency() {
+        return dependency;
+    }
+}
@@ -0,0 +1,61 @@
+package uk.gov.dwp.uc.pairtest.simulation;
+
+import java.time.Duration;
+
+/**
+ * Behaviour of one simulated dependency. A zero timeout, maxConcurrentCalls or ratePerSecond means no
+ * limit. Calls over capacity are refused immediately, as a saturated service answering 429/503 would.
+ */
+public record SimulationOptions(LatencyModel latency,
+                                double errorRate,
+                                Duration timeout,
+                                int maxConcurrentCalls,
+                                double ratePerSecond,
+                                int burst,
+                                long seed) {
+
+    // Instant and always succeeding, like the thirdparty no-op implementations
+    public static final SimulationOptions DEFAULTS = new SimulationOptions(LatencyModel.NONE, 0, Duration.ZERO, 0, 0, 1, 0);
+
+    public SimulationOptions {
+        if (latency == null) {
+            throw new IllegalArgumentException("Latency model is required");
+        }
+        if (errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("Error rate must be between 0 and 1");
+        }
+        if (timeout == null || timeout.isNegative()) {
+            throw new IllegalArgumentException("Timeout cannot be negative");
+        }
+        if (maxConcurrentCalls < 0 || ratePerSecond < 0) {
+            throw new IllegalArgumentException("Capacity limits cannot be negative");
+        }
+        if (burst <= 0) {
+            throw new IllegalArgumentException("Burst must be greater than 0");
+        }
+    }
+
+    public SimulationOptions withLatency(LatencyModel latency) {
+        return new SimulationOptions(latency, errorRate, timeout, maxConcurrentCalls, ratePerSecond, burst, seed);
+    }
+
+    public SimulationOptions withErrorRate(double errorRate) {
+        return new SimulationOptions(latency, errorRate, timeout, maxConcurrentCalls, ratePerSecond, burst, seed);
+    }
+
+    public SimulationOptions withTimeout(Duration timeout) {
+        return new SimulationOptions(latency, errorRate, timeout, maxConcurrentCalls, ratePerSecond, burst, seed);
+    }
+
+    public SimulationOptions withMaxConcurrentCalls(int maxConcurrentCalls) {
+        return new SimulationOptions(latency, errorRate, timeout, maxConcurrentCalls, ratePerSecond, burst, seed);
+    }
+
+    public SimulationOptions withRateLimit(double ratePerSecond, int burst) {
+        return new SimulationOptions(latency, errorRate, timeout, maxConcurrentCalls, ratePerSecond, burst, seed);
+    }
+
+    public SimulationOptions withSeed(long seed) {
+        return new SimulationOptions(latency, errorRate, timeout, maxConcurrentCalls, ratePerSecond, burst, seed);
+    }
+}
@@ -0,0 +1,40 @@
+package uk.gov.dwp.uc.pairtest.simulation;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Rate limit of ratePerSecond with bursts of up to burst calls, kept as a single theoretical arrival
+ * time (GCRA) so taking a token is one CAS and there is no refill thread.
+ */
+public class TokenBucket {
+    
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicLong theoreticalArrival;
+    
+    public TokenBucket(double ratePerSecond, int burst, LongSupplier nanoClock) {
+        if (!(ratePerSecond > 0) || burst <= 0) {
+            throw new IllegalArgumentException("Rate and burst must be greater than 0");
+        }
+        this.intervalNanos = Math.max(1, (long) (1e9 / ratePerSecond));
+        this.toleranceNanos = intervalNanos * burst;
+        this.nanoClock = nanoClock;
+        this.theoreticalArrival = new AtomicLong(nanoClock.getAsLong());
+    }
+    
+    public boolean tryAcquire() {
+        long now = nanoClock.getAsLong();
+        long current;
+        long next;
+        do {
+            current = theoreticalArrival.get();
+            next = Math.max(current - now, 0) + now + intervalNanos;
+            if (next - now > toleranceNanos) {
+                return false;
+            }
+        } while (!theoreticalArrival.compareAndSet(current, next));
+        return true;
+    }
+}
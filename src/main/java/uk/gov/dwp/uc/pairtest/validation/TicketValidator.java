@@ -1,9 +1,45 @@
 package uk.gov.dwp.uc.pairtest.validation;
 
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
 import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.TicketPurchaseException;
 import java.util.Map;
 
 @FunctionalInterface
 public interface TicketValidator {
     void validate(Long accountId, Map<TicketTypeRequest.Type, Integer> ticketCounts);
-}
\ No newline at end of file
+
+    default void validate(Long accountId, TicketCounts ticketCounts) {
+        validate(accountId, ticketCounts == null ? null : ticketCounts.toMap());
+    }
+
+    // Exception-free form of validate: null when the order is valid. Implementations should override to avoid the throw.
+    default RejectionReason check(Long accountId, TicketCounts ticketCounts) {
+        try {
+            validate(accountId, ticketCounts);
+            return null;
+        } catch (TicketPurchaseException e) {
+            return e.getReason();
+        } catch (InvalidPurchaseException e) {
+            return RejectionReason.INVALID_PURCHASE;
+        }
+    }
+
+    // check's answer without recording it anywhere, for working answers out in advance
+    default RejectionReason probe(Long accountId, TicketCounts ticketCounts) {
+        return check(accountId, ticketCounts);
+    }
+
+    // Whether check's answer depends only on the ticket mix and whether the account id is valid, so it can be
+    // worked out in advance for any account; false when it also depends on what the account did before
+    default boolean isStateless() {
+        return true;
+    }
+
+    // The exception the throwing API reports for a reason returned by check
+    default TicketPurchaseException rejection(RejectionReason reason, TicketCounts ticketCounts) {
+        return new TicketPurchaseException(reason);
+    }
+}
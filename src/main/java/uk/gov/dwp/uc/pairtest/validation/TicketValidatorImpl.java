@@ -1,64 +1,96 @@
 package uk.gov.dwp.uc.pairtest.validation;
 
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
 import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
-import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
 import uk.gov.dwp.uc.pairtest.exception.TicketPurchaseException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 public class TicketValidatorImpl implements TicketValidator {
     
     private static final int MAX_TICKETS = 25;
     
+    private final ValidationPipeline pipeline;
+    private final int maxTickets;
+    
+    public TicketValidatorImpl() {
+        this(MAX_TICKETS);
+    }
+    
+    public TicketValidatorImpl(int maxTickets, ValidationRule... venueRules) {
+        if (maxTickets <= 0) {
+            throw new IllegalArgumentException("Maximum tickets must be greater than 0");
+        }
+        this.pipeline = ValidationPipeline.compile(standardRules(maxTickets, venueRules));
+        this.maxTickets = pipeline.maxTickets();
+    }
+    
+    // Standard checks in the order their rejection reasons take precedence, venue rules after them
+    private static List<ValidationRule> standardRules(int maxTickets, ValidationRule... venueRules) {
+        List<ValidationRule> rules = new ArrayList<>(List.of(
+            new ValidationRule.AccountId(),
+            new ValidationRule.NonEmptyOrder(),
+            new ValidationRule.PositiveQuantity(),
+            new ValidationRule.MaxTickets(maxTickets),
+            new ValidationRule.AdultSupervision(),
+            new ValidationRule.InfantsPerAdult()
+        ));
+        rules.addAll(List.of(venueRules));
+        return rules;
+    }
+    
+    public int getMaxTickets() {
+        return maxTickets;
+    }
+    
+    public ValidationPipeline pipeline() {
+        return pipeline;
+    }
+    
+    @Override
+    public RejectionReason probe(Long accountId, TicketCounts ticketCounts) {
+        return pipeline.probe(accountId, ticketCounts == null || ticketCounts.isEmpty() ? null : ticketCounts);
+    }
+    
+    @Override
+    public boolean isStateless() {
+        return pipeline.isStateless();
+    }
+    
     @Override
     public void validate(Long accountId, Map<TicketTypeRequest.Type, Integer> ticketCounts) {
-        ensureAccountIdIsValid(accountId);
-        ensureRequestsNotExceedingMaximumTickets(ticketCounts);
-        enforceAdultSupervisionBusinessRules(ticketCounts);
+        TicketCounts counts = ticketCounts == null || ticketCounts.isEmpty() ? null : TicketCounts.from(ticketCounts);
+        throwIfRejected(pipeline.check(accountId, counts), counts);
     }
     
-    private void ensureAccountIdIsValid(Long accountId) {
-        if (accountId == null) {
-            throw new TicketPurchaseException("Account ID cannot be null");
-        }
-        if (accountId <= 0) {
-            throw new TicketPurchaseException("Account ID must be greater than 0");
-        }
+    @Override
+    public void validate(Long accountId, TicketCounts ticketCounts) {
+        throwIfRejected(check(accountId, ticketCounts), ticketCounts);
     }
     
-    private void ensureRequestsNotExceedingMaximumTickets(Map<TicketTypeRequest.Type, Integer> ticketCounts) {
-        if (ticketCounts == null || ticketCounts.isEmpty()) {
-            throw new TicketPurchaseException("At least one ticket request is required");
-        }
-        
-        int totalTickets = ticketCounts.values().stream()
-            .mapToInt(Integer::intValue)
-            .sum();
-            
-        if (totalTickets <= 0) {
-            throw new TicketPurchaseException("All ticket requests are invalid or have zero quantity");
-        }
-            
-        if (totalTickets > MAX_TICKETS) {
-            throw new TicketPurchaseException(
-                String.format("Cannot purchase more than %d tickets at once. Requested: %d", MAX_TICKETS, totalTickets));
-        }
+    @Override
+    public RejectionReason check(Long accountId, TicketCounts ticketCounts) {
+        return pipeline.check(accountId, ticketCounts == null || ticketCounts.isEmpty() ? null : ticketCounts);
     }
     
-    private void enforceAdultSupervisionBusinessRules(Map<TicketTypeRequest.Type, Integer> ticketCounts) {
-        int adults = ticketCounts.getOrDefault(TicketTypeRequest.Type.ADULT, 0);
-        int children = ticketCounts.getOrDefault(TicketTypeRequest.Type.CHILD, 0);
-        int infants = ticketCounts.getOrDefault(TicketTypeRequest.Type.INFANT, 0);
-        
-        if (adults == 0 && (children > 0 || infants > 0)) {
-            throw new TicketPurchaseException(
-                "Children and infants must be accompanied by at least one adult");
-        }
-        
-        if (infants > adults) {
-            throw new TicketPurchaseException(
-                String.format("Cannot have more infants (%d) than adults (%d) - infants sit on adult laps", infants, adults));
-        }
+    // Detailed messages are only formatted here, on the throwing path
+    @Override
+    public TicketPurchaseException rejection(RejectionReason reason, TicketCounts ticketCounts) {
+        return switch (reason) {
+            case TOO_MANY_TICKETS -> new TicketPurchaseException(reason,
+                String.format("Cannot purchase more than %d tickets at once. Requested: %d", maxTickets, ticketCounts.total()));
+            case TOO_MANY_INFANTS -> new TicketPurchaseException(reason,
+                String.format("Cannot have more infants (%d) than adults (%d) - infants sit on adult laps",
+                    ticketCounts.infants(), ticketCounts.adults()));
+            default -> new TicketPurchaseException(reason);
+        };
     }
     
-
-}
\ No newline at end of file
+    private void throwIfRejected(RejectionReason reason, TicketCounts ticketCounts) {
+        if (reason != null) {
+            throw rejection(reason, ticketCounts);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package uk.gov.dwp.uc.pairtest.validation;
+
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
+import uk.gov.dwp.uc.pairtest.ledger.AccountLedger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Rules compiled once into parallel opcode/parameter arrays and evaluated by a single switch,
+ * so the call site stays monomorphic however many venue rules are configured.
+ *
+ * Rules are evaluated in an adaptive order, rules that reject most often first, except that AccountLimits
+ * always comes after the constant-time rules: it probes the ledger and costs the order, so it is only
+ * worth running once everything cheaper has passed. Declaration order still
+ * decides which reason is reported: once a rule rejects, only rules declared before it are re-checked.
+ * Valid orders have to pass every rule, so the order only changes how quickly rejections are found.
+ */
+public class ValidationPipeline {
+
+    private static final int ACCOUNT_ID = 0;
+    private static final int NON_EMPTY_ORDER = 1;
+    private static final int POSITIVE_QUANTITY = 2;
+    private static final int MAX_TICKETS = 3;
+    private static final int ADULT_SUPERVISION = 4;
+    private static final int INFANTS_PER_ADULT = 5;
+    private static final int ADULTS_ONLY = 6;
+    private static final int ACCOUNT_LIMITS = 7;
+
+    // Reorder on roughly one rejection in this many
+    private static final int REORDER_SAMPLE = 1024;
+
+    private final List<ValidationRule> rules;
+    private final int[] ops;
+    private final int[] params;
+    private final AccountLedger[] ledgers;
+    private final LongAdder[] rejections;
+    private final LongAdder checks = new LongAdder();
+    private final int maxTickets;
+    private volatile int[] order;
+
+    public record RuleStatistics(ValidationRule rule, long rejections, double rejectionRate) {
+    }
+
+    private ValidationPipeline(List<ValidationRule> rules) {
+        this.rules = List.copyOf(rules);
+        this.ops = new int[this.rules.size()];
+        this.params = new int[this.rules.size()];
+        this.ledgers = new AccountLedger[this.rules.size()];
+        this.rejections = new LongAdder[this.rules.size()];
+        for (int i = 0; i < ops.length; i++) {
+            ValidationRule rule = this.rules.get(i);
+            ops[i] = switch (rule) {
+                case ValidationRule.AccountId ignored -> ACCOUNT_ID;
+                case ValidationRule.NonEmptyOrder ignored -> NON_EMPTY_ORDER;
+                case ValidationRule.PositiveQuantity ignored -> POSITIVE_QUANTITY;
+                case ValidationRule.MaxTickets max -> {
+                    params[i] = max.maxTickets();
+                    yield MAX_TICKETS;
+                }
+                case ValidationRule.AdultSupervision ignored -> ADULT_SUPERVISION;
+                case ValidationRule.InfantsPerAdult ignored -> INFANTS_PER_ADULT;
+                case ValidationRule.AdultsOnly ignored -> ADULTS_ONLY;
+                case ValidationRule.AccountLimits limits -> {
+                    ledgers[i] = limits.ledger();
+                    yield ACCOUNT_LIMITS;
+                }
+            };
+            rejections[i] = new LongAdder();
+        }
+        this.maxTickets = this.rules.stream()
+            .filter(ValidationRule.MaxTickets.class::isInstance)
+            .mapToInt(rule -> ((ValidationRule.MaxTickets) rule).maxTickets())
+            .findFirst()
+            .orElse(Integer.MAX_VALUE);
+        this.order = IntStream.range(0, ops.length).toArray();
+    }
+
+    // Drops duplicate rules and folds every MaxTickets into the lowest one, keeping the first occurrence's position
+    public static ValidationPipeline compile(List<ValidationRule> rules) {
+        int lowestMax = rules.stream()
+            .filter(ValidationRule.MaxTickets.class::isInstance)
+            .mapToInt(rule -> ((ValidationRule.MaxTickets) rule).maxTickets())
+            .min()
+            .orElse(0);
+        List<ValidationRule> compiled = new ArrayList<>();
+        for (ValidationRule rule : rules) {
+            if (rule == null) {
+                throw new IllegalArgumentException("Validation rule cannot be null");
+            }
+            ValidationRule folded = rule instanceof ValidationRule.MaxTickets ? new ValidationRule.MaxTickets(lowestMax) : rule;
+            if (!compiled.contains(folded)) {
+                compiled.add(folded);
+            }
+        }
+        return new ValidationPipeline(compiled);
+    }
+
+    public static ValidationPipeline compile(ValidationRule... rules) {
+        return compile(Arrays.asList(rules));
+    }
+
+    public List<ValidationRule> rules() {
+        return rules;
+    }
+
+    // False when a rule such as AccountLimits depends on the account's earlier orders
+    public boolean isStateless() {
+        return Arrays.stream(ops).noneMatch(op -> op == ACCOUNT_LIMITS);
+    }
+
+    // Integer.MAX_VALUE when the pipeline has no MaxTickets rule
+    public int maxTickets() {
+        return maxTickets;
+    }
+
+    // counts is null when the order has no ticket requests at all; null is returned for a valid order
+    public RejectionReason check(Long accountId, TicketCounts ticketCounts) {
+        checks.increment();
+        TicketCounts counts = ticketCounts == null ? TicketCounts.EMPTY : ticketCounts;
+        boolean noRequests = ticketCounts == null;
+        int[] current = order;
+        for (int rule : current) {
+            RejectionReason reason = test(ops[rule], params[rule], ledgers[rule], accountId, counts, noRequests);
+            if (reason != null) {
+                return reject(rule, reason, accountId, counts, noRequests);
+            }
+        }
+        return null;
+    }
+
+    // check's answer without counting it in the statistics, which would skew the evaluation order;
+    // rules run in declaration order, so the first to reject is the reported one
+    public RejectionReason probe(Long accountId, TicketCounts ticketCounts) {
+        TicketCounts counts = ticketCounts == null ? TicketCounts.EMPTY : ticketCounts;
+        boolean noRequests = ticketCounts == null;
+        for (int rule = 0; rule < ops.length; rule++) {
+            RejectionReason reason = test(ops[rule], params[rule], ledgers[rule], accountId, counts, noRequests);
+            if (reason != null) {
+                return reason;
+            }
+        }
+        return null;
+    }
+
+    private RejectionReason reject(int rule, RejectionReason reason, Long accountId, TicketCounts counts, boolean noRequests) {
+        int reported = rule;
+        RejectionReason reportedReason = reason;
+        for (int earlier = 0; earlier < rule; earlier++) {
+            RejectionReason earlierReason = test(ops[earlier], params[earlier], ledgers[earlier], accountId, counts, noRequests);
+            if (earlierReason != null) {
+                reported = earlier;
+                reportedReason = earlierReason;
+                break;
+            }
+        }
+        rejections[reported].increment();
+        if (ThreadLocalRandom.current().nextInt(REORDER_SAMPLE) == 0) {
+            reorder();
+        }
+        return reportedReason;
+    }
+
+    private static RejectionReason test(int op, int param, AccountLedger ledger, Long accountId, TicketCounts counts,
+                                        boolean noRequests) {
+        return switch (op) {
+            case ACCOUNT_ID -> accountId == null ? RejectionReason.NULL_ACCOUNT_ID
+                : accountId <= 0 ? RejectionReason.INVALID_ACCOUNT_ID : null;
+            case NON_EMPTY_ORDER -> noRequests ? RejectionReason.NO_TICKETS : null;
+            case POSITIVE_QUANTITY -> counts.total() <= 0 ? RejectionReason.INVALID_TICKET_QUANTITY : null;
+            case MAX_TICKETS -> counts.total() > param ? RejectionReason.TOO_MANY_TICKETS : null;
+            case ADULT_SUPERVISION -> counts.adults() == 0 && (counts.children() > 0 || counts.infants() > 0)
+                ? RejectionReason.UNACCOMPANIED_MINOR : null;
+            case INFANTS_PER_ADULT -> counts.infants() > counts.adults() ? RejectionReason.TOO_MANY_INFANTS : null;
+            case ADULTS_ONLY -> counts.children() > 0 || counts.infants() > 0 ? RejectionReason.AGE_RESTRICTED : null;
+            // Only meaningful for a valid account id, which AccountId checks
+            case ACCOUNT_LIMITS -> accountId != null && accountId > 0 && !ledger.allows(accountId, counts)
+                ? RejectionReason.ACCOUNT_LIMIT_REACHED : null;
+            default -> throw new IllegalStateException("Unknown rule opcode " + op);
+        };
+    }
+
+    // Cheap rules before stateful ones, then most rejections first; ties keep declaration order.
+    // Racing reorders just publish equivalent orders.
+    public void reorder() {
+        long[] counts = new long[rejections.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = rejections[i].sum();
+        }
+        order = IntStream.range(0, ops.length)
+            .boxed()
+            .sorted(Comparator.<Integer, Boolean>comparing(rule -> ops[rule] == ACCOUNT_LIMITS)
+                .thenComparing(Comparator.<Integer>comparingLong(rule -> counts[rule]).reversed()))
+            .mapToInt(Integer::intValue)
+            .toArray();
+    }
+
+    public List<ValidationRule> evaluationOrder() {
+        return Arrays.stream(order).mapToObj(rules::get).toList();
+    }
+
+    public List<RuleStatistics> statistics() {
+        long total = checks.sum();
+        return IntStream.range(0, rules.size())
+            .mapToObj(i -> {
+                long rejected = rejections[i].sum();
+                return new RuleStatistics(rules.get(i), rejected, total == 0 ? 0.0 : (double) rejected / total);
+            })
+            .toList();
+    }
+}
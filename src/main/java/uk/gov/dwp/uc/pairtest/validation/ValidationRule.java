@@ -0,0 +1,47 @@
+package uk.gov.dwp.uc.pairtest.validation;
+
+import uk.gov.dwp.uc.pairtest.ledger.AccountLedger;
+
+/**
+ * A single order check. Rules are plain data: ValidationPipeline compiles them into opcodes
+ * so adding venue rules never adds a virtual call per request.
+ */
+public sealed interface ValidationRule {
+
+    record AccountId() implements ValidationRule {
+    }
+
+    record NonEmptyOrder() implements ValidationRule {
+    }
+
+    record PositiveQuantity() implements ValidationRule {
+    }
+
+    // Per-order cap; the pipeline keeps only the lowest, so a venue can tighten the default of 25 for a show
+    record MaxTickets(int maxTickets) implements ValidationRule {
+        public MaxTickets {
+            if (maxTickets <= 0) {
+                throw new IllegalArgumentException("Maximum tickets must be greater than 0");
+            }
+        }
+    }
+
+    record AdultSupervision() implements ValidationRule {
+    }
+
+    record InfantsPerAdult() implements ValidationRule {
+    }
+
+    // Age-restricted films: adult tickets only
+    record AdultsOnly() implements ValidationRule {
+    }
+
+    // Caps across an account's orders in the ledger's window; the ledger must also be the service's PurchaseListener
+    record AccountLimits(AccountLedger ledger) implements ValidationRule {
+        public AccountLimits {
+            if (ledger == null) {
+                throw new IllegalArgumentException("Account ledger is required");
+            }
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package uk.gov.dwp.uc.pairtest.velocity;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Sliding-window purchase and ticket counts per account, for turning away scripted clients before they
+ * cost a third-party call. Each account has a ring of four 250ms buckets covering the last second and
+ * a ring of twelve 5s buckets covering the last minute. A bucket is one long holding its bucket number
+ * and both counts, so a stale bucket is reset by the same CAS that counts into it.
+ *
+ * Accounts live in a fixed, 4-way set-associative table, so memory is bounded by maxAccounts whatever
+ * the traffic. An account not in its set takes the way idle longest, and its counters start from zero;
+ * only when every way of the set was active in the last minute does that evict an active account.
+ * A way is claimed, reset and only then given its new account id, and checks that find a way of their
+ * set mid-claim wait for it, so no count for the new account is lost to the reset. A check still counting
+ * for the account being evicted can add to the new account's counts, which only makes it stricter.
+ * Nothing locks: a check reads the account's 16 buckets, counts into two of them with a CAS each and
+ * backs out if a racing check took the last of the allowance, so racing checks never both pass a limit.
+ */
+public class VelocityChecker {
+
+    private static final int WAYS = 4;
+    private static final int SECOND_BUCKETS = 4;
+    private static final long SECOND_BUCKET_NANOS = 250_000_000L;
+    private static final int MINUTE_BUCKETS = 12;
+    private static final long MINUTE_BUCKET_NANOS = 5_000_000_000L;
+    private static final int BUCKETS = SECOND_BUCKETS + MINUTE_BUCKETS;
+    private static final long ONE_PURCHASE = 1L << 16;
+    private static final long COUNT_MASK = 0xFFFF;
+    // Account id of a way being reset for a new account; 0 is a way never used
+    private static final long CLAIMING = Long.MIN_VALUE;
+
+    private final VelocityLimits limits;
+    private final LongSupplier nanoClock;
+    private final long origin;
+    private final int setMask;
+    private final AtomicLongArray accountIds;
+    private final AtomicLongArray buckets;
+    private final LongAdder evictions = new LongAdder();
+
+    public VelocityChecker(VelocityLimits limits) {
+        this(limits, 1 << 16, System::nanoTime);
+    }
+
+    public VelocityChecker(VelocityLimits limits, int maxAccounts, LongSupplier nanoClock) {
+        if (maxAccounts < WAYS || maxAccounts > 1 << 26) {
+            throw new IllegalArgumentException("Maximum accounts must be between " + WAYS + " and " + (1 << 26));
+        }
+        int sets = Integer.highestOneBit(maxAccounts / WAYS);
+        this.limits = limits;
+        this.nanoClock = nanoClock;
+        this.origin = nanoClock.getAsLong();
+        this.setMask = sets - 1;
+        this.accountIds = new AtomicLongArray(sets * WAYS);
+        this.buckets = new AtomicLongArray(sets * WAYS * BUCKETS);
+    }
+
+    public VelocityLimits limits() {
+        return limits;
+    }
+
+    // Counts the purchase and returns true if it keeps the account within its limits, otherwise counts nothing
+    public boolean tryAcquire(long accountId, int tickets) {
+        if (accountId <= 0) {
+            throw new IllegalArgumentException("Account id must be greater than 0");
+        }
+        if (tickets < 0) {
+            throw new IllegalArgumentException("Tickets cannot be negative");
+        }
+        long now = nanoClock.getAsLong() - origin;
+        int second = (int) (now / SECOND_BUCKET_NANOS);
+        int minute = (int) (now / MINUTE_BUCKET_NANOS);
+        int base = slotFor(accountId, minute) * BUCKETS;
+        // Accounts already at a limit are turned away without writing anything
+        if (!withinLimits(base, second, minute, 1, tickets)) {
+            return false;
+        }
+        long delta = ONE_PURCHASE | tickets;
+        int secondBucket = base + second % SECOND_BUCKETS;
+        int minuteBucket = base + SECOND_BUCKETS + minute % MINUTE_BUCKETS;
+        add(secondBucket, second, delta);
+        add(minuteBucket, minute, delta);
+        if (withinLimits(base, second, minute, 0, 0)) {
+            return true;
+        }
+        remove(secondBucket, second, delta);
+        remove(minuteBucket, minute, delta);
+        return false;
+    }
+
+    // Accounts with a way in the table, active or not
+    public int trackedAccounts() {
+        int tracked = 0;
+        for (int slot = 0; slot < accountIds.length(); slot++) {
+            if (accountIds.get(slot) != 0) {
+                tracked++;
+            }
+        }
+        return tracked;
+    }
+
+    // Accounts displaced to make room for another, idle or not
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    private int slotFor(long accountId, int minute) {
+        long hash = accountId * 0x9E3779B97F4A7C15L;
+        int first = (int) ((hash ^ (hash >>> 32)) & setMask) * WAYS;
+        while (true) {
+            boolean claiming = false;
+            for (int slot = first; slot < first + WAYS; slot++) {
+                long id = accountIds.get(slot);
+                if (id == accountId) {
+                    return slot;
+                }
+                claiming |= id == CLAIMING;
+            }
+            // The way being reset may be for this account
+            if (claiming) {
+                Thread.onSpinWait();
+                continue;
+            }
+            int victim = first;
+            long victimId = accountIds.get(first);
+            int victimIdle = -1;
+            for (int slot = first; slot < first + WAYS && victimIdle < Integer.MAX_VALUE; slot++) {
+                long id = accountIds.get(slot);
+                int idle = id == 0 ? Integer.MAX_VALUE : minutesIdle(slot, minute);
+                if (idle > victimIdle) {
+                    victim = slot;
+                    victimId = id;
+                    victimIdle = idle;
+                }
+            }
+            if (accountIds.compareAndSet(victim, victimId, CLAIMING)) {
+                if (victimId != 0) {
+                    evictions.increment();
+                }
+                for (int bucket = victim * BUCKETS; bucket < (victim + 1) * BUCKETS; bucket++) {
+                    buckets.set(bucket, 0);
+                }
+                accountIds.set(victim, accountId);
+                return victim;
+            }
+        }
+    }
+
+    // Minute buckets since the slot's last count, saturating at the window
+    private int minutesIdle(int slot, int minute) {
+        int idle = MINUTE_BUCKETS;
+        int first = slot * BUCKETS + SECOND_BUCKETS;
+        for (int bucket = first; bucket < first + MINUTE_BUCKETS; bucket++) {
+            long value = buckets.get(bucket);
+            if (value != 0) {
+                idle = Math.min(idle, Math.max(0, minute - epochOf(value)));
+            }
+        }
+        return idle;
+    }
+
+    private boolean withinLimits(int base, int second, int minute, int purchases, int tickets) {
+        long secondTotals = sum(base, SECOND_BUCKETS, second);
+        long minuteTotals = sum(base + SECOND_BUCKETS, MINUTE_BUCKETS, minute);
+        return (secondTotals >>> 16) + purchases <= limits.purchasesPerSecond()
+            && (secondTotals & COUNT_MASK) + tickets <= limits.ticketsPerSecond()
+            && (minuteTotals >>> 16) + purchases <= limits.purchasesPerMinute()
+            && (minuteTotals & COUNT_MASK) + tickets <= limits.ticketsPerMinute();
+    }
+
+    // Purchases in the high half and tickets in the low 16 bits, over the ring's buckets still in the window
+    private long sum(int first, int count, int epoch) {
+        long purchases = 0;
+        long tickets = 0;
+        for (int bucket = first; bucket < first + count; bucket++) {
+            long value = buckets.get(bucket);
+            if (epoch - epochOf(value) < count) {
+                purchases += (value >>> 16) & COUNT_MASK;
+                tickets += value & COUNT_MASK;
+            }
+        }
+        return purchases << 16 | Math.min(tickets, COUNT_MASK);
+    }
+
+    // A bucket a racing check already moved to a later epoch is counted into rather than set back
+    private void add(int bucket, int epoch, long delta) {
+        long current;
+        long next;
+        do {
+            current = buckets.get(bucket);
+            next = epochOf(current) - epoch >= 0 ? current + delta : (long) epoch << 32 | delta;
+        } while (!buckets.compareAndSet(bucket, current, next));
+    }
+
+    // Nothing to back out of a bucket that has since moved on to a later epoch
+    private void remove(int bucket, int epoch, long delta) {
+        long current;
+        do {
+            current = buckets.get(bucket);
+            if (epochOf(current) != epoch) {
+                return;
+            }
+        } while (!buckets.compareAndSet(bucket, current, current - delta));
+    }
+
+    private static int epochOf(long bucket) {
+        return (int) (bucket >>> 32);
+    }
+}
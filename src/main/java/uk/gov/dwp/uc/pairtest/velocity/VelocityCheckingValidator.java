@@ -0,0 +1,65 @@
+package uk.gov.dwp.uc.pairtest.velocity;
+
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.TicketPurchaseException;
+import uk.gov.dwp.uc.pairtest.validation.TicketValidator;
+
+import java.util.Map;
+
+/**
+ * Runs the velocity check after the wrapped validator has passed an order, so only orders that would go
+ * on to the third parties count towards an account's limits. Services call their validator before
+ * reserving seats, which keeps throttled accounts away from both third parties.
+ *
+ * Unlike other validators, check has a side effect: an order it passes uses up part of the account's
+ * allowance. Call it once per order actually being placed, never to ask what the answer would be, which
+ * is why it is not stateless and QuoteEngine refuses it.
+ */
+public class VelocityCheckingValidator implements TicketValidator {
+
+    private final TicketValidator delegate;
+    private final VelocityChecker checker;
+
+    public VelocityCheckingValidator(TicketValidator delegate, VelocityChecker checker) {
+        this.delegate = delegate;
+        this.checker = checker;
+    }
+
+    @Override
+    public void validate(Long accountId, Map<TicketTypeRequest.Type, Integer> ticketCounts) {
+        delegate.validate(accountId, ticketCounts);
+        int tickets = ticketCounts.values().stream().mapToInt(Integer::intValue).sum();
+        if (!checker.tryAcquire(accountId, tickets)) {
+            throw new TicketPurchaseException(RejectionReason.TOO_MANY_PURCHASES);
+        }
+    }
+
+    @Override
+    public void validate(Long accountId, TicketCounts ticketCounts) {
+        RejectionReason reason = check(accountId, ticketCounts);
+        if (reason != null) {
+            throw rejection(reason, ticketCounts);
+        }
+    }
+
+    @Override
+    public RejectionReason check(Long accountId, TicketCounts ticketCounts) {
+        RejectionReason reason = delegate.check(accountId, ticketCounts);
+        if (reason != null) {
+            return reason;
+        }
+        return checker.tryAcquire(accountId, ticketCounts.total()) ? null : RejectionReason.TOO_MANY_PURCHASES;
+    }
+
+    @Override
+    public boolean isStateless() {
+        return false;
+    }
+
+    @Override
+    public TicketPurchaseException rejection(RejectionReason reason, TicketCounts ticketCounts) {
+        return delegate.rejection(reason, ticketCounts);
+    }
+}
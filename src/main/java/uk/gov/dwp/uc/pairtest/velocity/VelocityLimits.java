@@ -0,0 +1,18 @@
+package uk.gov.dwp.uc.pairtest.velocity;
+
+// Most purchases and tickets one account may make in any second and in any minute
+public record VelocityLimits(int purchasesPerSecond, int ticketsPerSecond, int purchasesPerMinute, int ticketsPerMinute) {
+
+    // Bucket counts are 16 bits, with headroom for checks racing past a limit before they back out
+    public static final int MAX_LIMIT = 0x7FFF;
+
+    public VelocityLimits {
+        if (!inRange(purchasesPerSecond) || !inRange(ticketsPerSecond) || !inRange(purchasesPerMinute) || !inRange(ticketsPerMinute)) {
+            throw new IllegalArgumentException("Velocity limits must be between 1 and " + MAX_LIMIT);
+        }
+    }
+
+    private static boolean inRange(int limit) {
+        return limit > 0 && limit <= MAX_LIMIT;
+    }
+}
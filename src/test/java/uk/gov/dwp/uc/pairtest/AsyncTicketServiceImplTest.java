@@ -0,0 +1,193 @@
+package uk.gov.dwp.uc.pairtest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.compensation.PurchaseCompensator;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.payment.Payment;
+import uk.gov.dwp.uc.pairtest.payment.PaymentOutcomeUnknownException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class AsyncTicketServiceImplTest {
+
+    private static final AsyncPurchaseOptions SHORT_TIMEOUTS =
+        new AsyncPurchaseOptions(Duration.ofMillis(200), Duration.ofMillis(200), false);
+
+    @Mock
+    private TicketPaymentService paymentService;
+
+    @Mock
+    private SeatReservationService seatService;
+
+    @Mock
+    private PurchaseCompensator compensator;
+
+    private AutoCloseable mocks;
+    private AsyncTicketServiceImpl ticketService;
+
+    @BeforeEach
+    void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        ticketService.close();
+        mocks.close();
+    }
+
+    @Test
+    void shouldReserveThenPayOnVirtualThreads() throws Exception {
+        ticketService = new AsyncTicketServiceImpl(paymentService, seatService, SHORT_TIMEOUTS, compensator);
+
+        ticketService.purchaseTicketsAsync(1L, adults(2)).get(1, TimeUnit.SECONDS);
+
+        var inOrder = inOrder(seatService, paymentService);
+        inOrder.verify(seatService).reserveSeat(1L, 2);
+        inOrder.verify(paymentService).makePayment(1L, 50);
+        verifyNoInteractions(compensator);
+    }
+
+    @Test
+    void shouldFailFastOnInvalidOrderWithoutCallingServices() {
+        ticketService = new AsyncTicketServiceImpl(paymentService, seatService, SHORT_TIMEOUTS, compensator);
+
+        CompletableFuture<Void> purchase = ticketService.purchaseTicketsAsync(0L, adults(1));
+
+        ExecutionException e = assertThrows(ExecutionException.class, purchase::get);
+        assertInstanceOf(InvalidPurchaseException.class, e.getCause());
+        verifyNoInteractions(seatService, paymentService);
+    }
+
+    // Sequential mode - payment declined, the reservation we made must be released
+    @Test
+    void shouldReleaseSeatsWhenPaymentFails() {
+        doThrow(new IllegalStateException("declined")).when(paymentService).makePayment(anyLong(), anyInt());
+        ticketService = new AsyncTicketServiceImpl(paymentService, seatService, SHORT_TIMEOUTS, compensator);
+
+        CompletableFuture<Void> purchase = ticketService.purchaseTicketsAsync(1L, adults(2));
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> purchase.get(1, TimeUnit.SECONDS));
+        assertEquals("declined", e.getCause().getMessage());
+        verify(compensator).releaseSeats(1L, 2);
+        verify(compensator, never()).refundPayment(anyLong(), anyInt());
+    }
+
+    @Test
+    void shouldNotPayWhenReservationFails() {
+        doThrow(new IllegalStateException("no seats")).when(seatService).reserveSeat(anyLong(), anyInt());
+        ticketService = new AsyncTicketServiceImpl(paymentService, seatService, SHORT_TIMEOUTS, compensator);
+
+        CompletableFuture<Void> purchase = ticketService.purchaseTicketsAsync(1L, adults(2));
+
+        assertThrows(ExecutionException.class, () -> purchase.get(1, TimeUnit.SECONDS));
+        verifyNoInteractions(paymentService, compensator);
+    }
+
+    // Overlapped mode - reservation fails while payment succeeds, so the payment is refunded
+    @Test
+    void shouldRefundPaymentWhenOverlappedReservationFails() {
+        doThrow(new IllegalStateException("no seats")).when(seatService).reserveSeat(anyLong(), anyInt());
+        ticketService = new AsyncTicketServiceImpl(paymentService, seatService, SHORT_TIMEOUTS.withOverlap(true), compensator);
+
+        CompletableFuture<Void> purchase = ticketService.purchaseTicketsAsync(1L, adults(2));
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> purchase.get(1, TimeUnit.SECONDS));
+        assertEquals("no seats", e.getCause().getMessage());
+        verify(paymentService).makePayment(1L, 50);
+        verify(compensator).refundPayment(1L, 50);
+        verify(compensator, never()).releaseSeats(anyLong(), anyInt());
+    }
+
+    // A payment whose batch failed may have been taken, so it is refunded as well as the seats released
+    @Test
+    void shouldRefundPaymentWithUnknownOutcome() {
+        doThrow(new PaymentOutcomeUnknownException(new Payment(1L, 50), new IllegalStateException("gateway down")))
+            .when(paymentService).makePayment(1L, 50);
+        ticketService = new AsyncTicketServiceImpl(paymentService, seatService, SHORT_TIMEOUTS, compensator);
+
+        CompletableFuture<Void> purchase = ticketService.purchaseTicketsAsync(1L, adults(2));
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> purchase.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(PaymentOutcomeUnknownException.class, e.getCause());
+        verify(compensator).releaseSeats(1L, 2);
+        verify(compensator).refundPayment(1L, 50);
+    }
+
+    // A hung reservation times out, is interrupted, and is compensated because its outcome is unknown
+    @Test
+    void shouldTimeOutAndInterruptSlowThirdPartyCall() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return null;
+        }).when(seatService).reserveSeat(anyLong(), anyInt());
+        ticketService = new AsyncTicketServiceImpl(paymentService, seatService, SHORT_TIMEOUTS, compensator);
+
+        CompletableFuture<Void> purchase = ticketService.purchaseTicketsAsync(1L, adults(1));
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> purchase.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, e.getCause());
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+        verify(compensator).releaseSeats(1L, 1);
+        verifyNoInteractions(paymentService);
+    }
+
+    @Test
+    void shouldInterruptInFlightCallWhenCancelled() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return null;
+        }).when(seatService).reserveSeat(anyLong(), anyInt());
+        ticketService = new AsyncTicketServiceImpl(paymentService, seatService,
+            new AsyncPurchaseOptions(Duration.ofSeconds(30), Duration.ofSeconds(30), false), compensator);
+
+        CompletableFuture<Void> purchase = ticketService.purchaseTicketsAsync(1L, adults(1));
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        purchase.cancel(true);
+
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+        verify(compensator, timeout(1000)).releaseSeats(1L, 1);
+        verifyNoInteractions(paymentService);
+    }
+
+    @Test
+    void shouldRejectNonPositiveTimeouts() {
+        ticketService = new AsyncTicketServiceImpl(paymentService, seatService);
+
+        assertThrows(IllegalArgumentException.class, () -> new AsyncPurchaseOptions(Duration.ZERO, Duration.ofSeconds(1), false));
+        assertThrows(IllegalArgumentException.class, () -> new AsyncPurchaseOptions(Duration.ofSeconds(1), null, false));
+    }
+
+    private static TicketTypeRequest adults(int count) {
+        return new TicketTypeRequest(TicketTypeRequest.Type.ADULT, count);
+    }
+}
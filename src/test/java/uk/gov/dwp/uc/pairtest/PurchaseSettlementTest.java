@@ -0,0 +1,95 @@
+package uk.gov.dwp.uc.pairtest;
+
+import org.junit.jupiter.api.Test;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.compensation.PurchaseCompensator;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.exception.TicketPurchaseException;
+import uk.gov.dwp.uc.pairtest.journal.PurchaseJournal;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseMetrics;
+import uk.gov.dwp.uc.pairtest.metrics.ThirdPartyService;
+import uk.gov.dwp.uc.pairtest.payment.Payment;
+import uk.gov.dwp.uc.pairtest.payment.PaymentOutcomeUnknownException;
+
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PurchaseSettlementTest {
+
+    private final TicketPaymentService payments = mock(TicketPaymentService.class);
+    private final SeatReservationService seats = mock(SeatReservationService.class);
+    private final PurchaseMetrics metrics = mock(PurchaseMetrics.class);
+    private final PurchaseJournal journal = mock(PurchaseJournal.class);
+    private final PurchaseCompensator compensator = mock(PurchaseCompensator.class);
+    private final PurchaseSettlement settlement = new PurchaseSettlement(payments, seats, metrics, journal, compensator);
+
+    @Test
+    void testJournalsASettledPurchase() {
+        when(journal.begin(1L, 50, 2)).thenReturn(7L);
+
+        assertNull(settlement.settle(1L, 50, 2));
+
+        var inOrder = inOrder(journal, seats, payments);
+        inOrder.verify(journal).begin(1L, 50, 2);
+        inOrder.verify(seats).reserveSeat(1L, 2);
+        inOrder.verify(journal).reserved(7L);
+        inOrder.verify(payments).makePayment(1L, 50);
+        inOrder.verify(journal).paid(7L);
+        verifyNoInteractions(compensator);
+    }
+
+    @Test
+    void testReleasesSeatsOfARejectedPayment() {
+        when(journal.begin(1L, 50, 2)).thenReturn(7L);
+        doThrow(new TicketPurchaseException(RejectionReason.INVALID_PURCHASE)).when(payments).makePayment(1L, 50);
+
+        assertEquals(PurchaseResult.Rejected.of(RejectionReason.INVALID_PURCHASE), settlement.settle(1L, 50, 2));
+
+        verify(compensator).releaseSeats(1L, 2);
+        verify(journal).compensated(7L);
+        verify(metrics).recordRejection(RejectionReason.INVALID_PURCHASE);
+        verifyNoMoreInteractions(compensator);
+    }
+
+    @Test
+    void testRefundsOnlyPaymentsOfUnknownOutcome() {
+        when(journal.begin(anyLong(), anyInt(), anyInt())).thenReturn(7L, 8L);
+        doThrow(new IllegalStateException("declined")).when(payments).makePayment(1L, 50);
+        doThrow(new PaymentOutcomeUnknownException(new Payment(2L, 50), new TimeoutException())).when(payments).makePayment(2L, 50);
+
+        assertInstanceOf(PurchaseResult.Failed.class, settlement.settle(1L, 50, 2));
+        assertInstanceOf(PurchaseResult.Failed.class, settlement.settle(2L, 50, 2));
+
+        verify(compensator).releaseSeats(1L, 2);
+        verify(compensator).releaseSeats(2L, 2);
+        verify(compensator).refundPayment(2L, 50);
+        verifyNoMoreInteractions(compensator);
+        verify(metrics, times(2)).recordThirdPartyFailure(ThirdPartyService.PAYMENT);
+    }
+
+    @Test
+    void testLeavesARejectedReservationAlone() {
+        when(journal.begin(1L, 50, 2)).thenReturn(7L);
+        doThrow(new TicketPurchaseException(RejectionReason.SOLD_OUT)).when(seats).reserveSeat(1L, 2);
+
+        assertEquals(PurchaseResult.Rejected.of(RejectionReason.SOLD_OUT), settlement.settle(1L, 50, 2));
+
+        verify(journal).compensated(7L);
+        verifyNoInteractions(payments, compensator);
+    }
+
+    @Test
+    void testFailsRatherThanThrowsWhenCompensationFails() {
+        IllegalStateException unreachable = new IllegalStateException("unreachable");
+        doThrow(new IllegalStateException("declined")).when(payments).makePayment(1L, 50);
+        doThrow(unreachable).when(compensator).releaseSeats(1L, 2);
+
+        assertEquals(new PurchaseResult.Failed(unreachable), settlement.settle(1L, 50, 2));
+
+        verify(journal, never()).compensated(anyLong());
+    }
+}
@@ -6,8 +6,34 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import thirdparty.paymentgateway.TicketPaymentService;
 import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.compensation.PurchaseCompensator;
+import uk.gov.dwp.uc.pairtest.domain.PackedOrder;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseOrder;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.exception.TicketPurchaseException;
 import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.calculation.CostCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.calculation.SeatCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
+import uk.gov.dwp.uc.pairtest.journal.PurchaseJournal;
+import uk.gov.dwp.uc.pairtest.ledger.AccountLedger;
+import uk.gov.dwp.uc.pairtest.ledger.AccountLimits;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseMetrics;
+import uk.gov.dwp.uc.pairtest.metrics.ThirdPartyService;
+import uk.gov.dwp.uc.pairtest.payment.Payment;
+import uk.gov.dwp.uc.pairtest.payment.PaymentOutcomeUnknownException;
+import uk.gov.dwp.uc.pairtest.resilience.CallRejectedException;
+import uk.gov.dwp.uc.pairtest.validation.TicketValidatorImpl;
+import uk.gov.dwp.uc.pairtest.validation.ValidationRule;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class TicketServiceImplTest {
@@ -84,4 +110,257 @@ class TicketServiceImplTest {
         verify(seatService).reserveSeat(5L, 3);
         verify(paymentService).makePayment(5L, 65);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldCoalesceBatchOrdersIntoOneCallPerAccount() {
+        // Given - two orders for account 1, one for account 2
+        List<PurchaseOrder> orders = List.of(
+            new PurchaseOrder(1L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2)),
+            new PurchaseOrder(2L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1)),
+            new PurchaseOrder(1L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1),
+                new TicketTypeRequest(TicketTypeRequest.Type.CHILD, 1))
+        );
+        
+        // When
+        List<PurchaseResult> results = ticketService.purchaseTicketsBatch(orders);
+        
+        // Then - account 1: 4 seats, £90; account 2: 1 seat, £25
+        verify(seatService).reserveSeat(1L, 4);
+        verify(paymentService).makePayment(1L, 90);
+        verify(seatService).reserveSeat(2L, 1);
+        verify(paymentService).makePayment(2L, 25);
+        assertEquals(List.of(
+            new PurchaseResult.Success(1L, 50, 2),
+            new PurchaseResult.Success(2L, 25, 1),
+            new PurchaseResult.Success(1L, 40, 2)
+        ), results);
+    }
+
+    @Test
+    void shouldRejectInvalidBatchOrdersWithoutCallingServices() {
+        // Given - child without adult, and a null order
+        List<PurchaseOrder> orders = java.util.Arrays.asList(
+            new PurchaseOrder(1L, new TicketTypeRequest(TicketTypeRequest.Type.CHILD, 1)),
+            null
+        );
+        
+        // When
+        List<PurchaseResult> results = ticketService.purchaseTicketsBatch(orders);
+        
+        // Then
+        assertEquals(PurchaseResult.Rejected.of(RejectionReason.UNACCOMPANIED_MINOR), results.get(0));
+        assertEquals(PurchaseResult.Rejected.of(RejectionReason.MISSING_ORDER), results.get(1));
+        verifyNoInteractions(seatService, paymentService);
+    }
+
+    @Test
+    void shouldOnlyFailOrdersOfAccountWhosePaymentFailed() {
+        // Given
+        doThrow(new IllegalStateException("card declined")).when(paymentService).makePayment(2L, 25);
+        List<PurchaseOrder> orders = List.of(
+            new PurchaseOrder(1L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1)),
+            new PurchaseOrder(2L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1))
+        );
+        
+        // When
+        List<PurchaseResult> results = ticketService.purchaseTicketsBatch(orders);
+        
+        // Then
+        assertTrue(results.get(0).isSuccess());
+        PurchaseResult.Failed failed = assertInstanceOf(PurchaseResult.Failed.class, results.get(1));
+        assertEquals("card declined", failed.cause().getMessage());
+    }
+
+    @Test
+    void shouldReturnSuccessFromTryPurchase() {
+        PurchaseResult result = ticketService.tryPurchase(1L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2));
+        
+        assertEquals(new PurchaseResult.Success(1L, 50, 2), result);
+        verify(paymentService).makePayment(1L, 50);
+    }
+
+    // Rejections are shared instances - no exception, no allocation
+    @Test
+    void shouldReturnPreallocatedRejectionFromTryPurchase() {
+        PurchaseResult first = ticketService.tryPurchase(1L, new TicketTypeRequest(TicketTypeRequest.Type.CHILD, 1));
+        PurchaseResult second = ticketService.tryPurchase(2L, new TicketTypeRequest(TicketTypeRequest.Type.INFANT, 1));
+        
+        assertEquals(PurchaseResult.Rejected.of(RejectionReason.UNACCOMPANIED_MINOR), first);
+        assertSame(first, second);
+        verifyNoInteractions(seatService, paymentService);
+    }
+
+    @Test
+    void shouldReturnFailureFromTryPurchaseWhenThirdPartyFails() {
+        IllegalStateException outage = new IllegalStateException("gateway down");
+        doThrow(outage).when(paymentService).makePayment(1L, 25);
+        
+        PurchaseResult result = ticketService.tryPurchase(1L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1));
+        
+        assertEquals(new PurchaseResult.Failed(outage), result);
+    }
+
+    // The throwing API keeps its detailed messages and rethrows third-party failures untouched
+    @Test
+    void shouldKeepThrowingBehaviourOfPurchaseTickets() {
+        TicketPurchaseException e = assertThrows(TicketPurchaseException.class, () ->
+            ticketService.purchaseTickets(1L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 26)));
+        assertEquals("Cannot purchase more than 25 tickets at once. Requested: 26", e.getMessage());
+        assertEquals(RejectionReason.TOO_MANY_TICKETS, e.getReason());
+        
+        IllegalStateException outage = new IllegalStateException("gateway down");
+        doThrow(outage).when(seatService).reserveSeat(1L, 1);
+        assertSame(outage, assertThrows(IllegalStateException.class, () ->
+            ticketService.purchaseTickets(1L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1))));
+    }
+
+    @Test
+    void shouldReportDownstreamRejectionAsRejected() {
+        doThrow(new TicketPurchaseException(RejectionReason.SOLD_OUT)).when(seatService).reserveSeat(1L, 1);
+        
+        PurchaseResult result = ticketService.tryPurchase(1L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1));
+        
+        assertEquals(PurchaseResult.Rejected.of(RejectionReason.SOLD_OUT), result);
+        verifyNoInteractions(paymentService);
+    }
+
+    // The third party's own message reaches the caller rather than the generic one for the reason
+    @Test
+    void shouldKeepDownstreamRejectionException() {
+        TicketPurchaseException soldOut = new TicketPurchaseException(RejectionReason.SOLD_OUT, "Show 42 sold out at 19:30");
+        doThrow(soldOut).when(seatService).reserveSeat(anyLong(), anyInt());
+        TicketTypeRequest adult = new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1);
+
+        PurchaseResult.Rejected rejected = assertInstanceOf(PurchaseResult.Rejected.class, ticketService.tryPurchase(1L, adult));
+        assertSame(soldOut, rejected.cause());
+        assertSame(soldOut, assertThrows(TicketPurchaseException.class, () -> ticketService.purchaseTickets(1L, adult)));
+        assertNull(PurchaseResult.Rejected.of(RejectionReason.SOLD_OUT).cause());
+    }
+
+    @Test
+    void shouldPurchaseFromPackedOrder() {
+        PurchaseResult result = ticketService.tryPurchase(7L, PackedOrder.counts(2, 1, 1));
+        
+        assertEquals(new PurchaseResult.Success(7L, 65, 3), result);
+        verify(seatService).reserveSeat(7L, 3);
+        verify(paymentService).makePayment(7L, 65);
+    }
+
+    @Test
+    void shouldRejectPackedOrderLikeTheRequestForm() {
+        assertEquals(PurchaseResult.Rejected.of(RejectionReason.UNACCOMPANIED_MINOR),
+            ticketService.tryPurchase(1L, PackedOrder.counts(0, 2, 0)));
+        assertEquals(ticketService.tryPurchase(null, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1)),
+            ticketService.tryPurchase(1L, PackedOrder.withoutAccount(PackedOrder.counts(1, 0, 0))));
+        
+        TicketPurchaseException e = assertThrows(TicketPurchaseException.class, () ->
+            ticketService.purchaseTickets(1L, PackedOrder.counts(26, 0, 0)));
+        assertEquals("Cannot purchase more than 25 tickets at once. Requested: 26", e.getMessage());
+        verifyNoInteractions(seatService, paymentService);
+    }
+
+    @Test
+    void shouldNotifyListenerOfEachPaidOrder() {
+        PurchaseListener listener = mock(PurchaseListener.class);
+        TicketServiceImpl listening = new TicketServiceImpl(paymentService, seatService, new TicketValidatorImpl(),
+            new CostCalculatorImpl(), new SeatCalculatorImpl(), PurchaseMetrics.NOOP, PurchaseJournal.DISABLED, listener);
+        doThrow(new IllegalStateException("gateway down")).when(paymentService).makePayment(3L, 25);
+
+        listening.purchaseTickets(1L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2));
+        listening.purchaseTicketsBatch(List.of(
+            new PurchaseOrder(2L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1)),
+            new PurchaseOrder(2L, new TicketTypeRequest(TicketTypeRequest.Type.CHILD, 1), new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1))));
+        listening.tryPurchase(3L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1));
+
+        verify(listener).purchased(1L, new TicketCounts(2, 0, 0), 50);
+        verify(listener).purchased(2L, new TicketCounts(1, 0, 0), 25);
+        verify(listener).purchased(2L, new TicketCounts(1, 1, 0), 40);
+        verifyNoMoreInteractions(listener);
+    }
+
+    @Test
+    void shouldEnforceLimitsAcrossAnAccountsOrders() {
+        AccountLedger ledger = new AccountLedger(AccountLimits.daily(5, 1000));
+        TicketServiceImpl limited = new TicketServiceImpl(paymentService, seatService,
+            new TicketValidatorImpl(25, new ValidationRule.AccountLimits(ledger)),
+            new CostCalculatorImpl(), new SeatCalculatorImpl(), PurchaseMetrics.NOOP, PurchaseJournal.DISABLED, ledger);
+        TicketTypeRequest twoAdults = new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2);
+
+        assertTrue(limited.tryPurchase(1L, twoAdults).isSuccess());
+        assertTrue(limited.tryPurchase(1L, twoAdults).isSuccess());
+        TicketPurchaseException e = assertThrows(TicketPurchaseException.class, () -> limited.purchaseTickets(1L, twoAdults));
+
+        assertEquals(RejectionReason.ACCOUNT_LIMIT_REACHED, e.getReason());
+        assertTrue(limited.tryPurchase(2L, twoAdults).isSuccess());
+        assertEquals(4, ledger.tickets(1L));
+        verify(paymentService, times(2)).makePayment(1L, 50);
+    }
+
+    @Test
+    void shouldCompensateFailedThirdPartyCallsAtOnce() {
+        PurchaseJournal journal = mock(PurchaseJournal.class);
+        PurchaseCompensator compensator = mock(PurchaseCompensator.class);
+        when(journal.begin(anyLong(), anyInt(), anyInt())).thenReturn(11L, 12L, 13L, 14L, 15L, 16L);
+        TicketServiceImpl journaled = new TicketServiceImpl(paymentService, seatService, new TicketValidatorImpl(),
+            new CostCalculatorImpl(), new SeatCalculatorImpl(), PurchaseMetrics.NOOP, journal, PurchaseListener.NONE,
+            compensator);
+        doThrow(new IllegalStateException("seats down")).when(seatService).reserveSeat(1L, 2);
+        doThrow(new IllegalStateException("gateway down")).when(paymentService).makePayment(2L, 50);
+        doThrow(new TicketPurchaseException(RejectionReason.INVALID_PURCHASE)).when(paymentService).makePayment(3L, 50);
+        doThrow(new PaymentOutcomeUnknownException(new Payment(4L, 50), new TimeoutException()))
+            .when(paymentService).makePayment(4L, 50);
+        doThrow(new CallRejectedException(ThirdPartyService.PAYMENT, CallRejectedException.Reason.CIRCUIT_OPEN))
+            .when(paymentService).makePayment(5L, 50);
+        doThrow(new CompletionException(new TimeoutException())).when(seatService).reserveSeat(6L, 2);
+        TicketTypeRequest twoAdults = new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2);
+
+        assertInstanceOf(PurchaseResult.Failed.class, journaled.tryPurchase(1L, twoAdults));
+        assertInstanceOf(PurchaseResult.Failed.class, journaled.tryPurchase(2L, twoAdults));
+        assertEquals(PurchaseResult.Rejected.of(RejectionReason.INVALID_PURCHASE), journaled.tryPurchase(3L, twoAdults));
+        assertInstanceOf(PurchaseResult.Failed.class, journaled.tryPurchase(4L, twoAdults));
+        assertInstanceOf(PurchaseResult.Failed.class, journaled.tryPurchase(5L, twoAdults));
+        assertInstanceOf(PurchaseResult.Failed.class, journaled.tryPurchase(6L, twoAdults));
+
+        // Seats that were reserved are released; only a payment that may have been taken is refunded
+        verify(compensator).releaseSeats(2L, 2);
+        verify(compensator).releaseSeats(3L, 2);
+        verify(compensator).releaseSeats(4L, 2);
+        verify(compensator).refundPayment(4L, 50);
+        verify(compensator).releaseSeats(5L, 2);
+        verify(compensator).releaseSeats(6L, 2);
+        verifyNoMoreInteractions(compensator);
+        for (long purchaseId = 11; purchaseId <= 16; purchaseId++) {
+            verify(journal).compensated(purchaseId);
+        }
+        verify(journal, never()).paid(anyLong());
+    }
+
+    @Test
+    void shouldFailRatherThanThrowWhenTheJournalIsClosed() {
+        PurchaseJournal journal = mock(PurchaseJournal.class);
+        IllegalStateException closed = new IllegalStateException("Journal is closed");
+        when(journal.begin(anyLong(), anyInt(), anyInt())).thenReturn(5L);
+        doThrow(closed).when(journal).reserved(5L);
+        TicketServiceImpl journaled = new TicketServiceImpl(paymentService, seatService, new TicketValidatorImpl(),
+            new CostCalculatorImpl(), new SeatCalculatorImpl(), PurchaseMetrics.NOOP, journal);
+
+        assertEquals(new PurchaseResult.Failed(closed), journaled.tryPurchase(1L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1)));
+        verifyNoInteractions(paymentService);
+    }
+
+    @Test
+    void shouldFailRatherThanThrowWhenTheJournalFails() {
+        PurchaseJournal journal = mock(PurchaseJournal.class);
+        UncheckedIOException diskFull = new UncheckedIOException(new IOException("No space left on device"));
+        when(journal.begin(anyLong(), anyInt(), anyInt())).thenThrow(diskFull).thenReturn(5L);
+        doThrow(diskFull).when(journal).paid(5L);
+        TicketServiceImpl journaled = new TicketServiceImpl(paymentService, seatService, new TicketValidatorImpl(),
+            new CostCalculatorImpl(), new SeatCalculatorImpl(), PurchaseMetrics.NOOP, journal);
+        TicketTypeRequest oneAdult = new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1);
+
+        assertEquals(new PurchaseResult.Failed(diskFull), journaled.tryPurchase(1L, oneAdult));
+        verifyNoInteractions(seatService, paymentService);
+        assertEquals(new PurchaseResult.Failed(diskFull), journaled.tryPurchase(1L, oneAdult));
+        assertThrows(UncheckedIOException.class, () -> journaled.purchaseTickets(1L, oneAdult));
+    }
+}
@@ -0,0 +1,111 @@
+package uk.gov.dwp.uc.pairtest.bulk;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.gov.dwp.uc.pairtest.calculation.CostCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.calculation.SeatCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.validation.TicketValidatorImpl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkOrderProcessorTest {
+
+    @TempDir
+    Path directory;
+
+    private final BulkOrderProcessor processor = new BulkOrderProcessor();
+
+    @Test
+    void testSettlesAcceptedCsvOrdersAndReportsTheRest() throws IOException {
+        Path orders = write("orders.csv", """
+            accountId,adults,children,infants
+            1,2,1,1
+            2,0,1,0
+
+            3,x,0,0
+            ,1,0,0\r
+            4,30,0,0
+            5,1,0,0""");
+
+        BulkResult result = processor.process(orders, directory.resolve("settlement.csv"), directory.resolve("rejections.csv"));
+
+        assertEquals(new BulkResult(6, 2, 3, 1, 90, 4), result);
+        assertEquals(List.of(
+            "line,accountId,adults,children,infants,totalCost,totalSeats",
+            "2,1,2,1,1,65,3",
+            "8,5,1,0,0,25,1"), Files.readAllLines(directory.resolve("settlement.csv")));
+        assertEquals(List.of(
+            "line,accountId,reason",
+            "3,2,UNACCOMPANIED_MINOR",
+            "5,,MALFORMED_RECORD",
+            "6,,NULL_ACCOUNT_ID",
+            "7,4,TOO_MANY_TICKETS"), Files.readAllLines(directory.resolve("rejections.csv")));
+    }
+
+    @Test
+    void testProcessesNdjsonLikeTheHttpApi() throws IOException {
+        Path orders = write("orders.ndjson", """
+            {"accountId": 1, "tickets": {"ADULT": 2, "CHILD": 1}}
+            {"accountId": 2, "tickets": {"INFANT": 2, "ADULT": 1}}
+            {"accountId": 3, "tickets": {"ADULT": 1}, "reference": "B-17"}
+            {"accountId": 4, "tickets": {"ADULT": 1}
+            """);
+
+        BulkResult result = processor.process(orders, directory.resolve("settled.csv"), directory.resolve("rejected.csv"));
+
+        assertEquals(new BulkResult(4, 2, 1, 1, 90, 4), result);
+        assertEquals(List.of("1,1,2,1,0,65,3", "3,3,1,0,0,25,1"),
+            Files.readAllLines(directory.resolve("settled.csv")).subList(1, 3));
+        assertEquals(List.of("2,2,TOO_MANY_INFANTS", "4,,MALFORMED_RECORD"),
+            Files.readAllLines(directory.resolve("rejected.csv")).subList(1, 3));
+    }
+
+    @Test
+    void testChunkingDoesNotChangeTheReports() throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (int i = 1; i <= 5_000; i++) {
+            lines.append(i).append(',').append(i % 7).append(',').append(i % 3).append(',').append(i % 5).append('\n');
+        }
+        Path orders = write("orders.csv", lines.toString());
+        BulkResult whole = processor.process(orders, directory.resolve("whole.csv"), directory.resolve("whole-rejected.csv"));
+
+        try (ForkJoinPool pool = new ForkJoinPool(3)) {
+            BulkOrderProcessor chunked = new BulkOrderProcessor(new TicketValidatorImpl(), new CostCalculatorImpl(),
+                new SeatCalculatorImpl(), pool, 97);
+            assertEquals(whole, chunked.process(orders, directory.resolve("chunked.csv"), directory.resolve("chunked-rejected.csv")));
+        }
+
+        assertEquals(5_000, whole.orders());
+        assertTrue(whole.accepted() > 0 && whole.rejected() > 0);
+        assertEquals(Files.readAllLines(directory.resolve("whole.csv")), Files.readAllLines(directory.resolve("chunked.csv")));
+        assertEquals(Files.readAllLines(directory.resolve("whole-rejected.csv")),
+            Files.readAllLines(directory.resolve("chunked-rejected.csv")));
+    }
+
+    @Test
+    void testEmptyFileWritesOnlyHeaders() throws IOException {
+        Path orders = write("orders.jsonl", "");
+
+        assertEquals(new BulkResult(0, 0, 0, 0, 0, 0),
+            processor.process(orders, directory.resolve("settled.csv"), directory.resolve("rejected.csv")));
+        assertEquals(1, Files.readAllLines(directory.resolve("settled.csv")).size());
+        assertEquals(1, Files.readAllLines(directory.resolve("rejected.csv")).size());
+    }
+
+    @Test
+    void testRejectsUnknownFilesAndChunkSizes() {
+        assertThrows(IllegalArgumentException.class, () -> OrderFileFormat.of(Path.of("orders.xml")));
+        assertThrows(IllegalArgumentException.class, () -> new BulkOrderProcessor(new TicketValidatorImpl(),
+            new CostCalculatorImpl(), new SeatCalculatorImpl(), ForkJoinPool.commonPool(), 0));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(directory.resolve(name), content);
+    }
+}
@@ -0,0 +1,81 @@
+package uk.gov.dwp.uc.pairtest.bulk;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderParserTest {
+
+    private final OrderParser csv = new OrderParser(OrderFileFormat.CSV);
+    private final OrderParser json = new OrderParser(OrderFileFormat.NDJSON);
+
+    @Test
+    void testParsesCsvOrders() {
+        assertParsed(csv, "17,2,1,0", 17L, 2, 1, 0);
+        assertParsed(csv, " 17 , 2 ,, 1 ", 17L, 2, 0, 1);
+        assertParsed(csv, ",3,0,0", null, 3, 0, 0);
+        assertParsed(csv, "-4,1,0,0", -4L, 1, 0, 0);
+    }
+
+    @Test
+    void testRejectsMalformedCsv() {
+        assertMalformed(csv, "17,2,1");
+        assertMalformed(csv, "17,2,1,0,5");
+        assertMalformed(csv, "abc,2,1,0");
+        assertMalformed(csv, "17,-2,1,0");
+        assertMalformed(csv, "17,2.5,1,0");
+        assertMalformed(csv, "17,3000000000,0,0");
+        assertMalformed(csv, "99999999999999999999,1,0,0");
+    }
+
+    @Test
+    void testParsesJsonOrders() {
+        assertParsed(json, "{\"accountId\": 17, \"tickets\": {\"ADULT\": 2, \"CHILD\": 1}}", 17L, 2, 1, 0);
+        assertParsed(json, "{\"tickets\":{\"INFANT\":1,\"ADULT\":1,\"ADULT\":2,\"CHILD\":-3},\"accountId\":5}", 5L, 3, 0, 1);
+        assertParsed(json, "{\"accountId\": null, \"tickets\": {\"ADULT\": 1}}", null, 1, 0, 0);
+        assertParsed(json, "{\"tickets\": {}}", null, 0, 0, 0);
+        assertParsed(json, "{}", null, 0, 0, 0);
+        assertParsed(json, "{\"ref\": \"a\\\"b\", \"meta\": {\"tags\": [1, -2.5e3, true, false, null, {}], \"x\": []},"
+            + " \"accountId\": 9, \"tickets\": {\"ADULT\": 1}}", 9L, 1, 0, 0);
+    }
+
+    @Test
+    void testRejectsMalformedJson() {
+        assertMalformed(json, "{\"accountId\": 17, \"tickets\": {\"SENIOR\": 2}}");
+        assertMalformed(json, "{\"accountId\": 17.5}");
+        assertMalformed(json, "{\"accountId\": 17");
+        assertMalformed(json, "{\"accountId\": 17} trailing");
+        assertMalformed(json, "[{\"accountId\": 17}]");
+        assertMalformed(json, "{\"accountId\": nul}");
+        assertMalformed(json, "{\"tickets\": {\"ADULT\": 2147483647, \"ADULT\": 1}}");
+        assertMalformed(json, "{\"deep\": " + "[".repeat(40) + "]".repeat(40) + "}");
+        assertMalformed(json, "{\"name\": \"unterminated}");
+    }
+
+    @Test
+    void testParsesWithinTheGivenRangeOnly() {
+        ByteBuffer buffer = ByteBuffer.wrap("xx17,1,0,0yy".getBytes(StandardCharsets.US_ASCII));
+
+        assertTrue(csv.parse(buffer, 2, 10));
+        assertEquals(17L, csv.accountId);
+        assertFalse(csv.parse(buffer, 2, 11));
+    }
+
+    private static void assertParsed(OrderParser parser, String line, Long accountId, int adults, int children, int infants) {
+        assertTrue(parser.parse(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)), 0, line.length()), line);
+        assertEquals(accountId != null, parser.hasAccount, line);
+        if (accountId != null) {
+            assertEquals(accountId, parser.accountId, line);
+        }
+        assertEquals(adults, parser.adults, line);
+        assertEquals(children, parser.children, line);
+        assertEquals(infants, parser.infants, line);
+    }
+
+    private static void assertMalformed(OrderParser parser, String line) {
+        assertFalse(parser.parse(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)), 0, line.length()), line);
+    }
+}
@@ -2,6 +2,7 @@ package uk.gov.dwp.uc.pairtest.calculation;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
 import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
 
 import java.util.Map;
@@ -65,4 +66,14 @@ class CostCalculatorImplTest {
         
         assertEquals(0, cost);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testTicketCountsPricingMatchesMapPricing() {
+        TicketCounts ticketCounts = new TicketCounts(2, 1, 1);
+        
+        int cost = costCalculator.calculate(ticketCounts);
+        
+        assertEquals(costCalculator.calculate(ticketCounts.toMap()), cost);
+        assertEquals(65, cost);
+    }
+}
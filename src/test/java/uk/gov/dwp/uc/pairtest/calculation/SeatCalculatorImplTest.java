@@ -2,6 +2,7 @@ package uk.gov.dwp.uc.pairtest.calculation;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
 import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
 
 import java.util.Map;
@@ -65,4 +66,13 @@ class SeatCalculatorImplTest {
         
         assertEquals(0, seats);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testTicketCountsSeatsExcludeInfants() {
+        TicketCounts ticketCounts = new TicketCounts(3, 2, 1);
+        
+        int seats = seatCalculator.calculate(ticketCounts);
+        
+        assertEquals(5, seats); // 3 adults + 2 children, infant on lap
+    }
+}
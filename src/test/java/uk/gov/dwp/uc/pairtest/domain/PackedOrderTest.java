@@ -0,0 +1,66 @@
+package uk.gov.dwp.uc.pairtest.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedOrderTest {
+
+    @Test
+    void testRoundTripsCounts() {
+        long counts = PackedOrder.counts(new TicketCounts(25, 24, 23));
+
+        assertEquals(25, PackedOrder.adults(counts));
+        assertEquals(24, PackedOrder.children(counts));
+        assertEquals(23, PackedOrder.infants(counts));
+        assertEquals(new TicketCounts(25, 24, 23), PackedOrder.unpack(counts));
+        assertEquals(new TicketCounts(65535, 0, 65535), PackedOrder.unpack(PackedOrder.counts(65535, 0, 65535)));
+    }
+
+    @Test
+    void testAggregatesRequestsLikeTicketCounts() {
+        TicketTypeRequest[] requests = {
+            new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2),
+            null,
+            new TicketTypeRequest(TicketTypeRequest.Type.INFANT, 1),
+            new TicketTypeRequest(TicketTypeRequest.Type.CHILD, -3),
+            new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1)
+        };
+
+        assertEquals(TicketCounts.of(requests), PackedOrder.unpack(PackedOrder.counts(requests)));
+        assertEquals(0, PackedOrder.counts((TicketTypeRequest[]) null));
+    }
+
+    @Test
+    void testFlagsMissingAccountWithoutTouchingCounts() {
+        long counts = PackedOrder.counts(1, 2, 0);
+        long anonymous = PackedOrder.withoutAccount(counts);
+
+        assertTrue(PackedOrder.hasAccount(counts));
+        assertFalse(PackedOrder.hasAccount(anonymous));
+        assertEquals(PackedOrder.unpack(counts), PackedOrder.unpack(anonymous));
+    }
+
+    @Test
+    void testRejectsCountsThatDoNotFit() {
+        assertThrows(IllegalArgumentException.class, () -> PackedOrder.counts(65536, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> PackedOrder.counts(0, -1, 0));
+    }
+
+    @Test
+    void testWritesAndReadsSixteenByteRecords() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(3 * PackedOrder.BYTES);
+        PackedOrder.write(buffer, Long.MAX_VALUE, new TicketCounts(3, 1, 1));
+        PackedOrder.write(buffer, null, new TicketCounts(1, 0, 0));
+        PackedOrder.write(buffer, 2 * PackedOrder.BYTES, -5L, PackedOrder.counts(0, 0, 4));
+
+        assertEquals(2 * PackedOrder.BYTES, buffer.position());
+        assertEquals(Long.MAX_VALUE, PackedOrder.accountId(buffer, 0));
+        assertEquals(new TicketCounts(3, 1, 1), PackedOrder.unpack(PackedOrder.counts(buffer, 0)));
+        assertFalse(PackedOrder.hasAccount(PackedOrder.counts(buffer, PackedOrder.BYTES)));
+        assertEquals(-5L, PackedOrder.accountId(buffer, 2 * PackedOrder.BYTES));
+        assertEquals(4, PackedOrder.infants(PackedOrder.counts(buffer, 2 * PackedOrder.BYTES)));
+    }
+}
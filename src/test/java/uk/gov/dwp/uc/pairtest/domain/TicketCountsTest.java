@@ -0,0 +1,51 @@
+package uk.gov.dwp.uc.pairtest.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TicketCountsTest {
+
+    @Test
+    void testAggregatesRequestsByType() {
+        TicketCounts counts = TicketCounts.of(
+            new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2),
+            new TicketTypeRequest(TicketTypeRequest.Type.CHILD, 1),
+            new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1),
+            new TicketTypeRequest(TicketTypeRequest.Type.INFANT, 1)
+        );
+
+        assertEquals(new TicketCounts(3, 1, 1), counts);
+        assertEquals(5, counts.total());
+    }
+
+    // Same filtering as the old groupingBy aggregation
+    @Test
+    void testIgnoresNullZeroAndNegativeRequests() {
+        TicketCounts counts = TicketCounts.of(
+            null,
+            new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 0),
+            new TicketTypeRequest(TicketTypeRequest.Type.CHILD, -3)
+        );
+
+        assertTrue(counts.isEmpty());
+        assertEquals(TicketCounts.EMPTY, TicketCounts.of((TicketTypeRequest[]) null));
+    }
+
+    @Test
+    void testRoundTripsThroughMap() {
+        Map<TicketTypeRequest.Type, Integer> map = Map.of(
+            TicketTypeRequest.Type.ADULT, 2,
+            TicketTypeRequest.Type.INFANT, 1
+        );
+
+        TicketCounts counts = TicketCounts.from(map);
+
+        assertEquals(2, counts.get(TicketTypeRequest.Type.ADULT));
+        assertEquals(0, counts.get(TicketTypeRequest.Type.CHILD));
+        assertEquals(map, counts.toMap());
+        assertEquals(TicketCounts.EMPTY, TicketCounts.from(null));
+    }
+}
@@ -0,0 +1,220 @@
+package uk.gov.dwp.uc.pairtest.events;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.gov.dwp.uc.pairtest.PurchaseListener;
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventSourcedPurchaseStoreTest {
+
+    private static final TicketCounts FAMILY = new TicketCounts(2, 1, 1);
+    private static final TicketCounts ONE_ADULT = new TicketCounts(1, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    private final Clock clock = Clock.fixed(Instant.ofEpochMilli(1_000), ZoneOffset.UTC);
+
+    @Test
+    void testAppendsEventsAndProjectsThem() throws IOException {
+        try (EventSourcedPurchaseStore store = open(100, 100)) {
+            assertEquals(0, store.completed(7L, 1L, FAMILY, 65));
+            assertEquals(1, store.rejected(7L, 1L, ONE_ADULT, RejectionReason.SOLD_OUT));
+            assertEquals(2, store.completed(8L, 2L, ONE_ADULT, 25));
+
+            assertEquals(3, store.eventCount());
+            assertEquals(new PurchaseEvent.PurchaseCompleted(0, 1_000, 7L, 1L, FAMILY, 65), store.event(0));
+            assertEquals(new PurchaseEvent.PurchaseRejected(1, 1_000, 7L, 1L, ONE_ADULT, RejectionReason.SOLD_OUT), store.event(1));
+            assertEquals(new AccountSummary(1L, 1, 1, 4, 65), store.account(1L));
+            assertEquals(new AccountSummary(3L, 0, 0, 0, 0), store.account(3L));
+            ShowTotals show = store.show(7L);
+            assertEquals(new ShowTotals(7L, 1, 1, FAMILY, 65), show);
+            assertEquals(3, show.seatsSold());
+            assertEquals(new ShowTotals(9L, 0, 0, TicketCounts.EMPTY, 0), store.show(9L));
+            assertThrows(IllegalArgumentException.class, () -> store.event(3));
+        }
+    }
+
+    @Test
+    void testHistoryIsNewestFirstAcrossSegments() throws IOException {
+        try (EventSourcedPurchaseStore store = open(2, 100)) {
+            store.completed(1L, 1L, ONE_ADULT, 25);
+            store.completed(1L, 2L, ONE_ADULT, 25);
+            store.rejected(1L, 1L, ONE_ADULT, RejectionReason.NOT_ENOUGH_SEATS);
+            store.completed(2L, 2L, FAMILY, 65);
+            store.completed(2L, 1L, FAMILY, 65);
+
+            List<PurchaseEvent> history = store.history(1L, 10);
+
+            assertEquals(List.of(4L, 2L, 0L), history.stream().map(PurchaseEvent::sequence).toList());
+            assertInstanceOf(PurchaseEvent.PurchaseRejected.class, history.get(1));
+            assertEquals(List.of(4L, 2L), store.history(1L, 2).stream().map(PurchaseEvent::sequence).toList());
+            assertTrue(store.history(3L, 10).isEmpty());
+        }
+        assertEquals(3, segments().size());
+    }
+
+    @Test
+    void testRestartReplaysOnlyEventsAfterTheLatestSnapshot() throws IOException {
+        EventSourcedPurchaseStore crashed = open(3, 4);
+        for (long accountId = 1; accountId <= 10; accountId++) {
+            crashed.completed(accountId % 3 + 1, accountId % 4 + 1, ONE_ADULT, 25);
+        }
+        crashed.force();
+        long snapshotted = awaitSnapshotCovering(7);
+
+        try (EventSourcedPurchaseStore store = open(3, 4)) {
+            assertEquals(10, store.eventCount());
+            assertEquals(10 - snapshotted, store.replayedOnOpen());
+            assertEquals(crashed.account(1L), store.account(1L));
+            assertEquals(crashed.account(3L), store.account(3L));
+            assertEquals(crashed.show(2L), store.show(2L));
+            assertEquals(crashed.history(2L, 10), store.history(2L, 10));
+            assertEquals(10, store.completed(1L, 1L, ONE_ADULT, 25));
+        }
+
+        try (EventSourcedPurchaseStore store = open(3, 4)) {
+            assertEquals(0, store.replayedOnOpen());
+            assertEquals(11, store.eventCount());
+            assertEquals(new AccountSummary(1L, 3, 0, 3, 75), store.account(1L));
+        }
+    }
+
+    @Test
+    void testTornTailIsDroppedAndOverwritten() throws IOException {
+        EventSourcedPurchaseStore crashed = open(100, 100);
+        crashed.completed(1L, 1L, ONE_ADULT, 25);
+        crashed.completed(1L, 1L, ONE_ADULT, 25);
+        crashed.completed(1L, 1L, FAMILY, 65);
+        crashed.force();
+        try (RandomAccessFile segment = new RandomAccessFile(segments().getFirst().toFile(), "rw")) {
+            segment.seek(2L * EventSourcedPurchaseStore.RECORD_SIZE + 32);
+            segment.writeInt(9999);
+        }
+
+        try (EventSourcedPurchaseStore store = open(100, 100)) {
+            assertEquals(2, store.eventCount());
+            assertEquals(new AccountSummary(1L, 2, 0, 2, 50), store.account(1L));
+            assertEquals(2, store.rejected(1L, 1L, FAMILY, RejectionReason.INVALID_PURCHASE));
+        }
+        try (EventSourcedPurchaseStore store = open(100, 100)) {
+            assertEquals(new AccountSummary(1L, 2, 1, 2, 50), store.account(1L));
+        }
+    }
+
+    @Test
+    void testUnreadableSnapshotFallsBackToReplayingTheLog() throws IOException {
+        try (EventSourcedPurchaseStore store = open(100, 100)) {
+            store.completed(1L, 1L, FAMILY, 65);
+            store.completed(1L, 2L, ONE_ADULT, 25);
+        }
+        Path snapshot = files("projections-").getFirst();
+        try (RandomAccessFile file = new RandomAccessFile(snapshot.toFile(), "rw")) {
+            file.setLength(file.length() - 1);
+        }
+
+        try (EventSourcedPurchaseStore store = open(100, 100)) {
+            assertEquals(2, store.replayedOnOpen());
+            assertEquals(new ShowTotals(1L, 2, 0, new TicketCounts(3, 1, 1), 90), store.show(1L));
+        }
+    }
+
+    @Test
+    void testSnapshotAheadOfTheLogIsRefused() throws IOException {
+        try (EventSourcedPurchaseStore store = open(100, 100)) {
+            store.completed(1L, 1L, FAMILY, 65);
+        }
+        for (Path segment : segments()) {
+            Files.delete(segment);
+        }
+
+        assertThrows(IllegalStateException.class, () -> open(100, 100));
+    }
+
+    @Test
+    void testRecordsListenerCallbacksWithoutShowsOrAccounts() throws IOException {
+        try (EventSourcedPurchaseStore store = open(100, 100)) {
+            PurchaseListener listener = store;
+            listener.purchased(1L, ONE_ADULT, 25);
+            listener.purchased(4L, 1L, FAMILY, 65);
+            listener.rejected(PurchaseListener.NO_SHOW, null, null, RejectionReason.MISSING_ORDER);
+
+            assertEquals(3, store.eventCount());
+            assertEquals(new PurchaseEvent.PurchaseRejected(2, 1_000, 0L, 0L, TicketCounts.EMPTY, RejectionReason.MISSING_ORDER),
+                store.event(2));
+            assertEquals(new AccountSummary(1L, 2, 0, 5, 90), store.account(1L));
+            assertEquals(new ShowTotals(0L, 0, 0, TicketCounts.EMPTY, 0), store.show(PurchaseListener.NO_SHOW));
+            assertEquals(1, store.show(4L).purchases());
+        }
+    }
+
+    @Test
+    void testListenerCallbacksNeverThrow() throws IOException {
+        EventSourcedPurchaseStore store = open(100, 100);
+        PurchaseListener listener = store;
+        listener.rejected(1L, 1L, new TicketCounts(70_000, 2, 0), RejectionReason.TOO_MANY_TICKETS);
+        listener.purchased(1L, new TicketCounts(70_000, 0, 0), 0);
+
+        assertEquals(1, store.eventCount());
+        assertEquals(new PurchaseEvent.PurchaseRejected(0, 1_000, 1L, 1L, new TicketCounts(65_535, 2, 0),
+            RejectionReason.TOO_MANY_TICKETS), store.event(0));
+        store.close();
+        listener.purchased(1L, ONE_ADULT, 25);
+        listener.rejected(1L, 1L, ONE_ADULT, RejectionReason.SOLD_OUT);
+    }
+
+    @Test
+    void testRejectsInvalidUse() throws IOException {
+        assertThrows(IllegalArgumentException.class, () -> open(0, 100));
+        assertThrows(IllegalArgumentException.class, () -> open(100, 0));
+        EventSourcedPurchaseStore store = open(100, 100);
+        assertThrows(IllegalArgumentException.class, () -> store.rejected(1L, 1L, ONE_ADULT, null));
+        assertThrows(IllegalArgumentException.class, () -> store.completed(1L, 1L, new TicketCounts(70_000, 0, 0), 0));
+        store.close();
+        assertThrows(IllegalStateException.class, () -> store.completed(1L, 1L, ONE_ADULT, 25));
+    }
+
+    private EventSourcedPurchaseStore open(int eventsPerSegment, long snapshotInterval) throws IOException {
+        return EventSourcedPurchaseStore.open(directory, eventsPerSegment, snapshotInterval, clock);
+    }
+
+    // Sequence of the snapshot the background thread has written once it has caught up to at least minimum
+    private long awaitSnapshotCovering(long minimum) throws IOException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (true) {
+            List<Path> snapshots = files("projections-");
+            if (snapshots.size() == 1 && snapshots.getFirst().toString().endsWith(".snapshot")) {
+                String name = snapshots.getFirst().getFileName().toString();
+                long sequence = Long.parseLong(name.substring("projections-".length(), name.length() - ".snapshot".length()));
+                if (sequence >= minimum) {
+                    return sequence;
+                }
+            }
+            assertTrue(System.nanoTime() < deadline, "No snapshot covering " + minimum + " events was written");
+            Thread.onSpinWait();
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        return files("events-");
+    }
+
+    private List<Path> files(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(prefix)).sorted().toList();
+        }
+    }
+}
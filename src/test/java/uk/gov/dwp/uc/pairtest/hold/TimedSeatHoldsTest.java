@@ -0,0 +1,125 @@
+package uk.gov.dwp.uc.pairtest.hold;
+
+import org.junit.jupiter.api.Test;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.exception.TicketPurchaseException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TimedSeatHoldsTest {
+
+    private static final Duration TICK = Duration.ofMillis(10);
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private final SeatReservationService delegate = mock(SeatReservationService.class);
+    private final TimedSeatHolds holds = new TimedSeatHolds(10, delegate, TICK, clock::get);
+
+    @Test
+    void testConfirmReservesHeldSeats() {
+        long holdId = holds.hold(1L, 4, TTL);
+        assertEquals(6, holds.remainingSeats());
+
+        holds.confirm(holdId);
+
+        verify(delegate).reserveSeat(1L, 4);
+        assertEquals(6, holds.remainingSeats());
+        assertEquals(0, holds.outstandingHolds());
+        assertFalse(holds.release(holdId));
+    }
+
+    @Test
+    void testReleaseReturnsSeats() {
+        long holdId = holds.hold(1L, 10, TTL);
+        TicketPurchaseException e = assertThrows(TicketPurchaseException.class, () -> holds.hold(2L, 1, TTL));
+        assertEquals(RejectionReason.SOLD_OUT, e.getReason());
+
+        assertTrue(holds.release(holdId));
+
+        assertEquals(10, holds.remainingSeats());
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    void testHoldsExpireAfterTheirTtlAndNotBefore() {
+        long holdId = holds.hold(1L, 6, TTL);
+        holds.hold(2L, 3, Duration.ofMinutes(10));
+        assertEquals(RejectionReason.NOT_ENOUGH_SEATS,
+            assertThrows(TicketPurchaseException.class, () -> holds.hold(3L, 2, TTL)).getReason());
+
+        clock.addAndGet(TTL.toNanos() - 1);
+        assertEquals(0, holds.expireDue());
+        clock.addAndGet(TICK.toNanos());
+
+        assertEquals(1, holds.expireDue());
+        assertEquals(7, holds.remainingSeats());
+        assertEquals(RejectionReason.HOLD_EXPIRED,
+            assertThrows(TicketPurchaseException.class, () -> holds.confirm(holdId)).getReason());
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    void testIdsOfEndedHoldsCannotTouchTheSlotsNextHold() {
+        long first = holds.hold(1L, 1, TTL);
+        holds.release(first);
+        long second = holds.hold(2L, 1, TTL);
+
+        assertEquals((int) first, (int) second);
+        assertFalse(holds.release(first));
+        assertThrows(TicketPurchaseException.class, () -> holds.confirm(first));
+        holds.confirm(second);
+        verify(delegate).reserveSeat(2L, 1);
+    }
+
+    @Test
+    void testFailedConfirmationPutsSeatsBackOnSale() {
+        doThrow(new IllegalStateException("booking down")).when(delegate).reserveSeat(1L, 5);
+        long holdId = holds.hold(1L, 5, TTL);
+
+        assertThrows(IllegalStateException.class, () -> holds.confirm(holdId));
+
+        assertEquals(10, holds.remainingSeats());
+    }
+
+    @Test
+    void testExpiresAMillionHolds() {
+        TimedSeatHolds onSale = new TimedSeatHolds(1_000_000, delegate, TICK, clock::get);
+        for (int i = 0; i < 1_000_000; i++) {
+            onSale.hold(i, 1, Duration.ofMillis(100 + i % 60_000));
+            clock.addAndGet(1_000);
+        }
+        assertEquals(1_000_000, onSale.remainingSeats() + onSale.outstandingHolds());
+
+        clock.addAndGet(Duration.ofMinutes(2).toNanos());
+        onSale.expireDue();
+
+        assertEquals(1_000_000, onSale.expiredHolds());
+        assertEquals(0, onSale.outstandingHolds());
+        assertEquals(1_000_000, onSale.remainingSeats());
+    }
+
+    @Test
+    void testRejectsInvalidHolds() {
+        assertThrows(IllegalArgumentException.class, () -> holds.hold(1L, 0, TTL));
+        assertThrows(IllegalArgumentException.class, () -> holds.hold(1L, 1, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> holds.hold(1L, 1, Duration.ofDays(30)));
+    }
+
+    // Between ticks the deadline rounds up past the wheel's range; the refused hold must not use up a slot
+    @Test
+    void testTtlAtTheWheelsLimitKeepsTheSlotFree() {
+        Duration longest = TICK.multipliedBy(TimingWheel.MAX_TICKS_AHEAD - 1);
+        clock.addAndGet(TICK.toNanos() / 2);
+
+        assertThrows(IllegalArgumentException.class, () -> holds.hold(1L, 1, longest));
+
+        assertEquals(0, holds.outstandingHolds());
+        assertEquals(10, holds.remainingSeats());
+        assertEquals(0L, holds.hold(1L, 1, TTL));
+    }
+}
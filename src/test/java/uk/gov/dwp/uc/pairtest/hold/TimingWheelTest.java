@@ -0,0 +1,92 @@
+package uk.gov.dwp.uc.pairtest.hold;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    // Every handle fires in the advance that first reaches its deadline, across all four levels
+    @Test
+    void testFiresEachHandleWhenItsDeadlineIsReached() {
+        SplittableRandom random = new SplittableRandom(3);
+        TimingWheel wheel = new TimingWheel(16);
+        int handles = 20_000;
+        long[] deadlines = new long[handles];
+        long[] firedAt = new long[handles];
+        for (int handle = 0; handle < handles; handle++) {
+            deadlines[handle] = 1 + random.nextLong(1L << (6 * (1 + handle % 4)));
+            wheel.schedule(handle, deadlines[handle]);
+        }
+
+        long target = 0;
+        while (wheel.size() > 0) {
+            target += 1 + random.nextLong(500);
+            long reached = target;
+            wheel.advanceTo(target, handle -> firedAt[handle] = reached);
+        }
+
+        for (int handle = 0; handle < handles; handle++) {
+            assertTrue(firedAt[handle] >= deadlines[handle], "fired early");
+            assertTrue(firedAt[handle] - deadlines[handle] <= 500, "fired late");
+        }
+    }
+
+    @Test
+    void testFiresOnTheExactTickWhenAdvancedOneTickAtATime() {
+        TimingWheel wheel = new TimingWheel(16);
+        long[] deadlines = {1, 63, 64, 65, 4095, 4096, 4097, 262_143, 262_144, 300_001};
+        for (int handle = 0; handle < deadlines.length; handle++) {
+            wheel.schedule(handle, deadlines[handle]);
+        }
+        List<Long> fired = new ArrayList<>();
+
+        for (long tick = 1; tick <= 300_001; tick++) {
+            long now = tick;
+            wheel.advanceTo(tick, handle -> {
+                assertEquals(deadlines[handle], now);
+                fired.add(now);
+            });
+        }
+
+        assertEquals(deadlines.length, fired.size());
+    }
+
+    @Test
+    void testCancelledHandlesNeverFire() {
+        TimingWheel wheel = new TimingWheel(16);
+        for (int handle = 0; handle < 100; handle++) {
+            wheel.schedule(handle, 10 + handle * 100L);
+        }
+        for (int handle = 0; handle < 100; handle += 2) {
+            assertTrue(wheel.cancel(handle));
+        }
+        assertFalse(wheel.cancel(0));
+        List<Integer> fired = new ArrayList<>();
+
+        wheel.advanceTo(100_000, fired::add);
+
+        assertEquals(50, fired.size());
+        assertTrue(fired.stream().allMatch(handle -> handle % 2 == 1));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testPastDeadlinesFireOnTheNextTickAndFarOnesAreRefused() {
+        TimingWheel wheel = new TimingWheel(16);
+        wheel.advanceTo(1_000, handle -> fail());
+        wheel.schedule(7, 5);
+        List<Integer> fired = new ArrayList<>();
+
+        wheel.advanceTo(1_001, fired::add);
+
+        assertEquals(List.of(7), fired);
+        assertThrows(IllegalArgumentException.class, () -> wheel.schedule(1, 1_001 + TimingWheel.MAX_TICKS_AHEAD));
+        wheel.schedule(1, 2_000);
+        assertThrows(IllegalStateException.class, () -> wheel.schedule(1, 3_000));
+    }
+}
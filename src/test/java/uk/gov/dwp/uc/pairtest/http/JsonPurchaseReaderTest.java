@@ -0,0 +1,87 @@
+package uk.gov.dwp.uc.pairtest.http;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseOrder;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JsonPurchaseReaderTest {
+
+    @Test
+    void testReadsOrderSkippingUnknownFields() {
+        PurchaseOrder order = reader("""
+            {"channel": {"name": "web\\"app", "tags": [1, 2.5e3, true, null]},
+             "accountId": 42,
+             "tickets": {"ADULT": 2, "CHILD": 1, "INFANT": 1}}
+            """).readOrder();
+
+        assertEquals(42L, order.accountId());
+        assertEquals(new TicketCounts(2, 1, 1), TicketCounts.of(order.ticketTypeRequests()));
+    }
+
+    @Test
+    void testPassesMissingAccountAndInvalidCountsThroughForValidation() {
+        PurchaseOrder order = reader("{\"accountId\": null, \"tickets\": {\"ADULT\": -3}}").readOrder();
+
+        assertNull(order.accountId());
+        assertEquals(-3, order.ticketTypeRequests()[0].getNoOfTickets());
+        assertEquals(0, reader("{}").readOrder().ticketTypeRequests().length);
+    }
+
+    @Test
+    void testReadsBatchInOrder() {
+        List<PurchaseOrder> orders = reader("""
+            [{"accountId": 1, "tickets": {"ADULT": 1}}, {"tickets": {}, "accountId": 2}]
+            """).readOrders();
+
+        assertEquals(List.of(1L, 2L), orders.stream().map(PurchaseOrder::accountId).toList());
+        assertEquals(0, orders.get(1).ticketTypeRequests().length);
+        assertEquals(List.of(), reader("[ ]").readOrders());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "",
+        "{\"accountId\": 1",
+        "{\"accountId\": 1.5}",
+        "{\"accountId\": \"1\"}",
+        "{\"accountId\": 99999999999999999999}",
+        "{\"tickets\": {\"SENIOR\": 1}}",
+        "{\"tickets\": {\"ADULT\": 3000000000}}",
+        "{\"accountId\": 1} trailing",
+        "{\"accountId\": 1,}"
+    })
+    void testRejectsMalformedBodies(String body) {
+        assertThrows(MalformedRequestException.class, () -> reader(body).readOrder());
+    }
+
+    @Test
+    void testRejectsDeeplyNestedUnknownFields() {
+        assertDoesNotThrow(() -> reader("{\"accountId\": 1, \"extra\": " + "[".repeat(33) + "]".repeat(33) + "}").readOrder());
+        String body = "{\"accountId\": 1, \"extra\": " + "[".repeat(100_000) + "]".repeat(100_000) + "}";
+
+        assertThrows(MalformedRequestException.class, () -> reader(body).readOrder());
+    }
+
+    @Test
+    void testRejectsBodyOverLimit() {
+        String body = "{\"accountId\": 1, \"padding\": \"" + "x".repeat(10_000) + "\"}";
+
+        assertThrows(MalformedRequestException.class,
+            () -> new JsonPurchaseReader(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), 1_000).readOrder());
+    }
+
+    private static JsonPurchaseReader reader(String body) {
+        return new JsonPurchaseReader(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), 1 << 20);
+    }
+}
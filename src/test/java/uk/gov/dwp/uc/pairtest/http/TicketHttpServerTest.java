@@ -0,0 +1,118 @@
+package uk.gov.dwp.uc.pairtest.http;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.metrics.LockFreePurchaseMetrics;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class TicketHttpServerTest {
+
+    private final TicketPaymentService paymentService = mock(TicketPaymentService.class);
+    private final SeatReservationService seatService = mock(SeatReservationService.class);
+    private final HttpClient client = HttpClient.newHttpClient();
+    private TicketHttpServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        LockFreePurchaseMetrics metrics = new LockFreePurchaseMetrics();
+        server = new TicketHttpServer(new TicketServiceImpl(paymentService, seatService, metrics), metrics,
+            new InetSocketAddress("127.0.0.1", 0));
+        server.addMetricsExporter(out -> {
+            try {
+                out.append("extra_metric 1\n");
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void testSuccessfulPurchase() throws Exception {
+        HttpResponse<String> response = post("/purchases", "{\"accountId\": 5, \"tickets\": {\"ADULT\": 2, \"CHILD\": 1}}");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"status\":\"SUCCESS\",\"accountId\":5,\"totalCost\":65,\"totalSeats\":3}", response.body());
+        verify(seatService).reserveSeat(5L, 3);
+        verify(paymentService).makePayment(5L, 65);
+    }
+
+    @Test
+    void testRejectedAndFailedPurchases() throws Exception {
+        doThrow(new IllegalStateException("gateway \"down\"")).when(paymentService).makePayment(eq(2L), anyInt());
+
+        HttpResponse<String> rejected = post("/purchases", "{\"accountId\": 1, \"tickets\": {\"CHILD\": 1}}");
+        HttpResponse<String> failed = post("/purchases", "{\"accountId\": 2, \"tickets\": {\"ADULT\": 1}}");
+
+        assertEquals(422, rejected.statusCode());
+        assertEquals("{\"status\":\"REJECTED\",\"reason\":\"UNACCOMPANIED_MINOR\","
+            + "\"message\":\"Children and infants must be accompanied by at least one adult\"}", rejected.body());
+        assertEquals(502, failed.statusCode());
+        assertEquals("{\"status\":\"FAILED\",\"message\":\"The purchase could not be completed, please try again later\"}",
+            failed.body());
+    }
+
+    @Test
+    void testBatchReturnsOneResultPerOrder() throws Exception {
+        HttpResponse<String> response = post("/purchases/batch",
+            "[{\"accountId\": 1, \"tickets\": {\"ADULT\": 1}}, {\"accountId\": 0, \"tickets\": {\"ADULT\": 1}}]");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("[{\"status\":\"SUCCESS\",\"accountId\":1,\"totalCost\":25,\"totalSeats\":1},"
+            + "{\"status\":\"REJECTED\",\"reason\":\"INVALID_ACCOUNT_ID\",\"message\":\"Account ID must be greater than 0\"}]",
+            response.body());
+    }
+
+    @Test
+    void testBadRequestsAreRefused() throws Exception {
+        assertEquals(400, post("/purchases", "{\"accountId\": ").statusCode());
+        assertEquals(405, send(HttpRequest.newBuilder(uri("/purchases")).GET()).statusCode());
+        assertEquals(404, post("/purchases/other", "{}").statusCode());
+    }
+
+    @Test
+    void testMetricsEndpointExportsPrometheusText() throws Exception {
+        post("/purchases", "{\"accountId\": 5, \"tickets\": {\"ADULT\": 1}}");
+
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/metrics")).GET());
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("ticket_purchases_total 1\n"));
+        assertTrue(response.body().endsWith("extra_metric 1\n"));
+    }
+
+    private HttpResponse<String> post(String path, String body) throws Exception {
+        return send(HttpRequest.newBuilder(uri(path)).POST(HttpRequest.BodyPublishers.ofString(body)));
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.port() + path);
+    }
+}
@@ -0,0 +1,209 @@
+package uk.gov.dwp.uc.pairtest.intake;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.PurchaseListener;
+import uk.gov.dwp.uc.pairtest.calculation.CostCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.calculation.SeatCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.compensation.PurchaseCompensator;
+import uk.gov.dwp.uc.pairtest.domain.PackedOrder;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.TicketPurchaseException;
+import uk.gov.dwp.uc.pairtest.journal.PurchaseJournal;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseMetrics;
+import uk.gov.dwp.uc.pairtest.validation.TicketValidator;
+import uk.gov.dwp.uc.pairtest.validation.TicketValidatorImpl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RingBufferTicketServiceTest {
+
+    private static final TicketTypeRequest TWO_ADULTS = new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2);
+
+    private final TicketPaymentService payments = mock(TicketPaymentService.class);
+    private final SeatReservationService seats = mock(SeatReservationService.class);
+    private final PurchaseListener listener = mock(PurchaseListener.class);
+    private final RingBufferTicketService service = new RingBufferTicketService(payments, seats);
+
+    @AfterEach
+    void tearDown() {
+        service.close();
+    }
+
+    @Test
+    void testPurchasesThroughTheRing() {
+        assertEquals(new PurchaseResult.Success(1L, 50, 2), service.tryPurchase(1L, TWO_ADULTS));
+        service.purchaseTickets(2L, PackedOrder.counts(new TicketCounts(2, 1, 1)));
+
+        verify(seats).reserveSeat(1L, 2);
+        verify(payments).makePayment(1L, 50);
+        verify(seats).reserveSeat(2L, 3);
+        verify(payments).makePayment(2L, 65);
+    }
+
+    @Test
+    void testRejectsOnTheBusinessThreadWithoutCallingThirdParties() {
+        assertEquals(PurchaseResult.Rejected.of(RejectionReason.UNACCOMPANIED_MINOR),
+            service.tryPurchase(1L, new TicketTypeRequest(TicketTypeRequest.Type.CHILD, 1)));
+        assertEquals(PurchaseResult.Rejected.of(RejectionReason.NULL_ACCOUNT_ID), service.tryPurchase(null, TWO_ADULTS));
+        assertEquals(PurchaseResult.Rejected.of(RejectionReason.TOO_MANY_TICKETS),
+            service.tryPurchase(1L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 70_000)));
+        TicketPurchaseException e = assertThrows(TicketPurchaseException.class, () -> service.purchaseTickets(0L, TWO_ADULTS));
+        assertEquals(RejectionReason.INVALID_ACCOUNT_ID, e.getReason());
+
+        verifyNoInteractions(seats, payments);
+    }
+
+    @Test
+    void testReportsThirdPartyOutcomes() {
+        IllegalStateException outage = new IllegalStateException("gateway down");
+        doThrow(outage).when(payments).makePayment(2L, 50);
+        doThrow(new TicketPurchaseException(RejectionReason.SOLD_OUT)).when(seats).reserveSeat(3L, 2);
+
+        try (RingBufferTicketService notifying = withOptions(IntakeOptions.DEFAULTS)) {
+            assertTrue(notifying.tryPurchase(1L, TWO_ADULTS).isSuccess());
+            assertEquals(new PurchaseResult.Failed(outage), notifying.tryPurchase(2L, TWO_ADULTS));
+            assertEquals(PurchaseResult.Rejected.of(RejectionReason.SOLD_OUT), notifying.tryPurchase(3L, TWO_ADULTS));
+            assertThrows(IllegalStateException.class, () -> notifying.purchaseTickets(2L, TWO_ADULTS));
+        }
+
+        TicketCounts twoAdults = new TicketCounts(2, 0, 0);
+        verify(listener).purchased(1L, twoAdults, 50);
+        verify(listener).rejected(PurchaseListener.NO_SHOW, 3L, twoAdults, RejectionReason.SOLD_OUT);
+        verifyNoMoreInteractions(listener);
+    }
+
+    @Test
+    void testCompensatesAPaymentThatFailsAfterReserving() {
+        PurchaseJournal journal = mock(PurchaseJournal.class);
+        PurchaseCompensator compensator = mock(PurchaseCompensator.class);
+        when(journal.begin(anyLong(), anyInt(), anyInt())).thenReturn(4L, 5L);
+        doThrow(new TicketPurchaseException(RejectionReason.INVALID_PURCHASE)).when(payments).makePayment(1L, 50);
+
+        try (RingBufferTicketService compensating = new RingBufferTicketService(payments, seats, new TicketValidatorImpl(),
+                new CostCalculatorImpl(), new SeatCalculatorImpl(), PurchaseMetrics.NOOP, listener, IntakeOptions.DEFAULTS,
+                journal, compensator)) {
+            assertEquals(PurchaseResult.Rejected.of(RejectionReason.INVALID_PURCHASE), compensating.tryPurchase(1L, TWO_ADULTS));
+            assertTrue(compensating.tryPurchase(2L, TWO_ADULTS).isSuccess());
+        }
+
+        verify(compensator).releaseSeats(1L, 2);
+        verify(journal).compensated(4L);
+        verify(journal).paid(5L);
+        verifyNoMoreInteractions(compensator);
+    }
+
+    @Test
+    void testValidatesEveryOrderOnOneThread() throws Exception {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        TicketValidatorImpl rules = new TicketValidatorImpl();
+        TicketValidator recording = (accountId, ticketCounts) -> {
+            threads.add(Thread.currentThread().getName());
+            rules.validate(accountId, ticketCounts);
+        };
+        try (RingBufferTicketService single = new RingBufferTicketService(payments, seats, recording, new CostCalculatorImpl(),
+                new SeatCalculatorImpl(), PurchaseMetrics.NOOP, PurchaseListener.NONE, IntakeOptions.DEFAULTS);
+             ExecutorService callers = Executors.newFixedThreadPool(4)) {
+            List<CompletableFuture<PurchaseResult>> results = new ArrayList<>();
+            for (long accountId = 1; accountId <= 100; accountId++) {
+                long account = accountId;
+                results.add(CompletableFuture.supplyAsync(() -> single.tryPurchase(account, TWO_ADULTS), callers));
+            }
+            results.forEach(result -> assertTrue(result.join().isSuccess()));
+        }
+
+        assertEquals(Set.of("ring-business-logic"), threads);
+    }
+
+    @Test
+    void testEveryWaitStrategyCompletesMoreCallersThanSlots() {
+        for (WaitStrategy strategy : WaitStrategy.values()) {
+            SeatReservationService counted = mock(SeatReservationService.class);
+            try (RingBufferTicketService small = new RingBufferTicketService(payments, counted, new TicketValidatorImpl(),
+                    new CostCalculatorImpl(), new SeatCalculatorImpl(), PurchaseMetrics.NOOP, PurchaseListener.NONE,
+                    new IntakeOptions(4, strategy, strategy));
+                 ExecutorService callers = Executors.newFixedThreadPool(8)) {
+                List<CompletableFuture<PurchaseResult>> results = new ArrayList<>();
+                for (int i = 0; i < 200; i++) {
+                    results.add(CompletableFuture.supplyAsync(() -> small.tryPurchase(1L, TWO_ADULTS), callers));
+                }
+                results.forEach(result -> assertTrue(result.join().isSuccess(), strategy.name()));
+            }
+            verify(counted, times(200)).reserveSeat(1L, 2);
+        }
+    }
+
+    @Test
+    void testCompletesClaimedPurchasesOnClose() throws Exception {
+        doAnswer(invocation -> {
+            Thread.sleep(100);
+            return null;
+        }).when(payments).makePayment(anyLong(), anyInt());
+
+        CompletableFuture<PurchaseResult> inFlight = CompletableFuture.supplyAsync(() -> service.tryPurchase(1L, TWO_ADULTS));
+        verify(seats, timeout(5_000)).reserveSeat(1L, 2);
+        service.close();
+
+        assertTrue(inFlight.join().isSuccess());
+        PurchaseResult.Failed failed = assertInstanceOf(PurchaseResult.Failed.class, service.tryPurchase(1L, TWO_ADULTS));
+        assertInstanceOf(IllegalStateException.class, failed.cause());
+        service.close();
+    }
+
+    @Test
+    void testCompletesOrdersWhateverGoesWrong() {
+        doThrow(new IllegalStateException("store closed")).when(listener).purchased(anyLong(), any(), anyInt());
+        doThrow(new IllegalStateException("store closed")).when(listener).rejected(anyLong(), any(), any(), any());
+        doThrow(new AssertionError("seat service bug")).when(seats).reserveSeat(2L, 2);
+        TicketValidatorImpl rules = new TicketValidatorImpl();
+        TicketValidator failing = (accountId, ticketCounts) -> {
+            if (Long.valueOf(3L).equals(accountId)) {
+                throw new StackOverflowError();
+            }
+            rules.validate(accountId, ticketCounts);
+        };
+
+        try (RingBufferTicketService fragile = new RingBufferTicketService(payments, seats, failing, new CostCalculatorImpl(),
+                new SeatCalculatorImpl(), PurchaseMetrics.NOOP, listener, new IntakeOptions(4, WaitStrategy.BLOCKING,
+                WaitStrategy.BLOCKING))) {
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                assertTrue(fragile.tryPurchase(1L, TWO_ADULTS).isSuccess());
+                assertEquals(PurchaseResult.Rejected.of(RejectionReason.NULL_ACCOUNT_ID), fragile.tryPurchase(null, TWO_ADULTS));
+                assertInstanceOf(PurchaseResult.Failed.class, fragile.tryPurchase(2L, TWO_ADULTS));
+                assertInstanceOf(PurchaseResult.Failed.class, fragile.tryPurchase(3L, TWO_ADULTS));
+                for (int i = 0; i < 8; i++) {
+                    assertTrue(fragile.tryPurchase(1L, TWO_ADULTS).isSuccess());
+                }
+            });
+        }
+    }
+
+    @Test
+    void testRejectsInvalidOptions() {
+        assertThrows(IllegalArgumentException.class, () -> new IntakeOptions(0, WaitStrategy.BLOCKING, WaitStrategy.BLOCKING));
+        assertThrows(IllegalArgumentException.class, () -> new IntakeOptions(1000, WaitStrategy.BLOCKING, WaitStrategy.BLOCKING));
+        assertThrows(IllegalArgumentException.class, () -> new IntakeOptions(1024, null, WaitStrategy.BLOCKING));
+        assertEquals(new IntakeOptions(1024, WaitStrategy.YIELDING, WaitStrategy.YIELDING),
+            IntakeOptions.DEFAULTS.withWaitStrategy(WaitStrategy.YIELDING));
+    }
+
+    private RingBufferTicketService withOptions(IntakeOptions options) {
+        return new RingBufferTicketService(payments, seats, new TicketValidatorImpl(), new CostCalculatorImpl(),
+            new SeatCalculatorImpl(), PurchaseMetrics.NOOP, listener, options);
+    }
+}
@@ -0,0 +1,112 @@
+package uk.gov.dwp.uc.pairtest.inventory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.PurchaseListener;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.calculation.CostCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.calculation.SeatCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.compensation.PurchaseCompensator;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.TicketPurchaseException;
+import uk.gov.dwp.uc.pairtest.journal.PurchaseJournal;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseMetrics;
+import uk.gov.dwp.uc.pairtest.validation.TicketValidatorImpl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class InventorySeatReservationServiceTest {
+
+    private SeatReservationService delegate;
+    private SeatInventory seatInventory;
+    private InventorySeatReservationService seatService;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(SeatReservationService.class);
+        seatInventory = new SeatInventory();
+        seatService = new InventorySeatReservationService(seatInventory.addShow(1L, new Screen("Screen 1", 1, 4)), delegate);
+    }
+
+    @Test
+    void shouldAllocateSeatsThenCallThirdParty() {
+        seatService.reserveSeat(1L, 3);
+
+        verify(delegate).reserveSeat(1L, 3);
+        assertEquals(1, seatInventory.show(1L).remainingSeats());
+    }
+
+    @Test
+    void shouldRejectSoldOutShowWithoutCallingThirdParty() {
+        seatService.reserveSeat(1L, 4);
+        clearInvocations(delegate);
+
+        InvalidPurchaseException e = assertThrows(InvalidPurchaseException.class, () -> seatService.reserveSeat(2L, 1));
+
+        assertEquals("Show is sold out", e.getMessage());
+        assertEquals(RejectionReason.SOLD_OUT, ((TicketPurchaseException) e).getReason());
+        assertTrue(seatInventory.isSoldOut(1L));
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    void shouldRejectWhenNotEnoughSeatsRemain() {
+        seatService.reserveSeat(1L, 3);
+
+        assertThrows(InvalidPurchaseException.class, () -> seatService.reserveSeat(2L, 2));
+    }
+
+    @Test
+    void shouldReleaseSeatsWhenThirdPartyFails() {
+        doThrow(new IllegalStateException("unavailable")).when(delegate).reserveSeat(anyLong(), anyInt());
+
+        assertThrows(IllegalStateException.class, () -> seatService.reserveSeat(1L, 2));
+
+        assertEquals(4, seatInventory.show(1L).remainingSeats());
+    }
+
+    @Test
+    void shouldReleaseKeptAllocationsOnlyOnce() {
+        seatService.reserveSeat(1L, 3);
+        
+        assertFalse(seatService.releaseSeats(1L, 2));
+        assertFalse(seatService.releaseSeats(2L, 3));
+        assertTrue(seatService.releaseSeats(1L, 3));
+        assertFalse(seatService.releaseSeats(1L, 3));
+        
+        assertEquals(4, seatInventory.show(1L).remainingSeats());
+        seatService.reserveSeat(2L, 4);
+        assertTrue(seatInventory.isSoldOut(1L));
+    }
+    
+    @Test
+    void shouldFreeInventorySeatsWhenPaymentFailureIsCompensated() {
+        TicketPaymentService payments = mock(TicketPaymentService.class);
+        PurchaseCompensator thirdParty = mock(PurchaseCompensator.class);
+        doThrow(new IllegalStateException("declined")).when(payments).makePayment(1L, 50);
+        TicketServiceImpl tickets = new TicketServiceImpl(payments, seatService, new TicketValidatorImpl(),
+            new CostCalculatorImpl(), new SeatCalculatorImpl(), PurchaseMetrics.NOOP, PurchaseJournal.DISABLED,
+            PurchaseListener.NONE, seatService.compensator(thirdParty));
+        TicketTypeRequest twoAdults = new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2);
+        
+        assertInstanceOf(PurchaseResult.Failed.class, tickets.tryPurchase(1L, twoAdults));
+        
+        assertEquals(4, seatInventory.show(1L).remainingSeats());
+        verify(thirdParty).releaseSeats(1L, 2);
+        verifyNoMoreInteractions(thirdParty);
+    }
+    
+    @Test
+    void shouldRejectDuplicateAndUnknownShows() {
+        assertThrows(IllegalArgumentException.class, () -> seatInventory.addShow(1L, new Screen("Screen 2", 1, 4)));
+        assertThrows(IllegalArgumentException.class, () -> seatInventory.show(99L));
+    }
+}
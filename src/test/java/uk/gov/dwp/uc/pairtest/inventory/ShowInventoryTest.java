@@ -0,0 +1,137 @@
+package uk.gov.dwp.uc.pairtest.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShowInventoryTest {
+
+    @Test
+    void testGroupIsSeatedTogetherInOneRow() {
+        ShowInventory inventory = new ShowInventory(new Screen("Screen 1", 3, 10));
+
+        SeatAllocation allocation = inventory.tryAllocate(4);
+
+        assertTrue(allocation.isContiguous());
+        assertEquals(4, allocation.seatCount());
+        assertEquals(26, inventory.remainingSeats());
+    }
+
+    // Row 0 has 6 seats left after the first group, so a group of 7 must go to row 1
+    @Test
+    void testSkipsRowsWithoutAGapLargeEnough() {
+        ShowInventory inventory = new ShowInventory(new Screen("Screen 1", 2, 10));
+        inventory.tryAllocate(4);
+
+        SeatAllocation allocation = inventory.tryAllocate(7);
+
+        assertArrayEquals(new int[] {1}, allocation.rows());
+        assertTrue(allocation.isContiguous());
+    }
+
+    @Test
+    void testFindsGapLeftByReleasedSeats() {
+        ShowInventory inventory = new ShowInventory(new Screen("Screen 1", 1, 10));
+        SeatAllocation first = inventory.tryAllocate(3);
+        inventory.tryAllocate(7);
+        inventory.release(first);
+
+        SeatAllocation allocation = inventory.tryAllocate(3);
+
+        assertEquals(first.seatMasks()[0], allocation.seatMasks()[0]);
+        assertTrue(inventory.isSoldOut());
+    }
+
+    // No single row has 4 adjacent seats left, but 4 seats remain in total
+    @Test
+    void testSplitsGroupAcrossRowsWhenNoContiguousGap() {
+        ShowInventory inventory = new ShowInventory(new Screen("Screen 1", 2, 5));
+        inventory.tryAllocate(3);
+        inventory.tryAllocate(3);
+
+        SeatAllocation allocation = inventory.tryAllocate(4);
+
+        assertNotNull(allocation);
+        assertFalse(allocation.isContiguous());
+        assertEquals(4, allocation.seatCount());
+        assertTrue(inventory.isSoldOut());
+    }
+
+    @Test
+    void testRejectsWhenNotEnoughSeatsRemain() {
+        ShowInventory inventory = new ShowInventory(new Screen("Screen 1", 1, 5));
+        inventory.tryAllocate(4);
+
+        assertNull(inventory.tryAllocate(2));
+        assertEquals(1, inventory.remainingSeats());
+    }
+
+    @Test
+    void testFullWidthRowOf64Seats() {
+        ShowInventory inventory = new ShowInventory(new Screen("IMAX", 1, 64));
+
+        SeatAllocation allocation = inventory.tryAllocate(64);
+
+        assertEquals(-1L, allocation.seatMasks()[0]);
+        assertTrue(inventory.isSoldOut());
+    }
+
+    @Test
+    void testRunStartsMarksEveryGapOfRequestedLength() {
+        // Free seats 0-2 and 5-9
+        long free = 0b11111_00_111L;
+
+        assertEquals(0b00111_00_001L, ShowInventory.runStarts(free, 3));
+        assertEquals(0b00001_00_000L, ShowInventory.runStarts(free, 5));
+        assertEquals(0L, ShowInventory.runStarts(free, 6));
+    }
+
+    @Test
+    void testRejectsInvalidLayoutsAndRequests() {
+        assertThrows(IllegalArgumentException.class, () -> new Screen("Too wide", 1, 65));
+        assertThrows(IllegalArgumentException.class, () -> new Screen("No rows", 0, 10));
+        ShowInventory inventory = new ShowInventory(new Screen("Screen 1", 1, 5));
+        assertThrows(IllegalArgumentException.class, () -> inventory.tryAllocate(0));
+    }
+
+    // Many threads racing for the same show must never double-book a seat or oversell
+    @Test
+    void testConcurrentAllocationNeverDoubleBooks() throws Exception {
+        ShowInventory inventory = new ShowInventory(new Screen("Screen 1", 20, 30));
+        List<Future<List<SeatAllocation>>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                int groupSize = t % 4 + 1;
+                futures.add(executor.submit(() -> {
+                    List<SeatAllocation> allocations = new ArrayList<>();
+                    SeatAllocation allocation;
+                    while ((allocation = inventory.tryAllocate(groupSize)) != null) {
+                        allocations.add(allocation);
+                    }
+                    return allocations;
+                }));
+            }
+        }
+
+        long[] seen = new long[20];
+        int allocated = 0;
+        for (Future<List<SeatAllocation>> future : futures) {
+            for (SeatAllocation allocation : future.get()) {
+                for (int i = 0; i < allocation.rows().length; i++) {
+                    int row = allocation.rows()[i];
+                    assertEquals(0L, seen[row] & allocation.seatMasks()[i], "seat allocated twice");
+                    seen[row] |= allocation.seatMasks()[i];
+                }
+                allocated += allocation.seatCount();
+            }
+        }
+        assertEquals(600 - inventory.remainingSeats(), allocated);
+        assertTrue(inventory.remainingSeats() < 4);
+    }
+}
@@ -0,0 +1,205 @@
+package uk.gov.dwp.uc.pairtest.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.PurchaseListener;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.calculation.CostCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.calculation.SeatCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.compensation.PurchaseCompensator;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseMetrics;
+import uk.gov.dwp.uc.pairtest.payment.Payment;
+import uk.gov.dwp.uc.pairtest.payment.PaymentOutcomeUnknownException;
+import uk.gov.dwp.uc.pairtest.validation.TicketValidatorImpl;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+class MappedPurchaseJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private final PurchaseCompensator compensator = mock(PurchaseCompensator.class);
+
+    @Test
+    void testRecoveryCompensatesOnlyUnfinishedPurchases() throws IOException {
+        try (MappedPurchaseJournal journal = MappedPurchaseJournal.open(directory, 100, compensator)) {
+            journal.begin(1L, 25, 1);
+            journal.reserved(journal.begin(2L, 50, 2));
+            journal.paid(reserve(journal, 3L, 75, 3));
+            journal.compensated(journal.begin(4L, 100, 4));
+        }
+
+        try (MappedPurchaseJournal recovered = MappedPurchaseJournal.open(directory, 100, compensator)) {
+            assertEquals(2, recovered.recovered().size());
+            assertTrue(recovered.openPurchases().isEmpty());
+        }
+
+        verify(compensator).releaseSeats(1L, 1);
+        verify(compensator, never()).refundPayment(1L, 25);
+        verify(compensator).releaseSeats(2L, 2);
+        verify(compensator).refundPayment(2L, 50);
+        verify(compensator, never()).releaseSeats(3L, 3);
+        verify(compensator, never()).releaseSeats(4L, 4);
+    }
+
+    @Test
+    void testCompensationIsNotRepeatedOnNextStart() throws IOException {
+        try (MappedPurchaseJournal journal = MappedPurchaseJournal.open(directory, 100, compensator)) {
+            journal.begin(1L, 25, 1);
+        }
+        MappedPurchaseJournal.open(directory, 100, compensator).close();
+        PurchaseCompensator second = mock(PurchaseCompensator.class);
+
+        try (MappedPurchaseJournal reopened = MappedPurchaseJournal.open(directory, 100, second)) {
+            assertTrue(reopened.recovered().isEmpty());
+        }
+        verifyNoInteractions(second);
+    }
+
+    @Test
+    void testPurchaseIdsKeepIncreasingAcrossRestarts() throws IOException {
+        long first;
+        try (MappedPurchaseJournal journal = MappedPurchaseJournal.open(directory, 100, compensator)) {
+            first = reserve(journal, 1L, 25, 1);
+            journal.paid(first);
+        }
+        MappedPurchaseJournal.open(directory, 100, compensator).close();
+
+        try (MappedPurchaseJournal reopened = MappedPurchaseJournal.open(directory, 100, compensator)) {
+            assertTrue(reopened.begin(2L, 25, 1) > first);
+        }
+    }
+
+    @Test
+    void testCheckpointsKeepOneBoundedSegment() throws IOException {
+        try (MappedPurchaseJournal journal = MappedPurchaseJournal.open(directory, 10, compensator)) {
+            long stillOpen = journal.begin(99L, 25, 1);
+            for (int i = 0; i < 100; i++) {
+                journal.paid(reserve(journal, i + 1, 25, 1));
+            }
+            assertEquals(List.of(stillOpen), journal.openPurchases().stream().map(JournalEntry::purchaseId).toList());
+        }
+
+        List<Path> segments = segments();
+        assertEquals(1, segments.size());
+        // High-water mark, the open purchase and at most one interval
+        assertTrue(Files.size(segments.getFirst()) <= (1 + 1 + 10) * MappedPurchaseJournal.RECORD_SIZE);
+
+        try (MappedPurchaseJournal recovered = MappedPurchaseJournal.open(directory, 10, compensator)) {
+            assertEquals(1, recovered.recovered().size());
+            assertEquals(99L, recovered.recovered().getFirst().accountId());
+        }
+    }
+
+    @Test
+    void testTornRecordEndsReplay() throws IOException {
+        try (MappedPurchaseJournal journal = MappedPurchaseJournal.open(directory, 100, compensator)) {
+            journal.begin(1L, 25, 1);
+            journal.begin(2L, 25, 1);
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segments().getFirst().toFile(), "rw")) {
+            // Second purchase, after the high-water mark and the first
+            file.seek(2 * MappedPurchaseJournal.RECORD_SIZE + 8);
+            file.writeLong(12345L);
+        }
+
+        try (MappedPurchaseJournal recovered = MappedPurchaseJournal.open(directory, 100, compensator)) {
+            assertEquals(1, recovered.recovered().size());
+        }
+        verify(compensator).releaseSeats(1L, 1);
+        verify(compensator, never()).releaseSeats(12345L, 1);
+    }
+
+    @Test
+    void testConcurrentPurchasesGetUniqueDurableIds() throws IOException {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        try (MappedPurchaseJournal journal = MappedPurchaseJournal.open(directory, 50, compensator)) {
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < 500; i++) {
+                    long accountId = i + 1;
+                    executor.submit(() -> {
+                        long id = reserve(journal, accountId, 25, 1);
+                        ids.add(id);
+                        journal.paid(id);
+                    });
+                }
+            }
+            assertThrows(IllegalArgumentException.class, () -> journal.paid(ids.iterator().next()));
+        }
+
+        assertEquals(500, ids.size());
+        try (MappedPurchaseJournal recovered = MappedPurchaseJournal.open(directory, 50, compensator)) {
+            assertTrue(recovered.recovered().isEmpty());
+            assertTrue(recovered.begin(1L, 25, 1) > 500);
+        }
+    }
+
+    @Test
+    void testPaymentFailureInTicketServiceIsCompensatedAtOnce() throws IOException {
+        TicketPaymentService payments = mock(TicketPaymentService.class);
+        doThrow(new PaymentOutcomeUnknownException(new Payment(7L, 50), new IllegalStateException("gateway down")))
+            .when(payments).makePayment(anyLong(), anyInt());
+        try (MappedPurchaseJournal journal = MappedPurchaseJournal.open(directory, 100, compensator)) {
+            TicketServiceImpl service = new TicketServiceImpl(payments, mock(SeatReservationService.class),
+                new TicketValidatorImpl(), new CostCalculatorImpl(), new SeatCalculatorImpl(), PurchaseMetrics.NOOP, journal,
+                PurchaseListener.NONE, compensator);
+
+            PurchaseResult result = service.tryPurchase(7L, new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2));
+
+            assertInstanceOf(PurchaseResult.Failed.class, result);
+            assertTrue(journal.openPurchases().isEmpty());
+        }
+        verify(compensator).refundPayment(7L, 50);
+        verify(compensator).releaseSeats(7L, 2);
+
+        try (MappedPurchaseJournal recovered = MappedPurchaseJournal.open(directory, 100, compensator)) {
+            assertTrue(recovered.recovered().isEmpty());
+        }
+        verifyNoMoreInteractions(compensator);
+    }
+
+    @Test
+    void testRejectsInvalidInterval() {
+        assertThrows(IllegalArgumentException.class, () -> MappedPurchaseJournal.open(directory, 0, compensator));
+    }
+
+    private static long reserve(MappedPurchaseJournal journal, long accountId, int cost, int seats) {
+        long id = journal.begin(accountId, cost, seats);
+        journal.reserved(id);
+        return id;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return new ArrayList<>(files.filter(file -> file.toString().endsWith(".journal")).toList());
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package uk.gov.dwp.uc.pairtest.ledger;
+
+import org.junit.jupiter.api.Test;
+import uk.gov.dwp.uc.pairtest.calculation.CostCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountLedgerTest {
+
+    private final MutableClock clock = new MutableClock();
+    private final AccountLedger ledger = new AccountLedger(AccountLimits.daily(10, 200), new CostCalculatorImpl(), 0, clock);
+
+    @Test
+    void testRecordsTotalsPerAccount() {
+        ledger.purchased(1L, new TicketCounts(2, 1, 1), 65);
+        ledger.record(1L, 3, 75);
+        ledger.record(2L, 1, 25);
+
+        assertEquals(7, ledger.tickets(1L));
+        assertEquals(140, ledger.spend(1L));
+        assertEquals(1, ledger.tickets(2L));
+        assertEquals(0, ledger.tickets(3L));
+        assertEquals(2, ledger.accounts());
+    }
+
+    @Test
+    void testAllowsOrdersWithinTicketAndSpendLimits() {
+        ledger.record(1L, 8, 100);
+
+        assertTrue(ledger.allows(1L, new TicketCounts(1, 1, 0)));
+        assertFalse(ledger.allows(1L, new TicketCounts(1, 1, 1)));
+        assertTrue(ledger.allows(2L, new TicketCounts(8, 0, 0)));
+        assertFalse(ledger.allows(2L, new TicketCounts(9, 0, 0)));
+        assertFalse(ledger.allows(2L, new TicketCounts(11, 0, 0)));
+        ledger.record(2L, 0, 190);
+        assertFalse(ledger.allows(2L, new TicketCounts(1, 0, 0)));
+        assertTrue(ledger.allows(2L, new TicketCounts(0, 0, 1)));
+    }
+
+    @Test
+    void testTotalsResetWhenTheWindowEnds() {
+        clock.advance(Duration.ofHours(23));
+        ledger.record(1L, 10, 200);
+        assertFalse(ledger.allows(1L, new TicketCounts(1, 0, 0)));
+
+        clock.advance(Duration.ofHours(1));
+
+        assertEquals(0, ledger.tickets(1L));
+        assertTrue(ledger.allows(1L, new TicketCounts(1, 0, 0)));
+        ledger.record(1L, 1, 25);
+        assertEquals(25, ledger.spend(1L));
+    }
+
+    @Test
+    void testGrowingDropsAccountsIdleSinceAnEarlierWindow() {
+        for (long account = 1; account <= 100_000; account++) {
+            ledger.record(account, 1, 25);
+        }
+        clock.advance(Duration.ofDays(1));
+        for (long account = 100_001; account <= 200_000; account++) {
+            ledger.record(account, 2, 50);
+        }
+
+        assertTrue(ledger.accounts() < 150_000, "idle accounts were kept");
+        for (long account = 1; account <= 200_000; account += 997) {
+            assertEquals(account <= 100_000 ? 0 : 2, ledger.tickets(account));
+        }
+    }
+
+    @Test
+    void testConcurrentRecordsAreNotLost() throws Exception {
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int thread = 0; thread < 8; thread++) {
+                executor.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        ledger.record(1 + i % 1000, 1, 3);
+                    }
+                });
+            }
+        }
+
+        long tickets = 0;
+        for (long account = 1; account <= 1000; account++) {
+            tickets += ledger.tickets(account);
+            assertEquals(3 * ledger.tickets(account), ledger.spend(account));
+        }
+        assertEquals(8 * 20_000, tickets);
+    }
+
+    @Test
+    void testRejectsInvalidConfigurationAndAccounts() {
+        assertThrows(IllegalArgumentException.class, () -> ledger.record(0L, 1, 25));
+        assertThrows(IllegalArgumentException.class, () -> AccountLimits.daily(0, 100));
+        assertThrows(IllegalArgumentException.class, () -> AccountLimits.daily(10, -1));
+        assertThrows(IllegalArgumentException.class, () -> new AccountLimits(10, 100, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class,
+            () -> new AccountLedger(AccountLimits.daily(10, 100), new CostCalculatorImpl(), -1, clock));
+    }
+
+    private static final class MutableClock extends Clock {
+        private final AtomicLong millis = new AtomicLong();
+
+        private void advance(Duration duration) {
+            millis.addAndGet(duration.toMillis());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis.get());
+        }
+
+        @Override
+        public long millis() {
+            return millis.get();
+        }
+    }
+}
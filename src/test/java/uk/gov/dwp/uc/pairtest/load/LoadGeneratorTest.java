@@ -0,0 +1,95 @@
+package uk.gov.dwp.uc.pairtest.load;
+
+import org.junit.jupiter.api.Test;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class LoadGeneratorTest {
+
+    private final TicketPaymentService payments = mock(TicketPaymentService.class);
+    private final SeatReservationService seats = mock(SeatReservationService.class);
+    private final TicketServiceImpl target = new TicketServiceImpl(payments, seats);
+
+    @Test
+    void testOpenRunSendsAtTheRequestedRate() {
+        LoadReport report = new LoadGenerator(target, OrderProfile.DEFAULTS.withInvalidRatio(0))
+            .run(LoadOptions.open(2_000, Duration.ofMillis(500)));
+
+        assertEquals(LoadModel.OPEN, report.model());
+        assertEquals(1_000, report.completed());
+        assertEquals(1_000, report.succeeded());
+        assertEquals(1_000, report.responseTime().count());
+        assertTrue(report.throughput() > 0);
+    }
+
+    @Test
+    void testClosedRunBreaksDownRejectionsAndFailures() {
+        doThrow(new IllegalStateException("gateway down")).when(payments).makePayment(anyLong(), anyInt());
+
+        LoadReport report = new LoadGenerator(target, OrderProfile.DEFAULTS.withInvalidRatio(0.5))
+            .run(LoadOptions.closed(8, Duration.ofMillis(200)));
+
+        assertEquals(0, report.succeeded());
+        assertTrue(report.failed() > 0);
+        assertTrue(report.rejections().keySet().containsAll(java.util.List.of(RejectionReason.INVALID_ACCOUNT_ID,
+            RejectionReason.UNACCOMPANIED_MINOR, RejectionReason.TOO_MANY_INFANTS, RejectionReason.TOO_MANY_TICKETS)));
+        assertEquals(report.completed(), report.serviceTime().count());
+    }
+
+    // A target stalling once holds up every order due meanwhile; only response time sees that wait
+    @Test
+    void testResponseTimeIncludesTimeQueuedBehindAStall() {
+        AtomicInteger calls = new AtomicInteger();
+        TicketServiceImpl stalling = new TicketServiceImpl((accountId, amount) -> {
+            if (calls.incrementAndGet() == 1) {
+                sleep(200);
+            }
+        }, seats);
+
+        LoadReport report = new LoadGenerator(stalling, OrderProfile.DEFAULTS.withInvalidRatio(0))
+            .run(LoadOptions.closed(1, Duration.ofMillis(400)).withExpectedInterval(Duration.ofMillis(10)));
+
+        assertTrue(report.serviceTime().p90() < 20_000_000L, "Most calls are fast");
+        assertTrue(report.responseTime().p90() >= 100_000_000L, "Orders due during the stall waited for it");
+        assertTrue(report.completed() >= 30);
+    }
+
+    @Test
+    void testPrintsReport() {
+        LoadReport report = new LoadGenerator(target, OrderProfile.DEFAULTS)
+            .run(LoadOptions.closed(2, Duration.ofMillis(50)));
+        StringWriter out = new StringWriter();
+
+        report.print(out);
+
+        assertTrue(out.toString().startsWith("CLOSED model: "));
+        assertTrue(out.toString().contains("response time"));
+    }
+
+    @Test
+    void testRejectsInvalidOptions() {
+        assertThrows(IllegalArgumentException.class, () -> LoadOptions.open(0, Duration.ofSeconds(1)));
+        assertThrows(IllegalArgumentException.class, () -> LoadOptions.closed(0, Duration.ofSeconds(1)));
+        assertThrows(IllegalArgumentException.class, () -> LoadOptions.closed(1, Duration.ZERO));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package uk.gov.dwp.uc.pairtest.load;
+
+import org.junit.jupiter.api.Test;
+import uk.gov.dwp.uc.pairtest.domain.PackedOrder;
+import uk.gov.dwp.uc.pairtest.validation.TicketValidatorImpl;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderGeneratorTest {
+
+    private final TicketValidatorImpl validator = new TicketValidatorImpl();
+
+    @Test
+    void testValidOrdersAlwaysPassValidation() {
+        // Distributions that would break every rule if used unadjusted
+        OrderProfile profile = new OrderProfile(Distribution.uniform(0, 30), Distribution.uniform(0, 25),
+            Distribution.uniform(0, 25), 0, 1_000, 25);
+        OrderGenerator generator = new OrderGenerator(profile, 1);
+
+        for (int i = 0; i < 10_000; i++) {
+            long counts = generator.next();
+            assertNull(validator.check(generator.accountId(), PackedOrder.unpack(counts)));
+        }
+    }
+
+    @Test
+    void testInvalidRatioAndAccountCardinality() {
+        OrderGenerator generator = new OrderGenerator(OrderProfile.DEFAULTS.withInvalidRatio(0.25).withAccounts(50), 7);
+        Set<Long> accounts = new HashSet<>();
+        int invalid = 0;
+
+        for (int i = 0; i < 20_000; i++) {
+            long counts = generator.next();
+            if (validator.check(generator.accountId(), PackedOrder.unpack(counts)) != null) {
+                invalid++;
+            } else {
+                accounts.add(generator.accountId());
+            }
+        }
+
+        assertEquals(0.25, invalid / 20_000.0, 0.02);
+        assertEquals(50, accounts.size());
+        assertTrue(accounts.stream().allMatch(id -> id >= 1 && id <= 50));
+    }
+
+    @Test
+    void testSameSeedGivesSameOrders() {
+        OrderGenerator first = new OrderGenerator(OrderProfile.DEFAULTS, 3);
+        OrderGenerator second = new OrderGenerator(OrderProfile.DEFAULTS, 3);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(first.next(), second.next());
+            assertEquals(first.accountId(), second.accountId());
+        }
+    }
+
+    @Test
+    void testDistributionFollowsWeights() {
+        Distribution distribution = Distribution.parse("0,3,0,1");
+        SplittableRandom random = new SplittableRandom(11);
+        int[] seen = new int[4];
+
+        for (int i = 0; i < 40_000; i++) {
+            seen[distribution.sample(random)]++;
+        }
+
+        assertEquals(0, seen[0]);
+        assertEquals(0, seen[2]);
+        assertEquals(3.0, seen[1] / (double) seen[3], 0.15);
+        assertEquals(3, distribution.max());
+        assertEquals(4, Distribution.parse("4").sample(random));
+        assertEquals(2, Distribution.parse("2-5").sample(random), 3);
+        assertThrows(IllegalArgumentException.class, () -> Distribution.parse("0,0"));
+        assertThrows(IllegalArgumentException.class, () -> Distribution.parse("two"));
+    }
+}
@@ -0,0 +1,70 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testBucketsAreContiguousAndWithinThreePercent() {
+        for (long value = 0; value < 1_000_000; value += value < 200 ? 1 : 997) {
+            int index = LatencyHistogram.bucketIndex(value);
+            long lowest = LatencyHistogram.lowestValueInBucket(index);
+            long highest = LatencyHistogram.highestValueInBucket(index);
+            assertTrue(lowest <= value && value <= highest, () -> "value outside its bucket");
+            assertTrue(highest - lowest <= Math.max(0, value / 32), () -> "bucket too wide");
+        }
+        assertTrue(LatencyHistogram.bucketIndex(Long.MAX_VALUE) >= 0);
+    }
+
+    @Test
+    void testPercentilesOfUniformValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 10_000; value++) {
+            histogram.record(value);
+        }
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        assertEquals(10_000, snapshot.count());
+        assertEquals(5_000.5, snapshot.mean(), 0.001);
+        assertEquals(5_000, snapshot.p50(), 5_000 / 32.0);
+        assertEquals(9_900, snapshot.p99(), 9_900 / 32.0);
+        assertEquals(10_000, snapshot.max());
+    }
+
+    @Test
+    void testEmptyHistogram() {
+        assertEquals(HistogramSnapshot.EMPTY, new LatencyHistogram().snapshot());
+    }
+
+    // A 10ms stall with 1ms expected spacing hides nine samples that would have queued behind it
+    @Test
+    void testCoordinatedOmissionCorrection() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        histogram.recordWithExpectedInterval(10_000_000, 1_000_000);
+
+        assertEquals(10, histogram.snapshot().count());
+    }
+
+    @Test
+    void testConcurrentRecordingLosesNothing() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            for (int t = 0; t < 4; t++) {
+                executor.submit(() -> {
+                    for (int i = 0; i < 50_000; i++) {
+                        histogram.record(i % 1_000);
+                    }
+                });
+            }
+        }
+
+        assertEquals(200_000, histogram.snapshot().count());
+    }
+}
@@ -0,0 +1,84 @@
+package uk.gov.dwp.uc.pairtest.metrics;
+
+import org.junit.jupiter.api.Test;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class LockFreePurchaseMetricsTest {
+
+    @Test
+    void testSnapshotReflectsRecordedValues() {
+        LockFreePurchaseMetrics metrics = new LockFreePurchaseMetrics();
+
+        metrics.recordStage(PurchaseStage.VALIDATION, 120);
+        metrics.recordStage(PurchaseStage.VALIDATION, 80);
+        metrics.recordPurchase();
+        metrics.recordRejection(RejectionReason.TOO_MANY_TICKETS);
+        metrics.recordThirdPartyFailure(ThirdPartyService.PAYMENT);
+        MetricsSnapshot snapshot = metrics.snapshot();
+
+        assertEquals(1, snapshot.purchases());
+        assertEquals(2, snapshot.stageLatency(PurchaseStage.VALIDATION).count());
+        assertEquals(120, snapshot.stageLatency(PurchaseStage.VALIDATION).max());
+        assertEquals(0, snapshot.stageLatency(PurchaseStage.COST).count());
+        assertEquals(1, snapshot.rejections(RejectionReason.TOO_MANY_TICKETS));
+        assertEquals(0, snapshot.rejections(RejectionReason.SOLD_OUT));
+        assertEquals(1, snapshot.thirdPartyFailures(ThirdPartyService.PAYMENT));
+    }
+
+    @Test
+    void testPrometheusExport() {
+        LockFreePurchaseMetrics metrics = new LockFreePurchaseMetrics();
+        metrics.recordPurchase();
+        metrics.recordStage(PurchaseStage.RESERVE_SEAT, 1_500);
+        metrics.recordRejection(RejectionReason.UNACCOMPANIED_MINOR);
+
+        String text = metrics.snapshot().toPrometheusText();
+
+        assertTrue(text.contains("ticket_purchases_total 1\n"));
+        assertTrue(text.contains("ticket_purchase_stage_nanos_count{stage=\"reserve_seat\"} 1\n"));
+        assertTrue(text.contains("ticket_purchase_rejections_total{reason=\"unaccompanied_minor\"} 1\n"));
+        assertTrue(text.contains("ticket_third_party_failures_total{service=\"payment\"} 0\n"));
+    }
+
+    @Test
+    void testNoopRecorderHasEmptySnapshot() {
+        PurchaseMetrics.NOOP.recordPurchase();
+
+        assertEquals(MetricsSnapshot.EMPTY, PurchaseMetrics.NOOP.snapshot());
+    }
+
+    // Every stage of a purchase through the service is timed, and outcomes are counted
+    @Test
+    void testTicketServiceRecordsStagesAndOutcomes() {
+        TicketPaymentService paymentService = mock(TicketPaymentService.class);
+        SeatReservationService seatService = mock(SeatReservationService.class);
+        doThrow(new IllegalStateException("down")).when(seatService).reserveSeat(eq(9L), anyInt());
+        LockFreePurchaseMetrics metrics = new LockFreePurchaseMetrics();
+        TicketServiceImpl ticketService = new TicketServiceImpl(paymentService, seatService, metrics);
+        TicketTypeRequest adult = new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1);
+
+        ticketService.tryPurchase(1L, adult);
+        ticketService.tryPurchase(0L, adult);
+        ticketService.tryPurchase(9L, adult);
+        MetricsSnapshot snapshot = metrics.snapshot();
+
+        assertEquals(1, snapshot.purchases());
+        assertEquals(3, snapshot.stageLatency(PurchaseStage.AGGREGATION).count());
+        assertEquals(3, snapshot.stageLatency(PurchaseStage.VALIDATION).count());
+        assertEquals(2, snapshot.stageLatency(PurchaseStage.COST).count());
+        assertEquals(2, snapshot.stageLatency(PurchaseStage.RESERVE_SEAT).count());
+        assertEquals(1, snapshot.stageLatency(PurchaseStage.MAKE_PAYMENT).count());
+        assertEquals(1, snapshot.rejections(RejectionReason.INVALID_ACCOUNT_ID));
+        assertEquals(1, snapshot.thirdPartyFailures(ThirdPartyService.SEAT_RESERVATION));
+    }
+}
@@ -0,0 +1,130 @@
+package uk.gov.dwp.uc.pairtest.payment;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MicroBatchingPaymentServiceTest {
+
+    @Test
+    void testConcurrentPaymentsShareBatches() throws Exception {
+        SimulatedPaymentGateway gateway = new SimulatedPaymentGateway(Duration.ofMillis(5), 1);
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        BatchPaymentGateway recording = payments -> {
+            batchSizes.add(payments.size());
+            gateway.makePayments(payments);
+        };
+
+        try (MicroBatchingPaymentService service = new MicroBatchingPaymentService(recording, 16, Duration.ofMillis(2));
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> calls = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                long accountId = i + 1;
+                calls.add(executor.submit(() -> service.makePayment(accountId, 25)));
+            }
+            for (Future<?> call : calls) {
+                call.get(10, TimeUnit.SECONDS);
+            }
+        }
+
+        assertEquals(64, gateway.payments());
+        assertEquals(64, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(gateway.calls() < 64, "expected batching, got " + gateway.calls() + " calls");
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 16));
+    }
+
+    @Test
+    void testLoneCallerIsSentAfterMaxWait() {
+        List<List<Payment>> batches = new CopyOnWriteArrayList<>();
+
+        try (MicroBatchingPaymentService service =
+                 new MicroBatchingPaymentService(payments -> batches.add(List.copyOf(payments)), 100, Duration.ofNanos(200_000))) {
+            service.makePayment(7L, 40);
+        }
+
+        assertEquals(List.of(List.of(new Payment(7L, 40))), batches);
+    }
+
+    @Test
+    void testBatchFailureLeavesEachCallersOutcomeUnknown() throws Exception {
+        RuntimeException outage = new IllegalStateException("gateway down");
+
+        try (MicroBatchingPaymentService service = new MicroBatchingPaymentService(payments -> {
+                 throw outage;
+             }, 2, Duration.ofSeconds(5));
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<PaymentOutcomeUnknownException>> calls = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                long accountId = i + 1;
+                calls.add(executor.submit(() -> assertThrows(PaymentOutcomeUnknownException.class,
+                    () -> service.makePayment(accountId, 25))));
+            }
+            for (int i = 0; i < 2; i++) {
+                PaymentOutcomeUnknownException e = calls.get(i).get(10, TimeUnit.SECONDS);
+                assertSame(outage, e.getCause());
+                assertEquals(new Payment(i + 1, 25), e.getPayment());
+            }
+        }
+    }
+
+    @Test
+    void testCallerStopsWaitingAfterTimeout() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (MicroBatchingPaymentService service = new MicroBatchingPaymentService(payments -> {
+                 try {
+                     release.await();
+                 } catch (InterruptedException e) {
+                     Thread.currentThread().interrupt();
+                 }
+             }, 1, Duration.ZERO, Duration.ofMillis(50))) {
+            PaymentOutcomeUnknownException e = assertThrows(PaymentOutcomeUnknownException.class,
+                () -> service.makePayment(1L, 25));
+            assertInstanceOf(TimeoutException.class, e.getCause());
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testFlusherErrorCompletesEveryCaller() throws Exception {
+        AssertionError bug = new AssertionError("gateway bug");
+
+        try (MicroBatchingPaymentService service = new MicroBatchingPaymentService(payments -> {
+                 throw bug;
+             }, 1, Duration.ZERO)) {
+            PaymentOutcomeUnknownException e = assertThrows(PaymentOutcomeUnknownException.class,
+                () -> service.makePayment(1L, 25));
+            assertSame(bug, e.getCause());
+            assertThrows(IllegalStateException.class, () -> service.makePayment(2L, 25));
+        }
+    }
+
+    @Test
+    void testClosedServiceRefusesPaymentsAndInvalidSettings() {
+        MicroBatchingPaymentService service = new MicroBatchingPaymentService(payments -> { }, 4, Duration.ZERO);
+        service.close();
+
+        assertThrows(IllegalStateException.class, () -> service.makePayment(1L, 25));
+        assertThrows(IllegalArgumentException.class, () -> new MicroBatchingPaymentService(null, 4, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new MicroBatchingPaymentService(payments -> { }, 0, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class,
+            () -> new MicroBatchingPaymentService(payments -> { }, 4, Duration.ofMillis(-1)));
+        assertThrows(IllegalArgumentException.class,
+            () -> new MicroBatchingPaymentService(payments -> { }, 4, Duration.ZERO, Duration.ZERO));
+    }
+}
@@ -0,0 +1,123 @@
+package uk.gov.dwp.uc.pairtest.pricing;
+
+import org.junit.jupiter.api.Test;
+import uk.gov.dwp.uc.pairtest.calculation.CostCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriceRulesTest {
+
+    @Test
+    void testDefaultsMatchFlatPricing() {
+        CostCalculatorImpl flat = new CostCalculatorImpl();
+        for (int adults = 0; adults <= 25; adults++) {
+            for (int children = 0; children + adults <= 25; children++) {
+                TicketCounts counts = new TicketCounts(adults, children, Math.min(adults, 25 - adults - children));
+                assertEquals(flat.calculate(counts), PriceRules.DEFAULTS.calculate(counts, ShowType.IMAX, 21));
+            }
+        }
+    }
+
+    @Test
+    void testParsedRulesApplyShowTypeAndTimeOfDayModifiers() {
+        PriceRules rules = PriceRules.parse(properties(
+            "price.ADULT", "20",
+            "price.CHILD", "10",
+            "price.INFANT", "0",
+            "showType.IMAX", "+50",
+            "timeOfDay.10-13", "-20"
+        ));
+        TicketCounts counts = new TicketCounts(2, 1, 0); // £50 before modifiers
+
+        assertEquals(50, rules.calculate(counts, ShowType.STANDARD, 18));
+        assertEquals(75, rules.calculate(counts, ShowType.IMAX, 18));
+        assertEquals(40, rules.calculate(counts, ShowType.STANDARD, 10));
+        assertEquals(65, rules.calculate(counts, ShowType.IMAX, 12)); // +50% -20% = +30%
+        assertEquals(50, rules.calculate(counts, ShowType.STANDARD, 13));
+        assertEquals(75, rules.calculate(counts, ShowType.IMAX)); // no start time, so no time-of-day modifier
+    }
+
+    @Test
+    void testOverlappingTimeOfDayModifiersAddUp() {
+        PriceRules rules = PriceRules.builder()
+            .price(TicketTypeRequest.Type.ADULT, 10)
+            .timeOfDayModifier(20, 24, 10)
+            .timeOfDayModifier(22, 24, 10)
+            .build();
+
+        assertEquals(11, rules.calculate(new TicketCounts(1, 0, 0), ShowType.STANDARD, 21));
+        assertEquals(12, rules.calculate(new TicketCounts(1, 0, 0), ShowType.STANDARD, 23));
+    }
+
+    @Test
+    void testHighestGroupDiscountReachedApplies() {
+        PriceRules rules = PriceRules.parse(properties(
+            "price.ADULT", "10",
+            "price.CHILD", "5",
+            "price.INFANT", "0",
+            "groupDiscount.5", "10",
+            "groupDiscount.10", "20"
+        ));
+
+        assertEquals(40, rules.calculate(new TicketCounts(4, 0, 0), ShowType.STANDARD, 12));
+        assertEquals(45, rules.calculate(new TicketCounts(5, 0, 0), ShowType.STANDARD, 12));
+        assertEquals(81, rules.calculate(new TicketCounts(9, 0, 0), ShowType.STANDARD, 12));
+        assertEquals(200, rules.calculate(new TicketCounts(25, 0, 0), ShowType.STANDARD, 12));
+        assertEquals(1600, rules.calculate(new TicketCounts(200, 0, 0), ShowType.STANDARD, 12));
+    }
+
+    @Test
+    void testFractionalPoundsRoundHalfUp() {
+        PriceRules rules = PriceRules.builder()
+            .price(TicketTypeRequest.Type.CHILD, 15)
+            .showTypeModifier(ShowType.THREE_D, 10)
+            .build();
+
+        assertEquals(17, rules.calculate(new TicketCounts(0, 1, 0), ShowType.THREE_D, 0)); // £16.50
+    }
+
+    @Test
+    void testInvalidRulesAreRejectedWithTheOffendingKey() {
+        IllegalArgumentException unknownType = assertThrows(IllegalArgumentException.class,
+            () -> PriceRules.parse(properties("price.SENIOR", "10")));
+        assertTrue(unknownType.getMessage().contains("price.SENIOR"));
+
+        assertThrows(IllegalArgumentException.class, () -> PriceRules.parse(properties("price.ADULT", "-1")));
+        assertThrows(IllegalArgumentException.class, () -> PriceRules.parse(properties("price.ADULT", "ten")));
+        assertThrows(IllegalArgumentException.class, () -> PriceRules.parse(properties("timeOfDay.13-10", "5")));
+        assertThrows(IllegalArgumentException.class, () -> PriceRules.parse(properties("timeOfDay.20", "5")));
+        assertThrows(IllegalArgumentException.class, () -> PriceRules.parse(properties("groupDiscount.5", "150")));
+        assertThrows(IllegalArgumentException.class, () -> PriceRules.parse(properties("surcharge.ADULT", "5")));
+    }
+
+    @Test
+    void testEveryPriceIsRequired() {
+        IllegalArgumentException missing = assertThrows(IllegalArgumentException.class,
+            () -> PriceRules.parse(properties("price.ADULT", "20", "price.CHILD", "10")));
+        assertTrue(missing.getMessage().contains("price.INFANT"));
+        assertThrows(IllegalArgumentException.class, () -> PriceRules.parse(properties("price.ADULT", "20")));
+    }
+
+    @Test
+    void testHourOfDayOutsideTheDayIsRejected() {
+        TicketCounts counts = new TicketCounts(1, 0, 0);
+
+        assertThrows(IllegalArgumentException.class, () -> PriceRules.DEFAULTS.calculate(counts, ShowType.STANDARD, -1));
+        assertThrows(IllegalArgumentException.class, () -> PriceRules.DEFAULTS.calculate(counts, ShowType.STANDARD, 24));
+        assertEquals(25, PriceRules.DEFAULTS.calculate(counts, ShowType.STANDARD, 23));
+    }
+
+    private static Properties properties(String... keyValues) {
+        Properties properties = new Properties();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            properties.setProperty(keyValues[i], keyValues[i + 1]);
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,116 @@
+package uk.gov.dwp.uc.pairtest.pricing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.gov.dwp.uc.pairtest.calculation.SeatCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.quote.QuoteEngine;
+import uk.gov.dwp.uc.pairtest.validation.TicketValidatorImpl;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PricingEngineTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testDefaultEngineUsesFlatPrices() {
+        PricingEngine engine = new PricingEngine();
+
+        assertEquals(65, engine.calculate(new TicketCounts(2, 1, 1)));
+        assertEquals(65, engine.calculate(Map.of(TicketTypeRequest.Type.ADULT, 2, TicketTypeRequest.Type.CHILD, 1)));
+    }
+
+    @Test
+    void testKeysTimeOfDayOnTheShowStartNotTheClock() {
+        PriceRules rules = PriceRules.builder()
+            .price(TicketTypeRequest.Type.ADULT, 10)
+            .showTypeModifier(ShowType.PREMIUM, 100)
+            .timeOfDayModifier(0, 24, -50)
+            .build();
+        PricingEngine engine = new PricingEngine(rules, ShowType.PREMIUM);
+
+        assertEquals(20, engine.calculate(new TicketCounts(1, 0, 0)));
+        assertEquals(15, engine.calculate(new TicketCounts(1, 0, 0), ShowType.PREMIUM, LocalTime.of(11, 30)));
+        assertEquals(5, engine.calculate(new TicketCounts(1, 0, 0), ShowType.STANDARD, 11));
+    }
+
+    @Test
+    void testQuotesDoNotDependOnWhenTheyWereBuilt() {
+        PriceRules rules = PriceRules.builder()
+            .price(TicketTypeRequest.Type.ADULT, 10)
+            .timeOfDayModifier(0, 24, -50)
+            .build();
+        PricingEngine engine = new PricingEngine(rules);
+        QuoteEngine quotes = new QuoteEngine(new TicketValidatorImpl(), engine, new SeatCalculatorImpl());
+        engine.onUpdate(quotes::rebuild);
+
+        engine.update(rules);
+
+        assertEquals(20, quotes.costCalculator().calculate(new TicketCounts(2, 0, 0)));
+        assertEquals(10, engine.calculate(new TicketCounts(2, 0, 0), ShowType.STANDARD, LocalTime.NOON));
+    }
+
+    @Test
+    void testUpdateSwapsRulesAndNotifiesListeners() {
+        PricingEngine engine = new PricingEngine();
+        QuoteEngine quotes = new QuoteEngine(new TicketValidatorImpl(),
+            engine, new SeatCalculatorImpl());
+        engine.onUpdate(quotes::rebuild);
+
+        engine.update(PriceRules.builder().price(TicketTypeRequest.Type.ADULT, 30).build());
+
+        assertEquals(60, engine.calculate(new TicketCounts(2, 0, 0)));
+        assertEquals(60, quotes.costCalculator().calculate(new TicketCounts(2, 0, 0)));
+        assertThrows(IllegalArgumentException.class, () -> engine.update(null));
+    }
+
+    @Test
+    void testWatcherReloadsChangedFileAndKeepsRulesOnBadFile() throws Exception {
+        Path file = tempDir.resolve("prices.properties");
+        Files.writeString(file, prices(20));
+        PricingEngine engine = new PricingEngine();
+
+        try (PriceRulesWatcher watcher = new PriceRulesWatcher(file, engine)) {
+            assertEquals(20, engine.rules().price(TicketTypeRequest.Type.ADULT));
+
+            Files.writeString(file, prices(22));
+            long deadline = System.nanoTime() + 10_000_000_000L;
+            while (engine.rules().price(TicketTypeRequest.Type.ADULT) != 22 && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(22, engine.rules().price(TicketTypeRequest.Type.ADULT));
+
+            PriceRules current = engine.rules();
+            Files.writeString(file, "price.ADULT=free\n");
+            assertFalse(watcher.reload());
+            assertSame(current, engine.rules());
+            Files.writeString(file, "");
+            assertFalse(watcher.reload());
+            assertSame(current, engine.rules());
+
+            Files.writeString(file, "price.ADULT=24\n");
+            assertFalse(watcher.reload());
+            assertSame(current, engine.rules());
+
+            Files.writeString(file, prices(24));
+            assertTrue(watcher.reload());
+            assertEquals(24, engine.rules().price(TicketTypeRequest.Type.ADULT));
+        }
+    }
+
+    private static String prices(int adultPrice) {
+        return "price.ADULT=" + adultPrice + "\nprice.CHILD=15\nprice.INFANT=0\n";
+    }
+}
@@ -0,0 +1,137 @@
+package uk.gov.dwp.uc.pairtest.quote;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.calculation.CostCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.calculation.SeatCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.TicketPurchaseException;
+import uk.gov.dwp.uc.pairtest.ledger.AccountLedger;
+import uk.gov.dwp.uc.pairtest.ledger.AccountLimits;
+import uk.gov.dwp.uc.pairtest.validation.TicketValidatorImpl;
+import uk.gov.dwp.uc.pairtest.validation.ValidationRule;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class QuoteEngineTest {
+
+    private TicketValidatorImpl validator;
+    private CostCalculatorImpl costCalculator;
+    private SeatCalculatorImpl seatCalculator;
+    private QuoteEngine quoteEngine;
+
+    @BeforeEach
+    void setUp() {
+        validator = new TicketValidatorImpl();
+        costCalculator = new CostCalculatorImpl();
+        seatCalculator = new SeatCalculatorImpl();
+        quoteEngine = new QuoteEngine(validator, costCalculator, seatCalculator);
+    }
+
+    // Every mix in and just outside the table gives the same answer as the real implementations
+    @Test
+    void testMatchesSourceImplementationsForEveryMix() {
+        for (int adults = -1; adults <= 27; adults++) {
+            for (int children = -1; children <= 27; children++) {
+                for (int infants = -1; infants <= 27; infants++) {
+                    TicketCounts counts = new TicketCounts(adults, children, infants);
+                    assertEquals(validator.check(7L, counts), quoteEngine.validator().check(7L, counts), counts::toString);
+                    assertEquals(costCalculator.calculate(counts), quoteEngine.costCalculator().calculate(counts), counts::toString);
+                    assertEquals(seatCalculator.calculate(counts), quoteEngine.seatCalculator().calculate(counts), counts::toString);
+                }
+            }
+        }
+    }
+
+    // Building the table probes every mix without counting them as rejections of real orders
+    @Test
+    void testBuildingLeavesValidationStatisticsUntouched() {
+        quoteEngine.rebuild();
+
+        assertTrue(validator.pipeline().statistics().stream().allMatch(stats -> stats.rejections() == 0));
+        assertEquals(RejectionReason.TOO_MANY_INFANTS, quoteEngine.validator().probe(7L, new TicketCounts(1, 0, 2)));
+        assertEquals(RejectionReason.TOO_MANY_TICKETS, quoteEngine.validator().probe(7L, new TicketCounts(30, 0, 0)));
+        assertEquals(RejectionReason.NULL_ACCOUNT_ID, quoteEngine.validator().probe(null, new TicketCounts(1, 0, 0)));
+        assertTrue(validator.pipeline().statistics().stream().allMatch(stats -> stats.rejections() == 0));
+    }
+
+    @Test
+    void testAccountChecksAreNotTabulated() {
+        TicketCounts counts = new TicketCounts(1, 0, 0);
+
+        assertEquals(RejectionReason.NULL_ACCOUNT_ID, quoteEngine.validator().check(null, counts));
+        assertEquals(RejectionReason.INVALID_ACCOUNT_ID, quoteEngine.validator().check(0L, counts));
+        assertEquals(RejectionReason.NO_TICKETS, quoteEngine.validator().check(1L, null));
+    }
+
+    @Test
+    void testRefusesValidatorsThatDependOnAccountHistory() {
+        AccountLedger ledger = new AccountLedger(AccountLimits.daily(5, 1000));
+        TicketValidatorImpl limited = new TicketValidatorImpl(25, new ValidationRule.AccountLimits(ledger));
+
+        assertFalse(limited.isStateless());
+        assertThrows(IllegalArgumentException.class, () -> new QuoteEngine(limited, costCalculator, seatCalculator));
+        assertThrows(IllegalArgumentException.class, () -> quoteEngine.reconfigure(limited, costCalculator, seatCalculator, 25));
+        assertNull(quoteEngine.validator().check(1L, new TicketCounts(1, 0, 0)));
+    }
+
+    @Test
+    void testThrowingValidationKeepsDetailedMessages() {
+        TicketPurchaseException e = assertThrows(TicketPurchaseException.class,
+            () -> quoteEngine.validator().validate(1L, new TicketCounts(20, 6, 0)));
+
+        assertEquals("Cannot purchase more than 25 tickets at once. Requested: 26", e.getMessage());
+    }
+
+    @Test
+    void testRebuildPicksUpChangedPrices() {
+        AtomicInteger adultPrice = new AtomicInteger(25);
+        QuoteEngine engine = new QuoteEngine(validator,
+            ticketCounts -> ticketCounts.getOrDefault(TicketTypeRequest.Type.ADULT, 0) * adultPrice.get(),
+            seatCalculator, 25);
+        TicketCounts twoAdults = new TicketCounts(2, 0, 0);
+        assertEquals(50, engine.costCalculator().calculate(twoAdults));
+
+        adultPrice.set(30);
+        assertEquals(50, engine.costCalculator().calculate(twoAdults)); // stale until rebuilt
+        engine.rebuild();
+
+        assertEquals(60, engine.costCalculator().calculate(twoAdults));
+    }
+
+    @Test
+    void testReconfigureWithNewLimit() {
+        quoteEngine.reconfigure(new TicketValidatorImpl(30), costCalculator, seatCalculator, 30);
+
+        assertNull(quoteEngine.validator().check(1L, new TicketCounts(28, 0, 0)));
+        assertEquals(RejectionReason.TOO_MANY_TICKETS, quoteEngine.validator().check(1L, new TicketCounts(31, 0, 0)));
+        assertThrows(IllegalArgumentException.class, () -> quoteEngine.reconfigure(validator, costCalculator, seatCalculator, 0));
+    }
+
+    @Test
+    void testSelectableInTicketService() {
+        TicketPaymentService paymentService = mock(TicketPaymentService.class);
+        SeatReservationService seatService = mock(SeatReservationService.class);
+        TicketServiceImpl ticketService = new TicketServiceImpl(paymentService, seatService,
+            quoteEngine.validator(), quoteEngine.costCalculator(), quoteEngine.seatCalculator());
+
+        PurchaseResult result = ticketService.tryPurchase(5L,
+            new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2),
+            new TicketTypeRequest(TicketTypeRequest.Type.CHILD, 1),
+            new TicketTypeRequest(TicketTypeRequest.Type.INFANT, 1));
+
+        assertEquals(new PurchaseResult.Success(5L, 65, 3), result);
+        verify(seatService).reserveSeat(5L, 3);
+        verify(paymentService).makePayment(5L, 65);
+    }
+}
@@ -0,0 +1,109 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void testRefusesCallsBeyondLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 2.0);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.inFlight());
+    }
+
+    @Test
+    void testFastCallsUnderLoadGrowTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 10, 2.0);
+        long now = 0;
+
+        for (int i = 0; i < 40; i++) {
+            fill(limiter);
+            for (int j = 0; j < limiter.limit(); j++) {
+                limiter.release(1_000, true, now += 1_000);
+            }
+        }
+
+        assertEquals(10, limiter.limit());
+        assertEquals(1_000, limiter.minRttNanos());
+    }
+
+    @Test
+    void testIdleLimitDoesNotGrow() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 10, 2.0);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(1_000, true, i * 1_000L);
+        }
+
+        assertEquals(4, limiter.limit());
+    }
+
+    @Test
+    void testSlowCallsAndFailuresCutTheLimitOncePerRoundTrip() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 10, 2.0);
+        limiter.tryAcquire();
+        limiter.release(1_000, true, 1_000);
+
+        fill(limiter);
+        limiter.release(5_000, true, 10_000);
+        limiter.release(5_000, true, 11_000);
+        assertEquals(9, limiter.limit());
+
+        limiter.release(5_000, false, 20_000);
+        assertEquals(8, limiter.limit());
+
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire();
+            limiter.release(5_000, false, 30_000 + i * 10_000L);
+        }
+        assertEquals(2, limiter.limit());
+    }
+
+    // A service that settles at a slower speed is only held to its old best for one window
+    @Test
+    void testFastestCallIsForgottenAfterItsWindow() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 10, 2.0, Duration.ofNanos(100_000));
+        limiter.tryAcquire();
+        limiter.release(1_000, true, 1_000);
+        limiter.tryAcquire();
+        limiter.release(5_000, true, 50_000);
+        assertEquals(1_000, limiter.minRttNanos());
+        assertEquals(9, limiter.limit());
+
+        limiter.tryAcquire();
+        limiter.release(5_000, true, 101_000);
+        assertEquals(5_000, limiter.minRttNanos());
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.release(6_000, true, 110_000 + i * 10_000L);
+        }
+        assertEquals(5_000, limiter.minRttNanos());
+        assertEquals(9, limiter.limit());
+    }
+
+    @Test
+    void testRejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(1, 2, 10, 2.0));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(20, 2, 10, 2.0));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(5, 0, 10, 2.0));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(5, 1, 10, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(5, 1, 10, 2.0, Duration.ZERO));
+    }
+
+    private static void fill(AdaptiveConcurrencyLimiter limiter) {
+        while (limiter.tryAcquire()) {
+            // take every slot
+        }
+    }
+}
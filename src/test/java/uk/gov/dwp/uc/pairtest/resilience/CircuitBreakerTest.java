@@ -0,0 +1,99 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker(3, 1_000, now::get);
+
+    @Test
+    void testOpensAfterConsecutiveFailures() {
+        breaker.onFailure(CircuitBreaker.Permit.CALL);
+        breaker.onFailure(CircuitBreaker.Permit.CALL);
+        breaker.onSuccess(CircuitBreaker.Permit.CALL);
+        breaker.onFailure(CircuitBreaker.Permit.CALL);
+        breaker.onFailure(CircuitBreaker.Permit.CALL);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+
+        breaker.onFailure(CircuitBreaker.Permit.CALL);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertEquals(CircuitBreaker.Permit.REFUSED, breaker.tryAcquire());
+    }
+
+    @Test
+    void testSingleTrialAfterOpenDurationClosesOnSuccess() {
+        open();
+        now.addAndGet(1_000);
+
+        assertEquals(CircuitBreaker.Permit.TRIAL, breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertEquals(CircuitBreaker.Permit.REFUSED, breaker.tryAcquire());
+
+        breaker.onSuccess(CircuitBreaker.Permit.TRIAL);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(CircuitBreaker.Permit.CALL, breaker.tryAcquire());
+    }
+
+    @Test
+    void testFailedTrialReopensForAnotherFullPeriod() {
+        open();
+        now.addAndGet(1_000);
+        assertEquals(CircuitBreaker.Permit.TRIAL, breaker.tryAcquire());
+
+        breaker.onFailure(CircuitBreaker.Permit.TRIAL);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        now.addAndGet(999);
+        assertEquals(CircuitBreaker.Permit.REFUSED, breaker.tryAcquire());
+        now.addAndGet(1);
+        assertEquals(CircuitBreaker.Permit.TRIAL, breaker.tryAcquire());
+    }
+
+    @Test
+    void testReleasedTrialCanBeRetriedStraightAway() {
+        open();
+        now.addAndGet(1_000);
+        assertEquals(CircuitBreaker.Permit.TRIAL, breaker.tryAcquire());
+
+        breaker.release(CircuitBreaker.Permit.TRIAL);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertEquals(CircuitBreaker.Permit.TRIAL, breaker.tryAcquire());
+    }
+
+    // Calls let through before the breaker opened finish while the trial is out; only the trial decides
+    @Test
+    void testCallsFromBeforeOpeningCannotDecideTheTrial() {
+        open();
+        now.addAndGet(1_000);
+        assertEquals(CircuitBreaker.Permit.TRIAL, breaker.tryAcquire());
+
+        breaker.onSuccess(CircuitBreaker.Permit.CALL);
+        breaker.onFailure(CircuitBreaker.Permit.CALL);
+        breaker.release(CircuitBreaker.Permit.CALL);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+
+        breaker.onSuccess(CircuitBreaker.Permit.TRIAL);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void testRejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker(0, 1_000, now::get));
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker(1, 0, now::get));
+    }
+
+    private void open() {
+        for (int i = 0; i < 3; i++) {
+            breaker.onFailure(CircuitBreaker.Permit.CALL);
+        }
+    }
+}
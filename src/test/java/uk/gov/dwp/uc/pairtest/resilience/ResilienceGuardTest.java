@@ -0,0 +1,124 @@
+package uk.gov.dwp.uc.pairtest.resilience;
+
+import org.junit.jupiter.api.Test;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.TicketPurchaseException;
+import uk.gov.dwp.uc.pairtest.metrics.ThirdPartyService;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ResilienceGuardTest {
+
+    private static final ResilienceOptions OPTIONS = new ResilienceOptions(1, 2, Duration.ofSeconds(1), 5, 1, 10, 2.0);
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void testOpenCircuitFailsFastWithoutCallingService() {
+        TicketPaymentService payments = mock(TicketPaymentService.class);
+        doThrow(new IllegalStateException("gateway down")).when(payments).makePayment(anyLong(), anyInt());
+        ResilientTicketPaymentService resilient =
+            new ResilientTicketPaymentService(payments, new ResilienceGuard(ThirdPartyService.PAYMENT, OPTIONS, now::get));
+
+        assertThrows(IllegalStateException.class, () -> resilient.makePayment(1L, 25));
+        assertThrows(IllegalStateException.class, () -> resilient.makePayment(1L, 25));
+        CallRejectedException rejected = assertThrows(CallRejectedException.class, () -> resilient.makePayment(1L, 25));
+
+        assertEquals(CallRejectedException.Reason.CIRCUIT_OPEN, rejected.getReason());
+        assertEquals(ThirdPartyService.PAYMENT, rejected.getService());
+        verify(payments, times(2)).makePayment(1L, 25);
+        ResilienceSnapshot snapshot = resilient.snapshot();
+        assertEquals(CircuitBreaker.State.OPEN, snapshot.circuitState());
+        assertEquals(1, snapshot.rejectedCalls(CallRejectedException.Reason.CIRCUIT_OPEN));
+    }
+
+    @Test
+    void testServiceRejectionIsNotTreatedAsFailure() {
+        SeatReservationService seats = mock(SeatReservationService.class);
+        doThrow(new TicketPurchaseException(RejectionReason.SOLD_OUT)).when(seats).reserveSeat(anyLong(), anyInt());
+        ResilientSeatReservationService resilient = new ResilientSeatReservationService(seats,
+            new ResilienceGuard(ThirdPartyService.SEAT_RESERVATION, OPTIONS, now::get));
+
+        for (int i = 0; i < 5; i++) {
+            assertThrows(TicketPurchaseException.class, () -> resilient.reserveSeat(1L, 2));
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, resilient.snapshot().circuitState());
+    }
+
+    @Test
+    void testFullBulkheadRefusesConcurrentCall() throws Exception {
+        CountDownLatch inCall = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ResilienceGuard guard = new ResilienceGuard(ThirdPartyService.SEAT_RESERVATION, OPTIONS);
+        Thread slowCall = Thread.ofVirtual().start(() -> guard.run(() -> {
+            inCall.countDown();
+            try {
+                finish.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        inCall.await();
+
+        CallRejectedException rejected = assertThrows(CallRejectedException.class, () -> guard.run(() -> { }));
+
+        assertEquals(CallRejectedException.Reason.BULKHEAD_FULL, rejected.getReason());
+        assertEquals(0, guard.snapshot().bulkheadAvailable());
+        assertEquals(1, guard.snapshot().inFlight());
+        finish.countDown();
+        slowCall.join();
+        assertEquals(1, guard.snapshot().bulkheadAvailable());
+    }
+
+    @Test
+    void testRejectedCallIsReportedAsThirdPartyFailureByTicketService() {
+        ResilienceGuard guard = new ResilienceGuard(ThirdPartyService.PAYMENT, OPTIONS, now::get);
+        TicketPaymentService failing = (accountId, amount) -> {
+            throw new IllegalStateException("gateway down");
+        };
+        TicketServiceImpl service = new TicketServiceImpl(new ResilientTicketPaymentService(failing, guard),
+            mock(SeatReservationService.class));
+        TicketTypeRequest adult = new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1);
+        service.tryPurchase(1L, adult);
+        service.tryPurchase(1L, adult);
+
+        PurchaseResult result = service.tryPurchase(1L, adult);
+
+        PurchaseResult.Failed failed = assertInstanceOf(PurchaseResult.Failed.class, result);
+        assertSame(CallRejectedException.class, failed.cause().getClass());
+    }
+
+    @Test
+    void testSnapshotExportsPrometheusText() {
+        ResilienceGuard guard = new ResilienceGuard(ThirdPartyService.SEAT_RESERVATION, OPTIONS, now::get);
+        guard.run(() -> { });
+        StringBuilder out = new StringBuilder();
+
+        guard.snapshot().export(out);
+
+        String text = out.toString();
+        assertTrue(text.contains("ticket_third_party_circuit_state{service=\"seat_reservation\",state=\"closed\"} 1\n"));
+        assertTrue(text.contains("ticket_third_party_concurrency_limit{service=\"seat_reservation\"} 5\n"));
+        assertTrue(text.contains("ticket_third_party_rejected_calls_total{service=\"seat_reservation\",reason=\"bulkhead_full\"} 0\n"));
+    }
+}
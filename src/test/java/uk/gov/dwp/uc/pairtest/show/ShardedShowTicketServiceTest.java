@@ -0,0 +1,261 @@
+package uk.gov.dwp.uc.pairtest.show;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.PurchaseListener;
+import uk.gov.dwp.uc.pairtest.ShowAvailabilityService;
+import uk.gov.dwp.uc.pairtest.calculation.CostCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.calculation.SeatCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.compensation.PurchaseCompensator;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.TicketPurchaseException;
+import uk.gov.dwp.uc.pairtest.journal.PurchaseJournal;
+import uk.gov.dwp.uc.pairtest.metrics.PurchaseMetrics;
+import uk.gov.dwp.uc.pairtest.validation.TicketValidatorImpl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ShardedShowTicketServiceTest {
+
+    private static final TicketTypeRequest TWO_ADULTS = new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 2);
+
+    private final TicketPaymentService payments = mock(TicketPaymentService.class);
+    private final SeatReservationService seats = mock(SeatReservationService.class);
+    private final ShardedShowTicketService service = new ShardedShowTicketService(payments, seats, 4, 1024, PurchaseMetrics.NOOP);
+
+    @AfterEach
+    void tearDown() {
+        service.close();
+    }
+
+    @Test
+    void testPurchasesSeatsForTheShow() {
+        service.addShow(1L, 100).join();
+
+        PurchaseResult result = service.purchaseTickets(1L, 7L, TWO_ADULTS, new TicketTypeRequest(TicketTypeRequest.Type.INFANT, 1)).join();
+
+        assertEquals(new PurchaseResult.Success(7L, 50, 2), result);
+        assertEquals(98, service.remainingSeats(1L).join());
+        verify(seats).reserveSeat(7L, 2);
+        verify(payments).makePayment(7L, 50);
+    }
+
+    @Test
+    void testNeverOversellsUnderConcurrentPurchases() {
+        for (long show = 1; show <= 8; show++) {
+            service.addShow(show, 50).join();
+        }
+        List<CompletableFuture<PurchaseResult>> results = new ArrayList<>();
+        try (ExecutorService callers = Executors.newFixedThreadPool(8)) {
+            List<CompletableFuture<List<CompletableFuture<PurchaseResult>>>> perCaller = new ArrayList<>();
+            for (int caller = 0; caller < 8; caller++) {
+                perCaller.add(CompletableFuture.supplyAsync(() -> {
+                    List<CompletableFuture<PurchaseResult>> mine = new ArrayList<>();
+                    for (int i = 0; i < 200; i++) {
+                        mine.add(service.purchaseTickets(1 + i % 8, (long) i + 1, TWO_ADULTS));
+                    }
+                    return mine;
+                }, callers));
+            }
+            perCaller.forEach(future -> results.addAll(future.join()));
+        }
+
+        long succeeded = results.stream().map(CompletableFuture::join).filter(PurchaseResult::isSuccess).count();
+        assertEquals(8 * 25, succeeded);
+        assertEquals(8 * 200 - 8 * 25, results.stream().map(CompletableFuture::join)
+            .filter(PurchaseResult.Rejected.of(RejectionReason.SOLD_OUT)::equals).count());
+        for (long show = 1; show <= 8; show++) {
+            assertEquals(0, service.remainingSeats(show).join());
+        }
+    }
+
+    @Test
+    void testReturnsSeatsOfFailedPurchases() {
+        service.addShow(1L, 2).join();
+        IllegalStateException outage = new IllegalStateException("gateway down");
+        doThrow(outage).doNothing().when(payments).makePayment(1L, 50);
+
+        assertEquals(new PurchaseResult.Failed(outage), service.purchaseTickets(1L, 1L, TWO_ADULTS).join());
+
+        assertTrue(service.purchaseTickets(1L, 1L, TWO_ADULTS).join().isSuccess());
+        assertEquals(PurchaseResult.Rejected.of(RejectionReason.SOLD_OUT), service.purchaseTickets(1L, 1L, TWO_ADULTS).join());
+    }
+
+    @Test
+    void testRejectsLocallyBeforeRouting() {
+        service.addShow(1L, 3).join();
+
+        assertEquals(PurchaseResult.Rejected.of(RejectionReason.UNACCOMPANIED_MINOR),
+            service.purchaseTickets(1L, 1L, new TicketTypeRequest(TicketTypeRequest.Type.CHILD, 1)).join());
+        assertEquals(PurchaseResult.Rejected.of(RejectionReason.UNKNOWN_SHOW), service.purchaseTickets(2L, 1L, TWO_ADULTS).join());
+        assertTrue(service.purchaseTickets(1L, 1L, TWO_ADULTS).join().isSuccess());
+        assertEquals(PurchaseResult.Rejected.of(RejectionReason.NOT_ENOUGH_SEATS), service.purchaseTickets(1L, 1L, TWO_ADULTS).join());
+        verify(seats, times(1)).reserveSeat(anyLong(), anyInt());
+    }
+
+    @Test
+    void testShowsAreOwnedByOneShard() {
+        assertEquals(service.shardOf(42L), service.shardOf(42L));
+        assertEquals(4, java.util.stream.LongStream.range(0, 64).mapToInt(service::shardOf).distinct().count());
+
+        service.addShow(1L, 10).join();
+        CompletionException e = assertThrows(CompletionException.class, () -> service.addShow(1L, 10).join());
+        assertInstanceOf(IllegalArgumentException.class, e.getCause());
+        assertThrows(CompletionException.class, () -> service.remainingSeats(99L).join());
+    }
+
+    @Test
+    void testCompletesInFlightPurchasesOnClose() {
+        service.addShow(1L, 10).join();
+        doAnswer(invocation -> {
+            Thread.sleep(100);
+            return null;
+        }).when(payments).makePayment(anyLong(), anyInt());
+
+        CompletableFuture<PurchaseResult> inFlight = service.purchaseTickets(1L, 1L, TWO_ADULTS);
+        service.close();
+
+        assertTrue(inFlight.isDone());
+        assertTrue(inFlight.join().isSuccess());
+        PurchaseResult.Failed failed = assertInstanceOf(PurchaseResult.Failed.class, service.purchaseTickets(1L, 1L, TWO_ADULTS).join());
+        assertInstanceOf(IllegalStateException.class, failed.cause());
+    }
+
+    @Test
+    void testAvailabilityIsPublishedInBatches() {
+        try (ShardedShowTicketService batching = withPublication(new PublicationPolicy(Duration.ofHours(1), 3))) {
+            batching.addShow(1L, 100).join();
+            assertEquals(100, batching.availableSeats(1L));
+            assertEquals(ShowAvailabilityService.NOT_ON_SALE, batching.availableSeats(2L));
+            long version = batching.availability(1L).version();
+
+            batching.purchaseTickets(1L, 1L, TWO_ADULTS).join();
+            batching.purchaseTickets(1L, 2L, TWO_ADULTS).join();
+            assertEquals(96, batching.remainingSeats(1L).join());
+            assertEquals(100, batching.availableSeats(1L));
+
+            batching.purchaseTickets(1L, 3L, TWO_ADULTS).join();
+            awaitAvailableSeats(batching, 1L, 94);
+            assertEquals(version + 1, batching.availability(1L).version());
+        }
+    }
+
+    @Test
+    void testAvailabilityLagsPurchasesByAtMostTheStalenessBound() {
+        try (ShardedShowTicketService bounded = withPublication(new PublicationPolicy(Duration.ofMillis(20), Integer.MAX_VALUE))) {
+            bounded.addShow(1L, 100).join();
+            bounded.addShow(2L, 50).join();
+
+            bounded.purchaseTickets(1L, 1L, TWO_ADULTS).join();
+
+            awaitAvailableSeats(bounded, 1L, 98);
+            assertEquals(50, bounded.availableSeats(2L));
+        }
+    }
+
+    @Test
+    void testNotifiesListenerOfPurchasesAndRejectionsPerShow() {
+        PurchaseListener listener = mock(PurchaseListener.class);
+        TicketCounts twoAdults = new TicketCounts(2, 0, 0);
+        try (ShardedShowTicketService notifying = new ShardedShowTicketService(payments, seats, new TicketValidatorImpl(),
+                new CostCalculatorImpl(), new SeatCalculatorImpl(), 2, 1024, PurchaseMetrics.NOOP, PublicationPolicy.DEFAULTS,
+                listener)) {
+            notifying.addShow(1L, 2).join();
+
+            notifying.purchaseTickets(1L, 1L, TWO_ADULTS).join();
+            notifying.purchaseTickets(1L, 2L, TWO_ADULTS).join();
+            notifying.purchaseTickets(2L, 2L, new TicketTypeRequest(TicketTypeRequest.Type.CHILD, 1)).join();
+            notifying.purchaseTickets(2L, 3L, TWO_ADULTS).join();
+        }
+
+        verify(listener).purchased(1L, 1L, twoAdults, 50);
+        verify(listener).rejected(1L, 2L, twoAdults, RejectionReason.SOLD_OUT);
+        verify(listener).rejected(2L, 2L, new TicketCounts(0, 1, 0), RejectionReason.UNACCOMPANIED_MINOR);
+        verify(listener).rejected(2L, 3L, twoAdults, RejectionReason.UNKNOWN_SHOW);
+        verifyNoMoreInteractions(listener);
+    }
+
+    @Test
+    void testThrowingListenerDoesNotStrandPurchases() {
+        PurchaseListener listener = mock(PurchaseListener.class);
+        doThrow(new IllegalStateException("store closed")).when(listener).purchased(anyLong(), anyLong(), any(), anyInt());
+        ShardedShowTicketService notifying = new ShardedShowTicketService(payments, seats, new TicketValidatorImpl(),
+            new CostCalculatorImpl(), new SeatCalculatorImpl(), 2, 1024, PurchaseMetrics.NOOP, PublicationPolicy.DEFAULTS,
+            listener);
+        notifying.addShow(1L, 10).join();
+
+        PurchaseResult result = notifying.purchaseTickets(1L, 1L, TWO_ADULTS).orTimeout(5, TimeUnit.SECONDS).join();
+
+        assertTrue(result.isSuccess());
+        awaitAvailableSeats(notifying, 1L, 8);
+        assertTimeoutPreemptively(Duration.ofSeconds(5), notifying::close);
+    }
+
+    @Test
+    void testCompensatesAPaymentThatFailsAfterReserving() {
+        PurchaseJournal journal = mock(PurchaseJournal.class);
+        PurchaseCompensator compensator = mock(PurchaseCompensator.class);
+        when(journal.begin(1L, 50, 2)).thenReturn(9L);
+        doThrow(new TicketPurchaseException(RejectionReason.INVALID_PURCHASE)).when(payments).makePayment(1L, 50);
+        try (ShardedShowTicketService compensating = new ShardedShowTicketService(payments, seats, new TicketValidatorImpl(),
+                new CostCalculatorImpl(), new SeatCalculatorImpl(), 2, 1024, PurchaseMetrics.NOOP, PublicationPolicy.DEFAULTS,
+                PurchaseListener.NONE, journal, compensator)) {
+            compensating.addShow(1L, 2).join();
+
+            assertEquals(PurchaseResult.Rejected.of(RejectionReason.INVALID_PURCHASE),
+                compensating.purchaseTickets(1L, 1L, TWO_ADULTS).join());
+
+            assertEquals(2, compensating.remainingSeats(1L).join());
+        }
+        verify(compensator).releaseSeats(1L, 2);
+        verify(journal).reserved(9L);
+        verify(journal).compensated(9L);
+        verifyNoMoreInteractions(compensator);
+    }
+
+    @Test
+    void testListenerThrowingOnRejectionDoesNotKillTheShard() {
+        PurchaseListener listener = mock(PurchaseListener.class);
+        doThrow(new IllegalStateException("store closed")).when(listener).rejected(anyLong(), any(), any(), any());
+        ShardedShowTicketService notifying = new ShardedShowTicketService(payments, seats, new TicketValidatorImpl(),
+            new CostCalculatorImpl(), new SeatCalculatorImpl(), 1, 1024, PurchaseMetrics.NOOP, PublicationPolicy.DEFAULTS,
+            listener);
+
+        assertEquals(PurchaseResult.Rejected.of(RejectionReason.UNACCOMPANIED_MINOR),
+            notifying.purchaseTickets(1L, 1L, new TicketTypeRequest(TicketTypeRequest.Type.CHILD, 1)).join());
+        assertEquals(PurchaseResult.Rejected.of(RejectionReason.UNKNOWN_SHOW),
+            notifying.purchaseTickets(1L, 1L, TWO_ADULTS).orTimeout(5, TimeUnit.SECONDS).join());
+
+        notifying.addShow(1L, 10).orTimeout(5, TimeUnit.SECONDS).join();
+        assertTrue(notifying.purchaseTickets(1L, 1L, TWO_ADULTS).orTimeout(5, TimeUnit.SECONDS).join().isSuccess());
+        assertTimeoutPreemptively(Duration.ofSeconds(5), notifying::close);
+    }
+
+    private ShardedShowTicketService withPublication(PublicationPolicy policy) {
+        return new ShardedShowTicketService(payments, seats, new TicketValidatorImpl(), new CostCalculatorImpl(),
+            new SeatCalculatorImpl(), 2, 1024, PurchaseMetrics.NOOP, policy);
+    }
+
+    private static void awaitAvailableSeats(ShardedShowTicketService service, long showId, int expected) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (service.availableSeats(showId) != expected && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(expected, service.availableSeats(showId));
+    }
+}
@@ -0,0 +1,126 @@
+package uk.gov.dwp.uc.pairtest.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulatedDependencyTest {
+
+    @Test
+    void testSameSeedGivesSameOutcomes() {
+        SimulationOptions options = SimulationOptions.DEFAULTS.withErrorRate(0.3).withSeed(17);
+
+        assertEquals(outcomes(new SimulatedDependency("Payment", options), 200),
+            outcomes(new SimulatedDependency("Payment", options), 200));
+        assertNotEquals(outcomes(new SimulatedDependency("Payment", options), 200),
+            outcomes(new SimulatedDependency("Payment", options.withSeed(18)), 200));
+    }
+
+    @Test
+    void testInjectsErrorsAtTheConfiguredRate() {
+        SimulatedDependency dependency = new SimulatedDependency("Payment", SimulationOptions.DEFAULTS.withErrorRate(0.1));
+
+        List<String> outcomes = outcomes(dependency, 10_000);
+
+        assertEquals(0.1, dependency.failures(SimulatedFailureException.Kind.ERROR) / 10_000.0, 0.015);
+        assertEquals(10_000, dependency.succeeded() + dependency.failures(SimulatedFailureException.Kind.ERROR));
+        assertEquals(10_000, outcomes.size());
+    }
+
+    @Test
+    void testCallsSlowerThanTheTimeoutFailAfterTheTimeout() {
+        SimulatedSeatReservationService seats = new SimulatedSeatReservationService(SimulationOptions.DEFAULTS
+            .withLatency(new LatencyModel.Fixed(Duration.ofSeconds(10)))
+            .withTimeout(Duration.ofMillis(20)));
+
+        long start = System.nanoTime();
+        SimulatedFailureException e = assertThrows(SimulatedFailureException.class, () -> seats.reserveSeat(1L, 1));
+        long elapsed = System.nanoTime() - start;
+
+        assertEquals(SimulatedFailureException.Kind.TIMEOUT, e.getKind());
+        assertTrue(elapsed >= 20_000_000L && elapsed < 2_000_000_000L);
+    }
+
+    @Test
+    void testRefusesCallsBeyondMaxConcurrency() throws InterruptedException {
+        SimulatedTicketPaymentService payments = new SimulatedTicketPaymentService(SimulationOptions.DEFAULTS
+            .withLatency(new LatencyModel.Fixed(Duration.ofMillis(300)))
+            .withMaxConcurrentCalls(1));
+        CountDownLatch started = new CountDownLatch(1);
+        Thread first = Thread.ofVirtual().start(() -> {
+            started.countDown();
+            payments.makePayment(1L, 25);
+        });
+        started.await();
+        Thread.sleep(50);
+
+        SimulatedFailureException e = assertThrows(SimulatedFailureException.class, () -> payments.makePayment(2L, 25));
+        first.join();
+
+        assertEquals(SimulatedFailureException.Kind.OVERLOADED, e.getKind());
+        assertEquals(1, payments.dependency().succeeded());
+    }
+
+    @Test
+    void testTokenBucketAllowsBurstThenRate() {
+        AtomicLong now = new AtomicLong();
+        SimulatedDependency dependency = new SimulatedDependency("Payment",
+            SimulationOptions.DEFAULTS.withRateLimit(10, 3), now::get);
+
+        for (int i = 0; i < 3; i++) {
+            dependency.call();
+        }
+        SimulatedFailureException e = assertThrows(SimulatedFailureException.class, dependency::call);
+        assertEquals(SimulatedFailureException.Kind.RATE_LIMITED, e.getKind());
+
+        now.addAndGet(100_000_000L);
+        dependency.call();
+        assertThrows(SimulatedFailureException.class, dependency::call);
+        assertEquals(4, dependency.succeeded());
+        assertEquals(2, dependency.failures(SimulatedFailureException.Kind.RATE_LIMITED));
+    }
+
+    @Test
+    void testLatencyModels() {
+        SplittableRandom random = new SplittableRandom(5);
+        LatencyModel logNormal = new LatencyModel.LogNormal(Duration.ofMillis(2), 0.5);
+        LatencyModel bimodal = new LatencyModel.Bimodal(LatencyModel.NONE, new LatencyModel.Fixed(Duration.ofMillis(50)), 0.05);
+        long[] samples = new long[20_001];
+        int slow = 0;
+
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = logNormal.sampleNanos(random);
+            slow += bimodal.sampleNanos(random) > 0 ? 1 : 0;
+        }
+        java.util.Arrays.sort(samples);
+
+        assertEquals(2_000_000, samples[samples.length / 2], 100_000);
+        assertTrue(samples[samples.length * 99 / 100] > 5_000_000L, "log-normal has a long tail");
+        assertEquals(0.05, slow / (double) samples.length, 0.01);
+        assertEquals(new LatencyModel.Fixed(Duration.ofMillis(3)), LatencyModel.parse("fixed:3"));
+        assertEquals(new LatencyModel.LogNormal(Duration.ofMillis(2), 0.5), LatencyModel.parse("lognormal:2:0.5"));
+        assertInstanceOf(LatencyModel.Bimodal.class, LatencyModel.parse("bimodal:1:40:0.01"));
+        assertThrows(IllegalArgumentException.class, () -> LatencyModel.parse("gamma:1"));
+        assertThrows(IllegalArgumentException.class, () -> LatencyModel.parse("lognormal:fast:1"));
+    }
+
+    private static List<String> outcomes(SimulatedDependency dependency, int calls) {
+        List<String> outcomes = new ArrayList<>();
+        for (int i = 0; i < calls; i++) {
+            try {
+                dependency.call();
+                outcomes.add("ok");
+            } catch (SimulatedFailureException e) {
+                outcomes.add(e.getKind().name());
+            }
+        }
+        return outcomes;
+    }
+}
@@ -5,8 +5,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
 import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
 import uk.gov.dwp.uc.pairtest.exception.InvalidPurchaseException;
+import uk.gov.dwp.uc.pairtest.exception.TicketPurchaseException;
 
 import java.util.Map;
 import java.util.stream.Stream;
@@ -62,7 +65,7 @@ class TicketValidatorImplTest {
 
     @Test
     void testNullTicketRequestsFails() {
-        assertThrows(InvalidPurchaseException.class, () -> validator.validate(1L, null));
+        assertThrows(InvalidPurchaseException.class, () -> validator.validate(1L, (Map<TicketTypeRequest.Type, Integer>) null));
     }
 
     @Test
@@ -117,4 +120,86 @@ class TicketValidatorImplTest {
         
         assertDoesNotThrow(() -> validator.validate(1L, ticketCounts));
     }
-}
\ No newline at end of file
+
+    @ParameterizedTest
+    @MethodSource("validTicketRequests")
+    void testValidTicketCountsPass(Map<TicketTypeRequest.Type, Integer> ticketCounts) {
+        assertDoesNotThrow(() -> validator.validate(1L, TicketCounts.from(ticketCounts)));
+    }
+
+    @Test
+    void testInvalidTicketCountsFail() {
+        assertThrows(InvalidPurchaseException.class, () -> validator.validate(0L, new TicketCounts(1, 0, 0)));
+        assertThrows(InvalidPurchaseException.class, () -> validator.validate(1L, TicketCounts.EMPTY));
+        assertThrows(InvalidPurchaseException.class, () -> validator.validate(1L, (TicketCounts) null));
+        assertThrows(InvalidPurchaseException.class, () -> validator.validate(1L, new TicketCounts(26, 0, 0)));
+        assertThrows(InvalidPurchaseException.class, () -> validator.validate(1L, new TicketCounts(0, 1, 0)));
+        assertThrows(InvalidPurchaseException.class, () -> validator.validate(1L, new TicketCounts(1, 0, 2)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("rejectedTicketCounts")
+    void testCheckReturnsReasonWithoutThrowing(Long accountId, TicketCounts ticketCounts, RejectionReason expected) {
+        assertEquals(expected, validator.check(accountId, ticketCounts));
+    }
+
+    static Stream<Arguments> rejectedTicketCounts() {
+        return Stream.of(
+            Arguments.of(null, new TicketCounts(1, 0, 0), RejectionReason.NULL_ACCOUNT_ID),
+            Arguments.of(-1L, new TicketCounts(1, 0, 0), RejectionReason.INVALID_ACCOUNT_ID),
+            Arguments.of(1L, TicketCounts.EMPTY, RejectionReason.NO_TICKETS),
+            Arguments.of(1L, new TicketCounts(-1, 0, 0), RejectionReason.INVALID_TICKET_QUANTITY),
+            Arguments.of(1L, new TicketCounts(20, 6, 0), RejectionReason.TOO_MANY_TICKETS),
+            Arguments.of(1L, new TicketCounts(0, 2, 0), RejectionReason.UNACCOMPANIED_MINOR),
+            Arguments.of(1L, new TicketCounts(1, 0, 2), RejectionReason.TOO_MANY_INFANTS)
+        );
+    }
+
+    @Test
+    void testCheckReturnsNullForValidOrder() {
+        assertNull(validator.check(1L, new TicketCounts(2, 1, 1)));
+    }
+
+    @Test
+    void testThrownExceptionCarriesReasonAndDetail() {
+        TicketPurchaseException e = assertThrows(TicketPurchaseException.class,
+            () -> validator.validate(1L, new TicketCounts(1, 0, 2)));
+
+        assertEquals(RejectionReason.TOO_MANY_INFANTS, e.getReason());
+        assertEquals("Cannot have more infants (2) than adults (1) - infants sit on adult laps", e.getMessage());
+    }
+
+    // Validators written as lambdas still get an exception-free check via the default method
+    @Test
+    void testDefaultCheckTranslatesExceptions() {
+        TicketValidator lambda = (accountId, ticketCounts) -> {
+            throw new TicketPurchaseException(RejectionReason.SOLD_OUT);
+        };
+
+        assertEquals(RejectionReason.SOLD_OUT, lambda.check(1L, new TicketCounts(1, 0, 0)));
+    }
+
+    @Test
+    void testConfigurableTicketLimit() {
+        TicketValidatorImpl venueValidator = new TicketValidatorImpl(10);
+
+        assertEquals(10, venueValidator.getMaxTickets());
+        assertNull(venueValidator.check(1L, new TicketCounts(10, 0, 0)));
+        assertEquals(RejectionReason.TOO_MANY_TICKETS, venueValidator.check(1L, new TicketCounts(11, 0, 0)));
+        assertThrows(IllegalArgumentException.class, () -> new TicketValidatorImpl(0));
+    }
+
+    @Test
+    void testVenueRulesRunAfterStandardRules() {
+        TicketValidatorImpl restricted = new TicketValidatorImpl(25,
+            new ValidationRule.AdultsOnly(), new ValidationRule.MaxTickets(6));
+
+        assertEquals(6, restricted.getMaxTickets());
+        assertNull(restricted.check(1L, new TicketCounts(6, 0, 0)));
+        assertEquals(RejectionReason.AGE_RESTRICTED, restricted.check(1L, new TicketCounts(2, 1, 0)));
+        assertEquals(RejectionReason.UNACCOMPANIED_MINOR, restricted.check(1L, new TicketCounts(0, 1, 0)));
+        TicketPurchaseException e = assertThrows(TicketPurchaseException.class,
+            () -> restricted.validate(1L, new TicketCounts(7, 0, 0)));
+        assertEquals("Cannot purchase more than 6 tickets at once. Requested: 7", e.getMessage());
+    }
+}
@@ -0,0 +1,134 @@
+package uk.gov.dwp.uc.pairtest.validation;
+
+import org.junit.jupiter.api.Test;
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
+import uk.gov.dwp.uc.pairtest.ledger.AccountLedger;
+import uk.gov.dwp.uc.pairtest.ledger.AccountLimits;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ValidationPipelineTest {
+
+    private final ValidationPipeline pipeline = new TicketValidatorImpl().pipeline();
+
+    @Test
+    void testCompileFoldsDuplicateRulesAndKeepsLowestCap() {
+        ValidationPipeline compiled = ValidationPipeline.compile(
+            new ValidationRule.AccountId(),
+            new ValidationRule.MaxTickets(25),
+            new ValidationRule.AccountId(),
+            new ValidationRule.MaxTickets(10)
+        );
+
+        assertEquals(List.of(new ValidationRule.AccountId(), new ValidationRule.MaxTickets(10)), compiled.rules());
+        assertEquals(10, compiled.maxTickets());
+        assertEquals(Integer.MAX_VALUE, ValidationPipeline.compile(new ValidationRule.AccountId()).maxTickets());
+        assertThrows(IllegalArgumentException.class, () -> ValidationPipeline.compile((ValidationRule) null));
+        assertThrows(IllegalArgumentException.class, () -> new ValidationRule.MaxTickets(0));
+    }
+
+    @Test
+    void testNullCountsMeanNoTicketRequests() {
+        assertEquals(RejectionReason.NO_TICKETS, pipeline.check(1L, null));
+        assertEquals(RejectionReason.INVALID_TICKET_QUANTITY, pipeline.check(1L, TicketCounts.EMPTY));
+        assertEquals(RejectionReason.NULL_ACCOUNT_ID, pipeline.check(null, null));
+    }
+
+    @Test
+    void testReorderPutsMostRejectingRuleFirst() {
+        for (int i = 0; i < 5; i++) {
+            pipeline.check(1L, new TicketCounts(1, 0, 2));
+        }
+        pipeline.check(-1L, new TicketCounts(1, 0, 0));
+
+        pipeline.reorder();
+
+        assertEquals(new ValidationRule.InfantsPerAdult(), pipeline.evaluationOrder().get(0));
+        assertEquals(new ValidationRule.AccountId(), pipeline.evaluationOrder().get(1));
+    }
+
+    // An order failing several rules reports the earliest declared one whatever the evaluation order
+    @Test
+    void testReorderingNeverChangesReportedReason() {
+        for (int i = 0; i < 5; i++) {
+            pipeline.check(1L, new TicketCounts(1, 0, 2));
+        }
+        pipeline.reorder();
+
+        assertEquals(RejectionReason.INVALID_ACCOUNT_ID, pipeline.check(0L, new TicketCounts(1, 0, 2)));
+        assertEquals(RejectionReason.TOO_MANY_TICKETS, pipeline.check(1L, new TicketCounts(10, 0, 20)));
+        assertNull(pipeline.check(1L, new TicketCounts(2, 1, 1)));
+    }
+
+    @Test
+    void testProbeAnswersLikeCheckWithoutRecordingStatistics() {
+        List<ValidationRule> order = pipeline.evaluationOrder();
+
+        assertEquals(RejectionReason.INVALID_ACCOUNT_ID, pipeline.probe(0L, new TicketCounts(1, 0, 2)));
+        assertEquals(RejectionReason.TOO_MANY_INFANTS, pipeline.probe(1L, new TicketCounts(1, 0, 2)));
+        assertEquals(RejectionReason.NO_TICKETS, pipeline.probe(1L, null));
+        assertNull(pipeline.probe(1L, new TicketCounts(2, 1, 1)));
+
+        pipeline.reorder();
+        assertEquals(order, pipeline.evaluationOrder());
+        assertTrue(pipeline.statistics().stream().allMatch(stats -> stats.rejections() == 0 && stats.rejectionRate() == 0.0));
+    }
+
+    @Test
+    void testStatisticsReportRejectionsPerRule() {
+        pipeline.check(1L, new TicketCounts(2, 0, 0));
+        pipeline.check(1L, new TicketCounts(0, 1, 0));
+        pipeline.check(1L, new TicketCounts(0, 2, 0));
+        pipeline.check(null, new TicketCounts(1, 0, 0));
+
+        List<ValidationPipeline.RuleStatistics> statistics = pipeline.statistics();
+
+        ValidationPipeline.RuleStatistics supervision = statistics.stream()
+            .filter(stats -> stats.rule() instanceof ValidationRule.AdultSupervision)
+            .findFirst().orElseThrow();
+        assertEquals(2, supervision.rejections());
+        assertEquals(0.5, supervision.rejectionRate());
+        assertEquals(1, statistics.get(0).rejections());
+        assertEquals(0, statistics.get(3).rejections());
+    }
+
+    @Test
+    void testAccountLimitsRejectOrdersOverTheLedgerLimits() {
+        AccountLedger ledger = new AccountLedger(AccountLimits.daily(6, 1000));
+        ValidationPipeline limited = new TicketValidatorImpl(25, new ValidationRule.AccountLimits(ledger)).pipeline();
+        ledger.record(1L, 5, 125);
+
+        assertEquals(RejectionReason.ACCOUNT_LIMIT_REACHED, limited.check(1L, new TicketCounts(2, 0, 0)));
+        assertNull(limited.check(1L, new TicketCounts(1, 0, 0)));
+        assertNull(limited.check(2L, new TicketCounts(6, 0, 0)));
+        assertEquals(RejectionReason.INVALID_ACCOUNT_ID, limited.check(-1L, new TicketCounts(7, 0, 0)));
+        assertFalse(limited.isStateless());
+        assertTrue(ValidationPipeline.compile(new ValidationRule.AccountId(), new ValidationRule.AdultsOnly()).isStateless());
+        assertThrows(IllegalArgumentException.class, () -> new ValidationRule.AccountLimits(null));
+    }
+
+    @Test
+    void testAccountLimitsStayBehindCheapRulesHoweverOftenTheyReject() {
+        AccountLedger ledger = new AccountLedger(AccountLimits.daily(2, 1000));
+        ValidationPipeline limited = new TicketValidatorImpl(25, new ValidationRule.AccountLimits(ledger)).pipeline();
+        ledger.record(1L, 2, 50);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(RejectionReason.ACCOUNT_LIMIT_REACHED, limited.check(1L, new TicketCounts(1, 0, 0)));
+        }
+        limited.check(1L, new TicketCounts(1, 0, 2));
+
+        limited.reorder();
+
+        List<ValidationRule> order = limited.evaluationOrder();
+        assertEquals(new ValidationRule.InfantsPerAdult(), order.get(0));
+        assertInstanceOf(ValidationRule.AccountLimits.class, order.get(order.size() - 1));
+    }
+}
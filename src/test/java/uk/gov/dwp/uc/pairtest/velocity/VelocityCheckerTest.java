@@ -0,0 +1,122 @@
+package uk.gov.dwp.uc.pairtest.velocity;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VelocityCheckerTest {
+
+    private final AtomicLong clock = new AtomicLong(123_456_789L);
+
+    @Test
+    void testLimitsPurchasesInAnySecond() {
+        VelocityChecker checker = checker(new VelocityLimits(3, 100, 100, 1000), 1024);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(checker.tryAcquire(1L, 1));
+        }
+        assertFalse(checker.tryAcquire(1L, 1));
+        assertTrue(checker.tryAcquire(2L, 1));
+
+        advance(Duration.ofMillis(750));
+        assertFalse(checker.tryAcquire(1L, 1));
+        advance(Duration.ofMillis(250));
+
+        assertTrue(checker.tryAcquire(1L, 1));
+    }
+
+    @Test
+    void testLimitsTicketsInAnyMinute() {
+        VelocityChecker checker = checker(new VelocityLimits(100, 100, 100, 20), 1024);
+        assertTrue(checker.tryAcquire(1L, 10));
+        advance(Duration.ofSeconds(30));
+        assertTrue(checker.tryAcquire(1L, 10));
+        assertFalse(checker.tryAcquire(1L, 1));
+
+        advance(Duration.ofSeconds(30));
+        assertTrue(checker.tryAcquire(1L, 10));
+        assertFalse(checker.tryAcquire(1L, 1));
+        assertFalse(checker.tryAcquire(2L, 21));
+    }
+
+    @Test
+    void testRejectedAttemptsDoNotExtendTheThrottle() {
+        VelocityChecker checker = checker(new VelocityLimits(2, 100, 100, 1000), 1024);
+        checker.tryAcquire(1L, 1);
+        checker.tryAcquire(1L, 1);
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(checker.tryAcquire(1L, 1));
+        }
+
+        advance(Duration.ofSeconds(1));
+
+        assertTrue(checker.tryAcquire(1L, 1));
+        assertTrue(checker.tryAcquire(1L, 1));
+    }
+
+    @Test
+    void testRacingChecksNeverPassALimitTogether() {
+        VelocityChecker checker = checker(new VelocityLimits(50, 1000, 1000, 10_000), 1024);
+        AtomicInteger admitted = new AtomicInteger();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            CompletableFuture<?>[] callers = new CompletableFuture[8];
+            for (int caller = 0; caller < callers.length; caller++) {
+                callers[caller] = CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        if (checker.tryAcquire(7L, 1)) {
+                            admitted.incrementAndGet();
+                        }
+                    }
+                }, executor);
+            }
+            CompletableFuture.allOf(callers).join();
+        }
+
+        assertEquals(50, admitted.get());
+    }
+
+    @Test
+    void testMemoryIsBoundedByEvictingIdleAccountsFirst() {
+        VelocityChecker checker = checker(new VelocityLimits(1, 100, 100, 1000), 4);
+        for (long account = 1; account <= 3; account++) {
+            assertTrue(checker.tryAcquire(account, 1));
+        }
+        advance(Duration.ofMinutes(2));
+        assertTrue(checker.tryAcquire(4L, 1));
+        assertTrue(checker.tryAcquire(5L, 1));
+        assertEquals(4, checker.trackedAccounts());
+        assertEquals(1, checker.evictions());
+
+        // The evicted account was idle, so none of the active ones lost their counts
+        assertFalse(checker.tryAcquire(4L, 1));
+        assertFalse(checker.tryAcquire(5L, 1));
+        for (long account = 6; account <= 100; account++) {
+            checker.tryAcquire(account, 1);
+        }
+        assertEquals(4, checker.trackedAccounts());
+    }
+
+    @Test
+    void testRejectsInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new VelocityLimits(0, 1, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new VelocityLimits(1, 1, 1, VelocityLimits.MAX_LIMIT + 1));
+        VelocityLimits limits = new VelocityLimits(1, 1, 1, 1);
+        assertThrows(IllegalArgumentException.class, () -> new VelocityChecker(limits, 3, clock::get));
+        assertThrows(IllegalArgumentException.class, () -> new VelocityChecker(limits).tryAcquire(1L, -1));
+        assertThrows(IllegalArgumentException.class, () -> new VelocityChecker(limits).tryAcquire(0L, 1));
+    }
+
+    private VelocityChecker checker(VelocityLimits limits, int maxAccounts) {
+        return new VelocityChecker(limits, maxAccounts, clock::get);
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+}
@@ -0,0 +1,74 @@
+package uk.gov.dwp.uc.pairtest.velocity;
+
+import org.junit.jupiter.api.Test;
+import thirdparty.paymentgateway.TicketPaymentService;
+import thirdparty.seatbooking.SeatReservationService;
+import uk.gov.dwp.uc.pairtest.TicketServiceImpl;
+import uk.gov.dwp.uc.pairtest.calculation.CostCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.calculation.SeatCalculatorImpl;
+import uk.gov.dwp.uc.pairtest.domain.PurchaseResult;
+import uk.gov.dwp.uc.pairtest.domain.RejectionReason;
+import uk.gov.dwp.uc.pairtest.domain.TicketCounts;
+import uk.gov.dwp.uc.pairtest.domain.TicketTypeRequest;
+import uk.gov.dwp.uc.pairtest.exception.TicketPurchaseException;
+import uk.gov.dwp.uc.pairtest.quote.QuoteEngine;
+import uk.gov.dwp.uc.pairtest.validation.TicketValidatorImpl;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class VelocityCheckingValidatorTest {
+
+    private final VelocityChecker checker = new VelocityChecker(new VelocityLimits(2, 100, 100, 1000));
+    private final VelocityCheckingValidator validator = new VelocityCheckingValidator(new TicketValidatorImpl(), checker);
+
+    @Test
+    void testOnlyOrdersPassingValidationCount() {
+        assertEquals(RejectionReason.UNACCOMPANIED_MINOR, validator.check(1L, new TicketCounts(0, 1, 0)));
+        assertNull(validator.check(1L, new TicketCounts(1, 0, 0)));
+        assertNull(validator.check(1L, new TicketCounts(1, 0, 0)));
+
+        assertEquals(RejectionReason.TOO_MANY_PURCHASES, validator.check(1L, new TicketCounts(1, 0, 0)));
+        assertEquals(RejectionReason.TOO_MANY_INFANTS, validator.check(1L, new TicketCounts(1, 0, 2)));
+    }
+
+    @Test
+    void testCannotBePrecomputed() {
+        assertFalse(validator.isStateless());
+        assertThrows(IllegalArgumentException.class,
+            () -> new QuoteEngine(validator, new CostCalculatorImpl(), new SeatCalculatorImpl(), 25));
+        assertNull(validator.check(1L, new TicketCounts(1, 0, 0)));
+    }
+
+    @Test
+    void testThrowingFormsReportTheThrottle() {
+        validator.validate(1L, Map.of(TicketTypeRequest.Type.ADULT, 1));
+        validator.validate(1L, new TicketCounts(1, 0, 0));
+
+        TicketPurchaseException e = assertThrows(TicketPurchaseException.class,
+            () -> validator.validate(1L, Map.of(TicketTypeRequest.Type.ADULT, 1)));
+        assertEquals(RejectionReason.TOO_MANY_PURCHASES, e.getReason());
+        e = assertThrows(TicketPurchaseException.class, () -> validator.validate(1L, new TicketCounts(1, 0, 0)));
+        assertEquals(RejectionReason.TOO_MANY_PURCHASES, e.getReason());
+        e = assertThrows(TicketPurchaseException.class, () -> validator.validate(2L, new TicketCounts(26, 0, 0)));
+        assertEquals(RejectionReason.TOO_MANY_TICKETS, e.getReason());
+    }
+
+    @Test
+    void testThrottledAccountsNeverReachTheThirdParties() {
+        TicketPaymentService payments = mock(TicketPaymentService.class);
+        SeatReservationService seats = mock(SeatReservationService.class);
+        TicketServiceImpl service = new TicketServiceImpl(payments, seats, validator, new CostCalculatorImpl(), new SeatCalculatorImpl());
+        TicketTypeRequest adult = new TicketTypeRequest(TicketTypeRequest.Type.ADULT, 1);
+
+        for (int i = 0; i < 10; i++) {
+            service.tryPurchase(1L, adult);
+        }
+
+        assertEquals(PurchaseResult.Rejected.of(RejectionReason.TOO_MANY_PURCHASES), service.tryPurchase(1L, adult));
+        verify(seats, times(2)).reserveSeat(1L, 1);
+        verify(payments, times(2)).makePayment(1L, 25);
+    }
+}